@@ -0,0 +1,111 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.math4.benchmark.distribution;
+
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.math4.distribution.EnumeratedRealDistribution;
+import org.apache.commons.math4.distribution.ExponentialDistribution;
+import org.apache.commons.math4.distribution.GammaDistribution;
+import org.apache.commons.math4.distribution.NormalDistribution;
+import org.apache.commons.math4.distribution.RealDistribution;
+import org.apache.commons.math4.random.Well19937c;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmark comparing {@link RealDistribution#sample()} in a loop with the
+ * bulk {@link RealDistribution#sample(double[], int, int)} method.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@Fork(value = 1, jvmArgs = { "-server", "-Xms1G", "-Xmx1G" })
+@State(Scope.Thread)
+public class BulkSamplingBenchmark {
+
+    /** Distribution name. */
+    @Param({ "normal", "exponential", "gamma-0.5", "gamma-3", "enumerated-1000" })
+    private String name;
+
+    /** Number of values generated per operation. */
+    @Param({ "10000" })
+    private int size;
+
+    /** Distribution. */
+    private RealDistribution distribution;
+
+    /** Destination array. */
+    private double[] dest;
+
+    /** Build the distribution. */
+    @Setup
+    public void setUp() {
+        final Well19937c random = new Well19937c(0x3a5ee8e1b64f2c7dl);
+        if ("normal".equals(name)) {
+            distribution = new NormalDistribution(random, 1.0, 2.0);
+        } else if ("exponential".equals(name)) {
+            distribution = new ExponentialDistribution(random, 2.0);
+        } else if ("gamma-0.5".equals(name)) {
+            distribution = new GammaDistribution(random, 0.5, 2.0);
+        } else if ("gamma-3".equals(name)) {
+            distribution = new GammaDistribution(random, 3.0, 2.0);
+        } else {
+            final double[] values        = new double[1000];
+            final double[] probabilities = new double[values.length];
+            for (int i = 0; i < values.length; ++i) {
+                values[i]        = i;
+                probabilities[i] = 1.0 + (i % 7);
+            }
+            distribution = new EnumeratedRealDistribution(random, values, probabilities);
+        }
+        dest = new double[size];
+    }
+
+    /**
+     * Generate values one at a time.
+     * @return generated values
+     */
+    @Benchmark
+    public double[] single() {
+        for (int i = 0; i < dest.length; ++i) {
+            dest[i] = distribution.sample();
+        }
+        return dest;
+    }
+
+    /**
+     * Generate values in bulk.
+     * @return generated values
+     */
+    @Benchmark
+    public double[] bulk() {
+        distribution.sample(dest, 0, dest.length);
+        return dest;
+    }
+
+}
@@ -0,0 +1,65 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.math4.benchmark.linear;
+
+import org.apache.commons.math4.linear.BlockRealMatrix;
+import org.apache.commons.math4.random.RandomGenerator;
+
+/**
+ * Utility methods for linear algebra benchmarks.
+ */
+final class BenchmarkUtils {
+
+    /** Private constructor for utility class. */
+    private BenchmarkUtils() {
+    }
+
+    /**
+     * Create a matrix with entries uniformly distributed in [-1, 1].
+     * @param random random generator
+     * @param rows number of rows
+     * @param columns number of columns
+     * @return a new matrix
+     */
+    static BlockRealMatrix createRandomMatrix(final RandomGenerator random,
+                                              final int rows, final int columns) {
+        final BlockRealMatrix m = new BlockRealMatrix(rows, columns);
+        for (int i = 0; i < rows; ++i) {
+            for (int j = 0; j < columns; ++j) {
+                m.setEntry(i, j, 2 * random.nextDouble() - 1);
+            }
+        }
+        return m;
+    }
+
+    /**
+     * Create a symmetric positive definite matrix.
+     * @param random random generator
+     * @param size matrix dimension
+     * @return a new matrix A<sup>T</sup>A + n I
+     */
+    static BlockRealMatrix createSymmetricMatrix(final RandomGenerator random,
+                                                 final int size) {
+        final BlockRealMatrix a = createRandomMatrix(random, size, size);
+        final BlockRealMatrix m = a.transpose().multiply(a);
+        for (int i = 0; i < size; ++i) {
+            m.addToEntry(i, i, size);
+        }
+        return m;
+    }
+
+}
@@ -0,0 +1,162 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.math4.benchmark.linear;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.math4.linear.CholeskyDecomposition;
+import org.apache.commons.math4.linear.EigenDecomposition;
+import org.apache.commons.math4.linear.LUDecomposition;
+import org.apache.commons.math4.linear.QRDecomposition;
+import org.apache.commons.math4.linear.RealMatrix;
+import org.apache.commons.math4.random.RandomGenerator;
+import org.apache.commons.math4.random.Well19937c;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmark for {@link LUDecomposition}, {@link QRDecomposition},
+ * {@link CholeskyDecomposition} and {@link EigenDecomposition}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@Fork(value = 1, jvmArgs = { "-server", "-Xms1G", "-Xmx1G" })
+@State(Scope.Benchmark)
+public class DecompositionBenchmark {
+
+    /** Matrix dimension. */
+    @Param({ "50", "200", "500" })
+    private int size;
+
+    /** General square matrix. */
+    private RealMatrix general;
+
+    /** Symmetric matrix. */
+    private RealMatrix symmetric;
+
+    /** Pool for parallel decompositions. */
+    private ForkJoinPool pool;
+
+    /** Build random matrices. */
+    @Setup
+    public void setUp() {
+        final RandomGenerator random = new Well19937c(0x5a3e9f1dl);
+        general   = BenchmarkUtils.createRandomMatrix(random, size, size);
+        symmetric = BenchmarkUtils.createSymmetricMatrix(random, size);
+        pool      = new ForkJoinPool();
+    }
+
+    /** Release the pool threads. */
+    @TearDown
+    public void tearDown() {
+        pool.shutdown();
+    }
+
+    /**
+     * LU decomposition of a general matrix.
+     * @return decomposition
+     */
+    @Benchmark
+    public LUDecomposition lu() {
+        final LUDecomposition lu = new LUDecomposition(general);
+        // the factors are computed lazily, force at least one of them
+        lu.getU();
+        return lu;
+    }
+
+    /**
+     * Parallel LU decomposition of a general matrix.
+     * @return decomposition
+     */
+    @Benchmark
+    public LUDecomposition luParallel() {
+        final LUDecomposition lu = new LUDecomposition(general, 1.0e-11, pool);
+        lu.getU();
+        return lu;
+    }
+
+    /**
+     * QR decomposition of a general matrix.
+     * @return decomposition
+     */
+    @Benchmark
+    public QRDecomposition qr() {
+        return new QRDecomposition(general);
+    }
+
+    /**
+     * Parallel QR decomposition of a general matrix.
+     * @return decomposition
+     */
+    @Benchmark
+    public QRDecomposition qrParallel() {
+        return new QRDecomposition(general, 0.0, pool);
+    }
+
+    /**
+     * Cholesky decomposition of a symmetric positive definite matrix.
+     * @return decomposition
+     */
+    @Benchmark
+    public CholeskyDecomposition cholesky() {
+        return new CholeskyDecomposition(symmetric);
+    }
+
+    /**
+     * Parallel Cholesky decomposition of a symmetric positive definite matrix.
+     * @return decomposition
+     */
+    @Benchmark
+    public CholeskyDecomposition choleskyParallel() {
+        return new CholeskyDecomposition(symmetric,
+                                         CholeskyDecomposition.DEFAULT_RELATIVE_SYMMETRY_THRESHOLD,
+                                         CholeskyDecomposition.DEFAULT_ABSOLUTE_POSITIVITY_THRESHOLD,
+                                         pool);
+    }
+
+    /**
+     * Eigen decomposition of a symmetric matrix.
+     * @return decomposition
+     */
+    @Benchmark
+    public EigenDecomposition eigenSymmetric() {
+        return new EigenDecomposition(symmetric);
+    }
+
+    /**
+     * Eigen decomposition of a non-symmetric matrix.
+     * @return decomposition
+     */
+    @Benchmark
+    public EigenDecomposition eigenGeneral() {
+        return new EigenDecomposition(general);
+    }
+
+}
@@ -0,0 +1,96 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.math4.benchmark.linear;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.math4.linear.BlockRealMatrix;
+import org.apache.commons.math4.random.RandomGenerator;
+import org.apache.commons.math4.random.Well19937c;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmark for {@link BlockRealMatrix#multiply(BlockRealMatrix)} and
+ * {@link BlockRealMatrix#multiply(BlockRealMatrix, ForkJoinPool, long)}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@Fork(value = 1, jvmArgs = { "-server", "-Xms1G", "-Xmx1G" })
+@State(Scope.Benchmark)
+public class MatrixMultiplyBenchmark {
+
+    /** Matrices dimension. */
+    @Param({ "50", "200", "500" })
+    private int size;
+
+    /** Left operand. */
+    private BlockRealMatrix a;
+
+    /** Right operand. */
+    private BlockRealMatrix b;
+
+    /** Pool for parallel multiplication. */
+    private ForkJoinPool pool;
+
+    /** Build random operands. */
+    @Setup
+    public void setUp() {
+        final RandomGenerator random = new Well19937c(0x2d4a1b5cl);
+        a = BenchmarkUtils.createRandomMatrix(random, size, size);
+        b = BenchmarkUtils.createRandomMatrix(random, size, size);
+        pool = new ForkJoinPool();
+    }
+
+    /** Release the pool threads. */
+    @TearDown
+    public void tearDown() {
+        pool.shutdown();
+    }
+
+    /**
+     * Multiply the operands.
+     * @return product
+     */
+    @Benchmark
+    public BlockRealMatrix multiply() {
+        return a.multiply(b);
+    }
+
+    /**
+     * Multiply the operands in parallel, whatever their size.
+     * @return product
+     */
+    @Benchmark
+    public BlockRealMatrix multiplyParallel() {
+        return a.multiply(b, pool, 0l);
+    }
+
+}
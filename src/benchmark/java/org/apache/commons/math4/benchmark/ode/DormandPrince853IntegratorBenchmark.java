@@ -0,0 +1,110 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.math4.benchmark.ode;
+
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.math4.ode.FirstOrderDifferentialEquations;
+import org.apache.commons.math4.ode.nonstiff.DormandPrince853Integrator;
+import org.apache.commons.math4.util.FastMath;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmark for {@link DormandPrince853Integrator}.
+ * <p>
+ * The integrated problem is a Keplerian orbit with eccentricity 0.1,
+ * propagated over a few periods.
+ * </p>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@Fork(value = 1, jvmArgs = { "-server", "-Xms1G", "-Xmx1G" })
+@State(Scope.Benchmark)
+public class DormandPrince853IntegratorBenchmark {
+
+    /** Relative tolerance. */
+    @Param({ "1.0e-6", "1.0e-10" })
+    private double tolerance;
+
+    /** Number of orbits. */
+    @Param({ "1", "10" })
+    private int orbits;
+
+    /** Integrator. */
+    private DormandPrince853Integrator integrator;
+
+    /** Equations. */
+    private FirstOrderDifferentialEquations kepler;
+
+    /** Initial state. */
+    private double[] y0;
+
+    /** Final state. */
+    private double[] y;
+
+    /** Build the integrator and the problem. */
+    @Setup
+    public void setUp() {
+        integrator = new DormandPrince853Integrator(1.0e-8, 100.0, tolerance, tolerance);
+        kepler     = new Kepler();
+        y0         = new double[] { 0.9, 0.0, 0.0, FastMath.sqrt(1.1 / 0.9) };
+        y          = new double[4];
+    }
+
+    /**
+     * Integrate the orbit.
+     * @return final state
+     */
+    @Benchmark
+    public double[] integrate() {
+        integrator.integrate(kepler, 0.0, y0, 2 * FastMath.PI * orbits, y);
+        return y;
+    }
+
+    /** Two-body problem with unit gravitational parameter. */
+    private static class Kepler implements FirstOrderDifferentialEquations {
+
+        /** {@inheritDoc} */
+        public int getDimension() {
+            return 4;
+        }
+
+        /** {@inheritDoc} */
+        public void computeDerivatives(final double t, final double[] y, final double[] yDot) {
+            final double r2 = y[0] * y[0] + y[1] * y[1];
+            final double r3 = r2 * FastMath.sqrt(r2);
+            yDot[0] = y[2];
+            yDot[1] = y[3];
+            yDot[2] = -y[0] / r3;
+            yDot[3] = -y[1] / r3;
+        }
+
+    }
+
+}
@@ -0,0 +1,187 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.math4.benchmark.ode;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.math4.ode.ExpandableStatefulODE;
+import org.apache.commons.math4.ode.FirstOrderDifferentialEquations;
+import org.apache.commons.math4.ode.nonstiff.DormandPrince853Integrator;
+import org.apache.commons.math4.ode.sampling.StepHandler;
+import org.apache.commons.math4.ode.sampling.StepInterpolator;
+import org.apache.commons.math4.util.FastMath;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Allocation benchmark for the {@link
+ * org.apache.commons.math4.ode.nonstiff.EmbeddedRungeKuttaIntegrator#setReuseWorkArrays(boolean)
+ * work arrays reuse mode} of embedded Runge-Kutta integrators.
+ * <p>
+ * A Keplerian orbit is integrated repeatedly with a {@link DormandPrince853Integrator},
+ * with a step handler that reads the interpolated state at the middle of each step.
+ * Besides the time, the benchmark reports as auxiliary counters the number of bytes
+ * allocated by the integration thread and the number of steps performed. The steps
+ * themselves do not allocate any work array, so the bytes per step must be tiny (the
+ * only remaining temporary is the one created internally by {@link FastMath#pow(double,
+ * double) FastMath.pow} for stepsize control). In reuse mode, the bytes per operation
+ * that do not depend on the number of orbits reduce to a few small objects created
+ * at integration start (initial state copy, evaluations counter), whereas the default
+ * mode also allocates the stage arrays and the step interpolator at each call. The
+ * {@code -prof gc} JMH profiler gives the same information per operation.
+ * </p>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@Fork(value = 1, jvmArgs = { "-server", "-Xms1G", "-Xmx1G" })
+@State(Scope.Thread)
+public class EmbeddedRungeKuttaAllocationBenchmark {
+
+    /** Work arrays reuse mode. */
+    @Param({ "false", "true" })
+    private boolean reuse;
+
+    /** Number of orbits. */
+    @Param({ "1", "10" })
+    private int orbits;
+
+    /** Integrator. */
+    private DormandPrince853Integrator integrator;
+
+    /** Equations. */
+    private ExpandableStatefulODE equations;
+
+    /** Initial state. */
+    private double[] y0;
+
+    /** Step handler. */
+    private MidStepHandler handler;
+
+    /** Allocation counters. */
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    @State(Scope.Thread)
+    public static class Counters {
+
+        /** Bytes allocated by the integration thread. */
+        public long allocatedBytes;
+
+        /** Steps performed. */
+        public long steps;
+
+        /** Reset the counters. */
+        @Setup(Level.Iteration)
+        public void reset() {
+            allocatedBytes = 0;
+            steps          = 0;
+        }
+
+    }
+
+    /** Build the integrator and the problem. */
+    @Setup
+    public void setUp() {
+        integrator = new DormandPrince853Integrator(1.0e-8, 100.0, 1.0e-10, 1.0e-10);
+        integrator.setReuseWorkArrays(reuse);
+        handler    = new MidStepHandler();
+        integrator.addStepHandler(handler);
+        equations  = new ExpandableStatefulODE(new Kepler());
+        y0         = new double[] { 0.9, 0.0, 0.0, FastMath.sqrt(1.1 / 0.9) };
+    }
+
+    /**
+     * Integrate the orbit.
+     * @param counters allocation counters
+     * @return last interpolated abscissa
+     */
+    @Benchmark
+    public double integrate(final Counters counters) {
+        final long before = allocatedBytes();
+        equations.setTime(0.0);
+        equations.setPrimaryState(y0);
+        handler.steps = 0;
+        integrator.integrate(equations, 2 * FastMath.PI * orbits);
+        counters.allocatedBytes += allocatedBytes() - before;
+        counters.steps          += handler.steps;
+        return handler.x;
+    }
+
+    /** Get the number of bytes allocated so far by the current thread.
+     * @return number of bytes allocated by the current thread
+     */
+    private static long allocatedBytes() {
+        return ((com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean()).
+               getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    /** Step handler reading the interpolated state at mid-step. */
+    private static class MidStepHandler implements StepHandler {
+
+        /** Number of handled steps. */
+        private long steps;
+
+        /** Last interpolated abscissa. */
+        private double x;
+
+        /** {@inheritDoc} */
+        public void init(final double t0, final double[] y0, final double t) {
+        }
+
+        /** {@inheritDoc} */
+        public void handleStep(final StepInterpolator interpolator, final boolean isLast) {
+            interpolator.setInterpolatedTime(0.5 * (interpolator.getPreviousTime() +
+                                                    interpolator.getCurrentTime()));
+            x = interpolator.getInterpolatedState()[0];
+            ++steps;
+        }
+
+    }
+
+    /** Two-body problem with unit gravitational parameter. */
+    private static class Kepler implements FirstOrderDifferentialEquations {
+
+        /** {@inheritDoc} */
+        public int getDimension() {
+            return 4;
+        }
+
+        /** {@inheritDoc} */
+        public void computeDerivatives(final double t, final double[] y, final double[] yDot) {
+            final double r2 = y[0] * y[0] + y[1] * y[1];
+            final double r3 = r2 * FastMath.sqrt(r2);
+            yDot[0] = y[2];
+            yDot[1] = y[3];
+            yDot[2] = -y[0] / r3;
+            yDot[3] = -y[1] / r3;
+        }
+
+    }
+
+}
@@ -0,0 +1,128 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.math4.benchmark.stat;
+
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.math4.random.RandomGenerator;
+import org.apache.commons.math4.random.Well19937c;
+import org.apache.commons.math4.stat.descriptive.DescriptiveStatistics;
+import org.apache.commons.math4.stat.descriptive.SummaryStatistics;
+import org.apache.commons.math4.stat.descriptive.rank.Percentile;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmark for {@link DescriptiveStatistics}, {@link SummaryStatistics}
+ * and {@link Percentile}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@Fork(value = 1, jvmArgs = { "-server", "-Xms1G", "-Xmx1G" })
+@State(Scope.Benchmark)
+public class DescriptiveStatisticsBenchmark {
+
+    /** Sample size. */
+    @Param({ "1000", "100000" })
+    private int size;
+
+    /** Sample. */
+    private double[] data;
+
+    /** Statistics holding the sample. */
+    private DescriptiveStatistics loaded;
+
+    /** Build random sample. */
+    @Setup
+    public void setUp() {
+        final RandomGenerator random = new Well19937c(0x1b873593l);
+        data = new double[size];
+        for (int i = 0; i < size; ++i) {
+            data[i] = random.nextGaussian();
+        }
+        loaded = new DescriptiveStatistics(data);
+    }
+
+    /**
+     * Add all values to a new {@link DescriptiveStatistics}.
+     * @return statistics
+     */
+    @Benchmark
+    public DescriptiveStatistics descriptiveAddValue() {
+        final DescriptiveStatistics stats = new DescriptiveStatistics();
+        for (final double x : data) {
+            stats.addValue(x);
+        }
+        return stats;
+    }
+
+    /**
+     * Compute moments from a loaded {@link DescriptiveStatistics}.
+     * @return sum of the statistics, to prevent dead code elimination
+     */
+    @Benchmark
+    public double descriptiveMoments() {
+        return loaded.getMean() + loaded.getVariance() +
+               loaded.getSkewness() + loaded.getKurtosis();
+    }
+
+    /**
+     * Add all values to a new {@link SummaryStatistics}.
+     * @return statistics
+     */
+    @Benchmark
+    public SummaryStatistics summaryAddValue() {
+        final SummaryStatistics stats = new SummaryStatistics();
+        for (final double x : data) {
+            stats.addValue(x);
+        }
+        return stats;
+    }
+
+    /**
+     * Evaluate the median of the sample.
+     * @return median
+     */
+    @Benchmark
+    public double percentileMedian() {
+        return new Percentile().evaluate(data, 50.0);
+    }
+
+    /**
+     * Evaluate several percentiles on the same data, reusing the pivots cache.
+     * @return sum of the percentiles, to prevent dead code elimination
+     */
+    @Benchmark
+    public double percentileMultiple() {
+        final Percentile percentile = new Percentile();
+        percentile.setData(data);
+        return percentile.evaluate(50.0) + percentile.evaluate(90.0) +
+               percentile.evaluate(99.0) + percentile.evaluate(99.9);
+    }
+
+}
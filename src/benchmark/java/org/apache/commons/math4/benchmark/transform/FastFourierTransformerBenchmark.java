@@ -0,0 +1,133 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.math4.benchmark.transform;
+
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.math4.complex.Complex;
+import org.apache.commons.math4.random.RandomGenerator;
+import org.apache.commons.math4.random.Well19937c;
+import org.apache.commons.math4.transform.DftNormalization;
+import org.apache.commons.math4.transform.FastFourierTransformPlan;
+import org.apache.commons.math4.transform.FastFourierTransformer;
+import org.apache.commons.math4.transform.TransformType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmark for {@link FastFourierTransformer}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@Fork(value = 1, jvmArgs = { "-server", "-Xms1G", "-Xmx1G" })
+@State(Scope.Benchmark)
+public class FastFourierTransformerBenchmark {
+
+    /** Signal length (must be a power of two). */
+    @Param({ "256", "4096", "65536" })
+    private int length;
+
+    /** Transformer. */
+    private FastFourierTransformer transformer;
+
+    /** Plan for the signal length. */
+    private FastFourierTransformPlan plan;
+
+    /** Real signal. */
+    private double[] real;
+
+    /** Complex signal. */
+    private Complex[] complex;
+
+    /** Reference split real/imaginary signal. */
+    private double[][] dataRI;
+
+    /** Work array for in-place transforms. */
+    private double[][] work;
+
+    /** Build random signals. */
+    @Setup
+    public void setUp() {
+        final RandomGenerator random = new Well19937c(0x7f3c21a9l);
+        transformer = new FastFourierTransformer(DftNormalization.STANDARD);
+        plan    = transformer.createPlan(length);
+        real    = new double[length];
+        complex = new Complex[length];
+        dataRI  = new double[2][length];
+        work    = new double[2][length];
+        for (int i = 0; i < length; ++i) {
+            real[i]      = random.nextGaussian();
+            dataRI[0][i] = real[i];
+            dataRI[1][i] = random.nextGaussian();
+            complex[i]   = new Complex(dataRI[0][i], dataRI[1][i]);
+        }
+    }
+
+    /**
+     * Forward transform of a real signal.
+     * @return transformed signal
+     */
+    @Benchmark
+    public Complex[] transformReal() {
+        return transformer.transform(real, TransformType.FORWARD);
+    }
+
+    /**
+     * Forward transform of a complex signal.
+     * @return transformed signal
+     */
+    @Benchmark
+    public Complex[] transformComplex() {
+        return transformer.transform(complex, TransformType.FORWARD);
+    }
+
+    /**
+     * In-place forward transform of a split real/imaginary signal.
+     * @return transformed signal
+     */
+    @Benchmark
+    public double[][] transformInPlace() {
+        System.arraycopy(dataRI[0], 0, work[0], 0, length);
+        System.arraycopy(dataRI[1], 0, work[1], 0, length);
+        FastFourierTransformer.transformInPlace(work, DftNormalization.STANDARD, TransformType.FORWARD);
+        return work;
+    }
+
+    /**
+     * In-place forward transform of a split real/imaginary signal using a precomputed plan.
+     * @return transformed signal
+     */
+    @Benchmark
+    public double[][] transformPlan() {
+        System.arraycopy(dataRI[0], 0, work[0], 0, length);
+        System.arraycopy(dataRI[1], 0, work[1], 0, length);
+        plan.transform(work[0], work[1], TransformType.FORWARD);
+        return work;
+    }
+
+}
@@ -0,0 +1,159 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.math4.benchmark.util;
+
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.math4.random.RandomGenerator;
+import org.apache.commons.math4.random.Well19937c;
+import org.apache.commons.math4.util.FastMath;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmark comparing {@link FastMath} with {@link Math}.
+ * <p>
+ * Each benchmark method applies a function to a fixed array of arguments,
+ * so the reported times are per function call. The {@code function}
+ * parameter selects the function, the {@code implementation} parameter
+ * selects between {@link FastMath} and {@link Math}.
+ * </p>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@Fork(value = 1, jvmArgs = { "-server", "-Xms1G", "-Xmx1G" })
+@State(Scope.Benchmark)
+public class FastMathBenchmark {
+
+    /** Number of arguments. */
+    private static final int SIZE = 1024;
+
+    /** Function to benchmark. */
+    @Param({ "exp", "log", "pow", "sin", "cos", "tan", "atan", "atan2", "sqrt", "cbrt", "sinh", "expm1", "log1p" })
+    private String function;
+
+    /** Implementation to benchmark. */
+    @Param({ "FastMath", "Math" })
+    private String implementation;
+
+    /** First arguments. */
+    private double[] x;
+
+    /** Second arguments (for two-arguments functions). */
+    private double[] y;
+
+    /** Function under test. */
+    private Function f;
+
+    /** Build random arguments and select function. */
+    @Setup
+    public void setUp() {
+        final RandomGenerator random = new Well19937c(0x6a09e667l);
+        x = new double[SIZE];
+        y = new double[SIZE];
+        for (int i = 0; i < SIZE; ++i) {
+            // arguments in [0.01, 10), suitable for all functions
+            x[i] = 0.01 + 9.99 * random.nextDouble();
+            y[i] = 0.01 + 9.99 * random.nextDouble();
+        }
+        f = "FastMath".equals(implementation) ? fastMath(function) : math(function);
+    }
+
+    /**
+     * Apply the function to all arguments.
+     * @return sum of results, to prevent dead code elimination
+     */
+    @Benchmark
+    @OperationsPerInvocation(SIZE)
+    public double evaluate() {
+        final Function local = f;
+        double sum = 0;
+        for (int i = 0; i < SIZE; ++i) {
+            sum += local.value(x[i], y[i]);
+        }
+        return sum;
+    }
+
+    /** Function to benchmark. */
+    private interface Function {
+        /** Compute the function.
+         * @param a first argument
+         * @param b second argument (ignored for one-argument functions)
+         * @return function value
+         */
+        double value(double a, double b);
+    }
+
+    /** Select a {@link FastMath} function.
+     * @param name function name
+     * @return function
+     */
+    private static Function fastMath(final String name) {
+        switch (name) {
+            case "exp"   : return new Function() { public double value(double a, double b) { return FastMath.exp(a);      } };
+            case "log"   : return new Function() { public double value(double a, double b) { return FastMath.log(a);      } };
+            case "pow"   : return new Function() { public double value(double a, double b) { return FastMath.pow(a, b);   } };
+            case "sin"   : return new Function() { public double value(double a, double b) { return FastMath.sin(a);      } };
+            case "cos"   : return new Function() { public double value(double a, double b) { return FastMath.cos(a);      } };
+            case "tan"   : return new Function() { public double value(double a, double b) { return FastMath.tan(a);      } };
+            case "atan"  : return new Function() { public double value(double a, double b) { return FastMath.atan(a);     } };
+            case "atan2" : return new Function() { public double value(double a, double b) { return FastMath.atan2(a, b); } };
+            case "sqrt"  : return new Function() { public double value(double a, double b) { return FastMath.sqrt(a);     } };
+            case "cbrt"  : return new Function() { public double value(double a, double b) { return FastMath.cbrt(a);     } };
+            case "sinh"  : return new Function() { public double value(double a, double b) { return FastMath.sinh(a);     } };
+            case "expm1" : return new Function() { public double value(double a, double b) { return FastMath.expm1(a);    } };
+            case "log1p" : return new Function() { public double value(double a, double b) { return FastMath.log1p(a);    } };
+            default      : throw new IllegalArgumentException(name);
+        }
+    }
+
+    /** Select a {@link Math} function.
+     * @param name function name
+     * @return function
+     */
+    private static Function math(final String name) {
+        switch (name) {
+            case "exp"   : return new Function() { public double value(double a, double b) { return Math.exp(a);      } };
+            case "log"   : return new Function() { public double value(double a, double b) { return Math.log(a);      } };
+            case "pow"   : return new Function() { public double value(double a, double b) { return Math.pow(a, b);   } };
+            case "sin"   : return new Function() { public double value(double a, double b) { return Math.sin(a);      } };
+            case "cos"   : return new Function() { public double value(double a, double b) { return Math.cos(a);      } };
+            case "tan"   : return new Function() { public double value(double a, double b) { return Math.tan(a);      } };
+            case "atan"  : return new Function() { public double value(double a, double b) { return Math.atan(a);     } };
+            case "atan2" : return new Function() { public double value(double a, double b) { return Math.atan2(a, b); } };
+            case "sqrt"  : return new Function() { public double value(double a, double b) { return Math.sqrt(a);     } };
+            case "cbrt"  : return new Function() { public double value(double a, double b) { return Math.cbrt(a);     } };
+            case "sinh"  : return new Function() { public double value(double a, double b) { return Math.sinh(a);     } };
+            case "expm1" : return new Function() { public double value(double a, double b) { return Math.expm1(a);    } };
+            case "log1p" : return new Function() { public double value(double a, double b) { return Math.log1p(a);    } };
+            default      : throw new IllegalArgumentException(name);
+        }
+    }
+
+}
@@ -25,6 +25,7 @@ import org.apache.commons.math4.exception.OutOfRangeException;
 import org.apache.commons.math4.exception.util.LocalizedFormats;
 import org.apache.commons.math4.random.RandomGenerator;
 import org.apache.commons.math4.util.FastMath;
+import org.apache.commons.math4.util.MathUtils;
 
 /**
  * Base class for integer-valued discrete distributions.  Default
@@ -181,7 +182,7 @@ public abstract class AbstractIntegerDistribution implements IntegerDistribution
      * {@inheritDoc}
      *
      * The default implementation generates the sample by calling
-     * {@link #sample()} in a loop.
+     * {@link #sample(int[], int, int)}.
      */
     @Override
     public int[] sample(int sampleSize) {
@@ -190,12 +191,27 @@ public abstract class AbstractIntegerDistribution implements IntegerDistribution
                     LocalizedFormats.NUMBER_OF_SAMPLES, sampleSize);
         }
         int[] out = new int[sampleSize];
-        for (int i = 0; i < sampleSize; i++) {
-            out[i] = sample();
-        }
+        sample(out, 0, sampleSize);
         return out;
     }
 
+    /**
+     * {@inheritDoc}
+     *
+     * The default implementation generates the sample by calling
+     * {@link #sample()} in a loop.
+     *
+     * @since 4.0
+     */
+    @Override
+    public void sample(final int[] dest, final int off, final int len) {
+        MathUtils.checkNotNull(dest, LocalizedFormats.INPUT_ARRAY);
+        ZigguratSampler.checkRange(dest.length, off, len);
+        for (int i = off; i < off + len; i++) {
+            dest[i] = sample();
+        }
+    }
+
     /**
      * Computes the cumulative probability function and checks for {@code NaN}
      * values returned. Throws {@code MathInternalError} if the value is
@@ -26,6 +26,7 @@ import org.apache.commons.math4.exception.OutOfRangeException;
 import org.apache.commons.math4.exception.util.LocalizedFormats;
 import org.apache.commons.math4.random.RandomGenerator;
 import org.apache.commons.math4.util.FastMath;
+import org.apache.commons.math4.util.MathUtils;
 
 /**
  * Base class for probability distributions on the reals.
@@ -231,7 +232,7 @@ implements RealDistribution, Serializable {
      * {@inheritDoc}
      *
      * The default implementation generates the sample by calling
-     * {@link #sample()} in a loop.
+     * {@link #sample(double[], int, int)}.
      */
     @Override
     public double[] sample(int sampleSize) {
@@ -240,12 +241,27 @@ implements RealDistribution, Serializable {
                     sampleSize);
         }
         double[] out = new double[sampleSize];
-        for (int i = 0; i < sampleSize; i++) {
-            out[i] = sample();
-        }
+        sample(out, 0, sampleSize);
         return out;
     }
 
+    /**
+     * {@inheritDoc}
+     *
+     * The default implementation generates the sample by calling
+     * {@link #sample()} in a loop.
+     *
+     * @since 4.0
+     */
+    @Override
+    public void sample(final double[] dest, final int off, final int len) {
+        MathUtils.checkNotNull(dest, LocalizedFormats.INPUT_ARRAY);
+        ZigguratSampler.checkRange(dest.length, off, len);
+        for (int i = off; i < off + len; i++) {
+            dest[i] = sample();
+        }
+    }
+
     /**
      * {@inheritDoc}
      *
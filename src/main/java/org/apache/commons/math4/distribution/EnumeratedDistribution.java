@@ -31,7 +31,9 @@ import org.apache.commons.math4.exception.NullArgumentException;
 import org.apache.commons.math4.exception.util.LocalizedFormats;
 import org.apache.commons.math4.random.RandomGenerator;
 import org.apache.commons.math4.random.Well19937c;
+import org.apache.commons.math4.util.FastMath;
 import org.apache.commons.math4.util.MathArrays;
+import org.apache.commons.math4.util.MathUtils;
 import org.apache.commons.math4.util.Pair;
 
 /**
@@ -78,6 +80,16 @@ public class EnumeratedDistribution<T> implements Serializable {
      */
     private final double[] cumulativeProbabilities;
 
+    /**
+     * Probabilities of the alias table columns, built on first bulk sampling.
+     */
+    private transient double[] aliasProbabilities;
+
+    /**
+     * Aliases of the alias table columns, built on first bulk sampling.
+     */
+    private transient int[] aliases;
+
     /**
      * Create an enumerated distribution using the given probability mass function
      * enumeration.
@@ -242,7 +254,7 @@ public class EnumeratedDistribution<T> implements Serializable {
         final Object[] out = new Object[sampleSize];
 
         for (int i = 0; i < sampleSize; i++) {
-            out[i] = sample();
+            out[i] = singletons.get(sampleIndex());
         }
 
         return out;
@@ -280,12 +292,107 @@ public class EnumeratedDistribution<T> implements Serializable {
             out = array;
         }
 
-        for (int i = 0; i < sampleSize; i++) {
-            out[i] = sample();
-        }
+        sample(out, 0, sampleSize);
 
         return out;
 
     }
 
+    /**
+     * Generate random values sampled from this distribution into an array.
+     * <p>
+     * This method uses Walker's alias method, with the table construction
+     * from Michael D. Vose, <i>A linear algorithm for generating random numbers
+     * with a given distribution</i>, IEEE Transactions on Software Engineering,
+     * 17 (9), 1991. Each value costs one uniform deviate and no search, whatever
+     * the number of singletons. The table is built at first call. The values
+     * generated therefore differ from the ones that the same number of calls to
+     * {@link #sample()} would return.
+     * </p>
+     *
+     * @param dest array where to store the random values
+     * @param off index in {@code dest} of the first value to store
+     * @param len number of random values to generate
+     * @throws NullArgumentException if {@code dest} is null
+     * @throws NotPositiveException if {@code off} or {@code len} is negative
+     * @throws org.apache.commons.math4.exception.NumberIsTooLargeException
+     * if {@code off + len} is larger than {@code dest.length}
+     * @since 4.0
+     */
+    public void sample(final T[] dest, final int off, final int len) {
+        MathUtils.checkNotNull(dest, LocalizedFormats.INPUT_ARRAY);
+        ZigguratSampler.checkRange(dest.length, off, len);
+        for (int i = off; i < off + len; i++) {
+            dest[i] = singletons.get(sampleIndex());
+        }
+    }
+
+    /**
+     * Generate the index of a random singleton, using the alias table.
+     *
+     * @return index of a random singleton
+     */
+    int sampleIndex() {
+        if (aliases == null) {
+            buildAliasTable();
+        }
+        final int n = aliases.length;
+        final double u = random.nextDouble() * n;
+        final int column = FastMath.min((int) u, n - 1);
+        return (u - column < aliasProbabilities[column]) ? column : aliases[column];
+    }
+
+    /**
+     * Build the alias table.
+     */
+    private void buildAliasTable() {
+
+        final int n = probabilities.length;
+        final double[] scaled = new double[n];
+        final int[] small = new int[n];
+        final int[] large = new int[n];
+        int nSmall = 0;
+        int nLarge = 0;
+        for (int i = 0; i < n; i++) {
+            scaled[i] = probabilities[i] * n;
+            if (scaled[i] < 1) {
+                small[nSmall++] = i;
+            } else {
+                large[nLarge++] = i;
+            }
+        }
+
+        final double[] prob  = new double[n];
+        final int[]    alias = new int[n];
+        while (nSmall > 0 && nLarge > 0) {
+            // the small column is completed by the large one
+            final int s = small[--nSmall];
+            final int l = large[--nLarge];
+            prob[s]  = scaled[s];
+            alias[s] = l;
+            scaled[l] = (scaled[l] + scaled[s]) - 1;
+            if (scaled[l] < 1) {
+                small[nSmall++] = l;
+            } else {
+                large[nLarge++] = l;
+            }
+        }
+
+        // remaining columns are full, up to rounding errors
+        while (nLarge > 0) {
+            final int l = large[--nLarge];
+            prob[l]  = 1;
+            alias[l] = l;
+        }
+        while (nSmall > 0) {
+            final int s = small[--nSmall];
+            prob[s]  = 1;
+            alias[s] = s;
+        }
+
+        aliasProbabilities = prob;
+        aliases            = alias;
+
+    }
+
 }
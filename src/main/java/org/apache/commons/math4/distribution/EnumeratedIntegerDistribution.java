@@ -27,8 +27,10 @@ import org.apache.commons.math4.exception.MathArithmeticException;
 import org.apache.commons.math4.exception.NotANumberException;
 import org.apache.commons.math4.exception.NotFiniteNumberException;
 import org.apache.commons.math4.exception.NotPositiveException;
+import org.apache.commons.math4.exception.util.LocalizedFormats;
 import org.apache.commons.math4.random.RandomGenerator;
 import org.apache.commons.math4.random.Well19937c;
+import org.apache.commons.math4.util.MathUtils;
 import org.apache.commons.math4.util.Pair;
 
 /**
@@ -52,6 +54,11 @@ public class EnumeratedIntegerDistribution extends AbstractIntegerDistribution {
      */
     protected final EnumeratedDistribution<Integer> innerDistribution;
 
+    /**
+     * Values of the singletons, cached for bulk sampling.
+     */
+    private transient int[] singletonValues;
+
     /**
      * Create a discrete distribution using the given probability mass function
      * definition.
@@ -280,4 +287,29 @@ public class EnumeratedIntegerDistribution extends AbstractIntegerDistribution {
     public int sample() {
         return innerDistribution.sample();
     }
+
+    /**
+     * {@inheritDoc}
+     *
+     * The values are generated using Walker's alias method, see
+     * {@link EnumeratedDistribution#sample(Object[], int, int)}.
+     *
+     * @since 4.0
+     */
+    @Override
+    public void sample(final int[] dest, final int off, final int len) {
+        MathUtils.checkNotNull(dest, LocalizedFormats.INPUT_ARRAY);
+        ZigguratSampler.checkRange(dest.length, off, len);
+        if (singletonValues == null) {
+            final List<Pair<Integer, Double>> pmf = innerDistribution.getPmf();
+            final int[] values = new int[pmf.size()];
+            for (int i = 0; i < values.length; i++) {
+                values[i] = pmf.get(i).getKey();
+            }
+            singletonValues = values;
+        }
+        for (int i = off; i < off + len; i++) {
+            dest[i] = singletonValues[innerDistribution.sampleIndex()];
+        }
+    }
 }
@@ -28,8 +28,10 @@ import org.apache.commons.math4.exception.NotANumberException;
 import org.apache.commons.math4.exception.NotFiniteNumberException;
 import org.apache.commons.math4.exception.NotPositiveException;
 import org.apache.commons.math4.exception.OutOfRangeException;
+import org.apache.commons.math4.exception.util.LocalizedFormats;
 import org.apache.commons.math4.random.RandomGenerator;
 import org.apache.commons.math4.random.Well19937c;
+import org.apache.commons.math4.util.MathUtils;
 import org.apache.commons.math4.util.Pair;
 
 /**
@@ -53,6 +55,11 @@ public class EnumeratedRealDistribution extends AbstractRealDistribution {
      */
     protected final EnumeratedDistribution<Double> innerDistribution;
 
+    /**
+     * Values of the singletons, cached for bulk sampling.
+     */
+    private transient double[] singletonValues;
+
     /**
      * Create a discrete real-valued distribution using the given probability mass function
      * enumeration.
@@ -322,4 +329,29 @@ public class EnumeratedRealDistribution extends AbstractRealDistribution {
     public double sample() {
         return innerDistribution.sample();
     }
+
+    /**
+     * {@inheritDoc}
+     *
+     * The values are generated using Walker's alias method, see
+     * {@link EnumeratedDistribution#sample(Object[], int, int)}.
+     *
+     * @since 4.0
+     */
+    @Override
+    public void sample(final double[] dest, final int off, final int len) {
+        MathUtils.checkNotNull(dest, LocalizedFormats.INPUT_ARRAY);
+        ZigguratSampler.checkRange(dest.length, off, len);
+        if (singletonValues == null) {
+            final List<Pair<Double, Double>> pmf = innerDistribution.getPmf();
+            final double[] values = new double[pmf.size()];
+            for (int i = 0; i < values.length; i++) {
+                values[i] = pmf.get(i).getKey();
+            }
+            singletonValues = values;
+        }
+        for (int i = off; i < off + len; i++) {
+            dest[i] = singletonValues[innerDistribution.sampleIndex()];
+        }
+    }
 }
@@ -23,6 +23,7 @@ import org.apache.commons.math4.random.RandomGenerator;
 import org.apache.commons.math4.random.Well19937c;
 import org.apache.commons.math4.util.CombinatoricsUtils;
 import org.apache.commons.math4.util.FastMath;
+import org.apache.commons.math4.util.MathUtils;
 import org.apache.commons.math4.util.ResizableDoubleArray;
 
 /**
@@ -282,6 +283,22 @@ public class ExponentialDistribution extends AbstractRealDistribution {
         return mean * (a + umin * EXPONENTIAL_SA_QI[0]);
     }
 
+    /**
+     * {@inheritDoc}
+     *
+     * The values are generated using the ziggurat algorithm.
+     *
+     * @since 4.0
+     */
+    @Override
+    public void sample(final double[] dest, final int off, final int len) {
+        MathUtils.checkNotNull(dest, LocalizedFormats.INPUT_ARRAY);
+        ZigguratSampler.checkRange(dest.length, off, len);
+        for (int i = off; i < off + len; i++) {
+            dest[i] = mean * ZigguratSampler.nextExponential(random);
+        }
+    }
+
     /** {@inheritDoc} */
     @Override
     protected double getSolverAbsoluteAccuracy() {
@@ -22,6 +22,7 @@ import org.apache.commons.math4.random.RandomGenerator;
 import org.apache.commons.math4.random.Well19937c;
 import org.apache.commons.math4.special.Gamma;
 import org.apache.commons.math4.util.FastMath;
+import org.apache.commons.math4.util.MathUtils;
 
 /**
  * Implementation of the Gamma distribution.
@@ -483,4 +484,66 @@ public class GammaDistribution extends AbstractRealDistribution {
             }
         }
     }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>This implementation uses the Marsaglia and Tsang algorithm for all
+     * shapes, with normal deviates generated using the ziggurat algorithm.
+     * For 0 < shape < 1, a Gamma(shape + 1) value is multiplied by
+     * U<sup>1/shape</sup>, where U is uniform in (0, 1), as suggested
+     * in section 6 of the Marsaglia and Tsang paper (U<sup>1/shape</sup> is
+     * computed as exp(-E/shape) where E is a standard exponential value).</p>
+     *
+     * @since 4.0
+     */
+    @Override
+    public void sample(final double[] dest, final int off, final int len) {
+        MathUtils.checkNotNull(dest, LocalizedFormats.INPUT_ARRAY);
+        ZigguratSampler.checkRange(dest.length, off, len);
+        if (shape < 1) {
+            final double d = shape + 1 - 1.0 / 3.0;
+            final double c = 1 / (3 * FastMath.sqrt(d));
+            final double minusInvShape = -1 / shape;
+            for (int i = off; i < off + len; i++) {
+                dest[i] = scale * marsagliaTsang(d, c) *
+                          FastMath.exp(minusInvShape * ZigguratSampler.nextExponential(random));
+            }
+        } else {
+            final double d = shape - 1.0 / 3.0;
+            final double c = 1 / (3 * FastMath.sqrt(d));
+            for (int i = off; i < off + len; i++) {
+                dest[i] = scale * marsagliaTsang(d, c);
+            }
+        }
+    }
+
+    /**
+     * Generate a Gamma(d + 1/3, 1) value using Marsaglia and Tsang algorithm.
+     *
+     * @param d shape minus 1/3 (must be at least 2/3)
+     * @param c 1 / sqrt(9 d)
+     * @return random value sampled from the Gamma(d + 1/3, 1) distribution
+     */
+    private double marsagliaTsang(final double d, final double c) {
+        while (true) {
+            final double x = ZigguratSampler.nextNormal(random);
+            final double t = 1 + c * x;
+            if (t <= 0) {
+                continue;
+            }
+            final double v  = t * t * t;
+            final double x2 = x * x;
+            final double u  = random.nextDouble();
+
+            // Squeeze
+            if (u < 1 - 0.0331 * x2 * x2) {
+                return d * v;
+            }
+
+            if (FastMath.log(u) < 0.5 * x2 + d * (1 - v + FastMath.log(v))) {
+                return d * v;
+            }
+        }
+    }
 }
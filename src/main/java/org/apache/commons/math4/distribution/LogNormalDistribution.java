@@ -24,6 +24,7 @@ import org.apache.commons.math4.random.RandomGenerator;
 import org.apache.commons.math4.random.Well19937c;
 import org.apache.commons.math4.special.Erf;
 import org.apache.commons.math4.util.FastMath;
+import org.apache.commons.math4.util.MathUtils;
 
 /**
  * Implementation of the log-normal (gaussian) distribution.
@@ -349,4 +350,20 @@ public class LogNormalDistribution extends AbstractRealDistribution {
         final double n = random.nextGaussian();
         return FastMath.exp(scale + shape * n);
     }
+
+    /**
+     * {@inheritDoc}
+     *
+     * The underlying normal values are generated using the ziggurat algorithm.
+     *
+     * @since 4.0
+     */
+    @Override
+    public void sample(final double[] dest, final int off, final int len) {
+        MathUtils.checkNotNull(dest, LocalizedFormats.INPUT_ARRAY);
+        ZigguratSampler.checkRange(dest.length, off, len);
+        for (int i = off; i < off + len; i++) {
+            dest[i] = FastMath.exp(scale + shape * ZigguratSampler.nextNormal(random));
+        }
+    }
 }
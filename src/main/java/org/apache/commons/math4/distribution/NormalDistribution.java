@@ -25,6 +25,7 @@ import org.apache.commons.math4.random.RandomGenerator;
 import org.apache.commons.math4.random.Well19937c;
 import org.apache.commons.math4.special.Erf;
 import org.apache.commons.math4.util.FastMath;
+import org.apache.commons.math4.util.MathUtils;
 
 /**
  * Implementation of the normal (gaussian) distribution.
@@ -294,4 +295,20 @@ public class NormalDistribution extends AbstractRealDistribution {
     public double sample()  {
         return standardDeviation * random.nextGaussian() + mean;
     }
+
+    /**
+     * {@inheritDoc}
+     *
+     * The values are generated using the ziggurat algorithm.
+     *
+     * @since 4.0
+     */
+    @Override
+    public void sample(final double[] dest, final int off, final int len) {
+        MathUtils.checkNotNull(dest, LocalizedFormats.INPUT_ARRAY);
+        ZigguratSampler.checkRange(dest.length, off, len);
+        for (int i = off; i < off + len; i++) {
+            dest[i] = standardDeviation * ZigguratSampler.nextNormal(random) + mean;
+        }
+    }
 }
@@ -182,4 +182,25 @@ public interface RealDistribution {
      * if {@code sampleSize} is not positive
      */
     double[] sample(int sampleSize);
+
+    /**
+     * Generate random values sampled from this distribution into an array.
+     * <p>
+     * Implementations may use algorithms better suited to bulk generation
+     * than {@link #sample()}, so the values generated may differ from the
+     * ones that the same number of calls to {@link #sample()} would return.
+     * </p>
+     *
+     * @param dest array where to store the random values
+     * @param off index in {@code dest} of the first value to store
+     * @param len number of random values to generate
+     * @throws org.apache.commons.math4.exception.NullArgumentException
+     * if {@code dest} is null
+     * @throws org.apache.commons.math4.exception.NotPositiveException
+     * if {@code off} or {@code len} is negative
+     * @throws org.apache.commons.math4.exception.NumberIsTooLargeException
+     * if {@code off + len} is larger than {@code dest.length}
+     * @since 4.0
+     */
+    void sample(double[] dest, int off, int len);
 }
@@ -0,0 +1,252 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.math4.distribution;
+
+import org.apache.commons.math4.exception.NotPositiveException;
+import org.apache.commons.math4.exception.NumberIsTooLargeException;
+import org.apache.commons.math4.exception.util.LocalizedFormats;
+import org.apache.commons.math4.random.RandomGenerator;
+import org.apache.commons.math4.util.FastMath;
+
+/**
+ * Ziggurat sampling of standard normal and exponential deviates.
+ * <p>
+ * This is the algorithm from George Marsaglia and Wai Wan Tsang, <a
+ * href="http://www.jstatsoft.org/v05/i08">The Ziggurat Method for Generating
+ * Random Variables</a>, Journal of Statistical Software 5 (8), 2000, with
+ * 128 layers for the normal distribution and 256 layers for the exponential
+ * distribution. Each deviate is drawn from one 64 bits random integer: the
+ * lowest 8 bits select the layer and the 56 highest bits provide the abscissa,
+ * so layer selection and abscissa are not correlated. In the vast majority
+ * of cases, this costs one random integer, one multiplication and one
+ * comparison.
+ * </p>
+ * <p>
+ * This class also provides the range checks shared by the bulk sampling
+ * methods of the distributions.
+ * </p>
+ * @since 4.0
+ */
+final class ZigguratSampler {
+
+    /** Number of layers for the normal distribution. */
+    private static final int NORMAL_LAYERS = 128;
+
+    /** Rightmost layer boundary for the normal distribution. */
+    private static final double NORMAL_R = 3.442619855899;
+
+    /** Area of each layer for the normal distribution. */
+    private static final double NORMAL_V = 9.91256303526217e-3;
+
+    /** Number of layers for the exponential distribution. */
+    private static final int EXPONENTIAL_LAYERS = 256;
+
+    /** Rightmost layer boundary for the exponential distribution. */
+    private static final double EXPONENTIAL_R = 7.697117470131487;
+
+    /** Area of each layer for the exponential distribution. */
+    private static final double EXPONENTIAL_V = 3.949659822581572e-3;
+
+    /** Scale of the signed 56 bits integers. */
+    private static final double SIGNED_SCALE = 0x1.0p55;
+
+    /** Scale of the unsigned 56 bits integers. */
+    private static final double UNSIGNED_SCALE = 0x1.0p56;
+
+    /** Quick acceptance thresholds for the normal distribution. */
+    private static final long[] KN = new long[NORMAL_LAYERS];
+
+    /** Abscissa scales for the normal distribution. */
+    private static final double[] WN = new double[NORMAL_LAYERS];
+
+    /** Density at layers boundaries for the normal distribution. */
+    private static final double[] FN = new double[NORMAL_LAYERS];
+
+    /** Quick acceptance thresholds for the exponential distribution. */
+    private static final long[] KE = new long[EXPONENTIAL_LAYERS];
+
+    /** Abscissa scales for the exponential distribution. */
+    private static final double[] WE = new double[EXPONENTIAL_LAYERS];
+
+    /** Density at layers boundaries for the exponential distribution. */
+    private static final double[] FE = new double[EXPONENTIAL_LAYERS];
+
+    static {
+
+        // normal distribution tables
+        double dn = NORMAL_R;
+        double tn = dn;
+        final double qn = NORMAL_V / FastMath.exp(-0.5 * dn * dn);
+        KN[0] = (long) ((dn / qn) * SIGNED_SCALE);
+        KN[1] = 0;
+        WN[0] = qn / SIGNED_SCALE;
+        WN[NORMAL_LAYERS - 1] = dn / SIGNED_SCALE;
+        FN[0] = 1.0;
+        FN[NORMAL_LAYERS - 1] = FastMath.exp(-0.5 * dn * dn);
+        for (int i = NORMAL_LAYERS - 2; i >= 1; --i) {
+            dn = FastMath.sqrt(-2 * FastMath.log(NORMAL_V / dn + FastMath.exp(-0.5 * dn * dn)));
+            KN[i + 1] = (long) ((dn / tn) * SIGNED_SCALE);
+            tn = dn;
+            FN[i] = FastMath.exp(-0.5 * dn * dn);
+            WN[i] = dn / SIGNED_SCALE;
+        }
+
+        // exponential distribution tables
+        double de = EXPONENTIAL_R;
+        double te = de;
+        final double qe = EXPONENTIAL_V / FastMath.exp(-de);
+        KE[0] = (long) ((de / qe) * UNSIGNED_SCALE);
+        KE[1] = 0;
+        WE[0] = qe / UNSIGNED_SCALE;
+        WE[EXPONENTIAL_LAYERS - 1] = de / UNSIGNED_SCALE;
+        FE[0] = 1.0;
+        FE[EXPONENTIAL_LAYERS - 1] = FastMath.exp(-de);
+        for (int i = EXPONENTIAL_LAYERS - 2; i >= 1; --i) {
+            de = -FastMath.log(EXPONENTIAL_V / de + FastMath.exp(-de));
+            KE[i + 1] = (long) ((de / te) * UNSIGNED_SCALE);
+            te = de;
+            FE[i] = FastMath.exp(-de);
+            WE[i] = de / UNSIGNED_SCALE;
+        }
+
+    }
+
+    /** Private constructor for a utility class. */
+    private ZigguratSampler() {
+    }
+
+    /** Generate a standard normal deviate.
+     * @param random random generator to use
+     * @return a normal deviate with mean 0 and standard deviation 1
+     */
+    static double nextNormal(final RandomGenerator random) {
+        final long bits = random.nextLong();
+        final int  i    = (int) (bits & (NORMAL_LAYERS - 1));
+        final long j    = bits >> 8;
+        if (FastMath.abs(j) < KN[i]) {
+            // fast path, the point is inside the rectangular part of the layer
+            return j * WN[i];
+        }
+        return fixNormal(random, i, j);
+    }
+
+    /** Handle the slow path of normal deviates generation.
+     * @param random random generator to use
+     * @param layer initial layer
+     * @param abscissa initial abscissa
+     * @return a normal deviate with mean 0 and standard deviation 1
+     */
+    private static double fixNormal(final RandomGenerator random, final int layer, final long abscissa) {
+        int  i = layer;
+        long j = abscissa;
+        while (true) {
+            if (i == 0) {
+                // sample from the tail, beyond the rightmost boundary
+                double x;
+                double y;
+                do {
+                    x = -FastMath.log(1.0 - random.nextDouble()) / NORMAL_R;
+                    y = -FastMath.log(1.0 - random.nextDouble());
+                } while (y + y < x * x);
+                return (j > 0) ? NORMAL_R + x : -(NORMAL_R + x);
+            }
+
+            // sample from the wedge
+            final double x = j * WN[i];
+            if (FN[i] + random.nextDouble() * (FN[i - 1] - FN[i]) < FastMath.exp(-0.5 * x * x)) {
+                return x;
+            }
+
+            // rejected, start again
+            final long bits = random.nextLong();
+            i = (int) (bits & (NORMAL_LAYERS - 1));
+            j = bits >> 8;
+            if (FastMath.abs(j) < KN[i]) {
+                return j * WN[i];
+            }
+        }
+    }
+
+    /** Generate a standard exponential deviate.
+     * @param random random generator to use
+     * @return an exponential deviate with mean 1
+     */
+    static double nextExponential(final RandomGenerator random) {
+        final long bits = random.nextLong();
+        final int  i    = (int) (bits & (EXPONENTIAL_LAYERS - 1));
+        final long j    = bits >>> 8;
+        if (j < KE[i]) {
+            // fast path, the point is inside the rectangular part of the layer
+            return j * WE[i];
+        }
+        return fixExponential(random, i, j);
+    }
+
+    /** Handle the slow path of exponential deviates generation.
+     * @param random random generator to use
+     * @param layer initial layer
+     * @param abscissa initial abscissa
+     * @return an exponential deviate with mean 1
+     */
+    private static double fixExponential(final RandomGenerator random, final int layer, final long abscissa) {
+        int  i = layer;
+        long j = abscissa;
+        while (true) {
+            if (i == 0) {
+                // sample from the tail, which is a shifted exponential
+                return EXPONENTIAL_R - FastMath.log(1.0 - random.nextDouble());
+            }
+
+            // sample from the wedge
+            final double x = j * WE[i];
+            if (FE[i] + random.nextDouble() * (FE[i - 1] - FE[i]) < FastMath.exp(-x)) {
+                return x;
+            }
+
+            // rejected, start again
+            final long bits = random.nextLong();
+            i = (int) (bits & (EXPONENTIAL_LAYERS - 1));
+            j = bits >>> 8;
+            if (j < KE[i]) {
+                return j * WE[i];
+            }
+        }
+    }
+
+    /** Check the range of a bulk sampling request.
+     * @param destLength length of the destination array
+     * @param off offset of the first sample in the destination array
+     * @param len number of samples
+     * @exception NotPositiveException if {@code off} or {@code len} is negative
+     * @exception NumberIsTooLargeException if {@code off + len} is larger
+     * than the array length
+     */
+    static void checkRange(final int destLength, final int off, final int len)
+        throws NotPositiveException, NumberIsTooLargeException {
+        if (off < 0) {
+            throw new NotPositiveException(LocalizedFormats.START_POSITION, off);
+        }
+        if (len < 0) {
+            throw new NotPositiveException(LocalizedFormats.LENGTH, len);
+        }
+        if (((long) off) + len > destLength) {
+            throw new NumberIsTooLargeException(LocalizedFormats.SUBARRAY_ENDS_AFTER_ARRAY_END,
+                                                ((long) off) + len, destLength, true);
+        }
+    }
+
+}
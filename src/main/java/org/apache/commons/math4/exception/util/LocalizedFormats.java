@@ -358,6 +358,7 @@ public enum LocalizedFormats implements Localizable {
     VECTOR_LENGTH_MISMATCH("vector length mismatch: got {0} but expected {1}"),
     VECTOR_MUST_HAVE_AT_LEAST_ONE_ELEMENT("vector must have at least one element"),
     WEIGHT_AT_LEAST_ONE_NON_ZERO("weigth array must contain at least one non-zero value"),
+    WRONG_BINARY_FILE_SIZE("binary file size {0} is not a multiple of {1} bytes"),
     WRONG_BLOCK_LENGTH("wrong array shape (block length = {0}, expected {1})"),
     WRONG_NUMBER_OF_POINTS("{0} points are required, got only {1}"),
     NUMBER_OF_POINTS("number of points ({0})"), /* keep */
@@ -19,6 +19,8 @@ package org.apache.commons.math4.linear;
 
 import java.io.Serializable;
 import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 
 import org.apache.commons.math4.exception.DimensionMismatchException;
 import org.apache.commons.math4.exception.NoDataException;
@@ -71,6 +73,12 @@ import org.apache.commons.math4.util.MathUtils;
 public class BlockRealMatrix extends AbstractRealMatrix implements Serializable {
     /** Block size. */
     public static final int BLOCK_SIZE = 52;
+    /**
+     * Default minimum number of multiply-add operations for parallel
+     * multiplication ({@value}).
+     * @since 4.0
+     */
+    public static final long DEFAULT_PARALLEL_THRESHOLD = 1l << 21;
     /** Serializable version identifier */
     private static final long serialVersionUID = 4991895511313664478L;
     /** Blocks of matrix entries. */
@@ -538,57 +546,137 @@ public class BlockRealMatrix extends AbstractRealMatrix implements Serializable
         final BlockRealMatrix out = new BlockRealMatrix(rows, m.columns);
 
         // perform multiplication block-wise, to ensure good cache behavior
-        int blockIndex = 0;
-        for (int iBlock = 0; iBlock < out.blockRows; ++iBlock) {
+        for (int blockIndex = 0; blockIndex < out.blocks.length; ++blockIndex) {
+            multiplyBlock(m, out, blockIndex);
+        }
 
-            final int pStart = iBlock * BLOCK_SIZE;
-            final int pEnd = FastMath.min(pStart + BLOCK_SIZE, rows);
+        return out;
+    }
 
-            for (int jBlock = 0; jBlock < out.blockColumns; ++jBlock) {
-                final int jWidth = out.blockWidth(jBlock);
-                final int jWidth2 = jWidth  + jWidth;
-                final int jWidth3 = jWidth2 + jWidth;
-                final int jWidth4 = jWidth3 + jWidth;
+    /**
+     * Returns the result of postmultiplying this by {@code m}, using a
+     * fork-join pool to compute the output blocks in parallel.
+     * <p>
+     * This is equivalent to {@link #multiply(BlockRealMatrix, ForkJoinPool, long)
+     * multiply(m, pool, DEFAULT_PARALLEL_THRESHOLD)}.
+     * </p>
+     *
+     * @param m Matrix to postmultiply by.
+     * @param pool Pool in which the multiplication tasks are run.
+     * @return {@code this} * m.
+     * @throws DimensionMismatchException if the matrices are not compatible.
+     * @throws NullArgumentException if {@code pool} is {@code null}.
+     * @since 4.0
+     */
+    public BlockRealMatrix multiply(final BlockRealMatrix m, final ForkJoinPool pool)
+        throws DimensionMismatchException, NullArgumentException {
+        return multiply(m, pool, DEFAULT_PARALLEL_THRESHOLD);
+    }
 
-                // select current block
-                final double[] outBlock = out.blocks[blockIndex];
+    /**
+     * Returns the result of postmultiplying this by {@code m}, using a
+     * fork-join pool to compute the output blocks in parallel.
+     * <p>
+     * Each output block depends only on one block row of {@code this} and
+     * one block column of {@code m}, so output blocks are computed
+     * independently of each other, without any synchronization. The result
+     * is exactly the same as the one computed by {@link #multiply(BlockRealMatrix)},
+     * as the summation order within each block is unchanged.
+     * </p>
+     * <p>
+     * If the number of scalar multiply-add operations needed (i.e. the product
+     * of the three dimensions involved) is below {@code threshold}, or if the
+     * output holds a single block, the multiplication is performed sequentially
+     * in the calling thread, as splitting would cost more than it saves.
+     * </p>
+     *
+     * @param m Matrix to postmultiply by.
+     * @param pool Pool in which the multiplication tasks are run.
+     * @param threshold Minimum number of multiply-add operations for
+     * parallel multiplication.
+     * @return {@code this} * m.
+     * @throws DimensionMismatchException if the matrices are not compatible.
+     * @throws NullArgumentException if {@code pool} is {@code null}.
+     * @since 4.0
+     */
+    public BlockRealMatrix multiply(final BlockRealMatrix m, final ForkJoinPool pool,
+                                    final long threshold)
+        throws DimensionMismatchException, NullArgumentException {
+        MathUtils.checkNotNull(pool);
+
+        final long operations = ((long) rows) * columns * m.columns;
+        if (operations < threshold) {
+            return multiply(m);
+        }
 
-                // perform multiplication on current block
-                for (int kBlock = 0; kBlock < blockColumns; ++kBlock) {
-                    final int kWidth = blockWidth(kBlock);
-                    final double[] tBlock = blocks[iBlock * blockColumns + kBlock];
-                    final double[] mBlock = m.blocks[kBlock * m.blockColumns + jBlock];
-                    int k = 0;
-                    for (int p = pStart; p < pEnd; ++p) {
-                        final int lStart = (p - pStart) * kWidth;
-                        final int lEnd = lStart + kWidth;
-                        for (int nStart = 0; nStart < jWidth; ++nStart) {
-                            double sum = 0;
-                            int l = lStart;
-                            int n = nStart;
-                            while (l < lEnd - 3) {
-                                sum += tBlock[l] * mBlock[n] +
-                                       tBlock[l + 1] * mBlock[n + jWidth] +
-                                       tBlock[l + 2] * mBlock[n + jWidth2] +
-                                       tBlock[l + 3] * mBlock[n + jWidth3];
-                                l += 4;
-                                n += jWidth4;
-                            }
-                            while (l < lEnd) {
-                                sum += tBlock[l++] * mBlock[n];
-                                n += jWidth;
-                            }
-                            outBlock[k] += sum;
-                            ++k;
-                        }
+        // safety check
+        MatrixUtils.checkMultiplicationCompatible(this, m);
+
+        final BlockRealMatrix out = new BlockRealMatrix(rows, m.columns);
+        if (out.blocks.length == 1) {
+            multiplyBlock(m, out, 0);
+        } else {
+            pool.invoke(new MultiplyTask(this, m, out, 0, out.blocks.length));
+        }
+
+        return out;
+    }
+
+    /**
+     * Compute one block of the product of this by {@code m}.
+     *
+     * @param m Matrix to postmultiply by.
+     * @param out Output matrix.
+     * @param blockIndex Index of the block to compute in {@code out}.
+     */
+    private void multiplyBlock(final BlockRealMatrix m, final BlockRealMatrix out,
+                               final int blockIndex) {
+
+        final int iBlock = blockIndex / out.blockColumns;
+        final int jBlock = blockIndex - iBlock * out.blockColumns;
+
+        final int pStart = iBlock * BLOCK_SIZE;
+        final int pEnd = FastMath.min(pStart + BLOCK_SIZE, rows);
+
+        final int jWidth = out.blockWidth(jBlock);
+        final int jWidth2 = jWidth  + jWidth;
+        final int jWidth3 = jWidth2 + jWidth;
+        final int jWidth4 = jWidth3 + jWidth;
+
+        // select current block
+        final double[] outBlock = out.blocks[blockIndex];
+
+        // perform multiplication on current block
+        for (int kBlock = 0; kBlock < blockColumns; ++kBlock) {
+            final int kWidth = blockWidth(kBlock);
+            final double[] tBlock = blocks[iBlock * blockColumns + kBlock];
+            final double[] mBlock = m.blocks[kBlock * m.blockColumns + jBlock];
+            int k = 0;
+            for (int p = pStart; p < pEnd; ++p) {
+                final int lStart = (p - pStart) * kWidth;
+                final int lEnd = lStart + kWidth;
+                for (int nStart = 0; nStart < jWidth; ++nStart) {
+                    double sum = 0;
+                    int l = lStart;
+                    int n = nStart;
+                    while (l < lEnd - 3) {
+                        sum += tBlock[l] * mBlock[n] +
+                               tBlock[l + 1] * mBlock[n + jWidth] +
+                               tBlock[l + 2] * mBlock[n + jWidth2] +
+                               tBlock[l + 3] * mBlock[n + jWidth3];
+                        l += 4;
+                        n += jWidth4;
                     }
+                    while (l < lEnd) {
+                        sum += tBlock[l++] * mBlock[n];
+                        n += jWidth;
+                    }
+                    outBlock[k] += sum;
+                    ++k;
                 }
-                // go to next block
-                ++blockIndex;
             }
         }
 
-        return out;
     }
 
     /** {@inheritDoc} */
@@ -1578,4 +1666,56 @@ public class BlockRealMatrix extends AbstractRealMatrix implements Serializable
     private int blockWidth(final int blockColumn) {
         return (blockColumn == blockColumns - 1) ? columns - blockColumn * BLOCK_SIZE : BLOCK_SIZE;
     }
+
+    /** Fork-join task computing a range of output blocks of a product. */
+    private static class MultiplyTask extends RecursiveAction {
+
+        /** Serializable version identifier. */
+        private static final long serialVersionUID = 20161018L;
+
+        /** Left operand. */
+        private final BlockRealMatrix left;
+
+        /** Right operand. */
+        private final BlockRealMatrix right;
+
+        /** Output matrix. */
+        private final BlockRealMatrix out;
+
+        /** Index of the first output block to compute. */
+        private final int start;
+
+        /** Index after the last output block to compute. */
+        private final int end;
+
+        /** Simple constructor.
+         * @param left left operand
+         * @param right right operand
+         * @param out output matrix
+         * @param start index of the first output block to compute
+         * @param end index after the last output block to compute
+         */
+        MultiplyTask(final BlockRealMatrix left, final BlockRealMatrix right,
+                     final BlockRealMatrix out, final int start, final int end) {
+            this.left  = left;
+            this.right = right;
+            this.out   = out;
+            this.start = start;
+            this.end   = end;
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        protected void compute() {
+            if (end - start == 1) {
+                left.multiplyBlock(right, out, start);
+            } else {
+                final int middle = (start + end) >>> 1;
+                invokeAll(new MultiplyTask(left, right, out, start, middle),
+                          new MultiplyTask(left, right, out, middle, end));
+            }
+        }
+
+    }
+
 }
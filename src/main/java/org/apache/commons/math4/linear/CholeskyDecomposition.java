@@ -17,6 +17,8 @@
 
 package org.apache.commons.math4.linear;
 
+import java.util.concurrent.ForkJoinPool;
+
 import org.apache.commons.math4.exception.DimensionMismatchException;
 import org.apache.commons.math4.util.FastMath;
 
@@ -103,6 +105,34 @@ public class CholeskyDecomposition {
     public CholeskyDecomposition(final RealMatrix matrix,
                                      final double relativeSymmetryThreshold,
                                      final double absolutePositivityThreshold) {
+        this(matrix, relativeSymmetryThreshold, absolutePositivityThreshold, null);
+    }
+
+    /**
+     * Calculates the Cholesky decomposition of the given matrix, updating
+     * the trailing sub-matrix in parallel.
+     * <p>
+     * The result is exactly the same as the one computed by the sequential
+     * constructors, only the computation is spread over the threads of
+     * the pool for large matrices.
+     * </p>
+     * @param matrix the matrix to decompose
+     * @param relativeSymmetryThreshold threshold above which off-diagonal
+     * elements are considered too different and matrix not symmetric
+     * @param absolutePositivityThreshold threshold below which diagonal
+     * elements are considered null and matrix not positive definite
+     * @param pool pool in which the update tasks are run (if null,
+     * the decomposition is computed sequentially)
+     * @throws NonSquareMatrixException if the matrix is not square.
+     * @throws NonSymmetricMatrixException if the matrix is not symmetric.
+     * @throws NonPositiveDefiniteMatrixException if the matrix is not
+     * strictly positive definite.
+     * @since 4.0
+     */
+    public CholeskyDecomposition(final RealMatrix matrix,
+                                 final double relativeSymmetryThreshold,
+                                 final double absolutePositivityThreshold,
+                                 final ForkJoinPool pool) {
         if (!matrix.isSquare()) {
             throw new NonSquareMatrixException(matrix.getRowDimension(),
                                                matrix.getColumnDimension());
@@ -131,26 +161,56 @@ public class CholeskyDecomposition {
            }
         }
 
-        // transform the matrix
-        for (int i = 0; i < order; ++i) {
+        // transform the matrix, one panel of rows at a time: rows within the
+        // panel are transformed as in the unblocked algorithm, then the trailing
+        // sub-matrix is updated, one row at a time. For each entry, the updates
+        // are applied in the same order as in the unblocked algorithm
+        for (int k = 0; k < order; k += BlockRealMatrix.BLOCK_SIZE) {
+            final int kEnd = FastMath.min(k + BlockRealMatrix.BLOCK_SIZE, order);
 
-            final double[] ltI = lTData[i];
+            for (int i = k; i < kEnd; ++i) {
 
-            // check diagonal element
-            if (ltI[i] <= absolutePositivityThreshold) {
-                throw new NonPositiveDefiniteMatrixException(ltI[i], i, absolutePositivityThreshold);
-            }
+                final double[] ltI = lTData[i];
+
+                // check diagonal element
+                if (ltI[i] <= absolutePositivityThreshold) {
+                    throw new NonPositiveDefiniteMatrixException(ltI[i], i, absolutePositivityThreshold);
+                }
 
-            ltI[i] = FastMath.sqrt(ltI[i]);
-            final double inverse = 1.0 / ltI[i];
+                ltI[i] = FastMath.sqrt(ltI[i]);
+                final double inverse = 1.0 / ltI[i];
 
-            for (int q = order - 1; q > i; --q) {
-                ltI[q] *= inverse;
-                final double[] ltQ = lTData[q];
-                for (int p = q; p < order; ++p) {
-                    ltQ[p] -= ltI[q] * ltI[p];
+                for (int q = order - 1; q > i; --q) {
+                    ltI[q] *= inverse;
+                }
+                for (int q = i + 1; q < kEnd; ++q) {
+                    final double[] ltQ = lTData[q];
+                    for (int p = q; p < order; ++p) {
+                        ltQ[p] -= ltI[q] * ltI[p];
+                    }
                 }
             }
+
+            // trailing sub-matrix
+            final int start = k;
+            final int end   = kEnd;
+            RangeUpdater.apply(pool, kEnd, order, 2l * (end - start) * (order - end),
+                               new RangeUpdater.Update() {
+                /** {@inheritDoc} */
+                public void apply(final int qStart, final int qEnd) {
+                    for (int q = qStart; q < qEnd; ++q) {
+                        final double[] ltQ = lTData[q];
+                        for (int i = start; i < end; ++i) {
+                            final double[] ltI = lTData[i];
+                            final double ltIQ = ltI[q];
+                            for (int p = q; p < order; ++p) {
+                                ltQ[p] -= ltIQ * ltI[p];
+                            }
+                        }
+                    }
+                }
+            });
+
         }
     }
 
@@ -0,0 +1,939 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.math4.linear;
+
+import java.io.Serializable;
+import java.util.Arrays;
+
+import org.apache.commons.math4.exception.DimensionMismatchException;
+import org.apache.commons.math4.exception.NotStrictlyPositiveException;
+import org.apache.commons.math4.exception.NumberIsTooLargeException;
+import org.apache.commons.math4.exception.OutOfRangeException;
+import org.apache.commons.math4.exception.util.LocalizedFormats;
+import org.apache.commons.math4.util.FastMath;
+
+/**
+ * Sparse matrix implementation based on the compressed sparse row (CSR) layout.
+ *
+ * <p>
+ *  The non-zero entries are stored row after row in two parallel arrays
+ *  holding their column indices (sorted in increasing order within each row)
+ *  and their values, a third array holding the start index of each row.
+ *  Matrix-vector products ({@link #operate(double[]) operate},
+ *  {@link #preMultiply(double[]) preMultiply} and
+ *  {@link #operateTranspose(RealVector) operateTranspose}) therefore
+ *  stream through contiguous primitive arrays and cost one multiplication
+ *  per non-zero entry, which makes this class well suited as the operator
+ *  of the iterative solvers like {@link ConjugateGradient} or {@link SymmLQ}.
+ *  Indices are not combined into a single key, so the dimensions are only
+ *  limited by the number of non-zero entries.
+ * </p>
+ * <p>
+ *  The compressed sparse column (CSC) layout of a matrix is the CSR layout
+ *  of its transpose, which can be computed by {@link #transpose()} in time
+ *  proportional to the number of non-zero entries.
+ * </p>
+ * <p>
+ *  Matrices should be assembled using a {@link Builder}, which accepts entries
+ *  in any order (coordinate format) and sums duplicates, as done when
+ *  assembling finite elements systems. Setting an entry that is not already
+ *  stored is supported but costs a time proportional to the number of
+ *  non-zero entries. Entries that are stored (including entries explicitly
+ *  set to zero) are called structural entries; they are never removed.
+ * </p>
+ * <p>
+ *  Caveat: This implementation assumes that, for any {@code x},
+ *  the equality {@code x * 0d == 0d} holds. But it is is not true for
+ *  {@code NaN}. Moreover, zero entries will lose their sign.
+ *  Some operations (that involve {@code NaN} and/or infinities) may
+ *  thus give incorrect results.
+ * </p>
+ * @since 4.0
+ */
+public class CompressedRowRealMatrix extends AbstractRealMatrix
+    implements SparseRealMatrix, Serializable {
+
+    /** Serializable version identifier. */
+    private static final long serialVersionUID = 20261018L;
+
+    /** Number of rows of the matrix. */
+    private final int rows;
+
+    /** Number of columns of the matrix. */
+    private final int columns;
+
+    /** Index of the first structural entry of each row (size rows + 1). */
+    private final int[] rowStart;
+
+    /** Column indices of the structural entries. */
+    private int[] columnIndices;
+
+    /** Values of the structural entries. */
+    private double[] values;
+
+    /**
+     * Build an empty sparse matrix with the supplied row and column dimensions.
+     *
+     * @param rowDimension Number of rows of the matrix.
+     * @param columnDimension Number of columns of the matrix.
+     * @throws NotStrictlyPositiveException if row or column dimension is not
+     * positive.
+     */
+    public CompressedRowRealMatrix(final int rowDimension, final int columnDimension)
+        throws NotStrictlyPositiveException {
+        super(rowDimension, columnDimension);
+        this.rows          = rowDimension;
+        this.columns       = columnDimension;
+        this.rowStart      = new int[rowDimension + 1];
+        this.columnIndices = new int[0];
+        this.values        = new double[0];
+    }
+
+    /**
+     * Build a sparse matrix by copying the non-zero entries of another matrix.
+     * <p>
+     * Only the non-zero entries of {@code matrix} are stored, but all its
+     * entries are read, so this constructor should not be used to convert
+     * huge matrices.
+     * </p>
+     *
+     * @param matrix matrix to copy.
+     */
+    public CompressedRowRealMatrix(final RealMatrix matrix) {
+        this.rows     = matrix.getRowDimension();
+        this.columns  = matrix.getColumnDimension();
+        this.rowStart = new int[rows + 1];
+
+        int nnz = 0;
+        for (int i = 0; i < rows; ++i) {
+            for (int j = 0; j < columns; ++j) {
+                if (matrix.getEntry(i, j) != 0.0) {
+                    ++nnz;
+                }
+            }
+        }
+
+        columnIndices = new int[nnz];
+        values        = new double[nnz];
+        int k = 0;
+        for (int i = 0; i < rows; ++i) {
+            rowStart[i] = k;
+            for (int j = 0; j < columns; ++j) {
+                final double value = matrix.getEntry(i, j);
+                if (value != 0.0) {
+                    columnIndices[k] = j;
+                    values[k++]      = value;
+                }
+            }
+        }
+        rowStart[rows] = k;
+    }
+
+    /**
+     * Build a matrix by copying another one.
+     *
+     * @param matrix matrix to copy.
+     */
+    public CompressedRowRealMatrix(final CompressedRowRealMatrix matrix) {
+        final int nnz      = matrix.getNonZeroCount();
+        this.rows          = matrix.rows;
+        this.columns       = matrix.columns;
+        this.rowStart      = matrix.rowStart.clone();
+        this.columnIndices = Arrays.copyOf(matrix.columnIndices, nnz);
+        this.values        = Arrays.copyOf(matrix.values, nnz);
+    }
+
+    /**
+     * Build a matrix directly from its compressed arrays, without copying them.
+     *
+     * @param rows Number of rows of the matrix.
+     * @param columns Number of columns of the matrix.
+     * @param rowStart index of the first structural entry of each row
+     * (size rows + 1), the last element being the number of structural entries
+     * @param columnIndices column indices of the structural entries,
+     * sorted within each row
+     * @param values values of the structural entries
+     */
+    private CompressedRowRealMatrix(final int rows, final int columns,
+                                    final int[] rowStart, final int[] columnIndices,
+                                    final double[] values) {
+        this.rows          = rows;
+        this.columns       = columns;
+        this.rowStart      = rowStart;
+        this.columnIndices = columnIndices;
+        this.values        = values;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public CompressedRowRealMatrix copy() {
+        return new CompressedRowRealMatrix(this);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public CompressedRowRealMatrix createMatrix(final int rowDimension, final int columnDimension)
+        throws NotStrictlyPositiveException {
+        return new CompressedRowRealMatrix(rowDimension, columnDimension);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public int getRowDimension() {
+        return rows;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public int getColumnDimension() {
+        return columns;
+    }
+
+    /**
+     * Get the number of structural entries.
+     * <p>
+     * Structural entries include the entries explicitly set to zero.
+     * </p>
+     *
+     * @return number of structural entries
+     */
+    public int getNonZeroCount() {
+        return rowStart[rows];
+    }
+
+    /**
+     * Get a reference to the row start indices.
+     *
+     * @return index of the first structural entry of each row (size rows + 1)
+     */
+    int[] getRowStartRef() {
+        return rowStart;
+    }
+
+    /**
+     * Get a reference to the column indices.
+     * <p>
+     * The array may be longer than the number of structural entries.
+     * </p>
+     *
+     * @return column indices of the structural entries
+     */
+    int[] getColumnIndicesRef() {
+        return columnIndices;
+    }
+
+    /**
+     * Get a reference to the values.
+     * <p>
+     * The array may be longer than the number of structural entries.
+     * </p>
+     *
+     * @return values of the structural entries
+     */
+    double[] getValuesRef() {
+        return values;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public double getEntry(final int row, final int column) throws OutOfRangeException {
+        MatrixUtils.checkRowIndex(this, row);
+        MatrixUtils.checkColumnIndex(this, column);
+        final int k = locate(row, column);
+        return (k < 0) ? 0.0 : values[k];
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void setEntry(final int row, final int column, final double value)
+        throws OutOfRangeException {
+        MatrixUtils.checkRowIndex(this, row);
+        MatrixUtils.checkColumnIndex(this, column);
+        final int k = locate(row, column);
+        if (k >= 0) {
+            values[k] = value;
+        } else if (value != 0.0) {
+            insert(row, -(k + 1), column, value);
+        }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void addToEntry(final int row, final int column, final double increment)
+        throws OutOfRangeException {
+        MatrixUtils.checkRowIndex(this, row);
+        MatrixUtils.checkColumnIndex(this, column);
+        final int k = locate(row, column);
+        if (k >= 0) {
+            values[k] += increment;
+        } else if (increment != 0.0) {
+            insert(row, -(k + 1), column, increment);
+        }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void multiplyEntry(final int row, final int column, final double factor)
+        throws OutOfRangeException {
+        MatrixUtils.checkRowIndex(this, row);
+        MatrixUtils.checkColumnIndex(this, column);
+        final int k = locate(row, column);
+        if (k >= 0) {
+            values[k] *= factor;
+        }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public double[] getRow(final int row) throws OutOfRangeException {
+        MatrixUtils.checkRowIndex(this, row);
+        final double[] out = new double[columns];
+        for (int k = rowStart[row]; k < rowStart[row + 1]; ++k) {
+            out[columnIndices[k]] = values[k];
+        }
+        return out;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public RealVector getRowVector(final int row) throws OutOfRangeException {
+        return new ArrayRealVector(getRow(row), false);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public double getTrace() throws NonSquareMatrixException {
+        if (rows != columns) {
+            throw new NonSquareMatrixException(rows, columns);
+        }
+        double trace = 0;
+        for (int i = 0; i < rows; ++i) {
+            final int k = locate(i, i);
+            if (k >= 0) {
+                trace += values[k];
+            }
+        }
+        return trace;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>If {@code m} is a {@link CompressedRowRealMatrix}, the result is
+     * also a {@link CompressedRowRealMatrix}, whose structure is the union
+     * of both structures.</p>
+     */
+    @Override
+    public RealMatrix add(final RealMatrix m)
+        throws MatrixDimensionMismatchException {
+        if (m instanceof CompressedRowRealMatrix) {
+            return add((CompressedRowRealMatrix) m);
+        }
+        MatrixUtils.checkAdditionCompatible(this, m);
+        final RealMatrix out = m.copy();
+        for (int i = 0; i < rows; ++i) {
+            for (int k = rowStart[i]; k < rowStart[i + 1]; ++k) {
+                out.addToEntry(i, columnIndices[k], values[k]);
+            }
+        }
+        return out;
+    }
+
+    /**
+     * Compute the sum of this matrix and {@code m}.
+     *
+     * @param m Matrix to be added.
+     * @return {@code this} + {@code m}.
+     * @throws MatrixDimensionMismatchException if {@code m} is not the same
+     * size as {@code this}.
+     */
+    public CompressedRowRealMatrix add(final CompressedRowRealMatrix m)
+        throws MatrixDimensionMismatchException {
+        MatrixUtils.checkAdditionCompatible(this, m);
+        return combine(1.0, m);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>If {@code m} is a {@link CompressedRowRealMatrix}, the result is
+     * also a {@link CompressedRowRealMatrix}, whose structure is the union
+     * of both structures.</p>
+     */
+    @Override
+    public RealMatrix subtract(final RealMatrix m)
+        throws MatrixDimensionMismatchException {
+        if (m instanceof CompressedRowRealMatrix) {
+            return subtract((CompressedRowRealMatrix) m);
+        }
+        MatrixUtils.checkSubtractionCompatible(this, m);
+        final RealMatrix out = m.scalarMultiply(-1.0);
+        for (int i = 0; i < rows; ++i) {
+            for (int k = rowStart[i]; k < rowStart[i + 1]; ++k) {
+                out.addToEntry(i, columnIndices[k], values[k]);
+            }
+        }
+        return out;
+    }
+
+    /**
+     * Subtract {@code m} from this matrix.
+     *
+     * @param m Matrix to be subtracted.
+     * @return {@code this} - {@code m}.
+     * @throws MatrixDimensionMismatchException if {@code m} is not the same
+     * size as {@code this}.
+     */
+    public CompressedRowRealMatrix subtract(final CompressedRowRealMatrix m)
+        throws MatrixDimensionMismatchException {
+        MatrixUtils.checkSubtractionCompatible(this, m);
+        return combine(-1.0, m);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>The result has the same structure as this matrix.</p>
+     */
+    @Override
+    public CompressedRowRealMatrix scalarMultiply(final double d) {
+        final CompressedRowRealMatrix out = new CompressedRowRealMatrix(this);
+        for (int k = 0; k < out.values.length; ++k) {
+            out.values[k] *= d;
+        }
+        return out;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>If {@code m} is a {@link CompressedRowRealMatrix}, the product is
+     * computed row by row using Gustavson's algorithm and is also a
+     * {@link CompressedRowRealMatrix}. Otherwise, the product is dense.</p>
+     */
+    @Override
+    public RealMatrix multiply(final RealMatrix m)
+        throws DimensionMismatchException {
+        if (m instanceof CompressedRowRealMatrix) {
+            return multiply((CompressedRowRealMatrix) m);
+        }
+
+        MatrixUtils.checkMultiplicationCompatible(this, m);
+
+        final int outCols = m.getColumnDimension();
+        final double[][] right = m.getData();
+        final double[][] out   = new double[rows][outCols];
+        for (int i = 0; i < rows; ++i) {
+            final double[] outI = out[i];
+            for (int k = rowStart[i]; k < rowStart[i + 1]; ++k) {
+                final double   a      = values[k];
+                final double[] rightK = right[columnIndices[k]];
+                for (int j = 0; j < outCols; ++j) {
+                    outI[j] += a * rightK[j];
+                }
+            }
+        }
+
+        return new Array2DRowRealMatrix(out, false);
+    }
+
+    /**
+     * Postmultiply this matrix by {@code m}.
+     * <p>
+     * The product is computed row by row using Gustavson's algorithm, in
+     * time proportional to the number of multiplications between non-zero
+     * entries. Its structure contains all the entries that may be non-zero
+     * given the structures of both operands, even when they are cancelled
+     * by numerical values.
+     * </p>
+     *
+     * @param m Matrix to postmultiply by.
+     * @return {@code this} * {@code m}.
+     * @throws DimensionMismatchException if the number of rows of {@code m}
+     * differ from the number of columns of {@code this} matrix.
+     * @throws NumberIsTooLargeException if the number of structural entries
+     * of the product is larger than {@code Integer.MAX_VALUE}.
+     */
+    public CompressedRowRealMatrix multiply(final CompressedRowRealMatrix m)
+        throws DimensionMismatchException, NumberIsTooLargeException {
+        MatrixUtils.checkMultiplicationCompatible(this, m);
+
+        final int outCols = m.columns;
+        final int[] marker = new int[outCols];
+        Arrays.fill(marker, -1);
+
+        // symbolic pass: structure size of each row
+        final int[] outStart = new int[rows + 1];
+        long nnz = 0;
+        for (int i = 0; i < rows; ++i) {
+            outStart[i] = (int) nnz;
+            for (int k = rowStart[i]; k < rowStart[i + 1]; ++k) {
+                final int c = columnIndices[k];
+                for (int l = m.rowStart[c]; l < m.rowStart[c + 1]; ++l) {
+                    final int j = m.columnIndices[l];
+                    if (marker[j] != i) {
+                        marker[j] = i;
+                        ++nnz;
+                    }
+                }
+            }
+            if (nnz > Integer.MAX_VALUE) {
+                throw new NumberIsTooLargeException(nnz, Integer.MAX_VALUE, true);
+            }
+        }
+        outStart[rows] = (int) nnz;
+
+        // numeric pass
+        final int[]    outColumns = new int[(int) nnz];
+        final double[] outValues  = new double[(int) nnz];
+        final double[] work       = new double[outCols];
+        Arrays.fill(marker, -1);
+        for (int i = 0; i < rows; ++i) {
+            int end = outStart[i];
+            for (int k = rowStart[i]; k < rowStart[i + 1]; ++k) {
+                final double a = values[k];
+                final int    c = columnIndices[k];
+                for (int l = m.rowStart[c]; l < m.rowStart[c + 1]; ++l) {
+                    final int j = m.columnIndices[l];
+                    if (marker[j] != i) {
+                        marker[j] = i;
+                        outColumns[end++] = j;
+                        work[j] = a * m.values[l];
+                    } else {
+                        work[j] += a * m.values[l];
+                    }
+                }
+            }
+            Arrays.sort(outColumns, outStart[i], end);
+            for (int k = outStart[i]; k < end; ++k) {
+                outValues[k] = work[outColumns[k]];
+            }
+        }
+
+        return new CompressedRowRealMatrix(rows, outCols, outStart, outColumns, outValues);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>The transpose is computed in time proportional to the number of
+     * structural entries. It also provides the compressed sparse column
+     * layout of this matrix.</p>
+     */
+    @Override
+    public CompressedRowRealMatrix transpose() {
+        final int nnz = getNonZeroCount();
+
+        // count the entries in each column
+        final int[] outStart = new int[columns + 1];
+        for (int k = 0; k < nnz; ++k) {
+            ++outStart[columnIndices[k] + 1];
+        }
+        for (int j = 0; j < columns; ++j) {
+            outStart[j + 1] += outStart[j];
+        }
+
+        // scatter the entries, rows are visited in increasing order
+        // so row indices end up sorted within each column
+        final int[]    next       = Arrays.copyOf(outStart, columns);
+        final int[]    outColumns = new int[nnz];
+        final double[] outValues  = new double[nnz];
+        for (int i = 0; i < rows; ++i) {
+            for (int k = rowStart[i]; k < rowStart[i + 1]; ++k) {
+                final int index = next[columnIndices[k]]++;
+                outColumns[index] = i;
+                outValues[index]  = values[k];
+            }
+        }
+
+        return new CompressedRowRealMatrix(columns, rows, outStart, outColumns, outValues);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public double[] operate(final double[] v)
+        throws DimensionMismatchException {
+        if (v.length != columns) {
+            throw new DimensionMismatchException(v.length, columns);
+        }
+
+        final double[] out = new double[rows];
+        operateRows(v, out, 0, rows);
+
+        return out;
+    }
+
+    /**
+     * Compute a range of rows of the product of this matrix by a vector.
+     * <p>
+     * This method does not check the dimensions. Disjoint ranges can be
+     * computed concurrently.
+     * </p>
+     *
+     * @param v vector to multiply
+     * @param out array where to store the rows of the product
+     * @param start first row to compute (included)
+     * @param end last row to compute (excluded)
+     */
+    void operateRows(final double[] v, final double[] out, final int start, final int end) {
+        for (int i = start; i < end; ++i) {
+            double sum = 0;
+            for (int k = rowStart[i]; k < rowStart[i + 1]; ++k) {
+                sum += values[k] * v[columnIndices[k]];
+            }
+            out[i] = sum;
+        }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public RealVector operate(final RealVector v)
+        throws DimensionMismatchException {
+        if (v instanceof ArrayRealVector) {
+            return new ArrayRealVector(operate(((ArrayRealVector) v).getDataRef()), false);
+        }
+        return new ArrayRealVector(operate(v.toArray()), false);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public double[] preMultiply(final double[] v) throws DimensionMismatchException {
+        if (v.length != rows) {
+            throw new DimensionMismatchException(v.length, rows);
+        }
+
+        final double[] out = new double[columns];
+        preMultiplyRows(v, out, 0, rows);
+
+        return out;
+    }
+
+    /**
+     * Add the contribution of a range of rows to the product of a vector by
+     * this matrix.
+     * <p>
+     * This method does not check the dimensions. Disjoint ranges can be
+     * computed concurrently, provided they accumulate in different arrays.
+     * </p>
+     *
+     * @param v vector to multiply
+     * @param out array where to add the contributions of the rows
+     * @param start first row to use (included)
+     * @param end last row to use (excluded)
+     */
+    void preMultiplyRows(final double[] v, final double[] out, final int start, final int end) {
+        for (int i = start; i < end; ++i) {
+            final double vi = v[i];
+            for (int k = rowStart[i]; k < rowStart[i + 1]; ++k) {
+                out[columnIndices[k]] += values[k] * vi;
+            }
+        }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public RealVector preMultiply(final RealVector v) throws DimensionMismatchException {
+        if (v instanceof ArrayRealVector) {
+            return new ArrayRealVector(preMultiply(((ArrayRealVector) v).getDataRef()), false);
+        }
+        return new ArrayRealVector(preMultiply(v.toArray()), false);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public RealVector operateTranspose(final RealVector x)
+        throws DimensionMismatchException {
+        return preMultiply(x);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @return {@code true}, the transpose product is computed by
+     * {@link #preMultiply(RealVector)}
+     */
+    @Override
+    public boolean isTransposable() {
+        return true;
+    }
+
+    /**
+     * Locate an entry in the structure.
+     *
+     * @param row row index of the entry
+     * @param column column index of the entry
+     * @return index of the entry in the compressed arrays if it is a
+     * structural entry, {@code -(insertionPoint + 1)} otherwise
+     */
+    private int locate(final int row, final int column) {
+        return Arrays.binarySearch(columnIndices, rowStart[row], rowStart[row + 1], column);
+    }
+
+    /**
+     * Insert a new structural entry.
+     *
+     * @param row row index of the entry
+     * @param index insertion index in the compressed arrays
+     * @param column column index of the entry
+     * @param value value of the entry
+     */
+    private void insert(final int row, final int index, final int column, final double value) {
+        final int nnz = getNonZeroCount();
+        if (nnz == columnIndices.length) {
+            final int capacity = (int) FastMath.min(Integer.MAX_VALUE - 8, 16L + nnz + (nnz >> 1));
+            columnIndices = Arrays.copyOf(columnIndices, capacity);
+            values        = Arrays.copyOf(values, capacity);
+        }
+        System.arraycopy(columnIndices, index, columnIndices, index + 1, nnz - index);
+        System.arraycopy(values,        index, values,        index + 1, nnz - index);
+        columnIndices[index] = column;
+        values[index]        = value;
+        for (int i = row + 1; i <= rows; ++i) {
+            ++rowStart[i];
+        }
+    }
+
+    /**
+     * Compute {@code this + factor * m}, merging the structures row by row.
+     *
+     * @param factor factor to apply to {@code m}
+     * @param m matrix to combine with this one (dimensions already checked)
+     * @return {@code this + factor * m}
+     */
+    private CompressedRowRealMatrix combine(final double factor, final CompressedRowRealMatrix m) {
+
+        // symbolic pass
+        final int[] outStart = new int[rows + 1];
+        int nnz = 0;
+        for (int i = 0; i < rows; ++i) {
+            outStart[i] = nnz;
+            int k = rowStart[i];
+            int l = m.rowStart[i];
+            while (k < rowStart[i + 1] || l < m.rowStart[i + 1]) {
+                if (l == m.rowStart[i + 1] ||
+                    (k < rowStart[i + 1] && columnIndices[k] < m.columnIndices[l])) {
+                    ++k;
+                } else if (k == rowStart[i + 1] || m.columnIndices[l] < columnIndices[k]) {
+                    ++l;
+                } else {
+                    ++k;
+                    ++l;
+                }
+                ++nnz;
+            }
+        }
+        outStart[rows] = nnz;
+
+        // numeric pass
+        final int[]    outColumns = new int[nnz];
+        final double[] outValues  = new double[nnz];
+        int index = 0;
+        for (int i = 0; i < rows; ++i) {
+            int k = rowStart[i];
+            int l = m.rowStart[i];
+            while (k < rowStart[i + 1] || l < m.rowStart[i + 1]) {
+                if (l == m.rowStart[i + 1] ||
+                    (k < rowStart[i + 1] && columnIndices[k] < m.columnIndices[l])) {
+                    outColumns[index] = columnIndices[k];
+                    outValues[index]  = values[k++];
+                } else if (k == rowStart[i + 1] || m.columnIndices[l] < columnIndices[k]) {
+                    outColumns[index] = m.columnIndices[l];
+                    outValues[index]  = factor * m.values[l++];
+                } else {
+                    outColumns[index] = columnIndices[k];
+                    outValues[index]  = values[k++] + factor * m.values[l++];
+                }
+                ++index;
+            }
+        }
+
+        return new CompressedRowRealMatrix(rows, columns, outStart, outColumns, outValues);
+
+    }
+
+    /**
+     * Builder assembling a {@link CompressedRowRealMatrix} from entries
+     * provided in any order.
+     * <p>
+     * Entries are first accumulated in coordinate format, then sorted by
+     * two counting sorts (by column, then by row) when the matrix is built,
+     * in time proportional to the number of entries and dimensions. Entries
+     * added several times at the same position are summed, entries whose
+     * value is zero are kept as structural entries.
+     * </p>
+     * @since 4.0
+     */
+    public static class Builder {
+
+        /** Number of rows of the matrix. */
+        private final int rows;
+
+        /** Number of columns of the matrix. */
+        private final int columns;
+
+        /** Row indices of the entries. */
+        private int[] rowIndices;
+
+        /** Column indices of the entries. */
+        private int[] columnIndices;
+
+        /** Values of the entries. */
+        private double[] values;
+
+        /** Number of entries added. */
+        private int size;
+
+        /**
+         * Create a builder for a matrix with the supplied dimensions.
+         *
+         * @param rowDimension Number of rows of the matrix.
+         * @param columnDimension Number of columns of the matrix.
+         * @throws NotStrictlyPositiveException if row or column dimension
+         * is not positive.
+         */
+        public Builder(final int rowDimension, final int columnDimension)
+            throws NotStrictlyPositiveException {
+            this(rowDimension, columnDimension, 16);
+        }
+
+        /**
+         * Create a builder for a matrix with the supplied dimensions.
+         *
+         * @param rowDimension Number of rows of the matrix.
+         * @param columnDimension Number of columns of the matrix.
+         * @param expectedEntries expected number of entries, used to size
+         * the internal storage
+         * @throws NotStrictlyPositiveException if row or column dimension
+         * or expected number of entries is not positive.
+         */
+        public Builder(final int rowDimension, final int columnDimension,
+                       final int expectedEntries)
+            throws NotStrictlyPositiveException {
+            if (rowDimension < 1) {
+                throw new NotStrictlyPositiveException(rowDimension);
+            }
+            if (columnDimension < 1) {
+                throw new NotStrictlyPositiveException(columnDimension);
+            }
+            if (expectedEntries < 1) {
+                throw new NotStrictlyPositiveException(expectedEntries);
+            }
+            this.rows          = rowDimension;
+            this.columns       = columnDimension;
+            this.rowIndices    = new int[expectedEntries];
+            this.columnIndices = new int[expectedEntries];
+            this.values        = new double[expectedEntries];
+            this.size          = 0;
+        }
+
+        /**
+         * Add an entry.
+         *
+         * @param row row index of the entry
+         * @param column column index of the entry
+         * @param value value to add at this position
+         * @return this builder
+         * @throws OutOfRangeException if the row or column index is not valid
+         */
+        public Builder addEntry(final int row, final int column, final double value)
+            throws OutOfRangeException {
+            if (row < 0 || row >= rows) {
+                throw new OutOfRangeException(LocalizedFormats.ROW_INDEX, row, 0, rows - 1);
+            }
+            if (column < 0 || column >= columns) {
+                throw new OutOfRangeException(LocalizedFormats.COLUMN_INDEX, column, 0, columns - 1);
+            }
+            if (size == values.length) {
+                final int capacity = (int) FastMath.min(Integer.MAX_VALUE - 8, 16L + size + (size >> 1));
+                rowIndices    = Arrays.copyOf(rowIndices,    capacity);
+                columnIndices = Arrays.copyOf(columnIndices, capacity);
+                values        = Arrays.copyOf(values,        capacity);
+            }
+            rowIndices[size]    = row;
+            columnIndices[size] = column;
+            values[size]        = value;
+            ++size;
+            return this;
+        }
+
+        /**
+         * Build the matrix.
+         * <p>
+         * The builder can still be used after this call, for example to add
+         * more entries and build another matrix.
+         * </p>
+         *
+         * @return a new matrix containing the entries added so far
+         */
+        public CompressedRowRealMatrix build() {
+
+            // first counting sort: by column
+            final int[] byColumn = new int[size];
+            final int[] colStart = new int[columns + 1];
+            for (int e = 0; e < size; ++e) {
+                ++colStart[columnIndices[e] + 1];
+            }
+            for (int j = 0; j < columns; ++j) {
+                colStart[j + 1] += colStart[j];
+            }
+            for (int e = 0; e < size; ++e) {
+                byColumn[colStart[columnIndices[e]]++] = e;
+            }
+
+            // second (stable) counting sort: by row
+            final int[] sorted   = new int[size];
+            final int[] rowStart = new int[rows + 1];
+            for (int e = 0; e < size; ++e) {
+                ++rowStart[rowIndices[e] + 1];
+            }
+            for (int i = 0; i < rows; ++i) {
+                rowStart[i + 1] += rowStart[i];
+            }
+            final int[] next = Arrays.copyOf(rowStart, rows);
+            for (final int e : byColumn) {
+                sorted[next[rowIndices[e]]++] = e;
+            }
+
+            // merge duplicates
+            final int[]    outColumns = new int[size];
+            final double[] outValues  = new double[size];
+            final int[]    outStart   = new int[rows + 1];
+            int nnz = 0;
+            for (int i = 0; i < rows; ++i) {
+                outStart[i] = nnz;
+                for (int k = rowStart[i]; k < rowStart[i + 1]; ++k) {
+                    final int e = sorted[k];
+                    if (nnz > outStart[i] && outColumns[nnz - 1] == columnIndices[e]) {
+                        outValues[nnz - 1] += values[e];
+                    } else {
+                        outColumns[nnz] = columnIndices[e];
+                        outValues[nnz]  = values[e];
+                        ++nnz;
+                    }
+                }
+            }
+            outStart[rows] = nnz;
+
+            return new CompressedRowRealMatrix(rows, columns, outStart,
+                                               Arrays.copyOf(outColumns, nnz),
+                                               Arrays.copyOf(outValues, nnz));
+
+        }
+
+    }
+
+}
@@ -17,6 +17,8 @@
 
 package org.apache.commons.math4.linear;
 
+import java.util.concurrent.ForkJoinPool;
+
 import org.apache.commons.math4.complex.Complex;
 import org.apache.commons.math4.exception.DimensionMismatchException;
 import org.apache.commons.math4.exception.MathArithmeticException;
@@ -129,6 +131,53 @@ public class EigenDecomposition {
         }
     }
 
+    /**
+     * Calculates the eigen decomposition of the given real matrix, using
+     * the divide-and-conquer method for symmetric matrices.
+     * <p>
+     * For symmetric matrices, the reduction to tridiagonal form updates the
+     * remaining sub-matrix in parallel, the tridiagonal matrix is decomposed
+     * using Cuppen's divide-and-conquer method, whose sub-problems are solved
+     * concurrently, and the eigenvectors are transformed back in parallel.
+     * This is much faster than the implicit QL algorithm used by the
+     * {@link #EigenDecomposition(RealMatrix) other constructor} for large
+     * matrices, even without a pool. The eigenvalues are the same up to
+     * rounding errors, the eigenvectors may differ by their sign and, for
+     * multiple eigenvalues, by the choice of the basis of the eigenspace.
+     * </p>
+     * <p>
+     * Non-symmetric matrices are decomposed sequentially as by the
+     * {@link #EigenDecomposition(RealMatrix) other constructor}.
+     * </p>
+     *
+     * @param matrix Matrix to decompose.
+     * @param pool pool in which the tasks are run (if null, the
+     * decomposition is computed sequentially)
+     * @throws MaxCountExceededException if the algorithm fails to converge.
+     * @throws MathArithmeticException if the decomposition of a general matrix
+     * results in a matrix with zero norm
+     * @since 4.0
+     */
+    public EigenDecomposition(final RealMatrix matrix, final ForkJoinPool pool)
+        throws MathArithmeticException {
+        final double symTol = 10 * matrix.getRowDimension() * matrix.getColumnDimension() * Precision.EPSILON;
+        isSymmetric = MatrixUtils.isSymmetric(matrix, symTol);
+        if (isSymmetric) {
+            transformer = new TriDiagonalTransformer(matrix, pool);
+            main        = transformer.getMainDiagonalRef();
+            secondary   = transformer.getSecondaryDiagonalRef();
+            final TriDiagonalEigenSolver solver = new TriDiagonalEigenSolver(main, secondary, pool);
+            final double[][] z = solver.getEigenvectorsRef();
+            transformer.applyQ(z, pool);
+            realEigenvalues = solver.getEigenvaluesRef().clone();
+            imagEigenvalues = new double[realEigenvalues.length];
+            sortEigenPairs(z);
+        } else {
+            final SchurTransformer t = transformToSchur(matrix);
+            findEigenVectorsFromSchur(t);
+        }
+    }
+
     /**
      * Calculates the eigen decomposition of the symmetric tridiagonal
      * matrix.  The Householder matrix is assumed to be the identity matrix.
@@ -666,6 +715,19 @@ public class EigenDecomposition {
             } while (m != j);
         }
 
+        sortEigenPairs(z);
+    }
+
+    /**
+     * Sort the eigenvalues and eigenvectors of a symmetric matrix in decreasing
+     * order, and set up the eigenvectors.
+     *
+     * @param z matrix whose columns are the eigenvectors, in the same order as
+     * the eigenvalues (columns are permuted in place)
+     */
+    private void sortEigenPairs(final double[][] z) {
+        final int n = realEigenvalues.length;
+
         //Sort the eigen values (and vectors) in increase order
         for (int i = 0; i < n; i++) {
             int k = i;
@@ -688,7 +750,7 @@ public class EigenDecomposition {
         }
 
         // Determine the largest eigen value in absolute term.
-        maxAbsoluteValue = 0;
+        double maxAbsoluteValue = 0;
         for (int i = 0; i < n; i++) {
             if (FastMath.abs(realEigenvalues[i]) > maxAbsoluteValue) {
                 maxAbsoluteValue=FastMath.abs(realEigenvalues[i]);
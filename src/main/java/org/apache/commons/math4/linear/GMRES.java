@@ -0,0 +1,295 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.math4.linear;
+
+import org.apache.commons.math4.exception.DimensionMismatchException;
+import org.apache.commons.math4.exception.MaxCountExceededException;
+import org.apache.commons.math4.exception.NotStrictlyPositiveException;
+import org.apache.commons.math4.exception.NullArgumentException;
+import org.apache.commons.math4.util.FastMath;
+import org.apache.commons.math4.util.IterationManager;
+
+/**
+ * <p>
+ * This is an implementation of the restarted Generalized Minimal RESidual
+ * method, GMRES(m), for {@link RealLinearOperator}. It follows the template by
+ * <a href="#BARR1994">Barrett et al. (1994)</a> (figure 2.6), with modified
+ * Gram-Schmidt orthogonalization and Givens rotations. The linear system at
+ * hand is A &middot; x = b, and the residual is r = b - A &middot; x. Unlike
+ * {@link ConjugateGradient} and {@link SymmLQ}, this method does not require
+ * A to be self-adjoint.
+ * </p>
+ * <p>
+ * Preconditioning is applied on the right: the method solves
+ * A &middot; M &middot; y = b and returns x = M &middot; y, where M is the
+ * preconditioner (an approximation of A<sup>-1</sup>). The residual of the
+ * preconditioned system is therefore the true residual r.
+ * </p>
+ * <h3><a id="stopcrit">Default stopping criterion</a></h3>
+ * <p>
+ * A default stopping criterion is implemented. The iterations stop when || r ||
+ * &le; &delta; || b ||, where b is the right-hand side vector, r the current
+ * estimate of the residual, and &delta; a user-specified tolerance. Within a
+ * restart cycle, || r || is estimated from the least squares problem of the
+ * Arnoldi process; the true residual is computed at each restart.
+ * </p>
+ * <h3>Iteration count</h3>
+ * <p>
+ * In the present context, an iteration should be understood as one step of the
+ * Arnoldi process, i.e. one evaluation of the matrix-vector product
+ * A &middot; x. The initialization phase therefore counts as one iteration.
+ * The residual computed at each restart is not accounted for.
+ * </p>
+ * <h3>Events</h3>
+ * <p>
+ * The solution is only updated at the end of each restart cycle, so the
+ * {@link IterativeLinearSolverEvent}s fired within a cycle provide the
+ * solution at the beginning of the cycle, together with the current estimate
+ * of the residual norm. They do not provide the residual itself.
+ * </p>
+ * <h3>References</h3>
+ * <dl>
+ * <dt><a id="BARR1994">Barret et al. (1994)</a></dt>
+ * <dd>R. Barrett, M. Berry, T. F. Chan, J. Demmel, J. M. Donato, J. Dongarra,
+ * V. Eijkhout, R. Pozo, C. Romine and H. Van der Vorst,
+ * <a href="http://www.netlib.org/linalg/html_templates/Templates.html"><em>
+ * Templates for the Solution of Linear Systems: Building Blocks for Iterative
+ * Methods</em></a>, SIAM</dd>
+ * <dt><a id="SAAD1986">Saad and Schultz (1986)</a></dt>
+ * <dd>Y. Saad and M. H. Schultz, <em>GMRES: A generalized minimal residual
+ * algorithm for solving nonsymmetric linear systems</em>, SIAM Journal on
+ * Scientific and Statistical Computing 7 (3): 856-869, 1986</dd>
+ * </dl>
+ *
+ * @since 4.0
+ */
+public class GMRES
+    extends PreconditionedIterativeLinearSolver {
+
+    /** Number of iterations between restarts. */
+    private final int restart;
+
+    /** The value of &delta;, for the default stopping criterion. */
+    private final double delta;
+
+    /**
+     * Creates a new instance of this class, with <a href="#stopcrit">default
+     * stopping criterion</a>.
+     *
+     * @param maxIterations the maximum number of iterations
+     * @param restart the number of iterations between restarts (i.e. the
+     * dimension of the Krylov subspace)
+     * @param delta the &delta; parameter for the default stopping criterion
+     * @throws NotStrictlyPositiveException if {@code restart} is not positive
+     */
+    public GMRES(final int maxIterations, final int restart, final double delta)
+        throws NotStrictlyPositiveException {
+        super(maxIterations);
+        if (restart < 1) {
+            throw new NotStrictlyPositiveException(restart);
+        }
+        this.restart = restart;
+        this.delta   = delta;
+    }
+
+    /**
+     * Creates a new instance of this class, with <a href="#stopcrit">default
+     * stopping criterion</a> and custom iteration manager.
+     *
+     * @param manager the custom iteration manager
+     * @param restart the number of iterations between restarts (i.e. the
+     * dimension of the Krylov subspace)
+     * @param delta the &delta; parameter for the default stopping criterion
+     * @throws NullArgumentException if {@code manager} is {@code null}
+     * @throws NotStrictlyPositiveException if {@code restart} is not positive
+     */
+    public GMRES(final IterationManager manager, final int restart,
+                 final double delta)
+        throws NullArgumentException, NotStrictlyPositiveException {
+        super(manager);
+        if (restart < 1) {
+            throw new NotStrictlyPositiveException(restart);
+        }
+        this.restart = restart;
+        this.delta   = delta;
+    }
+
+    /**
+     * Returns the number of iterations between restarts.
+     *
+     * @return the number of iterations between restarts
+     */
+    public final int getRestart() {
+        return restart;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @throws SingularOperatorException if the least squares problem of the
+     * Arnoldi process is singular
+     */
+    @Override
+    public RealVector solveInPlace(final RealLinearOperator a,
+                                   final RealLinearOperator m,
+                                   final RealVector b,
+                                   final RealVector x0)
+        throws NullArgumentException, NonSquareOperatorException,
+        DimensionMismatchException, MaxCountExceededException,
+        SingularOperatorException {
+        checkParameters(a, m, b, x0);
+        final IterationManager manager = getIterationManager();
+        // Initialization of default stopping criterion
+        manager.resetIterationCount();
+        final double rmax = delta * b.getNorm();
+        final RealVector bro = RealVector.unmodifiableRealVector(b);
+
+        // Initialization phase counts as one iteration.
+        manager.incrementIterationCount();
+        final RealVector x = x0;
+        final RealVector xro = RealVector.unmodifiableRealVector(x);
+        RealVector r = b.combine(1, -1, a.operate(x));
+        double rnorm = r.getNorm();
+        IterativeLinearSolverEvent evt;
+        evt = new DefaultIterativeLinearSolverEvent(this,
+            manager.getIterations(), xro, bro, rnorm);
+        manager.fireInitializationEvent(evt);
+        if (rnorm <= rmax) {
+            manager.fireTerminationEvent(evt);
+            return x;
+        }
+
+        // Arnoldi basis, Hessenberg matrix and Givens rotations
+        final RealVector[] v = new RealVector[restart + 1];
+        final double[][] h   = new double[restart + 1][restart];
+        final double[] cs    = new double[restart];
+        final double[] sn    = new double[restart];
+        final double[] g     = new double[restart + 1];
+
+        while (true) {
+
+            // start a new cycle from the current residual
+            v[0] = r.mapDivide(rnorm);
+            g[0] = rnorm;
+            int k = 0;
+            boolean converged = false;
+            while (k < restart && !converged) {
+                manager.incrementIterationCount();
+                evt = new DefaultIterativeLinearSolverEvent(this,
+                    manager.getIterations(), xro, bro, rnorm);
+                manager.fireIterationStartedEvent(evt);
+
+                // Arnoldi step, with modified Gram-Schmidt
+                // (the first projection creates a new vector, so the
+                // vector returned by the operator is not modified)
+                RealVector w = a.operate(m == null ? v[k] : m.operate(v[k]));
+                h[0][k] = w.dotProduct(v[0]);
+                w = w.combine(1, -h[0][k], v[0]);
+                for (int i = 1; i <= k; ++i) {
+                    h[i][k] = w.dotProduct(v[i]);
+                    w.combineToSelf(1, -h[i][k], v[i]);
+                }
+                final double hNext = w.getNorm();
+                h[k + 1][k] = hNext;
+                if (hNext != 0) {
+                    v[k + 1] = w.mapDivideToSelf(hNext);
+                }
+
+                // triangularize the Hessenberg matrix column
+                for (int i = 0; i < k; ++i) {
+                    final double tmp = cs[i] * h[i][k] + sn[i] * h[i + 1][k];
+                    h[i + 1][k] = cs[i] * h[i + 1][k] - sn[i] * h[i][k];
+                    h[i][k]     = tmp;
+                }
+                givens(h, k, cs, sn);
+                g[k + 1] = -sn[k] * g[k];
+                g[k]     = cs[k] * g[k];
+
+                rnorm = FastMath.abs(g[k + 1]);
+                ++k;
+                // a zero subdiagonal element means the Krylov subspace is invariant,
+                // so the solution of the least squares problem is exact
+                converged = rnorm <= rmax || hNext == 0;
+                evt = new DefaultIterativeLinearSolverEvent(this,
+                    manager.getIterations(), xro, bro, rnorm);
+                manager.fireIterationPerformedEvent(evt);
+            }
+
+            // update the solution: x = x + M V y, where H y = g
+            final double[] y = new double[k];
+            for (int i = k - 1; i >= 0; --i) {
+                double sum = g[i];
+                for (int j = i + 1; j < k; ++j) {
+                    sum -= h[i][j] * y[j];
+                }
+                if (h[i][i] == 0) {
+                    throw new SingularOperatorException();
+                }
+                y[i] = sum / h[i][i];
+            }
+            RealVector u = v[0].mapMultiply(y[0]);
+            for (int i = 1; i < k; ++i) {
+                u.combineToSelf(1, y[i], v[i]);
+            }
+            if (m != null) {
+                u = m.operate(u);
+            }
+            x.combineToSelf(1, 1, u);
+
+            // true residual
+            r = b.combine(1, -1, a.operate(x));
+            rnorm = r.getNorm();
+            if (rnorm <= rmax) {
+                evt = new DefaultIterativeLinearSolverEvent(this,
+                    manager.getIterations(), xro, bro, r, rnorm);
+                manager.fireTerminationEvent(evt);
+                return x;
+            }
+
+        }
+    }
+
+    /**
+     * Compute and apply the Givens rotation cancelling the subdiagonal element
+     * of a column of the Hessenberg matrix.
+     *
+     * @param h Hessenberg matrix
+     * @param k index of the column
+     * @param cs cosines of the rotations (the k<sup>th</sup> one is updated)
+     * @param sn sines of the rotations (the k<sup>th</sup> one is updated)
+     */
+    private static void givens(final double[][] h, final int k,
+                               final double[] cs, final double[] sn) {
+        final double p = h[k][k];
+        final double q = h[k + 1][k];
+        if (q == 0) {
+            cs[k] = 1;
+            sn[k] = 0;
+        } else if (FastMath.abs(q) > FastMath.abs(p)) {
+            final double t = p / q;
+            sn[k] = 1 / FastMath.sqrt(1 + t * t);
+            cs[k] = t * sn[k];
+        } else {
+            final double t = q / p;
+            cs[k] = 1 / FastMath.sqrt(1 + t * t);
+            sn[k] = t * cs[k];
+        }
+        h[k][k]     = cs[k] * p + sn[k] * q;
+        h[k + 1][k] = 0;
+    }
+
+}
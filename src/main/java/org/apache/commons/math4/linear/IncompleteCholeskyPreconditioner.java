@@ -0,0 +1,219 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.math4.linear;
+
+import java.util.Arrays;
+
+import org.apache.commons.math4.exception.DimensionMismatchException;
+import org.apache.commons.math4.util.FastMath;
+
+/**
+ * This class implements the incomplete Cholesky factorization preconditioner
+ * with zero fill-in, IC(0).
+ * <p>
+ * The symmetric positive definite matrix A is approximated by the product
+ * L L<sup>T</sup>, where L is lower triangular and has the same structure as
+ * the lower triangular part of A. The preconditioner is
+ * M = (L L<sup>T</sup>)<sup>-1</sup>, which is symmetric positive definite
+ * and can therefore be used with {@link ConjugateGradient}. Applying it costs
+ * a forward and a backward substitution. Only the lower triangular part of A
+ * is used, its upper triangular part is assumed to be the transpose.
+ * </p>
+ * <p>
+ * The factorization exists for M-matrices and diagonally dominant matrices,
+ * but may break down for other symmetric positive definite matrices. In this
+ * case, a diagonal shift can be specified: the factorization is then computed
+ * for A + &alpha; diag(A), which is more diagonally dominant.
+ * </p>
+ *
+ * @see <a href="http://www-users.cs.umn.edu/~saad/IterMethBook_2ndEd.pdf">
+ * Y. Saad, Iterative Methods for Sparse Linear Systems, 2nd edition,
+ * section 10.3.5</a>
+ * @since 4.0
+ */
+public class IncompleteCholeskyPreconditioner extends RealLinearOperator {
+
+    /** Index of the first entry of each row of L. */
+    private final int[] rowStart;
+
+    /** Column indices of the entries of L, the diagonal is last in each row. */
+    private final int[] columnIndices;
+
+    /** Entries of L. */
+    private final double[] factors;
+
+    /**
+     * Creates a new instance of this class, without diagonal shift.
+     *
+     * @param a the symmetric positive definite matrix for which the
+     * preconditioner should be built (it is not modified)
+     * @throws NonSquareOperatorException if {@code a} is not square
+     * @throws NonPositiveDefiniteMatrixException if the factorization
+     * encounters a non-positive pivot
+     */
+    public IncompleteCholeskyPreconditioner(final CompressedRowRealMatrix a)
+        throws NonSquareOperatorException, NonPositiveDefiniteMatrixException {
+        this(a, 0.0);
+    }
+
+    /**
+     * Creates a new instance of this class.
+     *
+     * @param a the symmetric positive definite matrix for which the
+     * preconditioner should be built (it is not modified)
+     * @param shift relative diagonal shift &alpha;, the factorization is
+     * computed for A + &alpha; diag(A)
+     * @throws NonSquareOperatorException if {@code a} is not square
+     * @throws NonPositiveDefiniteMatrixException if the factorization
+     * encounters a non-positive pivot
+     */
+    public IncompleteCholeskyPreconditioner(final CompressedRowRealMatrix a,
+                                            final double shift)
+        throws NonSquareOperatorException, NonPositiveDefiniteMatrixException {
+
+        final int n = a.getRowDimension();
+        if (a.getColumnDimension() != n) {
+            throw new NonSquareOperatorException(n, a.getColumnDimension());
+        }
+
+        // extract the lower triangular part
+        final int[]    aStart   = a.getRowStartRef();
+        final int[]    aColumns = a.getColumnIndicesRef();
+        final double[] aValues  = a.getValuesRef();
+        rowStart = new int[n + 1];
+        for (int i = 0; i < n; ++i) {
+            int count = 0;
+            for (int k = aStart[i]; k < aStart[i + 1] && aColumns[k] <= i; ++k) {
+                ++count;
+            }
+            rowStart[i + 1] = rowStart[i] + count;
+        }
+        columnIndices = new int[rowStart[n]];
+        factors       = new double[rowStart[n]];
+        for (int i = 0; i < n; ++i) {
+            System.arraycopy(aColumns, aStart[i], columnIndices, rowStart[i], rowStart[i + 1] - rowStart[i]);
+            System.arraycopy(aValues,  aStart[i], factors,       rowStart[i], rowStart[i + 1] - rowStart[i]);
+        }
+
+        // position of the entries of the current row, indexed by column
+        final int[] position = new int[n];
+        Arrays.fill(position, -1);
+
+        for (int i = 0; i < n; ++i) {
+
+            final int last = rowStart[i + 1] - 1;
+            if (last < rowStart[i] || columnIndices[last] != i) {
+                throw new NonPositiveDefiniteMatrixException(0.0, i, 0.0);
+            }
+            for (int k = rowStart[i]; k <= last; ++k) {
+                position[columnIndices[k]] = k;
+            }
+
+            // off-diagonal entries, in increasing column order
+            for (int k = rowStart[i]; k < last; ++k) {
+                final int c = columnIndices[k];
+                double sum = factors[k];
+                for (int l = rowStart[c]; l < rowStart[c + 1] - 1; ++l) {
+                    final int p = position[columnIndices[l]];
+                    if (p >= 0) {
+                        sum -= factors[p] * factors[l];
+                    }
+                }
+                factors[k] = sum / factors[rowStart[c + 1] - 1];
+            }
+
+            // diagonal entry
+            double pivot = factors[last] * (1 + shift);
+            for (int k = rowStart[i]; k < last; ++k) {
+                pivot -= factors[k] * factors[k];
+            }
+            if (!(pivot > 0)) {
+                throw new NonPositiveDefiniteMatrixException(pivot, i, 0.0);
+            }
+            factors[last] = FastMath.sqrt(pivot);
+
+            for (int k = rowStart[i]; k <= last; ++k) {
+                position[columnIndices[k]] = -1;
+            }
+
+        }
+
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public int getRowDimension() {
+        return rowStart.length - 1;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public int getColumnDimension() {
+        return rowStart.length - 1;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public RealVector operate(final RealVector x)
+        throws DimensionMismatchException {
+        final int n = rowStart.length - 1;
+        if (x.getDimension() != n) {
+            throw new DimensionMismatchException(x.getDimension(), n);
+        }
+
+        // forward substitution: L y = x
+        final double[] y = x.toArray();
+        for (int i = 0; i < n; ++i) {
+            final int last = rowStart[i + 1] - 1;
+            double sum = y[i];
+            for (int k = rowStart[i]; k < last; ++k) {
+                sum -= factors[k] * y[columnIndices[k]];
+            }
+            y[i] = sum / factors[last];
+        }
+
+        // backward substitution: L^T z = y, using the rows of L as columns of L^T
+        for (int i = n - 1; i >= 0; --i) {
+            final int last = rowStart[i + 1] - 1;
+            final double zi = y[i] / factors[last];
+            y[i] = zi;
+            for (int k = rowStart[i]; k < last; ++k) {
+                y[columnIndices[k]] -= factors[k] * zi;
+            }
+        }
+
+        return new ArrayRealVector(y, false);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @return {@code true}, this preconditioner is symmetric
+     */
+    @Override
+    public boolean isTransposable() {
+        return true;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public RealVector operateTranspose(final RealVector x)
+        throws DimensionMismatchException {
+        return operate(x);
+    }
+
+}
@@ -0,0 +1,169 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.math4.linear;
+
+import java.util.Arrays;
+
+import org.apache.commons.math4.exception.DimensionMismatchException;
+
+/**
+ * This class implements the incomplete LU factorization preconditioner
+ * with zero fill-in, ILU(0).
+ * <p>
+ * The matrix A is approximated by the product L U, where L is unit lower
+ * triangular and U is upper triangular, with the constraint that L + U has
+ * the same structure as A: the fill-in entries that a complete factorization
+ * would generate outside of the structure of A are dropped. The
+ * preconditioner is M = (L U)<sup>-1</sup>, applying it costs a forward
+ * and a backward substitution, i.e. one multiplication per structural
+ * entry of A. If A is tridiagonal, there is no fill-in and M is the exact
+ * inverse of A.
+ * </p>
+ * <p>
+ * This preconditioner does not require A to be symmetric, but the
+ * factorization may break down if A is not diagonally dominant or an
+ * M-matrix.
+ * </p>
+ *
+ * @see <a href="http://www-users.cs.umn.edu/~saad/IterMethBook_2ndEd.pdf">
+ * Y. Saad, Iterative Methods for Sparse Linear Systems, 2nd edition,
+ * section 10.3</a>
+ * @since 4.0
+ */
+public class IncompleteLUPreconditioner extends RealLinearOperator {
+
+    /** Index of the first entry of each row. */
+    private final int[] rowStart;
+
+    /** Column indices of the entries. */
+    private final int[] columnIndices;
+
+    /** Index of the diagonal entry of each row. */
+    private final int[] diagonal;
+
+    /** Entries of L (strictly lower part, unit diagonal omitted) and U. */
+    private final double[] factors;
+
+    /**
+     * Creates a new instance of this class.
+     *
+     * @param a the matrix for which the preconditioner should be built
+     * (it is not modified)
+     * @throws NonSquareOperatorException if {@code a} is not square
+     * @throws SingularMatrixException if a diagonal entry of {@code a} is
+     * not a structural entry or a zero pivot is encountered
+     */
+    public IncompleteLUPreconditioner(final CompressedRowRealMatrix a)
+        throws NonSquareOperatorException, SingularMatrixException {
+
+        final int n = a.getRowDimension();
+        if (a.getColumnDimension() != n) {
+            throw new NonSquareOperatorException(n, a.getColumnDimension());
+        }
+
+        final int nnz = a.getNonZeroCount();
+        rowStart      = a.getRowStartRef().clone();
+        columnIndices = Arrays.copyOf(a.getColumnIndicesRef(), nnz);
+        factors       = Arrays.copyOf(a.getValuesRef(), nnz);
+        diagonal      = new int[n];
+
+        // position of the entries of the current row, indexed by column
+        final int[] position = new int[n];
+        Arrays.fill(position, -1);
+
+        for (int i = 0; i < n; ++i) {
+
+            diagonal[i] = -1;
+            for (int k = rowStart[i]; k < rowStart[i + 1]; ++k) {
+                position[columnIndices[k]] = k;
+                if (columnIndices[k] == i) {
+                    diagonal[i] = k;
+                }
+            }
+            if (diagonal[i] < 0) {
+                throw new SingularMatrixException();
+            }
+
+            // eliminate the lower part of the row, using the rows above
+            for (int k = rowStart[i]; k < diagonal[i]; ++k) {
+                final int    c   = columnIndices[k];
+                final double lic = factors[k] / factors[diagonal[c]];
+                factors[k] = lic;
+                for (int l = diagonal[c] + 1; l < rowStart[c + 1]; ++l) {
+                    final int p = position[columnIndices[l]];
+                    if (p >= 0) {
+                        factors[p] -= lic * factors[l];
+                    }
+                }
+            }
+
+            if (factors[diagonal[i]] == 0.0) {
+                throw new SingularMatrixException();
+            }
+
+            for (int k = rowStart[i]; k < rowStart[i + 1]; ++k) {
+                position[columnIndices[k]] = -1;
+            }
+
+        }
+
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public int getRowDimension() {
+        return diagonal.length;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public int getColumnDimension() {
+        return diagonal.length;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public RealVector operate(final RealVector x)
+        throws DimensionMismatchException {
+        final int n = diagonal.length;
+        if (x.getDimension() != n) {
+            throw new DimensionMismatchException(x.getDimension(), n);
+        }
+
+        // forward substitution: L y = x
+        final double[] y = x.toArray();
+        for (int i = 0; i < n; ++i) {
+            double sum = y[i];
+            for (int k = rowStart[i]; k < diagonal[i]; ++k) {
+                sum -= factors[k] * y[columnIndices[k]];
+            }
+            y[i] = sum;
+        }
+
+        // backward substitution: U z = y
+        for (int i = n - 1; i >= 0; --i) {
+            double sum = y[i];
+            for (int k = diagonal[i] + 1; k < rowStart[i + 1]; ++k) {
+                sum -= factors[k] * y[columnIndices[k]];
+            }
+            y[i] = sum / factors[diagonal[i]];
+        }
+
+        return new ArrayRealVector(y, false);
+    }
+
+}
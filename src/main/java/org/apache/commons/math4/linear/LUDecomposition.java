@@ -17,6 +17,8 @@
 
 package org.apache.commons.math4.linear;
 
+import java.util.concurrent.ForkJoinPool;
+
 import org.apache.commons.math4.exception.DimensionMismatchException;
 import org.apache.commons.math4.util.FastMath;
 
@@ -28,6 +30,9 @@ import org.apache.commons.math4.util.FastMath;
  * matrices are m&times;m.</p>
  * <p>As shown by the presence of the P matrix, this decomposition is
  * implemented using partial pivoting.</p>
+ * <p>The decomposition is computed by panels of {@link BlockRealMatrix#BLOCK_SIZE}
+ * columns, the trailing sub-matrix being updated after each panel. This update
+ * can be spread over the threads of a fork-join pool for large matrices.</p>
  * <p>This class is based on the class with similar name from the
  * <a href="http://math.nist.gov/javanumerics/jama/">JAMA</a> library.</p>
  * <ul>
@@ -83,6 +88,27 @@ public class LUDecomposition {
      * @throws NonSquareMatrixException if matrix is not square
      */
     public LUDecomposition(RealMatrix matrix, double singularityThreshold) {
+        this(matrix, singularityThreshold, null);
+    }
+
+    /**
+     * Calculates the LU-decomposition of the given matrix, updating the
+     * trailing sub-matrix in parallel.
+     * <p>
+     * The result is exactly the same as the one computed by the sequential
+     * constructors, only the computation is spread over the threads of
+     * the pool for large matrices.
+     * </p>
+     * @param matrix The matrix to decompose.
+     * @param singularityThreshold threshold (based on partial row norm)
+     * under which a matrix is considered singular
+     * @param pool pool in which the update tasks are run (if null,
+     * the decomposition is computed sequentially)
+     * @throws NonSquareMatrixException if matrix is not square
+     * @since 4.0
+     */
+    public LUDecomposition(RealMatrix matrix, double singularityThreshold,
+                           ForkJoinPool pool) {
         if (!matrix.isSquare()) {
             throw new NonSquareMatrixException(matrix.getRowDimension(),
                                                matrix.getColumnDimension());
@@ -102,64 +128,102 @@ public class LUDecomposition {
         even     = true;
         singular = false;
 
-        // Loop over columns
-        for (int col = 0; col < m; col++) {
+        // Right-looking blocked decomposition: each panel of columns is
+        // factorized, then the corresponding block row of U is computed and
+        // the trailing sub-matrix is updated, one row at a time. For each
+        // entry, the updates are applied in the same order as in the
+        // column-by-column Crout algorithm, so results are identical, but the
+        // inner loops iterate inside rows, which is much more cache-efficient
+        for (int k = 0; k < m; k += BlockRealMatrix.BLOCK_SIZE) {
+            final int kEnd = FastMath.min(k + BlockRealMatrix.BLOCK_SIZE, m);
+
+            // Loop over panel columns
+            for (int col = k; col < kEnd; col++) {
+
+                // upper
+                for (int row = k; row < col; row++) {
+                    final double[] luRow = lu[row];
+                    double sum = luRow[col];
+                    for (int i = k; i < row; i++) {
+                        sum -= luRow[i] * lu[i][col];
+                    }
+                    luRow[col] = sum;
+                }
 
-            // upper
-            for (int row = 0; row < col; row++) {
-                final double[] luRow = lu[row];
-                double sum = luRow[col];
-                for (int i = 0; i < row; i++) {
-                    sum -= luRow[i] * lu[i][col];
+                // lower
+                int max = col; // permutation row
+                double largest = Double.NEGATIVE_INFINITY;
+                for (int row = col; row < m; row++) {
+                    final double[] luRow = lu[row];
+                    double sum = luRow[col];
+                    for (int i = k; i < col; i++) {
+                        sum -= luRow[i] * lu[i][col];
+                    }
+                    luRow[col] = sum;
+
+                    // maintain best permutation choice
+                    if (FastMath.abs(sum) > largest) {
+                        largest = FastMath.abs(sum);
+                        max = row;
+                    }
                 }
-                luRow[col] = sum;
-            }
 
-            // lower
-            int max = col; // permutation row
-            double largest = Double.NEGATIVE_INFINITY;
-            for (int row = col; row < m; row++) {
-                final double[] luRow = lu[row];
-                double sum = luRow[col];
-                for (int i = 0; i < col; i++) {
-                    sum -= luRow[i] * lu[i][col];
+                // Singularity check
+                if (FastMath.abs(lu[max][col]) < singularityThreshold) {
+                    singular = true;
+                    return;
                 }
-                luRow[col] = sum;
 
-                // maintain best permutation choice
-                if (FastMath.abs(sum) > largest) {
-                    largest = FastMath.abs(sum);
-                    max = row;
+                // Pivot if necessary
+                if (max != col) {
+                    final double[] tmp = lu[max];
+                    lu[max] = lu[col];
+                    lu[col] = tmp;
+                    int temp = pivot[max];
+                    pivot[max] = pivot[col];
+                    pivot[col] = temp;
+                    even = !even;
                 }
-            }
 
-            // Singularity check
-            if (FastMath.abs(lu[max][col]) < singularityThreshold) {
-                singular = true;
-                return;
+                // Divide the lower elements by the "winning" diagonal elt.
+                final double luDiag = lu[col][col];
+                for (int row = col + 1; row < m; row++) {
+                    lu[row][col] /= luDiag;
+                }
             }
 
-            // Pivot if necessary
-            if (max != col) {
-                double tmp = 0;
-                final double[] luMax = lu[max];
-                final double[] luCol = lu[col];
-                for (int i = 0; i < m; i++) {
-                    tmp = luMax[i];
-                    luMax[i] = luCol[i];
-                    luCol[i] = tmp;
+            // block row of U on the right of the panel
+            for (int row = k + 1; row < kEnd; row++) {
+                final double[] luRow = lu[row];
+                for (int i = k; i < row; i++) {
+                    final double luRowI = luRow[i];
+                    final double[] luI = lu[i];
+                    for (int col = kEnd; col < m; col++) {
+                        luRow[col] -= luRowI * luI[col];
+                    }
                 }
-                int temp = pivot[max];
-                pivot[max] = pivot[col];
-                pivot[col] = temp;
-                even = !even;
             }
 
-            // Divide the lower elements by the "winning" diagonal elt.
-            final double luDiag = lu[col][col];
-            for (int row = col + 1; row < m; row++) {
-                lu[row][col] /= luDiag;
-            }
+            // trailing sub-matrix
+            final int start = k;
+            final int end   = kEnd;
+            RangeUpdater.apply(pool, kEnd, m, 2l * (end - start) * (m - end),
+                               new RangeUpdater.Update() {
+                /** {@inheritDoc} */
+                public void apply(final int rowStart, final int rowEnd) {
+                    for (int row = rowStart; row < rowEnd; row++) {
+                        final double[] luRow = lu[row];
+                        for (int i = start; i < end; i++) {
+                            final double luRowI = luRow[i];
+                            final double[] luI = lu[i];
+                            for (int col = end; col < m; col++) {
+                                luRow[col] -= luRowI * luI[col];
+                            }
+                        }
+                    }
+                }
+            });
+
         }
     }
 
@@ -0,0 +1,284 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.math4.linear;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+
+import org.apache.commons.math4.exception.MaxCountExceededException;
+import org.apache.commons.math4.exception.NumberIsTooSmallException;
+import org.apache.commons.math4.exception.OutOfRangeException;
+import org.apache.commons.math4.exception.util.LocalizedFormats;
+import org.apache.commons.math4.random.RandomGenerator;
+import org.apache.commons.math4.random.Well19937c;
+import org.apache.commons.math4.util.FastMath;
+import org.apache.commons.math4.util.Precision;
+
+/**
+ * Calculates the largest eigenvalues and the corresponding eigenvectors of a
+ * symmetric linear operator, using the thick-restart Lanczos method.
+ * <p>
+ * Only a few eigenpairs of a large matrix are often needed, for example in
+ * principal component analysis. This class computes the k largest (algebraic)
+ * eigenvalues, which for a positive semi-definite matrix such as a covariance
+ * matrix are also the largest in absolute value. Only matrix-vector products
+ * are needed, so the operator may be a sparse matrix or a
+ * {@link ParallelRealLinearOperator}, in which case the products are computed
+ * in parallel.
+ * </p>
+ * <p>
+ * The Krylov subspace built by the Lanczos process is fully
+ * reorthogonalized, using classical Gram-Schmidt applied twice, so that no
+ * spurious copies of the eigenvalues appear. When the subspace reaches its
+ * maximum size, the Ritz vectors associated with the largest Ritz values are
+ * kept and the process is restarted from them. The iterations stop when
+ * the residual norm || A x - &theta; x || of each of the k Ritz pairs is lower
+ * than the tolerance times the largest Ritz value in absolute value.
+ * </p>
+ * <p>
+ * The operator is assumed to be symmetric without any check. The starting
+ * vector is drawn from a random generator with a fixed seed, so the results
+ * are reproducible.
+ * </p>
+ *
+ * @see <a href="http://dx.doi.org/10.1137/S0895479898334605">K. Wu and
+ * H. Simon, Thick-Restart Lanczos Method for Large Symmetric Eigenvalue
+ * Problems, SIAM J. Matrix Anal. Appl. 22 (2): 602-616, 2000</a>
+ * @since 4.0
+ */
+public class LanczosEigenDecomposition {
+
+    /** Default relative tolerance on the residuals. */
+    public static final double DEFAULT_TOLERANCE = 1.0e-10;
+
+    /** Default maximum number of restarts. */
+    public static final int DEFAULT_MAX_RESTARTS = 1000;
+
+    /** Seed of the random generator for the starting vectors. */
+    private static final long SEED = 0x4c616e637a6f73l;
+
+    /** Eigenvalues, in decreasing order. */
+    private final double[] eigenvalues;
+
+    /** Eigenvectors. */
+    private final double[][] eigenvectors;
+
+    /** Number of restarts performed. */
+    private final int restarts;
+
+    /**
+     * Calculates the k largest eigenpairs of a symmetric operator, using
+     * default settings.
+     * <p>
+     * The maximum size of the Krylov subspace is max(2k + 1, k + 20) (limited
+     * to the dimension of the operator), the tolerance is
+     * {@link #DEFAULT_TOLERANCE} and the maximum number of restarts is
+     * {@link #DEFAULT_MAX_RESTARTS}.
+     * </p>
+     *
+     * @param a symmetric operator
+     * @param k number of eigenpairs to compute
+     * @throws NonSquareOperatorException if the operator is not square
+     * @throws OutOfRangeException if {@code k} is not between 1 and the
+     * dimension of the operator
+     * @throws MaxCountExceededException if the algorithm fails to converge
+     */
+    public LanczosEigenDecomposition(final RealLinearOperator a, final int k)
+        throws NonSquareOperatorException, OutOfRangeException,
+        MaxCountExceededException {
+        this(a, k, FastMath.max(2 * k + 1, k + 20), DEFAULT_TOLERANCE,
+             DEFAULT_MAX_RESTARTS, null);
+    }
+
+    /**
+     * Calculates the k largest eigenpairs of a symmetric operator.
+     *
+     * @param a symmetric operator
+     * @param k number of eigenpairs to compute
+     * @param subspaceSize maximum size of the Krylov subspace (it is limited
+     * to the dimension of the operator), larger subspaces need more memory
+     * but less restarts
+     * @param tolerance relative tolerance on the residuals
+     * @param maxRestarts maximum number of restarts
+     * @param pool pool in which the orthogonalization tasks are run (if
+     * null, they are run sequentially)
+     * @throws NonSquareOperatorException if the operator is not square
+     * @throws OutOfRangeException if {@code k} is not between 1 and the
+     * dimension of the operator
+     * @throws NumberIsTooSmallException if {@code subspaceSize} is neither
+     * larger than {@code k} nor at least the dimension
+     * @throws MaxCountExceededException if the algorithm fails to converge
+     */
+    public LanczosEigenDecomposition(final RealLinearOperator a, final int k,
+                                     final int subspaceSize, final double tolerance,
+                                     final int maxRestarts, final ForkJoinPool pool)
+        throws NonSquareOperatorException, OutOfRangeException,
+        NumberIsTooSmallException, MaxCountExceededException {
+
+        final int n = a.getRowDimension();
+        if (a.getColumnDimension() != n) {
+            throw new NonSquareOperatorException(n, a.getColumnDimension());
+        }
+        if (k < 1 || k > n) {
+            throw new OutOfRangeException(k, 1, n);
+        }
+        if (subspaceSize <= k && subspaceSize < n) {
+            throw new NumberIsTooSmallException(subspaceSize, FastMath.min(k + 1, n), true);
+        }
+        final int m = FastMath.min(subspaceSize, n);
+
+        // basis of the Krylov subspace (with room for the residual vector)
+        // and projection of the operator on it
+        final RandomGenerator random = new Well19937c(SEED);
+        final double[][] v = new double[m + 1][];
+        final double[][] t = new double[m][m];
+        v[0] = SubspaceUtils.randomUnitVector(random, n, v, 0, pool);
+
+        int nbRestarts = 0;
+        int kept = 0;
+        double[] theta = null;
+        double[][] y = null;
+        while (true) {
+
+            // extend the Lanczos process up to the maximum subspace size
+            double beta = 0;
+            for (int j = kept; j < m; ++j) {
+                final double[] w = a.operate(new ArrayRealVector(v[j], false)).toArray();
+                final double wNorm = SubspaceUtils.norm(w);
+                final double[] h = SubspaceUtils.orthogonalize(w, v, j + 1, pool);
+                for (int i = 0; i <= j; ++i) {
+                    t[i][j] += h[i];
+                }
+                // entries of the column are projections on the basis vectors,
+                // so the sub-diagonal entry beta is found again at next step
+                for (int i = 0; i < j; ++i) {
+                    t[j][i] = t[i][j];
+                }
+                beta = SubspaceUtils.norm(w);
+                if (j + 1 == n || beta <= Precision.EPSILON * wNorm) {
+                    // invariant subspace, continue with an orthogonal random vector
+                    beta = 0;
+                    if (j + 1 < m) {
+                        v[j + 1] = SubspaceUtils.randomUnitVector(random, n, v, j + 1, pool);
+                    }
+                } else {
+                    final double inv = 1 / beta;
+                    for (int i = 0; i < n; ++i) {
+                        w[i] *= inv;
+                    }
+                    v[j + 1] = w;
+                }
+            }
+
+            // Ritz pairs, sorted in decreasing order
+            final EigenDecomposition ed = new EigenDecomposition(new Array2DRowRealMatrix(t, false));
+            theta = ed.getRealEigenvalues();
+            final double scale = FastMath.max(FastMath.abs(theta[0]), FastMath.abs(theta[m - 1]));
+            y = new double[m][];
+            boolean converged = true;
+            for (int i = 0; i < m; ++i) {
+                y[i] = ed.getEigenvector(i).toArray();
+                if (i < k && FastMath.abs(beta * y[i][m - 1]) > tolerance * scale) {
+                    converged = false;
+                }
+            }
+
+            if (converged) {
+                break;
+            }
+
+            if (nbRestarts == maxRestarts) {
+                throw new MaxCountExceededException(LocalizedFormats.CONVERGENCE_FAILED,
+                                                    maxRestarts);
+            }
+            ++nbRestarts;
+
+            // thick restart: keep the Ritz vectors of the largest Ritz values,
+            // the residual vector becomes the next vector of the basis
+            kept = k + (m - k) / 2;
+            final double[][] ritz = SubspaceUtils.combine(v, y, kept, n, pool);
+            final double[] residual = v[m];
+            for (int i = 0; i <= m; ++i) {
+                v[i] = (i < kept) ? ritz[i] : null;
+            }
+            v[kept] = residual;
+            for (int i = 0; i < m; ++i) {
+                Arrays.fill(t[i], 0);
+            }
+            for (int i = 0; i < kept; ++i) {
+                t[i][i] = theta[i];
+            }
+
+        }
+
+        restarts     = nbRestarts;
+        eigenvalues  = Arrays.copyOf(theta, k);
+        eigenvectors = SubspaceUtils.combine(v, y, k, n, pool);
+
+    }
+
+    /**
+     * Get the number of restarts performed.
+     *
+     * @return number of restarts performed
+     */
+    public int getRestarts() {
+        return restarts;
+    }
+
+    /**
+     * Gets a copy of the computed eigenvalues, in decreasing order.
+     *
+     * @return a copy of the eigenvalues
+     */
+    public double[] getRealEigenvalues() {
+        return eigenvalues.clone();
+    }
+
+    /**
+     * Returns the i<sup>th</sup> computed eigenvalue.
+     *
+     * @param i index of the eigenvalue (counting from 0)
+     * @return the i<sup>th</sup> largest eigenvalue
+     * @throws IndexOutOfBoundsException if {@code i} is not a valid index
+     */
+    public double getRealEigenvalue(final int i) {
+        return eigenvalues[i];
+    }
+
+    /**
+     * Gets a copy of the i<sup>th</sup> computed eigenvector.
+     *
+     * @param i index of the eigenvector (counting from 0)
+     * @return a copy of the eigenvector, normalized
+     * @throws IndexOutOfBoundsException if {@code i} is not a valid index
+     */
+    public RealVector getEigenvector(final int i) {
+        return new ArrayRealVector(eigenvectors[i]);
+    }
+
+    /**
+     * Gets the matrix whose columns are the computed eigenvectors.
+     *
+     * @return n &times; k matrix of the eigenvectors, in the same order
+     * as the eigenvalues
+     */
+    public RealMatrix getV() {
+        return SubspaceUtils.columnMatrix(eigenvectors);
+    }
+
+}
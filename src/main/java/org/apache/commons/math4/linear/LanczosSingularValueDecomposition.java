@@ -0,0 +1,324 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.math4.linear;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+
+import org.apache.commons.math4.exception.MathUnsupportedOperationException;
+import org.apache.commons.math4.exception.MaxCountExceededException;
+import org.apache.commons.math4.exception.NumberIsTooSmallException;
+import org.apache.commons.math4.exception.OutOfRangeException;
+import org.apache.commons.math4.exception.util.LocalizedFormats;
+import org.apache.commons.math4.random.RandomGenerator;
+import org.apache.commons.math4.random.Well19937c;
+import org.apache.commons.math4.util.FastMath;
+
+/**
+ * Calculates the k largest singular values and the corresponding singular
+ * vectors of a linear operator, using the thick-restart Golub-Kahan-Lanczos
+ * bidiagonalization.
+ * <p>
+ * The bidiagonalization process builds orthonormal bases P and Q of Krylov
+ * subspaces of A<sup>T</sup> A and A A<sup>T</sup> such that A P = Q B,
+ * where B is a small upper triangular matrix (upper bidiagonal until the
+ * first restart). Both bases are fully reorthogonalized, using classical
+ * Gram-Schmidt applied twice. The singular triplets of B give approximations
+ * of the singular triplets of A; when the subspaces reach their maximum size,
+ * the approximations associated with the largest singular values are kept and
+ * the process is restarted from them. The iterations stop when the residual
+ * norm || A<sup>T</sup> u - &sigma; v || of each of the k approximations is
+ * lower than the tolerance times the largest singular value.
+ * </p>
+ * <p>
+ * Only products of the operator and its transpose by vectors are needed, and
+ * the memory used is proportional to (m + n) times the subspace size, so this
+ * class is suited to large sparse matrices or to matrices wrapped in a
+ * {@link ParallelRealLinearOperator}. If a pool is provided, dense matrices
+ * are wrapped automatically and the orthogonalizations are run in the pool too.
+ * The starting vector is drawn from a random generator with a fixed seed, so
+ * the results are reproducible.
+ * </p>
+ *
+ * @see RandomizedSingularValueDecomposition
+ * @see <a href="http://dx.doi.org/10.1137/040614327">J. Baglama and
+ * L. Reichel, Augmented Implicitly Restarted Lanczos Bidiagonalization
+ * Methods, SIAM J. Sci. Comput. 27 (1): 19-42, 2005</a>
+ * @since 4.0
+ */
+public class LanczosSingularValueDecomposition {
+
+    /** Default relative tolerance on the residuals. */
+    public static final double DEFAULT_TOLERANCE = 1.0e-10;
+
+    /** Default maximum number of restarts. */
+    public static final int DEFAULT_MAX_RESTARTS = 1000;
+
+    /** Seed of the random generator for the starting vectors. */
+    private static final long SEED = 0x476f6c75624b61l;
+
+    /** Singular values, in decreasing order. */
+    private final double[] singularValues;
+
+    /** Left singular vectors. */
+    private final double[][] u;
+
+    /** Right singular vectors. */
+    private final double[][] v;
+
+    /** Number of restarts performed. */
+    private final int restarts;
+
+    /**
+     * Calculates the k largest singular triplets of an operator, using
+     * default settings.
+     * <p>
+     * The maximum size of the Krylov subspaces is max(2k + 1, k + 20) (limited
+     * to the smallest dimension of the operator), the tolerance is
+     * {@link #DEFAULT_TOLERANCE} and the maximum number of restarts is
+     * {@link #DEFAULT_MAX_RESTARTS}.
+     * </p>
+     *
+     * @param a operator (either a {@link RealMatrix} or a transposable operator)
+     * @param k number of singular triplets to compute
+     * @throws MathUnsupportedOperationException if {@code a} is neither a
+     * matrix nor a transposable operator
+     * @throws OutOfRangeException if {@code k} is not between 1 and the
+     * smallest dimension of the operator
+     * @throws MaxCountExceededException if the algorithm fails to converge
+     */
+    public LanczosSingularValueDecomposition(final RealLinearOperator a, final int k)
+        throws MathUnsupportedOperationException, OutOfRangeException,
+        MaxCountExceededException {
+        this(a, k, FastMath.max(2 * k + 1, k + 20), DEFAULT_TOLERANCE,
+             DEFAULT_MAX_RESTARTS, null);
+    }
+
+    /**
+     * Calculates the k largest singular triplets of an operator.
+     *
+     * @param a operator (either a {@link RealMatrix} or a transposable operator)
+     * @param k number of singular triplets to compute
+     * @param subspaceSize maximum size of the Krylov subspaces (it is limited
+     * to the smallest dimension of the operator), larger subspaces need more
+     * memory but less restarts
+     * @param tolerance relative tolerance on the residuals
+     * @param maxRestarts maximum number of restarts
+     * @param pool pool in which the products and orthogonalizations are
+     * computed (if null, they are computed sequentially)
+     * @throws MathUnsupportedOperationException if {@code a} is neither a
+     * matrix nor a transposable operator
+     * @throws OutOfRangeException if {@code k} is not between 1 and the
+     * smallest dimension of the operator
+     * @throws NumberIsTooSmallException if {@code subspaceSize} is neither
+     * larger than {@code k} nor at least the smallest dimension
+     * @throws MaxCountExceededException if the algorithm fails to converge
+     */
+    public LanczosSingularValueDecomposition(final RealLinearOperator a, final int k,
+                                             final int subspaceSize, final double tolerance,
+                                             final int maxRestarts, final ForkJoinPool pool)
+        throws MathUnsupportedOperationException, OutOfRangeException,
+        NumberIsTooSmallException, MaxCountExceededException {
+
+        final RealLinearOperator op = SubspaceUtils.transposable(a, pool);
+        final int m = op.getRowDimension();
+        final int n = op.getColumnDimension();
+        final int minDim = FastMath.min(m, n);
+        if (k < 1 || k > minDim) {
+            throw new OutOfRangeException(k, 1, minDim);
+        }
+        if (subspaceSize <= k && subspaceSize < minDim) {
+            throw new NumberIsTooSmallException(subspaceSize, FastMath.min(k + 1, minDim), true);
+        }
+        final int size = FastMath.min(subspaceSize, minDim);
+
+        // bases of the Krylov subspaces (with room for the residual vector
+        // of the right one) and projection of the operator on them
+        final RandomGenerator random = new Well19937c(SEED);
+        final double[][] p = new double[size + 1][];
+        final double[][] q = new double[size][];
+        final double[][] b = new double[size][size];
+        p[0] = SubspaceUtils.randomUnitVector(random, n, p, 0, pool);
+
+        int nbRestarts = 0;
+        int kept = 0;
+        SingularValueDecomposition svd = null;
+        double[] sigma = null;
+        while (true) {
+
+            // extend the bidiagonalization up to the maximum subspace size
+            double alpha = 0;
+            for (int j = kept; j < size; ++j) {
+
+                // column j of B holds the projections of A p_j on the left basis
+                q[j] = op.operate(new ArrayRealVector(p[j], false)).toArray();
+                final double[] h = SubspaceUtils.orthonormalize(q[j], q, j, random, pool);
+                for (int i = 0; i <= j; ++i) {
+                    b[i][j] = h[i];
+                }
+
+                // the projections of A^T q_j on the right basis are already
+                // known from the columns of B, so they are not stored again
+                final double[] r = op.operateTranspose(new ArrayRealVector(q[j], false)).toArray();
+                if (j + 1 == n) {
+                    // the right basis spans the whole space
+                    alpha = 0;
+                } else {
+                    alpha = SubspaceUtils.orthonormalize(r, p, j + 1, random, pool)[j + 1];
+                    p[j + 1] = r;
+                }
+
+            }
+
+            if (size < n && size == m) {
+                // the left basis spans the whole space, so A = Q [B, alpha e] [P, p]^T
+                // holds exactly and the singular triplets of the augmented
+                // projection are those of the operator
+                final double[][] augmented = new double[size][];
+                for (int i = 0; i < size; ++i) {
+                    augmented[i] = Arrays.copyOf(b[i], size + 1);
+                }
+                augmented[size - 1][size] = alpha;
+                svd   = new SingularValueDecomposition(new Array2DRowRealMatrix(augmented, false));
+                sigma = svd.getSingularValues();
+                break;
+            }
+
+            // singular triplets of the projection, sorted in decreasing order
+            svd   = new SingularValueDecomposition(new Array2DRowRealMatrix(b, false));
+            sigma = svd.getSingularValues();
+            final RealMatrix uB = svd.getU();
+            boolean converged = true;
+            for (int i = 0; i < k; ++i) {
+                if (FastMath.abs(alpha * uB.getEntry(size - 1, i)) > tolerance * sigma[0]) {
+                    converged = false;
+                }
+            }
+
+            if (converged) {
+                break;
+            }
+
+            if (nbRestarts == maxRestarts) {
+                throw new MaxCountExceededException(LocalizedFormats.CONVERGENCE_FAILED,
+                                                    maxRestarts);
+            }
+            ++nbRestarts;
+
+            // thick restart: keep the singular vectors of the largest singular
+            // values, the residual vector becomes the next right basis vector
+            kept = k + (size - k) / 2;
+            final double[][] left  = SubspaceUtils.combine(q, svd.getUT().getData(), kept, m, pool);
+            final double[][] right = SubspaceUtils.combine(p, svd.getVT().getData(), kept, n, pool);
+            final double[] residual = p[size];
+            for (int i = 0; i <= size; ++i) {
+                p[i] = (i < kept) ? right[i] : null;
+                if (i < size) {
+                    q[i] = (i < kept) ? left[i] : null;
+                }
+            }
+            p[kept] = residual;
+            for (int i = 0; i < size; ++i) {
+                Arrays.fill(b[i], 0);
+            }
+            for (int i = 0; i < kept; ++i) {
+                b[i][i] = sigma[i];
+            }
+
+        }
+
+        restarts       = nbRestarts;
+        singularValues = Arrays.copyOf(sigma, k);
+        u = SubspaceUtils.combine(q, svd.getUT().getData(), k, m, pool);
+        v = SubspaceUtils.combine(p, svd.getVT().getData(), k, n, pool);
+
+    }
+
+    /**
+     * Get the number of restarts performed.
+     *
+     * @return number of restarts performed
+     */
+    public int getRestarts() {
+        return restarts;
+    }
+
+    /**
+     * Returns the computed singular values, in decreasing order.
+     *
+     * @return a copy of the singular values
+     */
+    public double[] getSingularValues() {
+        return singularValues.clone();
+    }
+
+    /**
+     * Returns the matrix U of the truncated decomposition.
+     *
+     * @return m &times; k matrix whose columns are the left singular vectors
+     */
+    public RealMatrix getU() {
+        return SubspaceUtils.columnMatrix(u);
+    }
+
+    /**
+     * Returns the transpose of the matrix U of the truncated decomposition.
+     *
+     * @return k &times; m matrix whose rows are the left singular vectors
+     */
+    public RealMatrix getUT() {
+        return MatrixUtils.createRealMatrix(u);
+    }
+
+    /**
+     * Returns the diagonal matrix &Sigma; of the truncated decomposition.
+     *
+     * @return k &times; k diagonal matrix of the singular values
+     */
+    public RealMatrix getS() {
+        return MatrixUtils.createRealDiagonalMatrix(singularValues);
+    }
+
+    /**
+     * Returns the matrix V of the truncated decomposition.
+     *
+     * @return n &times; k matrix whose columns are the right singular vectors
+     */
+    public RealMatrix getV() {
+        return SubspaceUtils.columnMatrix(v);
+    }
+
+    /**
+     * Returns the transpose of the matrix V of the truncated decomposition.
+     *
+     * @return k &times; n matrix whose rows are the right singular vectors
+     */
+    public RealMatrix getVT() {
+        return MatrixUtils.createRealMatrix(v);
+    }
+
+    /**
+     * Returns the L<sub>2</sub> norm of the operator, i.e. its largest
+     * singular value.
+     *
+     * @return largest singular value
+     */
+    public double getNorm() {
+        return singularValues[0];
+    }
+
+}
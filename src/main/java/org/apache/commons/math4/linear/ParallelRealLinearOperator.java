@@ -0,0 +1,248 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.math4.linear;
+
+import java.util.concurrent.ForkJoinPool;
+
+import org.apache.commons.math4.exception.DimensionMismatchException;
+import org.apache.commons.math4.exception.NullArgumentException;
+import org.apache.commons.math4.util.FastMath;
+import org.apache.commons.math4.util.MathUtils;
+
+/**
+ * Linear operator computing the products of a matrix by vectors in parallel.
+ * <p>
+ * The rows of the product are split in blocks computed in a fork-join pool,
+ * so that iterative solvers like {@link ConjugateGradient}, {@link GMRES}
+ * or {@link BiCGSTAB} perform their matrix-vector products in parallel when
+ * they are given this operator instead of the matrix itself. Blocks hold at
+ * least {@link RangeUpdater#MIN_TASK_OPERATIONS} floating point operations,
+ * so small matrices are still handled in the calling thread.
+ * </p>
+ * <p>
+ * {@link CompressedRowRealMatrix} and {@link Array2DRowRealMatrix} are
+ * accessed directly through their internal arrays, other matrices are
+ * accessed row by row. For {@link CompressedRowRealMatrix}, the transpose
+ * products are computed by scattering blocks of rows into one partial
+ * product per block, which are then summed.
+ * </p>
+ * <p>
+ * The matrix is referenced, not copied; it must not be modified while
+ * products are computed.
+ * </p>
+ *
+ * @since 4.0
+ */
+public class ParallelRealLinearOperator extends RealLinearOperator {
+
+    /** Underlying matrix. */
+    private final RealMatrix matrix;
+
+    /** Pool in which the products are computed. */
+    private final ForkJoinPool pool;
+
+    /**
+     * Creates a new instance of this class.
+     *
+     * @param matrix underlying matrix (it is referenced, not copied)
+     * @param pool pool in which the products are computed
+     * @throws NullArgumentException if {@code matrix} or {@code pool} is null
+     */
+    public ParallelRealLinearOperator(final RealMatrix matrix, final ForkJoinPool pool)
+        throws NullArgumentException {
+        MathUtils.checkNotNull(matrix);
+        MathUtils.checkNotNull(pool);
+        this.matrix = matrix;
+        this.pool   = pool;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public int getRowDimension() {
+        return matrix.getRowDimension();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public int getColumnDimension() {
+        return matrix.getColumnDimension();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public RealVector operate(final RealVector x)
+        throws DimensionMismatchException {
+        if (x.getDimension() != matrix.getColumnDimension()) {
+            throw new DimensionMismatchException(x.getDimension(), matrix.getColumnDimension());
+        }
+        return new ArrayRealVector(operate(matrix, x.toArray()), false);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public RealVector operateTranspose(final RealVector x)
+        throws DimensionMismatchException {
+        if (x.getDimension() != matrix.getRowDimension()) {
+            throw new DimensionMismatchException(x.getDimension(), matrix.getRowDimension());
+        }
+        final double[] v = x.toArray();
+        if (matrix instanceof CompressedRowRealMatrix) {
+            return new ArrayRealVector(preMultiply((CompressedRowRealMatrix) matrix, v), false);
+        }
+
+        final int nRows = matrix.getRowDimension();
+        final double[] out = new double[matrix.getColumnDimension()];
+        RangeUpdater.apply(pool, 0, out.length, 2l * nRows, new RangeUpdater.Update() {
+            /** {@inheritDoc} */
+            @Override
+            public void apply(final int start, final int end) {
+                for (int j = start; j < end; ++j) {
+                    final double[] column = matrix.getColumn(j);
+                    double sum = 0;
+                    for (int i = 0; i < nRows; ++i) {
+                        sum += column[i] * v[i];
+                    }
+                    out[j] = sum;
+                }
+            }
+        });
+        return new ArrayRealVector(out, false);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @return {@code true}
+     */
+    @Override
+    public boolean isTransposable() {
+        return true;
+    }
+
+    /**
+     * Compute the product of a matrix by a vector, splitting rows in blocks.
+     *
+     * @param m matrix
+     * @param v vector (dimension already checked)
+     * @return m &middot; v
+     */
+    private double[] operate(final RealMatrix m, final double[] v) {
+        final int nRows = m.getRowDimension();
+        final int nCols = m.getColumnDimension();
+        final double[] out = new double[nRows];
+        if (m instanceof CompressedRowRealMatrix) {
+            final CompressedRowRealMatrix crm = (CompressedRowRealMatrix) m;
+            RangeUpdater.apply(pool, 0, nRows, 1 + (2l * crm.getNonZeroCount()) / nRows,
+                               new RangeUpdater.Update() {
+                /** {@inheritDoc} */
+                @Override
+                public void apply(final int start, final int end) {
+                    crm.operateRows(v, out, start, end);
+                }
+            });
+        } else if (m instanceof Array2DRowRealMatrix) {
+            final double[][] data = ((Array2DRowRealMatrix) m).getDataRef();
+            RangeUpdater.apply(pool, 0, nRows, 2l * nCols, new RangeUpdater.Update() {
+                /** {@inheritDoc} */
+                @Override
+                public void apply(final int start, final int end) {
+                    for (int i = start; i < end; ++i) {
+                        out[i] = dot(data[i], v);
+                    }
+                }
+            });
+        } else {
+            RangeUpdater.apply(pool, 0, nRows, 2l * nCols, new RangeUpdater.Update() {
+                /** {@inheritDoc} */
+                @Override
+                public void apply(final int start, final int end) {
+                    for (int i = start; i < end; ++i) {
+                        out[i] = dot(m.getRow(i), v);
+                    }
+                }
+            });
+        }
+        return out;
+    }
+
+    /**
+     * Compute the product of a vector by a compressed matrix, splitting rows
+     * in blocks.
+     *
+     * @param m matrix
+     * @param v vector (dimension already checked)
+     * @return v &middot; m
+     */
+    private double[] preMultiply(final CompressedRowRealMatrix m, final double[] v) {
+        final int nRows = m.getRowDimension();
+        final int nCols = m.getColumnDimension();
+        final long operations = 2l * m.getNonZeroCount();
+        final int blocks = (int) FastMath.max(1l,
+                                              FastMath.min(pool.getParallelism(),
+                                                           operations / RangeUpdater.MIN_TASK_OPERATIONS));
+        if (blocks == 1) {
+            return m.preMultiply(v);
+        }
+
+        // each block of rows scatters into its own partial product
+        final double[][] partial = new double[blocks][];
+        RangeUpdater.apply(pool, 0, blocks, operations / blocks, new RangeUpdater.Update() {
+            /** {@inheritDoc} */
+            @Override
+            public void apply(final int start, final int end) {
+                for (int b = start; b < end; ++b) {
+                    partial[b] = new double[nCols];
+                    m.preMultiplyRows(v, partial[b],
+                                      (int) ((long) b * nRows / blocks),
+                                      (int) ((long) (b + 1) * nRows / blocks));
+                }
+            }
+        });
+
+        // sum the partial products
+        final double[] out = partial[0];
+        RangeUpdater.apply(pool, 0, nCols, blocks, new RangeUpdater.Update() {
+            /** {@inheritDoc} */
+            @Override
+            public void apply(final int start, final int end) {
+                for (int b = 1; b < blocks; ++b) {
+                    final double[] partialB = partial[b];
+                    for (int j = start; j < end; ++j) {
+                        out[j] += partialB[j];
+                    }
+                }
+            }
+        });
+        return out;
+    }
+
+    /**
+     * Compute a dot product.
+     *
+     * @param row matrix row
+     * @param v vector
+     * @return row &middot; v
+     */
+    private static double dot(final double[] row, final double[] v) {
+        double sum = 0;
+        for (int j = 0; j < row.length; ++j) {
+            sum += row[j] * v[j];
+        }
+        return sum;
+    }
+
+}
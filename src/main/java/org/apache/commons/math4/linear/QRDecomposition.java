@@ -18,6 +18,7 @@
 package org.apache.commons.math4.linear;
 
 import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
 
 import org.apache.commons.math4.exception.DimensionMismatchException;
 import org.apache.commons.math4.util.FastMath;
@@ -104,6 +105,42 @@ public class QRDecomposition {
 
     }
 
+    /**
+     * Calculates the QR-decomposition of the given matrix, applying the
+     * Householder reflections to the trailing columns in parallel.
+     * <p>
+     * The reflections are computed for one panel of columns at a time, and
+     * then applied to all remaining columns, which are independent of each
+     * other. The result is exactly the same as the one computed by the
+     * sequential constructors, only the computation is spread over the
+     * threads of the pool for large matrices. As this constructor does not
+     * call {@link #decompose(double[][])}, it is not intended to be used
+     * by subclasses that customize the decomposition.
+     * </p>
+     *
+     * @param matrix The matrix to decompose.
+     * @param threshold Singularity threshold.
+     * @param pool pool in which the update tasks are run (if null,
+     * the decomposition is computed sequentially)
+     * @since 4.0
+     */
+    public QRDecomposition(RealMatrix matrix, double threshold,
+                           ForkJoinPool pool) {
+        this.threshold = threshold;
+
+        final int m = matrix.getRowDimension();
+        final int n = matrix.getColumnDimension();
+        qrt = matrix.transpose().getData();
+        rDiag = new double[FastMath.min(m, n)];
+        cachedQ  = null;
+        cachedQT = null;
+        cachedR  = null;
+        cachedH  = null;
+
+        decompose(qrt, pool);
+
+    }
+
     /** Decompose matrix.
      * @param matrix transposed matrix
      * @since 3.2
@@ -114,6 +151,46 @@ public class QRDecomposition {
         }
     }
 
+    /** Decompose matrix, one panel of columns at a time.
+     * @param matrix transposed matrix
+     * @param pool pool in which the update tasks are run (may be null)
+     */
+    private void decompose(final double[][] matrix, final ForkJoinPool pool) {
+        final int minors = FastMath.min(matrix.length, matrix[0].length);
+        for (int k = 0; k < minors; k += BlockRealMatrix.BLOCK_SIZE) {
+            final int kEnd = FastMath.min(k + BlockRealMatrix.BLOCK_SIZE, minors);
+
+            // compute the reflections of the panel, updating only the panel
+            for (int minor = k; minor < kEnd; minor++) {
+                final double a = computeHouseholderVector(minor, matrix[minor]);
+                if (a != 0.0) {
+                    for (int col = minor + 1; col < kEnd; col++) {
+                        reflect(minor, a, matrix[minor], matrix[col]);
+                    }
+                }
+            }
+
+            // apply all the reflections of the panel to the trailing columns
+            final int start = k;
+            final int end   = kEnd;
+            RangeUpdater.apply(pool, kEnd, matrix.length, 4l * (end - start) * (matrix[0].length - start),
+                               new RangeUpdater.Update() {
+                /** {@inheritDoc} */
+                public void apply(final int colStart, final int colEnd) {
+                    for (int col = colStart; col < colEnd; col++) {
+                        for (int minor = start; minor < end; minor++) {
+                            final double a = rDiag[minor];
+                            if (a != 0.0) {
+                                reflect(minor, a, matrix[minor], matrix[col]);
+                            }
+                        }
+                    }
+                }
+            });
+
+        }
+    }
+
     /** Perform Householder reflection for a minor A(minor, minor) of A.
      * @param minor minor index
      * @param matrix transposed matrix
@@ -122,6 +199,25 @@ public class QRDecomposition {
     protected void performHouseholderReflection(int minor, double[][] matrix) {
 
         final double[] qrtMinor = matrix[minor];
+        final double a = computeHouseholderVector(minor, qrtMinor);
+
+        if (a != 0.0) {
+            /*
+             * Transform the rest of the columns of the minor.
+             */
+            for (int col = minor+1; col < matrix.length; col++) {
+                reflect(minor, a, qrtMinor, matrix[col]);
+            }
+        }
+    }
+
+    /** Compute the Householder vector for a minor A(minor, minor) of A.
+     * @param minor minor index
+     * @param qrtMinor first column of the minor, will be replaced
+     * by the Householder vector v
+     * @return diagonal element a of R (the reflection is the identity if a is 0)
+     */
+    private double computeHouseholderVector(final int minor, final double[] qrtMinor) {
 
         /*
          * Let x be the first column of the minor, and a^2 = |x|^2.
@@ -150,31 +246,40 @@ public class QRDecomposition {
              */
             qrtMinor[minor] -= a; // now |v|^2 = -2a*(qr[minor][minor])
 
-            /*
-             * Transform the rest of the columns of the minor:
-             * They will be transformed by the matrix H = I-2vv'/|v|^2.
-             * If x is a column vector of the minor, then
-             * Hx = (I-2vv'/|v|^2)x = x-2vv'x/|v|^2 = x - 2<x,v>/|v|^2 v.
-             * Therefore the transformation is easily calculated by
-             * subtracting the column vector (2<x,v>/|v|^2)v from x.
-             *
-             * Let 2<x,v>/|v|^2 = alpha. From above we have
-             * |v|^2 = -2a*(qr[minor][minor]), so
-             * alpha = -<x,v>/(a*qr[minor][minor])
-             */
-            for (int col = minor+1; col < matrix.length; col++) {
-                final double[] qrtCol = matrix[col];
-                double alpha = 0;
-                for (int row = minor; row < qrtCol.length; row++) {
-                    alpha -= qrtCol[row] * qrtMinor[row];
-                }
-                alpha /= a * qrtMinor[minor];
+        }
 
-                // Subtract the column vector alpha*v from x.
-                for (int row = minor; row < qrtCol.length; row++) {
-                    qrtCol[row] -= alpha * qrtMinor[row];
-                }
-            }
+        return a;
+
+    }
+
+    /** Transform one column of a minor by a Householder reflection.
+     * @param minor minor index
+     * @param a diagonal element of R for the minor (must be non-zero)
+     * @param qrtMinor Householder vector v
+     * @param qrtCol column to transform
+     */
+    private static void reflect(final int minor, final double a,
+                                final double[] qrtMinor, final double[] qrtCol) {
+        /*
+         * The column is transformed by the matrix H = I-2vv'/|v|^2.
+         * If x is a column vector of the minor, then
+         * Hx = (I-2vv'/|v|^2)x = x-2vv'x/|v|^2 = x - 2<x,v>/|v|^2 v.
+         * Therefore the transformation is easily calculated by
+         * subtracting the column vector (2<x,v>/|v|^2)v from x.
+         *
+         * Let 2<x,v>/|v|^2 = alpha. From above we have
+         * |v|^2 = -2a*(qr[minor][minor]), so
+         * alpha = -<x,v>/(a*qr[minor][minor])
+         */
+        double alpha = 0;
+        for (int row = minor; row < qrtCol.length; row++) {
+            alpha -= qrtCol[row] * qrtMinor[row];
+        }
+        alpha /= a * qrtMinor[minor];
+
+        // Subtract the column vector alpha*v from x.
+        for (int row = minor; row < qrtCol.length; row++) {
+            qrtCol[row] -= alpha * qrtMinor[row];
         }
     }
 
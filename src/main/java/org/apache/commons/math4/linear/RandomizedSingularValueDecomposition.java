@@ -0,0 +1,252 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.math4.linear;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+
+import org.apache.commons.math4.exception.MathUnsupportedOperationException;
+import org.apache.commons.math4.exception.NotPositiveException;
+import org.apache.commons.math4.exception.OutOfRangeException;
+import org.apache.commons.math4.random.RandomGenerator;
+import org.apache.commons.math4.random.Well19937c;
+import org.apache.commons.math4.util.FastMath;
+
+/**
+ * Calculates an approximation of the k largest singular values and the
+ * corresponding singular vectors of a linear operator, using a randomized
+ * range finder.
+ * <p>
+ * The operator A (m &times; n) is applied to l = k + p random Gaussian
+ * vectors, where p is a small oversampling parameter. The images are
+ * orthonormalized into a basis Q of an approximation of the range of A,
+ * which is refined by a few power iterations (A A<sup>T</sup>)<sup>q</sup>
+ * to compensate for a slow decay of the singular values. The product
+ * A<sup>T</sup> Q is then factored as P R with P orthonormal, so that
+ * A &asymp; Q R<sup>T</sup> P<sup>T</sup>, and the singular value
+ * decomposition of the small l &times; l matrix R<sup>T</sup> gives the
+ * truncated decomposition of A.
+ * </p>
+ * <p>
+ * Only products of the operator and its transpose by vectors are needed, and
+ * the memory used is proportional to (m + n) l, so this class is suited to
+ * large sparse matrices or to matrices wrapped in a
+ * {@link ParallelRealLinearOperator}. If a pool is provided, dense matrices
+ * are wrapped automatically and the orthogonalizations are run in the pool too.
+ * </p>
+ * <p>
+ * The results are approximate: their accuracy depends on the decay of the
+ * singular values beyond the k<sup>th</sup> one, and improves with the
+ * oversampling and the number of power iterations. The random vectors are
+ * drawn from a generator with a fixed seed, so the results are reproducible.
+ * {@link LanczosSingularValueDecomposition} is slower but computes the
+ * singular triplets up to a specified tolerance.
+ * </p>
+ *
+ * @see <a href="http://dx.doi.org/10.1137/090771806">N. Halko, P. G.
+ * Martinsson and J. A. Tropp, Finding Structure with Randomness: Probabilistic
+ * Algorithms for Constructing Approximate Matrix Decompositions, SIAM Review
+ * 53 (2): 217-288, 2011</a>
+ * @since 4.0
+ */
+public class RandomizedSingularValueDecomposition {
+
+    /** Default oversampling. */
+    public static final int DEFAULT_OVERSAMPLING = 10;
+
+    /** Default number of power iterations. */
+    public static final int DEFAULT_POWER_ITERATIONS = 2;
+
+    /** Seed of the random generator for the test vectors. */
+    private static final long SEED = 0x52616e646f6d53l;
+
+    /** Singular values, in decreasing order. */
+    private final double[] singularValues;
+
+    /** Left singular vectors. */
+    private final double[][] u;
+
+    /** Right singular vectors. */
+    private final double[][] v;
+
+    /**
+     * Calculates an approximation of the k largest singular triplets of an
+     * operator, using default settings.
+     * <p>
+     * The oversampling is {@link #DEFAULT_OVERSAMPLING} and the number of
+     * power iterations is {@link #DEFAULT_POWER_ITERATIONS}.
+     * </p>
+     *
+     * @param a operator (either a {@link RealMatrix} or a transposable operator)
+     * @param k number of singular triplets to compute
+     * @throws MathUnsupportedOperationException if {@code a} is neither a
+     * matrix nor a transposable operator
+     * @throws OutOfRangeException if {@code k} is not between 1 and the
+     * smallest dimension of the operator
+     */
+    public RandomizedSingularValueDecomposition(final RealLinearOperator a, final int k)
+        throws MathUnsupportedOperationException, OutOfRangeException {
+        this(a, k, DEFAULT_OVERSAMPLING, DEFAULT_POWER_ITERATIONS, null);
+    }
+
+    /**
+     * Calculates an approximation of the k largest singular triplets of an
+     * operator.
+     *
+     * @param a operator (either a {@link RealMatrix} or a transposable operator)
+     * @param k number of singular triplets to compute
+     * @param oversampling number of additional random vectors (the total
+     * number is limited to the smallest dimension of the operator)
+     * @param powerIterations number of power iterations
+     * @param pool pool in which the products and orthogonalizations are
+     * computed (if null, they are computed sequentially)
+     * @throws MathUnsupportedOperationException if {@code a} is neither a
+     * matrix nor a transposable operator
+     * @throws OutOfRangeException if {@code k} is not between 1 and the
+     * smallest dimension of the operator
+     * @throws NotPositiveException if {@code oversampling} or
+     * {@code powerIterations} is negative
+     */
+    public RandomizedSingularValueDecomposition(final RealLinearOperator a, final int k,
+                                                final int oversampling,
+                                                final int powerIterations,
+                                                final ForkJoinPool pool)
+        throws MathUnsupportedOperationException, OutOfRangeException,
+        NotPositiveException {
+
+        final RealLinearOperator op = SubspaceUtils.transposable(a, pool);
+        final int m = op.getRowDimension();
+        final int n = op.getColumnDimension();
+        final int minDim = FastMath.min(m, n);
+        if (k < 1 || k > minDim) {
+            throw new OutOfRangeException(k, 1, minDim);
+        }
+        if (oversampling < 0) {
+            throw new NotPositiveException(oversampling);
+        }
+        if (powerIterations < 0) {
+            throw new NotPositiveException(powerIterations);
+        }
+        final int l = FastMath.min(k + oversampling, minDim);
+
+        // basis of the range of A applied to random Gaussian vectors
+        final RandomGenerator random = new Well19937c(SEED);
+        final double[][] q = new double[l][];
+        for (int j = 0; j < l; ++j) {
+            final double[] omega = new double[n];
+            for (int i = 0; i < n; ++i) {
+                omega[i] = random.nextGaussian();
+            }
+            q[j] = op.operate(new ArrayRealVector(omega, false)).toArray();
+            SubspaceUtils.orthonormalize(q[j], q, j, random, pool);
+        }
+
+        // power iterations, with orthonormalization after each product
+        final double[][] p = new double[l][];
+        for (int iteration = 0; iteration < powerIterations; ++iteration) {
+            for (int j = 0; j < l; ++j) {
+                p[j] = op.operateTranspose(new ArrayRealVector(q[j], false)).toArray();
+                SubspaceUtils.orthonormalize(p[j], p, j, random, pool);
+            }
+            for (int j = 0; j < l; ++j) {
+                q[j] = op.operate(new ArrayRealVector(p[j], false)).toArray();
+                SubspaceUtils.orthonormalize(q[j], q, j, random, pool);
+            }
+        }
+
+        // QR factorization of A^T Q = P R, R being stored transposed
+        final double[][] rT = new double[l][l];
+        for (int j = 0; j < l; ++j) {
+            p[j] = op.operateTranspose(new ArrayRealVector(q[j], false)).toArray();
+            final double[] h = SubspaceUtils.orthonormalize(p[j], p, j, random, pool);
+            System.arraycopy(h, 0, rT[j], 0, j + 1);
+        }
+
+        // A ~ Q R^T P^T, with R^T = U' S V'^T
+        final SingularValueDecomposition svd =
+            new SingularValueDecomposition(new Array2DRowRealMatrix(rT, false));
+        singularValues = Arrays.copyOf(svd.getSingularValues(), k);
+        u = SubspaceUtils.combine(q, svd.getUT().getData(), k, m, pool);
+        v = SubspaceUtils.combine(p, svd.getVT().getData(), k, n, pool);
+
+    }
+
+    /**
+     * Returns the computed singular values, in decreasing order.
+     *
+     * @return a copy of the singular values
+     */
+    public double[] getSingularValues() {
+        return singularValues.clone();
+    }
+
+    /**
+     * Returns the matrix U of the truncated decomposition.
+     *
+     * @return m &times; k matrix whose columns are the left singular vectors
+     */
+    public RealMatrix getU() {
+        return SubspaceUtils.columnMatrix(u);
+    }
+
+    /**
+     * Returns the transpose of the matrix U of the truncated decomposition.
+     *
+     * @return k &times; m matrix whose rows are the left singular vectors
+     */
+    public RealMatrix getUT() {
+        return MatrixUtils.createRealMatrix(u);
+    }
+
+    /**
+     * Returns the diagonal matrix &Sigma; of the truncated decomposition.
+     *
+     * @return k &times; k diagonal matrix of the singular values
+     */
+    public RealMatrix getS() {
+        return MatrixUtils.createRealDiagonalMatrix(singularValues);
+    }
+
+    /**
+     * Returns the matrix V of the truncated decomposition.
+     *
+     * @return n &times; k matrix whose columns are the right singular vectors
+     */
+    public RealMatrix getV() {
+        return SubspaceUtils.columnMatrix(v);
+    }
+
+    /**
+     * Returns the transpose of the matrix V of the truncated decomposition.
+     *
+     * @return k &times; n matrix whose rows are the right singular vectors
+     */
+    public RealMatrix getVT() {
+        return MatrixUtils.createRealMatrix(v);
+    }
+
+    /**
+     * Returns the approximation of the L<sub>2</sub> norm of the operator,
+     * i.e. its largest computed singular value.
+     *
+     * @return largest computed singular value
+     */
+    public double getNorm() {
+        return singularValues[0];
+    }
+
+}
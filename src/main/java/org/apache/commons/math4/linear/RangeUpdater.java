@@ -0,0 +1,130 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.math4.linear;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+
+import org.apache.commons.math4.util.FastMath;
+
+/**
+ * Utility for applying independent updates to a range of indices (typically
+ * matrix rows or columns), either sequentially or in a fork-join pool.
+ * <p>
+ * The range is split recursively until each sub-range holds about
+ * {@link #MIN_TASK_OPERATIONS} floating point operations, so that small
+ * ranges or cheap updates are not parallelized.
+ * </p>
+ * @since 4.0
+ */
+final class RangeUpdater {
+
+    /** Minimum number of floating point operations per task. */
+    static final long MIN_TASK_OPERATIONS = 1l << 15;
+
+    /** Private constructor for utility class. */
+    private RangeUpdater() {
+    }
+
+    /** Interface for updates applied to a range of indices. */
+    interface Update {
+
+        /** Apply the update to a range of indices.
+         * <p>
+         * The update must be independent for each index, as sub-ranges
+         * may be processed concurrently.
+         * </p>
+         * @param start first index of the range (included)
+         * @param end last index of the range (excluded)
+         */
+        void apply(int start, int end);
+
+    }
+
+    /** Apply an update to a range of indices.
+     * @param pool pool in which tasks should run (if null, the update
+     * is applied sequentially in the calling thread; calls from tasks already
+     * running in the pool are supported)
+     * @param start first index of the range (included)
+     * @param end last index of the range (excluded)
+     * @param operationsPerIndex estimated number of floating point
+     * operations per index
+     * @param update update to apply
+     */
+    static void apply(final ForkJoinPool pool, final int start, final int end,
+                      final long operationsPerIndex, final Update update) {
+        if (end <= start) {
+            return;
+        }
+        final int grain = (int) FastMath.max(1l, MIN_TASK_OPERATIONS / FastMath.max(1l, operationsPerIndex));
+        if (pool == null || end - start <= grain) {
+            update.apply(start, end);
+        } else if (ForkJoinTask.getPool() == pool) {
+            // already running in a task of the pool, split directly
+            new UpdateTask(start, end, grain, update).invoke();
+        } else {
+            pool.invoke(new UpdateTask(start, end, grain, update));
+        }
+    }
+
+    /** Fork-join task applying an update to a range of indices. */
+    private static class UpdateTask extends RecursiveAction {
+
+        /** Serializable version identifier. */
+        private static final long serialVersionUID = 20161018L;
+
+        /** First index of the range (included). */
+        private final int start;
+
+        /** Last index of the range (excluded). */
+        private final int end;
+
+        /** Maximum number of indices processed without splitting. */
+        private final int grain;
+
+        /** Update to apply. */
+        private final Update update;
+
+        /** Simple constructor.
+         * @param start first index of the range (included)
+         * @param end last index of the range (excluded)
+         * @param grain maximum number of indices processed without splitting
+         * @param update update to apply
+         */
+        UpdateTask(final int start, final int end, final int grain, final Update update) {
+            this.start  = start;
+            this.end    = end;
+            this.grain  = grain;
+            this.update = update;
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        protected void compute() {
+            if (end - start <= grain) {
+                update.apply(start, end);
+            } else {
+                final int middle = (start + end) >>> 1;
+                invokeAll(new UpdateTask(start, middle, grain, update),
+                          new UpdateTask(middle, end, grain, update));
+            }
+        }
+
+    }
+
+}
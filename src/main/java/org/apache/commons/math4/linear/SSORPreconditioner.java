@@ -0,0 +1,152 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.math4.linear;
+
+import org.apache.commons.math4.exception.DimensionMismatchException;
+import org.apache.commons.math4.exception.OutOfRangeException;
+
+/**
+ * This class implements the symmetric successive over-relaxation (SSOR)
+ * preconditioner.
+ * <p>
+ * The matrix A is split as A = L + D + U, where D is the diagonal part
+ * of A and L (resp. U) its strictly lower (resp. upper) triangular part.
+ * For a relaxation parameter 0 &lt; &omega; &lt; 2, the preconditioner is
+ * M = &omega; (2 - &omega;) (D + &omega; U)<sup>-1</sup> D
+ * (D + &omega; L)<sup>-1</sup>. If A is symmetric positive definite, so is
+ * M, which can therefore be used with {@link ConjugateGradient}. For
+ * &omega; = 1, this is the symmetric Gauss-Seidel preconditioner.
+ * </p>
+ * <p>
+ * Unlike incomplete factorizations, this preconditioner does not require
+ * any setup computation apart from a copy of A, and it cannot break down
+ * as long as the diagonal of A has no zero entries.
+ * </p>
+ *
+ * @since 4.0
+ */
+public class SSORPreconditioner extends RealLinearOperator {
+
+    /** Copy of the matrix. */
+    private final CompressedRowRealMatrix a;
+
+    /** Index of the diagonal entry of each row. */
+    private final int[] diagonal;
+
+    /** Relaxation parameter. */
+    private final double omega;
+
+    /**
+     * Creates a new instance of this class.
+     *
+     * @param a the matrix for which the preconditioner should be built
+     * (it is copied)
+     * @param omega relaxation parameter, must be strictly between 0 and 2
+     * @throws NonSquareOperatorException if {@code a} is not square
+     * @throws OutOfRangeException if {@code omega} is not strictly between 0 and 2
+     * @throws SingularMatrixException if a diagonal entry of {@code a} is zero
+     */
+    public SSORPreconditioner(final CompressedRowRealMatrix a, final double omega)
+        throws NonSquareOperatorException, OutOfRangeException, SingularMatrixException {
+
+        final int n = a.getRowDimension();
+        if (a.getColumnDimension() != n) {
+            throw new NonSquareOperatorException(n, a.getColumnDimension());
+        }
+        if (!(omega > 0 && omega < 2)) {
+            throw new OutOfRangeException(omega, 0, 2);
+        }
+
+        this.a        = a.copy();
+        this.omega    = omega;
+        this.diagonal = new int[n];
+
+        final int[]    rowStart      = this.a.getRowStartRef();
+        final int[]    columnIndices = this.a.getColumnIndicesRef();
+        final double[] values        = this.a.getValuesRef();
+        for (int i = 0; i < n; ++i) {
+            diagonal[i] = -1;
+            for (int k = rowStart[i]; k < rowStart[i + 1]; ++k) {
+                if (columnIndices[k] == i) {
+                    diagonal[i] = k;
+                }
+            }
+            if (diagonal[i] < 0 || values[diagonal[i]] == 0.0) {
+                throw new SingularMatrixException();
+            }
+        }
+
+    }
+
+    /**
+     * Get the relaxation parameter.
+     *
+     * @return relaxation parameter &omega;
+     */
+    public double getOmega() {
+        return omega;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public int getRowDimension() {
+        return diagonal.length;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public int getColumnDimension() {
+        return diagonal.length;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public RealVector operate(final RealVector x)
+        throws DimensionMismatchException {
+        final int n = diagonal.length;
+        if (x.getDimension() != n) {
+            throw new DimensionMismatchException(x.getDimension(), n);
+        }
+
+        final int[]    rowStart      = a.getRowStartRef();
+        final int[]    columnIndices = a.getColumnIndicesRef();
+        final double[] values        = a.getValuesRef();
+
+        // forward sweep: (D + omega L) y = omega (2 - omega) x
+        final double[] y = x.toArray();
+        final double scale = omega * (2 - omega);
+        for (int i = 0; i < n; ++i) {
+            double sum = 0;
+            for (int k = rowStart[i]; k < diagonal[i]; ++k) {
+                sum += values[k] * y[columnIndices[k]];
+            }
+            y[i] = (scale * y[i] - omega * sum) / values[diagonal[i]];
+        }
+
+        // backward sweep: (D + omega U) z = D y
+        for (int i = n - 1; i >= 0; --i) {
+            double sum = 0;
+            for (int k = diagonal[i] + 1; k < rowStart[i + 1]; ++k) {
+                sum += values[k] * y[columnIndices[k]];
+            }
+            y[i] -= omega * sum / values[diagonal[i]];
+        }
+
+        return new ArrayRealVector(y, false);
+    }
+
+}
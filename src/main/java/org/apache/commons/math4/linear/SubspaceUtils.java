@@ -0,0 +1,307 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.math4.linear;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+
+import org.apache.commons.math4.exception.DimensionMismatchException;
+import org.apache.commons.math4.exception.MathUnsupportedOperationException;
+import org.apache.commons.math4.random.RandomGenerator;
+import org.apache.commons.math4.util.FastMath;
+
+/**
+ * Utilities for the decompositions working on a subspace of moderate dimension
+ * of a large space ({@link LanczosEigenDecomposition},
+ * {@link LanczosSingularValueDecomposition} and
+ * {@link RandomizedSingularValueDecomposition}).
+ * <p>
+ * Bases of the subspaces are stored as arrays of vectors, and are kept
+ * orthonormal using the classical Gram-Schmidt process applied twice, which
+ * is as accurate as the modified process but allows the projections to be
+ * computed independently.
+ * </p>
+ * @since 4.0
+ */
+final class SubspaceUtils {
+
+    /** Private constructor for utility class. */
+    private SubspaceUtils() {
+    }
+
+    /**
+     * Get an operator supporting transposed products.
+     * <p>
+     * Matrices are wrapped in a {@link ParallelRealLinearOperator} if a pool
+     * is provided, or in a sequential adapter if they do not support
+     * transposed products themselves. Other operators are returned as is.
+     * </p>
+     *
+     * @param a operator
+     * @param pool pool in which the products of matrices are computed (may be null)
+     * @return an operator supporting transposed products
+     * @throws MathUnsupportedOperationException if {@code a} is neither a
+     * matrix nor a transposable operator
+     */
+    static RealLinearOperator transposable(final RealLinearOperator a, final ForkJoinPool pool)
+        throws MathUnsupportedOperationException {
+        if (a instanceof RealMatrix) {
+            final RealMatrix matrix = (RealMatrix) a;
+            if (pool != null) {
+                return new ParallelRealLinearOperator(matrix, pool);
+            } else if (!a.isTransposable()) {
+                return new RealLinearOperator() {
+
+                    /** {@inheritDoc} */
+                    @Override
+                    public int getRowDimension() {
+                        return matrix.getRowDimension();
+                    }
+
+                    /** {@inheritDoc} */
+                    @Override
+                    public int getColumnDimension() {
+                        return matrix.getColumnDimension();
+                    }
+
+                    /** {@inheritDoc} */
+                    @Override
+                    public RealVector operate(final RealVector x)
+                        throws DimensionMismatchException {
+                        return matrix.operate(x);
+                    }
+
+                    /** {@inheritDoc} */
+                    @Override
+                    public RealVector operateTranspose(final RealVector x)
+                        throws DimensionMismatchException {
+                        return matrix.preMultiply(x);
+                    }
+
+                    /** {@inheritDoc} */
+                    @Override
+                    public boolean isTransposable() {
+                        return true;
+                    }
+
+                };
+            }
+        }
+        if (!a.isTransposable()) {
+            throw new MathUnsupportedOperationException();
+        }
+        return a;
+    }
+
+    /**
+     * Orthogonalize a vector against the first vectors of an orthonormal
+     * basis, in place.
+     *
+     * @param w vector to orthogonalize
+     * @param v orthonormal basis
+     * @param size number of vectors of the basis to use
+     * @param pool pool in which the tasks are run (may be null)
+     * @return projections of the original vector on the basis vectors
+     */
+    static double[] orthogonalize(final double[] w, final double[][] v,
+                                  final int size, final ForkJoinPool pool) {
+        final double[] h = new double[size];
+        for (int pass = 0; pass < 2; ++pass) {
+            final double[] hPass = project(w, v, size, pool);
+            for (int i = 0; i < size; ++i) {
+                h[i] += hPass[i];
+            }
+        }
+        return h;
+    }
+
+    /**
+     * Orthogonalize a vector against the first vectors of an orthonormal basis
+     * and normalize it, in place.
+     * <p>
+     * If the vector lies in the subspace spanned by the basis (up to rounding
+     * errors), it is replaced by a random unit vector orthogonal to the basis.
+     * </p>
+     *
+     * @param w vector to orthonormalize
+     * @param v orthonormal basis
+     * @param size number of vectors of the basis to use
+     * @param random random generator
+     * @param pool pool in which the tasks are run (may be null)
+     * @return projections of the original vector on the basis vectors,
+     * followed by the norm of the vector after orthogonalization (0 if it
+     * has been replaced by a random vector)
+     */
+    static double[] orthonormalize(final double[] w, final double[][] v, final int size,
+                                   final RandomGenerator random, final ForkJoinPool pool) {
+        final double w0 = norm(w);
+        final double[] h = Arrays.copyOf(orthogonalize(w, v, size, pool), size + 1);
+        final double wNorm = norm(w);
+        if (wNorm <= 1.0e-12 * w0 || wNorm == 0) {
+            final double[] r = randomUnitVector(random, w.length, v, size, pool);
+            System.arraycopy(r, 0, w, 0, w.length);
+            return h;
+        }
+        final double inv = 1 / wNorm;
+        for (int i = 0; i < w.length; ++i) {
+            w[i] *= inv;
+        }
+        h[size] = wNorm;
+        return h;
+    }
+
+    /**
+     * Compute linear combinations of the vectors of a basis.
+     *
+     * @param v basis
+     * @param y coefficients of the combinations (y[j][i] is the coefficient
+     * of the i<sup>th</sup> basis vector in the j<sup>th</sup> combination)
+     * @param count number of combinations to compute
+     * @param n dimension of the vectors
+     * @param pool pool in which the tasks are run (may be null)
+     * @return combinations
+     */
+    static double[][] combine(final double[][] v, final double[][] y,
+                              final int count, final int n,
+                              final ForkJoinPool pool) {
+        final int size = y[0].length;
+        final double[][] x = new double[count][n];
+        RangeUpdater.apply(pool, 0, n, 2l * size * count, new RangeUpdater.Update() {
+            /** {@inheritDoc} */
+            @Override
+            public void apply(final int start, final int end) {
+                for (int j = 0; j < count; ++j) {
+                    final double[] xJ = x[j];
+                    final double[] yJ = y[j];
+                    for (int i = 0; i < size; ++i) {
+                        final double[] vI = v[i];
+                        final double yJI = yJ[i];
+                        for (int l = start; l < end; ++l) {
+                            xJ[l] += yJI * vI[l];
+                        }
+                    }
+                }
+            }
+        });
+        return x;
+    }
+
+    /**
+     * Draw a random unit vector orthogonal to the first vectors of an
+     * orthonormal basis.
+     *
+     * @param random random generator
+     * @param n dimension of the vector
+     * @param v orthonormal basis
+     * @param size number of vectors of the basis to use
+     * @param pool pool in which the tasks are run (may be null)
+     * @return random unit vector
+     */
+    static double[] randomUnitVector(final RandomGenerator random, final int n,
+                                     final double[][] v, final int size,
+                                     final ForkJoinPool pool) {
+        while (true) {
+            final double[] w = new double[n];
+            for (int i = 0; i < n; ++i) {
+                w[i] = random.nextDouble() - 0.5;
+            }
+            final double w0 = norm(w);
+            orthogonalize(w, v, size, pool);
+            final double wNorm = norm(w);
+            if (wNorm > 1.0e-3 * w0) {
+                for (int i = 0; i < n; ++i) {
+                    w[i] /= wNorm;
+                }
+                return w;
+            }
+        }
+    }
+
+    /**
+     * Build a matrix from its columns.
+     *
+     * @param columns columns of the matrix
+     * @return matrix whose j<sup>th</sup> column is {@code columns[j]}
+     */
+    static RealMatrix columnMatrix(final double[][] columns) {
+        final RealMatrix matrix =
+            MatrixUtils.createRealMatrix(columns[0].length, columns.length);
+        for (int j = 0; j < columns.length; ++j) {
+            matrix.setColumn(j, columns[j]);
+        }
+        return matrix;
+    }
+
+    /**
+     * Compute the Euclidean norm of a vector.
+     *
+     * @param w vector
+     * @return norm of the vector
+     */
+    static double norm(final double[] w) {
+        double sum = 0;
+        for (final double wI : w) {
+            sum += wI * wI;
+        }
+        return FastMath.sqrt(sum);
+    }
+
+    /**
+     * Orthogonalize a vector against the first vectors of an orthonormal
+     * basis, in place, with one pass of the classical Gram-Schmidt process.
+     *
+     * @param w vector to orthogonalize
+     * @param v orthonormal basis
+     * @param size number of vectors of the basis to use
+     * @param pool pool in which the tasks are run (may be null)
+     * @return projections of the vector on the basis vectors
+     */
+    private static double[] project(final double[] w, final double[][] v,
+                                    final int size, final ForkJoinPool pool) {
+        final int n = w.length;
+        final double[] h = new double[size];
+        RangeUpdater.apply(pool, 0, size, 2l * n, new RangeUpdater.Update() {
+            /** {@inheritDoc} */
+            @Override
+            public void apply(final int start, final int end) {
+                for (int i = start; i < end; ++i) {
+                    final double[] vI = v[i];
+                    double dot = 0;
+                    for (int l = 0; l < n; ++l) {
+                        dot += vI[l] * w[l];
+                    }
+                    h[i] = dot;
+                }
+            }
+        });
+        RangeUpdater.apply(pool, 0, n, 2l * size, new RangeUpdater.Update() {
+            /** {@inheritDoc} */
+            @Override
+            public void apply(final int start, final int end) {
+                for (int i = 0; i < size; ++i) {
+                    final double[] vI = v[i];
+                    final double hI = h[i];
+                    for (int l = start; l < end; ++l) {
+                        w[l] -= hI * vI[l];
+                    }
+                }
+            }
+        });
+        return h;
+    }
+
+}
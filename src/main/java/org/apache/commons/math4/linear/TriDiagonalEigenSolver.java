@@ -0,0 +1,589 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.math4.linear;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+
+import org.apache.commons.math4.exception.MaxCountExceededException;
+import org.apache.commons.math4.exception.util.LocalizedFormats;
+import org.apache.commons.math4.util.FastMath;
+import org.apache.commons.math4.util.Precision;
+
+/**
+ * Eigen decomposition of a symmetric tridiagonal matrix, using Cuppen's
+ * divide-and-conquer method.
+ * <p>
+ * The matrix is split in two halves coupled by a rank-one correction. The
+ * halves are decomposed recursively (and concurrently if a pool is provided),
+ * then the eigenpairs of the whole matrix are computed from the roots of the
+ * secular equation of the rank-one correction. Deflation is applied for small
+ * components of the correction and for close eigenvalues, and the eigenvectors
+ * are computed as proposed by Gu and Eisenstat, so they are numerically
+ * orthogonal even for close eigenvalues. Small sub-matrices are decomposed
+ * by the implicit QL algorithm of {@link EigenDecomposition}.
+ * </p>
+ * <p>This class is intended for internal use by the library and is not public.
+ * As a consequence of this explicitly limited scope, its methods directly
+ * return references to internal arrays, not copies.</p>
+ *
+ * @see <a href="http://dx.doi.org/10.1137/S0895479892241287">M. Gu and
+ * S. C. Eisenstat, A Divide-and-Conquer Algorithm for the Symmetric
+ * Tridiagonal Eigenproblem, SIAM J. Matrix Anal. Appl. 16 (1): 172-191,
+ * 1995</a>
+ * @since 4.0
+ */
+class TriDiagonalEigenSolver {
+
+    /** Size under which sub-matrices are decomposed by implicit QL. */
+    private static final int SMALL_SIZE = 25;
+
+    /** Size under which the halves are decomposed in the same task. */
+    private static final int FORK_SIZE = 128;
+
+    /** Maximum number of iterations for the secular equation roots. */
+    private static final int MAX_ITER = 200;
+
+    /** Eigenvalues, in increasing order. */
+    private final double[] eigenvalues;
+
+    /** Eigenvectors, stored as columns. */
+    private final double[][] eigenvectors;
+
+    /**
+     * Decompose a symmetric tridiagonal matrix.
+     *
+     * @param main main diagonal of the matrix (it is not modified)
+     * @param secondary secondary diagonal of the matrix (it is not modified)
+     * @param pool pool in which the tasks are run (if null, the decomposition
+     * is computed sequentially)
+     * @throws MaxCountExceededException if the algorithm fails to converge
+     */
+    TriDiagonalEigenSolver(final double[] main, final double[] secondary,
+                           final ForkJoinPool pool)
+        throws MaxCountExceededException {
+        final double[] d = main.clone();
+        final Block block;
+        if (pool == null) {
+            block = divide(d, secondary, 0, d.length, null);
+        } else {
+            block = pool.invoke(new DivideTask(d, secondary, 0, d.length, pool));
+        }
+        eigenvalues  = block.values;
+        eigenvectors = block.vectors;
+    }
+
+    /**
+     * Get the eigenvalues, in increasing order.
+     * <p>Note that since this class is only intended for internal use,
+     * it returns directly a reference to its internal arrays, not a copy.</p>
+     * @return eigenvalues
+     */
+    double[] getEigenvaluesRef() {
+        return eigenvalues;
+    }
+
+    /**
+     * Get the eigenvectors.
+     * <p>Note that since this class is only intended for internal use,
+     * it returns directly a reference to its internal arrays, not a copy.</p>
+     * @return matrix whose columns are the eigenvectors, in the same order as
+     * the eigenvalues
+     */
+    double[][] getEigenvectorsRef() {
+        return eigenvectors;
+    }
+
+    /**
+     * Decompose a diagonal block of the matrix.
+     *
+     * @param d main diagonal (entries at the split points are modified)
+     * @param e secondary diagonal
+     * @param start first index of the block (included)
+     * @param end last index of the block (excluded)
+     * @param pool pool in which the tasks are run (if null, the block
+     * is decomposed sequentially)
+     * @return decomposition of the block
+     */
+    private static Block divide(final double[] d, final double[] e,
+                                final int start, final int end,
+                                final ForkJoinPool pool) {
+
+        if (end - start <= SMALL_SIZE) {
+            return decomposeSmall(d, e, start, end);
+        }
+
+        // split the matrix as diag(T1, T2) + beta u uT, with u = e(middle - 1) + e(middle)
+        final int middle  = (start + end) >>> 1;
+        final double beta = e[middle - 1];
+        d[middle - 1] -= beta;
+        d[middle]     -= beta;
+
+        final Block b1;
+        final Block b2;
+        if (pool == null || end - start <= FORK_SIZE) {
+            b1 = divide(d, e, start, middle, pool);
+            b2 = divide(d, e, middle, end, pool);
+        } else {
+            final DivideTask t1 = new DivideTask(d, e, start, middle, pool);
+            final DivideTask t2 = new DivideTask(d, e, middle, end, pool);
+            ForkJoinTask.invokeAll(t1, t2);
+            b1 = t1.getRawResult();
+            b2 = t2.getRawResult();
+        }
+
+        return merge(b1, b2, beta, pool);
+
+    }
+
+    /**
+     * Decompose a small diagonal block of the matrix using implicit QL.
+     *
+     * @param d main diagonal
+     * @param e secondary diagonal
+     * @param start first index of the block (included)
+     * @param end last index of the block (excluded)
+     * @return decomposition of the block
+     */
+    private static Block decomposeSmall(final double[] d, final double[] e,
+                                        final int start, final int end) {
+        final int size = end - start;
+        final EigenDecomposition ed =
+                new EigenDecomposition(Arrays.copyOfRange(d, start, end),
+                                       Arrays.copyOfRange(e, start, end - 1));
+
+        // eigenvalues are sorted in decreasing order by the decomposition
+        final double[]   values  = new double[size];
+        final double[][] vectors = new double[size][size];
+        for (int j = 0; j < size; ++j) {
+            final int k = size - 1 - j;
+            values[j] = ed.getRealEigenvalue(k);
+            final RealVector v = ed.getEigenvector(k);
+            for (int i = 0; i < size; ++i) {
+                vectors[i][j] = v.getEntry(i);
+            }
+        }
+        return new Block(values, vectors);
+    }
+
+    /**
+     * Merge the decompositions of two consecutive blocks.
+     *
+     * @param b1 decomposition of the first block
+     * @param b2 decomposition of the second block
+     * @param beta coupling between the blocks
+     * @param pool pool in which the tasks are run (may be null)
+     * @return decomposition of the merged block
+     */
+    private static Block merge(final Block b1, final Block b2, final double beta,
+                               final ForkJoinPool pool) {
+
+        final int n1 = b1.values.length;
+        final int n  = n1 + b2.values.length;
+
+        // in the basis of the eigenvectors of the blocks, the matrix is
+        // D + rho z zT, with ||z|| = 1; as D - |rho| z zT = -(-D + |rho| z zT),
+        // the sign of D is changed if needed so that rho > 0
+        final double sign = (beta < 0) ? -1 : 1;
+        final double rho  = 2 * FastMath.abs(beta);
+        final double[] d  = new double[n];
+        final double[] z  = new double[n];
+        final double[][] q = new double[n][n];
+        final double invSqrt2 = 1 / FastMath.sqrt(2.0);
+        for (int i = 0; i < n1; ++i) {
+            d[i] = sign * b1.values[i];
+            z[i] = b1.vectors[n1 - 1][i] * invSqrt2;
+            System.arraycopy(b1.vectors[i], 0, q[i], 0, n1);
+        }
+        for (int i = n1; i < n; ++i) {
+            d[i] = sign * b2.values[i - n1];
+            z[i] = b2.vectors[0][i - n1] * invSqrt2;
+            System.arraycopy(b2.vectors[i - n1], 0, q[i], n1, n - n1);
+        }
+
+        // sort the diagonal in increasing order
+        final Integer[] order = sortedIndices(d);
+
+        // deflation
+        double dMax = 0;
+        for (int i = 0; i < n; ++i) {
+            dMax = FastMath.max(dMax, FastMath.abs(d[i]));
+        }
+        final double tol = 8 * Precision.EPSILON * FastMath.max(dMax, rho);
+        final int[] kept      = new int[n];
+        final int[] deflated  = new int[n];
+        int nKept     = 0;
+        int nDeflated = 0;
+        int previous  = -1;
+        for (final int i : order) {
+            if (rho * FastMath.abs(z[i]) <= tol) {
+                // negligible coupling
+                deflated[nDeflated++] = i;
+            } else if (previous < 0) {
+                previous = i;
+            } else {
+                // close diagonal entries, a rotation cancels one coupling term
+                final double r = FastMath.hypot(z[previous], z[i]);
+                final double c = z[i] / r;
+                final double s = z[previous] / r;
+                if (FastMath.abs((d[i] - d[previous]) * c * s) <= tol) {
+                    for (int row = 0; row < n; ++row) {
+                        final double[] qRow = q[row];
+                        final double qp = qRow[previous];
+                        final double qi = qRow[i];
+                        qRow[previous] = c * qp - s * qi;
+                        qRow[i]        = s * qp + c * qi;
+                    }
+                    final double dp = d[previous];
+                    d[previous] = c * c * dp + s * s * d[i];
+                    d[i]        = s * s * dp + c * c * d[i];
+                    z[previous] = 0;
+                    z[i]        = r;
+                    deflated[nDeflated++] = previous;
+                } else {
+                    kept[nKept++] = previous;
+                }
+                previous = i;
+            }
+        }
+        if (previous >= 0) {
+            kept[nKept++] = previous;
+        }
+
+        // roots of the secular equation for the non-deflated part
+        final double[] dK = new double[nKept];
+        final double[] zK = new double[nKept];
+        double zNorm2 = 0;
+        for (int i = 0; i < nKept; ++i) {
+            dK[i] = d[kept[i]];
+            zK[i] = z[kept[i]];
+            zNorm2 += zK[i] * zK[i];
+        }
+        final int[]    origin = new int[nKept];
+        final double[] tau    = new double[nKept];
+        for (int j = 0; j < nKept; ++j) {
+            solveSecular(dK, zK, rho, zNorm2, j, origin, tau);
+        }
+
+        // Gu-Eisenstat correction of z, then eigenvectors of D + rho z zT
+        final double[][] u = new double[nKept][nKept];
+        for (int i = 0; i < nKept; ++i) {
+            double prod = ((dK[origin[nKept - 1]] - dK[i]) + tau[nKept - 1]) / rho;
+            for (int j = 0; j < i; ++j) {
+                prod *= ((dK[origin[j]] - dK[i]) + tau[j]) / (dK[j] - dK[i]);
+            }
+            for (int j = i; j < nKept - 1; ++j) {
+                prod *= ((dK[origin[j]] - dK[i]) + tau[j]) / (dK[j + 1] - dK[i]);
+            }
+            final double zHat = FastMath.copySign(FastMath.sqrt(FastMath.abs(prod)), zK[i]);
+            for (int j = 0; j < nKept; ++j) {
+                u[i][j] = zHat / ((dK[i] - dK[origin[j]]) - tau[j]);
+            }
+        }
+        for (int j = 0; j < nKept; ++j) {
+            double norm2 = 0;
+            for (int i = 0; i < nKept; ++i) {
+                norm2 += u[i][j] * u[i][j];
+            }
+            final double inv = 1 / FastMath.sqrt(norm2);
+            for (int i = 0; i < nKept; ++i) {
+                u[i][j] *= inv;
+            }
+        }
+
+        // gather all eigenvalues, in increasing order
+        final double[] values = new double[n];
+        for (int j = 0; j < nKept; ++j) {
+            values[j] = sign * (dK[origin[j]] + tau[j]);
+        }
+        for (int j = 0; j < nDeflated; ++j) {
+            values[nKept + j] = sign * d[deflated[j]];
+        }
+        final Integer[] sorted = sortedIndices(values);
+        final int[] target = new int[n];
+        final double[] sortedValues = new double[n];
+        for (int j = 0; j < n; ++j) {
+            target[sorted[j]] = j;
+            sortedValues[j]   = values[sorted[j]];
+        }
+
+        // eigenvectors: rows of the blocks eigenvectors times the rank-one eigenvectors
+        final double[][] vectors = new double[n][];
+        final int nK = nKept;
+        final int nD = nDeflated;
+        RangeUpdater.apply(pool, 0, n, 2l * nK * nK, new RangeUpdater.Update() {
+            /** {@inheritDoc} */
+            @Override
+            public void apply(final int start, final int end) {
+                final double[] acc = new double[nK];
+                for (int row = start; row < end; ++row) {
+                    final double[] qRow = q[row];
+                    Arrays.fill(acc, 0);
+                    for (int i = 0; i < nK; ++i) {
+                        final double qi = qRow[kept[i]];
+                        if (qi != 0) {
+                            final double[] uI = u[i];
+                            for (int j = 0; j < nK; ++j) {
+                                acc[j] += qi * uI[j];
+                            }
+                        }
+                    }
+                    final double[] vRow = new double[n];
+                    for (int j = 0; j < nK; ++j) {
+                        vRow[target[j]] = acc[j];
+                    }
+                    for (int j = 0; j < nD; ++j) {
+                        vRow[target[nK + j]] = qRow[deflated[j]];
+                    }
+                    vectors[row] = vRow;
+                }
+            }
+        });
+
+        return new Block(sortedValues, vectors);
+
+    }
+
+    /**
+     * Find one root of the secular equation
+     * 1 + &rho; &sum; z<sub>i</sub><sup>2</sup> / (d<sub>i</sub> - &lambda;) = 0.
+     * <p>
+     * The j<sup>th</sup> root lies between d<sub>j</sub> and d<sub>j+1</sub>
+     * (or d<sub>j</sub> + &rho; ||z||<sup>2</sup> for the last one). It is
+     * represented as d<sub>origin</sub> + &tau;, where the origin is the closest
+     * pole, so that the differences d<sub>i</sub> - &lambda; can be computed
+     * accurately. The root is found by the rational interpolation of the two
+     * parts of the equation on each side of the root, safeguarded by bisection.
+     * </p>
+     *
+     * @param d poles, in strictly increasing order
+     * @param z numerators (all non-zero)
+     * @param rho strictly positive coefficient
+     * @param zNorm2 squared norm of z
+     * @param j index of the root
+     * @param origin array where the index of the origin pole is stored
+     * @param tau array where the offset of the root to its origin is stored
+     * @throws MaxCountExceededException if the root cannot be found
+     */
+    private static void solveSecular(final double[] d, final double[] z,
+                                     final double rho, final double zNorm2,
+                                     final int j, final int[] origin, final double[] tau)
+        throws MaxCountExceededException {
+
+        final int n = d.length;
+        final boolean last = j == n - 1;
+
+        // select the origin and initial bracket
+        final int o;
+        double lo;
+        double hi;
+        if (last) {
+            o  = j;
+            lo = 0;
+            hi = rho * zNorm2;
+        } else {
+            final double gap = d[j + 1] - d[j];
+            final double mid = 0.5 * gap;
+            double f = 1;
+            for (int i = 0; i < n; ++i) {
+                f += rho * z[i] * z[i] / ((d[i] - d[j]) - mid);
+            }
+            if (f >= 0) {
+                o  = j;
+                lo = 0;
+                hi = mid;
+            } else {
+                o  = j + 1;
+                lo = mid - gap;
+                hi = 0;
+            }
+        }
+        final double left  = d[j] - d[o];
+        final double right = last ? Double.POSITIVE_INFINITY : d[j + 1] - d[o];
+
+        double t = 0.5 * (lo + hi);
+        for (int iter = 0; iter < MAX_ITER; ++iter) {
+
+            // evaluate the two parts of the secular function and their derivatives
+            double psi  = 0;
+            double dPsi = 0;
+            for (int i = 0; i <= j; ++i) {
+                final double ratio = z[i] / ((d[i] - d[o]) - t);
+                psi  += z[i] * ratio;
+                dPsi += ratio * ratio;
+            }
+            double phi  = 0;
+            double dPhi = 0;
+            for (int i = j + 1; i < n; ++i) {
+                final double ratio = z[i] / ((d[i] - d[o]) - t);
+                phi  += z[i] * ratio;
+                dPhi += ratio * ratio;
+            }
+            psi  *= rho;
+            dPsi *= rho;
+            phi  *= rho;
+            dPhi *= rho;
+            final double f = 1 + psi + phi;
+            final double error = Precision.EPSILON *
+                                 (8 * (1 + FastMath.abs(psi) + FastMath.abs(phi)) +
+                                  3 * FastMath.abs(t) * (dPsi + dPhi));
+            if (FastMath.abs(f) <= error) {
+                origin[j] = o;
+                tau[j]    = t;
+                return;
+            }
+            if (f < 0) {
+                lo = t;
+            } else {
+                hi = t;
+            }
+
+            // rational interpolation: psi ~ a + b / (left - x), phi ~ c + e / (right - x)
+            final double dl = left - t;
+            final double b  = dPsi * dl * dl;
+            double next;
+            if (last) {
+                final double a = 1 + psi - dPsi * dl;
+                next = left + b / a;
+            } else {
+                final double dr = right - t;
+                final double e  = dPhi * dr * dr;
+                final double a  = 1 + psi - dPsi * dl + phi - dPhi * dr;
+                if (a == 0) {
+                    next = (b * right + e * left) / (b + e);
+                } else {
+                    final double qb   = -(a * (left + right) + b + e);
+                    final double qc   = a * left * right + b * right + e * left;
+                    final double disc = qb * qb - 4 * a * qc;
+                    if (disc < 0) {
+                        next = Double.NaN;
+                    } else {
+                        final double s = -0.5 * (qb + FastMath.copySign(FastMath.sqrt(disc), qb));
+                        final double r1 = s / a;
+                        final double r2 = qc / s;
+                        next = (r1 > left && r1 < right) ? r1 : r2;
+                    }
+                }
+            }
+            if (!(next > lo && next < hi)) {
+                next = 0.5 * (lo + hi);
+            }
+            if (next == t || next == lo || next == hi) {
+                // the bracket cannot be reduced anymore
+                origin[j] = o;
+                tau[j]    = t;
+                return;
+            }
+            t = next;
+
+        }
+
+        throw new MaxCountExceededException(LocalizedFormats.CONVERGENCE_FAILED, MAX_ITER);
+
+    }
+
+    /**
+     * Sort indices according to the values they point to.
+     *
+     * @param values values to sort
+     * @return indices sorted in increasing order of values
+     */
+    private static Integer[] sortedIndices(final double[] values) {
+        final Integer[] indices = new Integer[values.length];
+        for (int i = 0; i < indices.length; ++i) {
+            indices[i] = i;
+        }
+        Arrays.sort(indices, new java.util.Comparator<Integer>() {
+            /** {@inheritDoc} */
+            @Override
+            public int compare(final Integer i1, final Integer i2) {
+                return Double.compare(values[i1], values[i2]);
+            }
+        });
+        return indices;
+    }
+
+    /** Decomposition of a diagonal block. */
+    private static class Block {
+
+        /** Eigenvalues, in increasing order. */
+        private final double[] values;
+
+        /** Eigenvectors, stored as columns. */
+        private final double[][] vectors;
+
+        /**
+         * Simple constructor.
+         * @param values eigenvalues
+         * @param vectors eigenvectors, stored as columns
+         */
+        Block(final double[] values, final double[][] vectors) {
+            this.values  = values;
+            this.vectors = vectors;
+        }
+
+    }
+
+    /** Fork-join task decomposing a diagonal block. */
+    private static class DivideTask extends RecursiveTask<Block> {
+
+        /** Serializable version identifier. */
+        private static final long serialVersionUID = 20261018L;
+
+        /** Main diagonal. */
+        private final double[] d;
+
+        /** Secondary diagonal. */
+        private final double[] e;
+
+        /** First index of the block (included). */
+        private final int start;
+
+        /** Last index of the block (excluded). */
+        private final int end;
+
+        /** Pool in which the tasks are run. */
+        private final ForkJoinPool pool;
+
+        /**
+         * Simple constructor.
+         * @param d main diagonal
+         * @param e secondary diagonal
+         * @param start first index of the block (included)
+         * @param end last index of the block (excluded)
+         * @param pool pool in which the tasks are run
+         */
+        DivideTask(final double[] d, final double[] e,
+                   final int start, final int end, final ForkJoinPool pool) {
+            this.d     = d;
+            this.e     = e;
+            this.start = start;
+            this.end   = end;
+            this.pool  = pool;
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        protected Block compute() {
+            return divide(d, e, start, end, pool);
+        }
+
+    }
+
+}
@@ -18,6 +18,7 @@
 package org.apache.commons.math4.linear;
 
 import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
 
 import org.apache.commons.math4.util.FastMath;
 
@@ -76,6 +77,49 @@ class TriDiagonalTransformer {
         transform();
     }
 
+    /**
+     * Build the transformation to tridiagonal shape of a symmetrical matrix,
+     * updating the remaining sub-matrix in parallel.
+     * <p>The specified matrix is assumed to be symmetrical without any check.
+     * Only the upper triangular part of the matrix is used.</p>
+     * <p>The lower triangular part is kept up to date too, so that the
+     * matrix-vector products and the rank-2 updates at each step are
+     * computed independently for each row. The results are the same whatever
+     * the pool (or lack thereof), but they may differ from the ones of the
+     * {@link #TriDiagonalTransformer(RealMatrix) sequential constructor} due
+     * to rounding errors.</p>
+     *
+     * @param matrix Symmetrical matrix to transform.
+     * @param pool pool in which the update tasks are run (if null,
+     * the transformation is computed sequentially)
+     * @throws NonSquareMatrixException if the matrix is not square.
+     * @since 4.0
+     */
+    TriDiagonalTransformer(RealMatrix matrix, ForkJoinPool pool) {
+        if (!matrix.isSquare()) {
+            throw new NonSquareMatrixException(matrix.getRowDimension(),
+                                               matrix.getColumnDimension());
+        }
+
+        final int m = matrix.getRowDimension();
+        householderVectors = matrix.getData();
+        main      = new double[m];
+        secondary = new double[m - 1];
+        cachedQ   = null;
+        cachedQt  = null;
+        cachedT   = null;
+
+        // copy the upper triangular part to the lower one
+        for (int i = 0; i < m; ++i) {
+            for (int j = i + 1; j < m; ++j) {
+                householderVectors[j][i] = householderVectors[i][j];
+            }
+        }
+
+        // transform matrix
+        transform(pool);
+    }
+
     /**
      * Returns the matrix Q of the transform.
      * <p>Q is an orthogonal matrix, i.e. its transpose is also its inverse.</p>
@@ -184,6 +228,54 @@ class TriDiagonalTransformer {
         return secondary;
     }
 
+    /**
+     * Multiply a matrix by the matrix Q of the transform, in place.
+     * <p>The Householder transforms are applied directly, Q is not built.
+     * This allows for example to compute the eigenvectors of the original
+     * matrix from the eigenvectors of the tridiagonal matrix T.</p>
+     *
+     * @param z matrix to multiply, with as many rows as Q (replaced by Q z)
+     * @param pool pool in which the update tasks are run (if null,
+     * the product is computed sequentially)
+     * @since 4.0
+     */
+    void applyQ(final double[][] z, final ForkJoinPool pool) {
+        final int m = householderVectors.length;
+        final int p = (m == 0) ? 0 : z[0].length;
+        for (int k = m - 1; k >= 1; --k) {
+            final double[] hK = householderVectors[k - 1];
+            if (hK[k] != 0.0) {
+                // z = z + inv v (vT z), with v = hK[k..m-1]
+                final int kk = k;
+                final double inv = 1.0 / (secondary[k - 1] * hK[k]);
+                RangeUpdater.apply(pool, 0, p, 4l * (m - k), new RangeUpdater.Update() {
+                    /** {@inheritDoc} */
+                    @Override
+                    public void apply(final int start, final int end) {
+                        final double[] w = new double[end - start];
+                        for (int i = kk; i < m; ++i) {
+                            final double hI = hK[i];
+                            final double[] zI = z[i];
+                            for (int j = start; j < end; ++j) {
+                                w[j - start] += hI * zI[j];
+                            }
+                        }
+                        for (int j = 0; j < w.length; ++j) {
+                            w[j] *= inv;
+                        }
+                        for (int i = kk; i < m; ++i) {
+                            final double hI = hK[i];
+                            final double[] zI = z[i];
+                            for (int j = start; j < end; ++j) {
+                                zI[j] += hI * w[j - start];
+                            }
+                        }
+                    }
+                });
+            }
+        }
+    }
+
     /**
      * Transform original matrix to tridiagonal form.
      * <p>Transformation is done using Householder transforms.</p>
@@ -250,4 +342,82 @@ class TriDiagonalTransformer {
         }
         main[m - 1] = householderVectors[m - 1][m - 1];
     }
+
+    /**
+     * Transform original matrix to tridiagonal form, updating the remaining
+     * sub-matrix in parallel.
+     * <p>Transformation is done using Householder transforms. The matrix
+     * must be fully symmetric (both triangular parts are used and updated).</p>
+     *
+     * @param pool pool in which the update tasks are run (may be null)
+     */
+    private void transform(final ForkJoinPool pool) {
+        final int m = householderVectors.length;
+        final double[] z = new double[m];
+        for (int k = 0; k < m - 1; k++) {
+
+            //zero-out a row and a column simultaneously
+            final double[] hK = householderVectors[k];
+            main[k] = hK[k];
+            double xNormSqr = 0;
+            for (int j = k + 1; j < m; ++j) {
+                final double c = hK[j];
+                xNormSqr += c * c;
+            }
+            final double a = (hK[k + 1] > 0) ? -FastMath.sqrt(xNormSqr) : FastMath.sqrt(xNormSqr);
+            secondary[k] = a;
+            if (a != 0.0) {
+                // apply Householder transform from left and right simultaneously
+
+                hK[k + 1] -= a;
+                final double beta = -1 / (a * hK[k + 1]);
+                final int first = k + 1;
+
+                // compute z = beta A v, where v is the Householder vector, one row at a time
+                RangeUpdater.apply(pool, first, m, 2l * (m - first), new RangeUpdater.Update() {
+                    /** {@inheritDoc} */
+                    @Override
+                    public void apply(final int start, final int end) {
+                        for (int i = start; i < end; ++i) {
+                            final double[] hI = householderVectors[i];
+                            double zI = 0;
+                            for (int j = first; j < m; ++j) {
+                                zI += hI[j] * hK[j];
+                            }
+                            z[i] = beta * zI;
+                        }
+                    }
+                });
+
+                // compute gamma = beta vT z / 2
+                double gamma = 0;
+                for (int i = first; i < m; ++i) {
+                    gamma += z[i] * hK[i];
+                }
+                gamma *= beta / 2;
+
+                // compute z = z - gamma v
+                for (int i = first; i < m; ++i) {
+                    z[i] -= gamma * hK[i];
+                }
+
+                // update matrix: A = A - v zT - z vT, one row at a time
+                RangeUpdater.apply(pool, first, m, 4l * (m - first), new RangeUpdater.Update() {
+                    /** {@inheritDoc} */
+                    @Override
+                    public void apply(final int start, final int end) {
+                        for (int i = start; i < end; ++i) {
+                            final double[] hI = householderVectors[i];
+                            final double vI = hK[i];
+                            final double zI = z[i];
+                            for (int j = first; j < m; ++j) {
+                                hI[j] -= vI * z[j] + zI * hK[j];
+                            }
+                        }
+                    }
+                });
+            }
+        }
+        main[m - 1] = householderVectors[m - 1][m - 1];
+    }
 }
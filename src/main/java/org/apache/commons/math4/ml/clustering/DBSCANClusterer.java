@@ -20,12 +20,16 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
 import org.apache.commons.math4.exception.NotPositiveException;
 import org.apache.commons.math4.exception.NullArgumentException;
+import org.apache.commons.math4.ml.clustering.neighbors.DefaultSpatialIndexFactory;
+import org.apache.commons.math4.ml.clustering.neighbors.SpatialIndex;
+import org.apache.commons.math4.ml.clustering.neighbors.SpatialIndexFactory;
 import org.apache.commons.math4.ml.distance.DistanceMeasure;
 import org.apache.commons.math4.ml.distance.EuclideanDistance;
 import org.apache.commons.math4.util.MathUtils;
@@ -48,6 +52,11 @@ import org.apache.commons.math4.util.MathUtils;
  *   <li>eps: the distance that defines the &epsilon;-neighborhood of a point
  *   <li>minPoints: the minimum number of density-connected points required to form a cluster
  * </ul>
+ * <p>
+ * Neighborhoods are retrieved from a {@link SpatialIndex} built over the points to
+ * cluster, by a configurable {@link SpatialIndexFactory}. With a tree-based index,
+ * the overall complexity is typically O(n log n), instead of O(n<sup>2</sup>) with
+ * a brute force scan.
  *
  * @param <T> type of the points to cluster
  * @see <a href="http://en.wikipedia.org/wiki/DBSCAN">DBSCAN (wikipedia)</a>
@@ -63,6 +72,9 @@ public class DBSCANClusterer<T extends Clusterable> extends Clusterer<T> {
     /** Minimum number of points needed for a cluster. */
     private final int                 minPts;
 
+    /** Factory for the spatial index used for neighbors search. */
+    private final SpatialIndexFactory indexFactory;
+
     /** Status of a point during the clustering process. */
     private enum PointStatus {
         /** The point has is considered to be noise. */
@@ -95,7 +107,25 @@ public class DBSCANClusterer<T extends Clusterable> extends Clusterer<T> {
      */
     public DBSCANClusterer(final double eps, final int minPts, final DistanceMeasure measure)
         throws NotPositiveException {
+        this(eps, minPts, measure, new DefaultSpatialIndexFactory());
+    }
+
+    /**
+     * Creates a new instance of a DBSCANClusterer.
+     *
+     * @param eps maximum radius of the neighborhood to be considered
+     * @param minPts minimum number of points needed for a cluster
+     * @param measure the distance measure to use
+     * @param indexFactory factory for the spatial index used for neighbors search
+     * @throws NotPositiveException if {@code eps < 0.0} or {@code minPts < 0}
+     * @throws NullArgumentException if {@code indexFactory} is null
+     * @since 4.0
+     */
+    public DBSCANClusterer(final double eps, final int minPts, final DistanceMeasure measure,
+                           final SpatialIndexFactory indexFactory)
+        throws NotPositiveException, NullArgumentException {
         super(measure);
+        MathUtils.checkNotNull(indexFactory);
 
         if (eps < 0.0d) {
             throw new NotPositiveException(eps);
@@ -105,6 +135,7 @@ public class DBSCANClusterer<T extends Clusterable> extends Clusterer<T> {
         }
         this.eps = eps;
         this.minPts = minPts;
+        this.indexFactory = indexFactory;
     }
 
     /**
@@ -123,6 +154,15 @@ public class DBSCANClusterer<T extends Clusterable> extends Clusterer<T> {
         return minPts;
     }
 
+    /**
+     * Returns the factory for the spatial index used for neighbors search.
+     * @return factory for the spatial index
+     * @since 4.0
+     */
+    public SpatialIndexFactory getSpatialIndexFactory() {
+        return indexFactory;
+    }
+
     /**
      * Performs DBSCAN cluster analysis.
      *
@@ -138,16 +178,17 @@ public class DBSCANClusterer<T extends Clusterable> extends Clusterer<T> {
 
         final List<Cluster<T>> clusters = new ArrayList<Cluster<T>>();
         final Map<Clusterable, PointStatus> visited = new HashMap<Clusterable, PointStatus>();
+        final SpatialIndex<T> spatialIndex = indexFactory.create(points, getDistanceMeasure());
 
         for (final T point : points) {
             if (visited.get(point) != null) {
                 continue;
             }
-            final List<T> neighbors = getNeighbors(point, points);
+            final List<T> neighbors = getNeighbors(point, spatialIndex);
             if (neighbors.size() >= minPts) {
                 // DBSCAN does not care about center points
                 final Cluster<T> cluster = new Cluster<T>();
-                clusters.add(expandCluster(cluster, point, neighbors, points, visited));
+                clusters.add(expandCluster(cluster, point, neighbors, spatialIndex, visited));
             } else {
                 visited.put(point, PointStatus.NOISE);
             }
@@ -162,14 +203,14 @@ public class DBSCANClusterer<T extends Clusterable> extends Clusterer<T> {
      * @param cluster Cluster to expand
      * @param point Point to add to cluster
      * @param neighbors List of neighbors
-     * @param points the data set
+     * @param spatialIndex spatial index of the data set
      * @param visited the set of already visited points
      * @return the expanded cluster
      */
     private Cluster<T> expandCluster(final Cluster<T> cluster,
                                      final T point,
                                      final List<T> neighbors,
-                                     final Collection<T> points,
+                                     final SpatialIndex<T> spatialIndex,
                                      final Map<Clusterable, PointStatus> visited) {
         cluster.addPoint(point);
         visited.put(point, PointStatus.PART_OF_CLUSTER);
@@ -181,7 +222,7 @@ public class DBSCANClusterer<T extends Clusterable> extends Clusterer<T> {
             PointStatus pStatus = visited.get(current);
             // only check non-visited points
             if (pStatus == null) {
-                final List<T> currentNeighbors = getNeighbors(current, points);
+                final List<T> currentNeighbors = getNeighbors(current, spatialIndex);
                 if (currentNeighbors.size() >= minPts) {
                     seeds = merge(seeds, currentNeighbors);
                 }
@@ -201,14 +242,14 @@ public class DBSCANClusterer<T extends Clusterable> extends Clusterer<T> {
      * Returns a list of density-reachable neighbors of a {@code point}.
      *
      * @param point the point to look for
-     * @param points possible neighbors
+     * @param spatialIndex spatial index of possible neighbors
      * @return the List of neighbors
      */
-    private List<T> getNeighbors(final T point, final Collection<T> points) {
-        final List<T> neighbors = new ArrayList<T>();
-        for (final T neighbor : points) {
-            if (point != neighbor && distance(neighbor, point) <= eps) {
-                neighbors.add(neighbor);
+    private List<T> getNeighbors(final T point, final SpatialIndex<T> spatialIndex) {
+        final List<T> neighbors = spatialIndex.getNeighbors(point, eps);
+        for (final Iterator<T> iterator = neighbors.iterator(); iterator.hasNext();) {
+            if (iterator.next() == point) {
+                iterator.remove();
             }
         }
         return neighbors;
@@ -0,0 +1,306 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.math4.ml.clustering;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import org.apache.commons.math4.exception.ConvergenceException;
+import org.apache.commons.math4.exception.MathIllegalArgumentException;
+import org.apache.commons.math4.exception.NumberIsTooSmallException;
+import org.apache.commons.math4.ml.distance.DistanceMeasure;
+import org.apache.commons.math4.ml.distance.EuclideanDistance;
+import org.apache.commons.math4.random.JDKRandomGenerator;
+import org.apache.commons.math4.random.RandomGenerator;
+import org.apache.commons.math4.util.FastMath;
+import org.apache.commons.math4.util.MathUtils;
+
+/**
+ * K-means++ clustering accelerated using the triangle inequality, as proposed by Charles Elkan.
+ * <p>
+ * For each point, this clusterer maintains an upper bound of the distance to its
+ * assigned center and a lower bound of the distance to every other center. Together
+ * with the distances between centers, these bounds allow to skip most of the distance
+ * computations once the centers have started to stabilize. The clusters produced
+ * are the same as the ones produced by {@link KMeansPlusPlusClusterer} with the
+ * same settings and random generator state.
+ * </p>
+ * <p>
+ * The distance measure <em>must</em> satisfy the triangle inequality (this is the
+ * case for the euclidean, manhattan, Chebyshev and Canberra distances), otherwise
+ * the clusters produced may differ from the ones of the standard algorithm. The
+ * bounds use {@code k} doubles per point, so memory usage grows as the product of
+ * the number of points and the number of clusters.
+ * </p>
+ * @param <T> type of the points to cluster
+ * @see <a href="http://www.aaai.org/Papers/ICML/2003/ICML03-022.pdf">C. Elkan,
+ * Using the Triangle Inequality to Accelerate k-Means, ICML 2003</a>
+ * @since 4.0
+ */
+public class ElkanKMeansClusterer<T extends Clusterable> extends KMeansPlusPlusClusterer<T> {
+
+    /** Relative margin applied to the bounds to absorb rounding errors. */
+    private static final double BOUNDS_MARGIN = 1.0e-10;
+
+    /** Build a clusterer.
+     * <p>
+     * The default strategy for handling empty clusters that may appear during
+     * algorithm iterations is to split the cluster with largest distance variance.
+     * <p>
+     * The euclidean distance will be used as default distance measure.
+     *
+     * @param k the number of clusters to split the data into
+     */
+    public ElkanKMeansClusterer(final int k) {
+        this(k, -1);
+    }
+
+    /** Build a clusterer.
+     * <p>
+     * The default strategy for handling empty clusters that may appear during
+     * algorithm iterations is to split the cluster with largest distance variance.
+     * <p>
+     * The euclidean distance will be used as default distance measure.
+     *
+     * @param k the number of clusters to split the data into
+     * @param maxIterations the maximum number of iterations to run the algorithm for.
+     *   If negative, no maximum will be used.
+     */
+    public ElkanKMeansClusterer(final int k, final int maxIterations) {
+        this(k, maxIterations, new EuclideanDistance());
+    }
+
+    /** Build a clusterer.
+     * <p>
+     * The default strategy for handling empty clusters that may appear during
+     * algorithm iterations is to split the cluster with largest distance variance.
+     *
+     * @param k the number of clusters to split the data into
+     * @param maxIterations the maximum number of iterations to run the algorithm for.
+     *   If negative, no maximum will be used.
+     * @param measure the distance measure to use (must satisfy the triangle inequality)
+     */
+    public ElkanKMeansClusterer(final int k, final int maxIterations, final DistanceMeasure measure) {
+        this(k, maxIterations, measure, new JDKRandomGenerator());
+    }
+
+    /** Build a clusterer.
+     * <p>
+     * The default strategy for handling empty clusters that may appear during
+     * algorithm iterations is to split the cluster with largest distance variance.
+     *
+     * @param k the number of clusters to split the data into
+     * @param maxIterations the maximum number of iterations to run the algorithm for.
+     *   If negative, no maximum will be used.
+     * @param measure the distance measure to use (must satisfy the triangle inequality)
+     * @param random random generator to use for choosing initial centers
+     */
+    public ElkanKMeansClusterer(final int k, final int maxIterations,
+                                final DistanceMeasure measure,
+                                final RandomGenerator random) {
+        this(k, maxIterations, measure, random, EmptyClusterStrategy.LARGEST_VARIANCE);
+    }
+
+    /** Build a clusterer.
+     *
+     * @param k the number of clusters to split the data into
+     * @param maxIterations the maximum number of iterations to run the algorithm for.
+     *   If negative, no maximum will be used.
+     * @param measure the distance measure to use (must satisfy the triangle inequality)
+     * @param random random generator to use for choosing initial centers
+     * @param emptyStrategy strategy to use for handling empty clusters that
+     * may appear during algorithm iterations
+     */
+    public ElkanKMeansClusterer(final int k, final int maxIterations,
+                                final DistanceMeasure measure,
+                                final RandomGenerator random,
+                                final EmptyClusterStrategy emptyStrategy) {
+        super(k, maxIterations, measure, random, emptyStrategy);
+    }
+
+    /**
+     * Runs the accelerated K-means++ clustering algorithm.
+     *
+     * @param points the points to cluster
+     * @return a list of clusters containing the points
+     * @throws MathIllegalArgumentException if the data points are null or the number
+     *     of clusters is larger than the number of data points
+     * @throws ConvergenceException if an empty cluster is encountered and the
+     * empty cluster strategy is set to {@code ERROR}
+     */
+    @Override
+    public List<CentroidCluster<T>> cluster(final Collection<T> points)
+        throws MathIllegalArgumentException, ConvergenceException {
+
+        // sanity checks
+        MathUtils.checkNotNull(points);
+
+        // number of clusters has to be smaller or equal the number of data points
+        final int k = getK();
+        if (points.size() < k) {
+            throw new NumberIsTooSmallException(points.size(), k, false);
+        }
+
+        final List<T> pointList = new ArrayList<T>(points);
+        final int n = pointList.size();
+        final DistanceMeasure measure = getDistanceMeasure();
+
+        // create the initial clusters
+        List<CentroidCluster<T>> clusters = chooseInitialCenters(pointList);
+        double[][] centers = getCenters(clusters);
+
+        // initial assignment, computing all distances
+        final int[] assignments = new int[n];
+        final double[] upper = new double[n];
+        final double[][] lower = new double[n][k];
+        double scale = 0;
+        for (int pointIndex = 0; pointIndex < n; ++pointIndex) {
+            final T p = pointList.get(pointIndex);
+            final double[] point = p.getPoint();
+            final double[] lowerP = lower[pointIndex];
+            double minDistance = Double.MAX_VALUE;
+            int minCluster = 0;
+            for (int j = 0; j < k; ++j) {
+                final double distance = measure.compute(point, centers[j]);
+                lowerP[j] = distance;
+                if (distance < minDistance) {
+                    minDistance = distance;
+                    minCluster  = j;
+                }
+                scale = FastMath.max(scale, distance);
+            }
+            assignments[pointIndex] = minCluster;
+            upper[pointIndex]       = minDistance;
+            clusters.get(minCluster).addPoint(p);
+            for (final double x : point) {
+                scale = FastMath.max(scale, FastMath.abs(x));
+            }
+        }
+
+        // absolute margin applied to the bounds, as rounding errors in distances
+        // depend on both the distances and the coordinates magnitudes
+        final double margin = BOUNDS_MARGIN * scale;
+
+        // iterate through updating the centers until we're done
+        final double[] drift    = new double[k];
+        final double[][] half   = new double[k][k];
+        final double[] separation = new double[k];
+        final int max = (getMaxIterations() < 0) ? Integer.MAX_VALUE : getMaxIterations();
+        for (int count = 0; count < max; count++) {
+            boolean emptyCluster = false;
+            List<CentroidCluster<T>> newClusters = new ArrayList<CentroidCluster<T>>();
+            for (final CentroidCluster<T> cluster : clusters) {
+                final Clusterable newCenter;
+                if (cluster.getPoints().isEmpty()) {
+                    newCenter = getEmptyClusterCenter(clusters);
+                    emptyCluster = true;
+                } else {
+                    newCenter = centroidOf(cluster.getPoints(), cluster.getCenter().getPoint().length);
+                }
+                newClusters.add(new CentroidCluster<T>(newCenter));
+            }
+            final double[][] newCenters = getCenters(newClusters);
+
+            // distances traveled by the centers and half distances between new centers
+            for (int i = 0; i < k; ++i) {
+                drift[i] = measure.compute(centers[i], newCenters[i]);
+                separation[i] = Double.POSITIVE_INFINITY;
+            }
+            for (int i = 0; i < k; ++i) {
+                for (int j = i + 1; j < k; ++j) {
+                    final double h = 0.5 * measure.compute(newCenters[i], newCenters[j]);
+                    half[i][j] = h;
+                    half[j][i] = h;
+                    separation[i] = FastMath.min(separation[i], h);
+                    separation[j] = FastMath.min(separation[j], h);
+                }
+            }
+            centers = newCenters;
+
+            int changes = 0;
+            for (int pointIndex = 0; pointIndex < n; ++pointIndex) {
+                final T p = pointList.get(pointIndex);
+                final double[] lowerP = lower[pointIndex];
+                final int previous = assignments[pointIndex];
+
+                // update the bounds according to the centers drifts
+                for (int j = 0; j < k; ++j) {
+                    lowerP[j] = FastMath.max(0.0, lowerP[j] - drift[j]);
+                }
+                double u = upper[pointIndex] + drift[previous];
+
+                int a = previous;
+                if (u + margin >= separation[a]) {
+                    final double[] point = p.getPoint();
+                    boolean exact = false;
+                    for (int j = 0; j < k; ++j) {
+                        if (j == a || u + margin < lowerP[j] || u + margin < half[a][j]) {
+                            // center j cannot be strictly closer than the current one
+                            continue;
+                        }
+                        if (!exact) {
+                            u = measure.compute(point, centers[a]);
+                            lowerP[a] = u;
+                            exact = true;
+                            if (u + margin < lowerP[j] || u + margin < half[a][j]) {
+                                continue;
+                            }
+                        }
+                        final double distance = measure.compute(point, centers[j]);
+                        lowerP[j] = distance;
+                        if (distance < u || (distance == u && j < a)) {
+                            // same tie breaking as the standard algorithm: lowest index wins
+                            a = j;
+                            u = distance;
+                        }
+                    }
+                }
+
+                if (a != previous) {
+                    changes++;
+                }
+                assignments[pointIndex] = a;
+                upper[pointIndex]       = u;
+                newClusters.get(a).addPoint(p);
+            }
+            clusters = newClusters;
+
+            // if there were no more changes in the point-to-cluster assignment
+            // and there are no empty clusters left, return the current clusters
+            if (changes == 0 && !emptyCluster) {
+                return clusters;
+            }
+        }
+        return clusters;
+    }
+
+    /**
+     * Extracts the centers coordinates.
+     *
+     * @param clusters the clusters
+     * @return the coordinates of the clusters centers
+     */
+    private double[][] getCenters(final List<CentroidCluster<T>> clusters) {
+        final double[][] centers = new double[clusters.size()][];
+        for (int i = 0; i < centers.length; ++i) {
+            centers[i] = clusters.get(i).getCenter().getPoint();
+        }
+        return centers;
+    }
+
+}
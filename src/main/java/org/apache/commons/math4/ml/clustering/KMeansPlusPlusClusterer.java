@@ -21,6 +21,8 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
 
 import org.apache.commons.math4.exception.ConvergenceException;
 import org.apache.commons.math4.exception.MathIllegalArgumentException;
@@ -31,10 +33,18 @@ import org.apache.commons.math4.ml.distance.EuclideanDistance;
 import org.apache.commons.math4.random.JDKRandomGenerator;
 import org.apache.commons.math4.random.RandomGenerator;
 import org.apache.commons.math4.stat.descriptive.moment.Variance;
+import org.apache.commons.math4.util.FastMath;
 import org.apache.commons.math4.util.MathUtils;
 
 /**
  * Clustering algorithm based on David Arthur and Sergei Vassilvitski k-means++ algorithm.
+ * <p>
+ * If a {@link ForkJoinPool} is provided at construction, the assignment of points
+ * to clusters and the accumulation of the new centroids are spread over the
+ * threads of the pool, each task accumulating partial sums for its own points,
+ * the partial sums being merged at the end of the step. As the summation order
+ * differs, centroids may differ from the sequential ones by a few ulps.
+ * </p>
  * @param <T> type of the points to cluster
  * @see <a href="http://en.wikipedia.org/wiki/K-means%2B%2B">K-means++ (wikipedia)</a>
  * @since 3.2
@@ -58,6 +68,12 @@ public class KMeansPlusPlusClusterer<T extends Clusterable> extends Clusterer<T>
 
     }
 
+    /** Minimum number of points assigned by a parallel task. */
+    private static final int MIN_POINTS_PER_TASK = 1024;
+
+    /** Number of parallel tasks per pool thread, for load balancing. */
+    private static final int TASKS_PER_THREAD = 4;
+
     /** The number of clusters. */
     private final int k;
 
@@ -70,6 +86,9 @@ public class KMeansPlusPlusClusterer<T extends Clusterable> extends Clusterer<T>
     /** Selected strategy for empty clusters. */
     private final EmptyClusterStrategy emptyStrategy;
 
+    /** Pool for parallel assignment (null for sequential assignment). */
+    private final ForkJoinPool pool;
+
     /** Build a clusterer.
      * <p>
      * The default strategy for handling empty clusters that may appear during
@@ -143,11 +162,33 @@ public class KMeansPlusPlusClusterer<T extends Clusterable> extends Clusterer<T>
                                    final DistanceMeasure measure,
                                    final RandomGenerator random,
                                    final EmptyClusterStrategy emptyStrategy) {
+        this(k, maxIterations, measure, random, emptyStrategy, null);
+    }
+
+    /** Build a clusterer.
+     *
+     * @param k the number of clusters to split the data into
+     * @param maxIterations the maximum number of iterations to run the algorithm for.
+     *   If negative, no maximum will be used.
+     * @param measure the distance measure to use
+     * @param random random generator to use for choosing initial centers
+     * @param emptyStrategy strategy to use for handling empty clusters that
+     * may appear during algorithm iterations
+     * @param pool pool in which points are assigned to clusters in parallel
+     * (if null, points are assigned sequentially)
+     * @since 4.0
+     */
+    public KMeansPlusPlusClusterer(final int k, final int maxIterations,
+                                   final DistanceMeasure measure,
+                                   final RandomGenerator random,
+                                   final EmptyClusterStrategy emptyStrategy,
+                                   final ForkJoinPool pool) {
         super(measure);
         this.k             = k;
         this.maxIterations = maxIterations;
         this.random        = random;
         this.emptyStrategy = emptyStrategy;
+        this.pool          = pool;
     }
 
     /**
@@ -210,36 +251,30 @@ public class KMeansPlusPlusClusterer<T extends Clusterable> extends Clusterer<T>
         // create an array containing the latest assignment of a point to a cluster
         // no need to initialize the array, as it will be filled with the first assignment
         int[] assignments = new int[points.size()];
-        assignPointsToClusters(clusters, points, assignments);
+        final Centroids centroids = (pool == null) ? null : new Centroids();
+        assignPoints(clusters, points, assignments, centroids);
 
         // iterate through updating the centers until we're done
         final int max = (maxIterations < 0) ? Integer.MAX_VALUE : maxIterations;
         for (int count = 0; count < max; count++) {
             boolean emptyCluster = false;
             List<CentroidCluster<T>> newClusters = new ArrayList<CentroidCluster<T>>();
-            for (final CentroidCluster<T> cluster : clusters) {
+            for (int i = 0; i < clusters.size(); ++i) {
+                final CentroidCluster<T> cluster = clusters.get(i);
                 final Clusterable newCenter;
                 if (cluster.getPoints().isEmpty()) {
-                    switch (emptyStrategy) {
-                        case LARGEST_VARIANCE :
-                            newCenter = getPointFromLargestVarianceCluster(clusters);
-                            break;
-                        case LARGEST_POINTS_NUMBER :
-                            newCenter = getPointFromLargestNumberCluster(clusters);
-                            break;
-                        case FARTHEST_POINT :
-                            newCenter = getFarthestPoint(clusters);
-                            break;
-                        default :
-                            throw new ConvergenceException(LocalizedFormats.EMPTY_CLUSTER_IN_K_MEANS);
-                    }
+                    newCenter = getEmptyClusterCenter(clusters);
                     emptyCluster = true;
+                } else if (centroids != null && cluster.getPoints().size() == centroids.counts[i]) {
+                    // the cluster was not modified by an empty cluster strategy,
+                    // its centroid has been accumulated during assignment
+                    newCenter = centroids.centroid(i);
                 } else {
                     newCenter = centroidOf(cluster.getPoints(), cluster.getCenter().getPoint().length);
                 }
                 newClusters.add(new CentroidCluster<T>(newCenter));
             }
-            int changes = assignPointsToClusters(newClusters, points, assignments);
+            int changes = assignPoints(newClusters, points, assignments, centroids);
             clusters = newClusters;
 
             // if there were no more changes in the point-to-cluster assignment
@@ -251,6 +286,71 @@ public class KMeansPlusPlusClusterer<T extends Clusterable> extends Clusterer<T>
         return clusters;
     }
 
+    /**
+     * Get a new center for an empty cluster, according to the empty cluster strategy.
+     * <p>
+     * The returned point is removed from the cluster it belonged to.
+     * </p>
+     *
+     * @param clusters the {@link Cluster}s to search
+     * @return a point to use as the center of the empty cluster
+     * @throws ConvergenceException if the empty cluster strategy is set to
+     * {@code ERROR} or if no point can be selected
+     */
+    Clusterable getEmptyClusterCenter(final Collection<CentroidCluster<T>> clusters)
+        throws ConvergenceException {
+        switch (emptyStrategy) {
+            case LARGEST_VARIANCE :
+                return getPointFromLargestVarianceCluster(clusters);
+            case LARGEST_POINTS_NUMBER :
+                return getPointFromLargestNumberCluster(clusters);
+            case FARTHEST_POINT :
+                return getFarthestPoint(clusters);
+            default :
+                throw new ConvergenceException(LocalizedFormats.EMPTY_CLUSTER_IN_K_MEANS);
+        }
+    }
+
+    /**
+     * Adds the given points to the closest {@link Cluster}, in parallel if a pool is set.
+     *
+     * @param clusters the {@link Cluster}s to add the points to
+     * @param points the points to add to the given {@link Cluster}s
+     * @param assignments points assignments to clusters
+     * @param centroids holder for the centroids accumulated during parallel
+     * assignment (may be null if not needed or if there is no pool)
+     * @return the number of points assigned to different clusters as the iteration before
+     */
+    int assignPoints(final List<CentroidCluster<T>> clusters,
+                     final Collection<T> points,
+                     final int[] assignments,
+                     final Centroids centroids) {
+        if (pool == null) {
+            return assignPointsToClusters(clusters, points, assignments);
+        }
+
+        final List<T> pointList = (points instanceof List) ?
+                                  (List<T>) points : new ArrayList<T>(points);
+        final int dimension = clusters.get(0).getCenter().getPoint().length;
+        final int grain = FastMath.max(MIN_POINTS_PER_TASK,
+                                       pointList.size() / (TASKS_PER_THREAD * pool.getParallelism()));
+        final PartialAssignment partial =
+            pool.invoke(new AssignmentTask(clusters, pointList, assignments, dimension,
+                                           0, pointList.size(), grain));
+
+        // add the points to the clusters sequentially, to preserve points order
+        int pointIndex = 0;
+        for (final T p : pointList) {
+            clusters.get(assignments[pointIndex++]).addPoint(p);
+        }
+
+        if (centroids != null) {
+            centroids.sums   = partial.sums;
+            centroids.counts = partial.counts;
+        }
+        return partial.changes;
+    }
+
     /**
      * Adds the given points to the closest {@link Cluster}.
      *
@@ -284,7 +384,7 @@ public class KMeansPlusPlusClusterer<T extends Clusterable> extends Clusterer<T>
      * @param points the points to choose the initial centers from
      * @return the initial centers
      */
-    private List<CentroidCluster<T>> chooseInitialCenters(final Collection<T> points) {
+    List<CentroidCluster<T>> chooseInitialCenters(final Collection<T> points) {
 
         // Convert to list for indexed access. Make it unmodifiable, since removal of items
         // would screw up the logic of this method.
@@ -548,7 +648,7 @@ public class KMeansPlusPlusClusterer<T extends Clusterable> extends Clusterer<T>
      * @param dimension the point dimension
      * @return the computed centroid for the set of points
      */
-    private Clusterable centroidOf(final Collection<T> points, final int dimension) {
+    Clusterable centroidOf(final Collection<T> points, final int dimension) {
         final double[] centroid = new double[dimension];
         for (final T p : points) {
             final double[] point = p.getPoint();
@@ -562,4 +662,148 @@ public class KMeansPlusPlusClusterer<T extends Clusterable> extends Clusterer<T>
         return new DoublePoint(centroid);
     }
 
+    /** Centroids accumulated during a parallel assignment. */
+    static class Centroids {
+
+        /** Sums of the points coordinates, for each cluster. */
+        private double[][] sums;
+
+        /** Number of points, for each cluster. */
+        private int[] counts;
+
+        /** Get the centroid of a cluster.
+         * @param i index of the cluster (must have at least one point)
+         * @return centroid of the cluster
+         */
+        Clusterable centroid(final int i) {
+            final double[] centroid = sums[i].clone();
+            for (int j = 0; j < centroid.length; ++j) {
+                centroid[j] /= counts[i];
+            }
+            return new DoublePoint(centroid);
+        }
+
+    }
+
+    /** Partial result of a parallel assignment. */
+    private static class PartialAssignment {
+
+        /** Sums of the points coordinates, for each cluster. */
+        private final double[][] sums;
+
+        /** Number of points, for each cluster. */
+        private final int[] counts;
+
+        /** Number of points assigned to different clusters as the iteration before. */
+        private int changes;
+
+        /** Simple constructor.
+         * @param k number of clusters
+         * @param dimension points dimension
+         */
+        PartialAssignment(final int k, final int dimension) {
+            sums   = new double[k][dimension];
+            counts = new int[k];
+        }
+
+        /** Merge another partial result into instance.
+         * @param other other partial result
+         * @return the instance
+         */
+        PartialAssignment merge(final PartialAssignment other) {
+            for (int i = 0; i < sums.length; ++i) {
+                final double[] sumI = sums[i];
+                final double[] otherI = other.sums[i];
+                for (int j = 0; j < sumI.length; ++j) {
+                    sumI[j] += otherI[j];
+                }
+                counts[i] += other.counts[i];
+            }
+            changes += other.changes;
+            return this;
+        }
+
+    }
+
+    /** Fork-join task assigning a range of points to clusters. */
+    private class AssignmentTask extends RecursiveTask<PartialAssignment> {
+
+        /** Serializable version identifier. */
+        private static final long serialVersionUID = 20161018L;
+
+        /** Clusters. */
+        private final List<CentroidCluster<T>> clusters;
+
+        /** Points. */
+        private final List<T> points;
+
+        /** Points assignments to clusters. */
+        private final int[] assignments;
+
+        /** Points dimension. */
+        private final int dimension;
+
+        /** Index of the first point to assign. */
+        private final int start;
+
+        /** Index after the last point to assign. */
+        private final int end;
+
+        /** Maximum number of points assigned without splitting. */
+        private final int grain;
+
+        /** Simple constructor.
+         * @param clusters clusters
+         * @param points points
+         * @param assignments points assignments to clusters
+         * @param dimension points dimension
+         * @param start index of the first point to assign
+         * @param end index after the last point to assign
+         * @param grain maximum number of points assigned without splitting
+         */
+        AssignmentTask(final List<CentroidCluster<T>> clusters, final List<T> points,
+                       final int[] assignments, final int dimension,
+                       final int start, final int end, final int grain) {
+            this.clusters    = clusters;
+            this.points      = points;
+            this.assignments = assignments;
+            this.dimension   = dimension;
+            this.start       = start;
+            this.end         = end;
+            this.grain       = grain;
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        protected PartialAssignment compute() {
+            if (end - start <= grain) {
+                final PartialAssignment partial = new PartialAssignment(clusters.size(), dimension);
+                for (int pointIndex = start; pointIndex < end; ++pointIndex) {
+                    final T p = points.get(pointIndex);
+                    final int clusterIndex = getNearestCluster(clusters, p);
+                    if (clusterIndex != assignments[pointIndex]) {
+                        partial.changes++;
+                    }
+                    assignments[pointIndex] = clusterIndex;
+                    final double[] point = p.getPoint();
+                    final double[] sum   = partial.sums[clusterIndex];
+                    for (int j = 0; j < dimension; ++j) {
+                        sum[j] += point[j];
+                    }
+                    partial.counts[clusterIndex]++;
+                }
+                return partial;
+            } else {
+                final int middle = (start + end) >>> 1;
+                final AssignmentTask left  =
+                    new AssignmentTask(clusters, points, assignments, dimension, start, middle, grain);
+                final AssignmentTask right =
+                    new AssignmentTask(clusters, points, assignments, dimension, middle, end, grain);
+                left.fork();
+                return right.compute().merge(left.join());
+            }
+        }
+
+    }
+
 }
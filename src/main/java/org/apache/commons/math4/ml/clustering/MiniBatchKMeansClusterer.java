@@ -0,0 +1,253 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.math4.ml.clustering;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import org.apache.commons.math4.exception.MathIllegalArgumentException;
+import org.apache.commons.math4.exception.NotStrictlyPositiveException;
+import org.apache.commons.math4.exception.NumberIsTooSmallException;
+import org.apache.commons.math4.ml.distance.DistanceMeasure;
+import org.apache.commons.math4.ml.distance.EuclideanDistance;
+import org.apache.commons.math4.random.JDKRandomGenerator;
+import org.apache.commons.math4.random.RandomGenerator;
+import org.apache.commons.math4.util.FastMath;
+import org.apache.commons.math4.util.MathUtils;
+
+/**
+ * Mini-batch variant of the k-means clustering algorithm.
+ * <p>
+ * Instead of reassigning all points at each iteration, the centers are updated
+ * from small random samples (mini-batches) of the points, each center moving
+ * toward the sampled points assigned to it with a per-center learning rate equal
+ * to the inverse of the number of points it has already absorbed. The initial
+ * centers are chosen using k-means++ on a random subset of the points. Iterations
+ * stop when the maximum number of iterations is reached or when the smoothed
+ * mini-batch inertia has not improved for a given number of consecutive
+ * iterations. All points are then assigned to the closest final center.
+ * </p>
+ * <p>
+ * The final centers are the ones learned from the mini-batches, they are not
+ * recomputed from the assigned points. No empty cluster strategy is applied,
+ * so some clusters may be returned without any point.
+ * </p>
+ * @param <T> type of the points to cluster
+ * @see <a href="https://doi.org/10.1145/1772690.1772862">D. Sculley, Web-scale
+ * k-means clustering, WWW 2010</a>
+ * @since 4.0
+ */
+public class MiniBatchKMeansClusterer<T extends Clusterable> extends KMeansPlusPlusClusterer<T> {
+
+    /** Default number of points per mini-batch. */
+    public static final int DEFAULT_BATCH_SIZE = 100;
+
+    /** Default number of consecutive iterations without improvement before stopping. */
+    public static final int DEFAULT_MAX_NO_IMPROVEMENT = 10;
+
+    /** Ratio between the size of the sample used for seeding and the batch size. */
+    private static final int INIT_SAMPLE_RATIO = 3;
+
+    /** Number of points per mini-batch. */
+    private final int batchSize;
+
+    /** Number of consecutive iterations without improvement before stopping. */
+    private final int maxNoImprovement;
+
+    /** Build a clusterer.
+     * <p>
+     * The euclidean distance will be used as default distance measure.
+     *
+     * @param k the number of clusters to split the data into
+     * @param maxIterations the maximum number of mini-batches to process.
+     *   If negative, no maximum will be used.
+     * @param batchSize number of points per mini-batch
+     * @throws NotStrictlyPositiveException if {@code batchSize <= 0}
+     */
+    public MiniBatchKMeansClusterer(final int k, final int maxIterations, final int batchSize)
+        throws NotStrictlyPositiveException {
+        this(k, maxIterations, batchSize, DEFAULT_MAX_NO_IMPROVEMENT,
+             new EuclideanDistance(), new JDKRandomGenerator(), null);
+    }
+
+    /** Build a clusterer.
+     *
+     * @param k the number of clusters to split the data into
+     * @param maxIterations the maximum number of mini-batches to process.
+     *   If negative, no maximum will be used.
+     * @param batchSize number of points per mini-batch
+     * @param maxNoImprovement number of consecutive mini-batches without
+     * improvement of the smoothed inertia before stopping
+     * @param measure the distance measure to use
+     * @param random random generator to use for choosing initial centers
+     * and sampling the mini-batches
+     * @param pool pool in which points are assigned to the final clusters
+     * in parallel (if null, points are assigned sequentially)
+     * @throws NotStrictlyPositiveException if {@code batchSize <= 0} or
+     * {@code maxNoImprovement <= 0}
+     */
+    public MiniBatchKMeansClusterer(final int k, final int maxIterations,
+                                    final int batchSize, final int maxNoImprovement,
+                                    final DistanceMeasure measure,
+                                    final RandomGenerator random,
+                                    final ForkJoinPool pool)
+        throws NotStrictlyPositiveException {
+        super(k, maxIterations, measure, random, EmptyClusterStrategy.ERROR, pool);
+        if (batchSize <= 0) {
+            throw new NotStrictlyPositiveException(batchSize);
+        }
+        if (maxNoImprovement <= 0) {
+            throw new NotStrictlyPositiveException(maxNoImprovement);
+        }
+        this.batchSize        = batchSize;
+        this.maxNoImprovement = maxNoImprovement;
+    }
+
+    /**
+     * Returns the number of points per mini-batch.
+     * @return the number of points per mini-batch
+     */
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    /**
+     * Returns the number of consecutive mini-batches without improvement before stopping.
+     * @return the number of consecutive mini-batches without improvement before stopping
+     */
+    public int getMaxNoImprovement() {
+        return maxNoImprovement;
+    }
+
+    /**
+     * Runs the mini-batch K-means clustering algorithm.
+     *
+     * @param points the points to cluster
+     * @return a list of clusters containing the points
+     * @throws MathIllegalArgumentException if the data points are null or the number
+     *     of clusters is larger than the number of data points
+     */
+    @Override
+    public List<CentroidCluster<T>> cluster(final Collection<T> points)
+        throws MathIllegalArgumentException {
+
+        // sanity checks
+        MathUtils.checkNotNull(points);
+
+        // number of clusters has to be smaller or equal the number of data points
+        final int k = getK();
+        if (points.size() < k) {
+            throw new NumberIsTooSmallException(points.size(), k, false);
+        }
+
+        final List<T> pointList = new ArrayList<T>(points);
+        final int n = pointList.size();
+        final RandomGenerator random = getRandomGenerator();
+        final DistanceMeasure measure = getDistanceMeasure();
+
+        // choose the initial centers using k-means++ on a random subset of the points
+        final int sampleSize = (int) FastMath.min(n, INIT_SAMPLE_RATIO * FastMath.max((long) batchSize, k));
+        final double[][] centers = new double[k][];
+        int c = 0;
+        for (final CentroidCluster<T> cluster : chooseInitialCenters(sample(pointList, sampleSize, random))) {
+            centers[c++] = cluster.getCenter().getPoint().clone();
+        }
+        final long[] counts = new long[k];
+
+        // smoothing factor for the mini-batch inertia
+        final double alpha = FastMath.min(1.0, 2.0 * batchSize / (n + 1.0));
+        double smoothedInertia = Double.NaN;
+        double bestInertia     = Double.POSITIVE_INFINITY;
+        int noImprovement      = 0;
+
+        final int max = (getMaxIterations() < 0) ? Integer.MAX_VALUE : getMaxIterations();
+        for (int count = 0; count < max; count++) {
+
+            // update the centers from a random mini-batch
+            double inertia = 0;
+            for (int b = 0; b < batchSize; ++b) {
+                final double[] point = pointList.get(random.nextInt(n)).getPoint();
+                int nearest = 0;
+                double minDistance = Double.POSITIVE_INFINITY;
+                for (int i = 0; i < k; ++i) {
+                    final double distance = measure.compute(point, centers[i]);
+                    if (distance < minDistance) {
+                        minDistance = distance;
+                        nearest     = i;
+                    }
+                }
+                inertia += minDistance * minDistance;
+                final double eta = 1.0 / ++counts[nearest];
+                final double[] center = centers[nearest];
+                for (int j = 0; j < center.length; ++j) {
+                    center[j] += eta * (point[j] - center[j]);
+                }
+            }
+            inertia /= batchSize;
+
+            // check convergence on the smoothed inertia
+            smoothedInertia = (count == 0) ? inertia : (1 - alpha) * smoothedInertia + alpha * inertia;
+            if (smoothedInertia < bestInertia) {
+                bestInertia   = smoothedInertia;
+                noImprovement = 0;
+            } else if (++noImprovement >= maxNoImprovement) {
+                break;
+            }
+
+        }
+
+        // assign all points to the final centers
+        final List<CentroidCluster<T>> clusters = new ArrayList<CentroidCluster<T>>(k);
+        for (final double[] center : centers) {
+            clusters.add(new CentroidCluster<T>(new DoublePoint(center)));
+        }
+        assignPoints(clusters, pointList, new int[n], null);
+        return clusters;
+
+    }
+
+    /**
+     * Draws a random sample of points, without replacement.
+     *
+     * @param points the points to sample from
+     * @param size the size of the sample
+     * @param random random generator to use
+     * @return the sampled points
+     */
+    private List<T> sample(final List<T> points, final int size, final RandomGenerator random) {
+        if (size == points.size()) {
+            return points;
+        }
+        // partial Fisher-Yates shuffle of the points indices
+        final int[] indices = new int[points.size()];
+        for (int i = 0; i < indices.length; ++i) {
+            indices[i] = i;
+        }
+        final List<T> sample = new ArrayList<T>(size);
+        for (int i = 0; i < size; ++i) {
+            final int j = i + random.nextInt(indices.length - i);
+            final int tmp = indices[j];
+            indices[j] = indices[i];
+            indices[i] = tmp;
+            sample.add(points.get(tmp));
+        }
+        return sample;
+    }
+
+}
@@ -0,0 +1,277 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.math4.ml.clustering.neighbors;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import org.apache.commons.math4.exception.NotStrictlyPositiveException;
+import org.apache.commons.math4.ml.clustering.Clusterable;
+import org.apache.commons.math4.ml.distance.DistanceMeasure;
+
+/**
+ * Spatial index based on a ball tree.
+ * <p>
+ * Each node of the tree holds the smallest ball centered on the centroid
+ * of its points that contains all of them. Nodes are recursively split in
+ * two halves, by distance to two far apart pivot points, until leaves hold
+ * at most a few points. Neighborhood queries skip the balls that are too
+ * far from the query point to contain any neighbor.
+ * </p>
+ * <p>
+ * As pruning relies only on the triangle inequality, this index works
+ * with any {@link DistanceMeasure} that is a metric, and it degrades more
+ * gracefully than a {@link KDTree} as the dimension grows. Results are
+ * wrong if the measure does not satisfy the triangle inequality, a {@link
+ * BruteForceIndex} should be used in this case.
+ * </p>
+ *
+ * @param <T> type of the indexed points
+ * @see <a href="http://en.wikipedia.org/wiki/Ball_tree">Ball tree (Wikipedia)</a>
+ * @since 4.0
+ */
+public class BallTree<T extends Clusterable> implements SpatialIndex<T> {
+
+    /** Default maximum number of points in leaves. */
+    public static final int DEFAULT_LEAF_SIZE = 16;
+
+    /** Relative margin for rounding errors in the pruning bound. */
+    private static final double MARGIN = 1.0e-10;
+
+    /** Factory for ball trees with default leaf size. */
+    public static final SpatialIndexFactory FACTORY = new SpatialIndexFactory() {
+        /** {@inheritDoc} */
+        @Override
+        public <P extends Clusterable> SpatialIndex<P> create(final Collection<P> points,
+                                                              final DistanceMeasure measure) {
+            return new BallTree<P>(points, measure);
+        }
+    };
+
+    /** Indexed points. */
+    private final List<T> points;
+
+    /** Coordinates of the points, in tree order. */
+    private final double[][] coordinates;
+
+    /** Point indices, in tree order. */
+    private final int[] index;
+
+    /** Distance measure. */
+    private final DistanceMeasure measure;
+
+    /** Maximum number of points in leaves. */
+    private final int leafSize;
+
+    /** Root of the tree (null if there are no points). */
+    private final Node root;
+
+    /**
+     * Build an index with {@link #DEFAULT_LEAF_SIZE default leaf size}.
+     *
+     * @param points the points to index
+     * @param measure the distance measure to use
+     */
+    public BallTree(final Collection<T> points, final DistanceMeasure measure) {
+        this(points, measure, DEFAULT_LEAF_SIZE);
+    }
+
+    /**
+     * Build an index.
+     *
+     * @param points the points to index
+     * @param measure the distance measure to use
+     * @param leafSize maximum number of points in leaves
+     * @throws NotStrictlyPositiveException if {@code leafSize < 1}
+     */
+    public BallTree(final Collection<T> points, final DistanceMeasure measure, final int leafSize)
+        throws NotStrictlyPositiveException {
+        if (leafSize < 1) {
+            throw new NotStrictlyPositiveException(leafSize);
+        }
+        this.points      = new ArrayList<T>(points);
+        this.measure     = measure;
+        this.leafSize    = leafSize;
+        this.index       = new int[this.points.size()];
+        this.coordinates = new double[index.length][];
+        for (int i = 0; i < index.length; ++i) {
+            index[i] = i;
+            coordinates[i] = this.points.get(i).getPoint();
+        }
+        root = (index.length == 0) ? null : build(0, index.length, new double[index.length]);
+        for (int i = 0; i < index.length; ++i) {
+            coordinates[i] = this.points.get(index[i]).getPoint();
+        }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public int size() {
+        return points.size();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public List<T> getNeighbors(final Clusterable query, final double radius) {
+        final List<T> neighbors = new ArrayList<T>();
+        if (root != null) {
+            search(root, query.getPoint(), radius, neighbors);
+        }
+        return neighbors;
+    }
+
+    /**
+     * Build a sub-tree.
+     * <p>
+     * During the build, {@link #coordinates} is indexed by point index,
+     * not by tree order.
+     * </p>
+     *
+     * @param start first index of the points range (included)
+     * @param end last index of the points range (excluded)
+     * @param keys work array for selection
+     * @return root of the sub-tree
+     */
+    private Node build(final int start, final int end, final double[] keys) {
+
+        // centroid
+        final double[] center = new double[coordinates[index[start]].length];
+        for (int i = start; i < end; ++i) {
+            final double[] x = coordinates[index[i]];
+            for (int d = 0; d < center.length; ++d) {
+                center[d] += x[d];
+            }
+        }
+        for (int d = 0; d < center.length; ++d) {
+            center[d] /= end - start;
+        }
+
+        // bounding radius, and farthest point from centroid as first pivot
+        double radius = 0;
+        int p1 = index[start];
+        for (int i = start; i < end; ++i) {
+            final double r = measure.compute(coordinates[index[i]], center);
+            if (r > radius) {
+                radius = r;
+                p1     = index[i];
+            }
+        }
+
+        if (end - start <= leafSize || radius == 0) {
+            // either few points or all points identical, no need to split
+            return new Node(start, end, center, radius, null, null);
+        }
+
+        // farthest point from first pivot as second pivot
+        double largest = 0;
+        int p2 = p1;
+        for (int i = start; i < end; ++i) {
+            final double r = measure.compute(coordinates[index[i]], coordinates[p1]);
+            if (r > largest) {
+                largest = r;
+                p2      = index[i];
+            }
+        }
+
+        // split at median, points closer to the first pivot going to the left
+        for (int i = start; i < end; ++i) {
+            final double[] x = coordinates[index[i]];
+            keys[i] = measure.compute(x, coordinates[p1]) - measure.compute(x, coordinates[p2]);
+        }
+        final int middle = (start + end) >>> 1;
+        IndexSelection.select(index, keys, start, end, middle);
+
+        return new Node(start, end, center, radius,
+                        build(start, middle, keys), build(middle, end, keys));
+
+    }
+
+    /**
+     * Search neighbors in a sub-tree.
+     *
+     * @param node root of the sub-tree
+     * @param q coordinates of the query point
+     * @param radius maximum distance
+     * @param neighbors list where neighbors should be added
+     */
+    private void search(final Node node, final double[] q, final double radius,
+                        final List<T> neighbors) {
+        // the bound is inclusive, as the points test below: a point exactly
+        // at the search radius may lie on the ball boundary, and rounding in
+        // the computed distances must not prune it
+        final double d = measure.compute(node.center, q);
+        if (d - node.radius - radius > MARGIN * (d + node.radius + radius)) {
+            // the ball is too far from the query point
+            return;
+        }
+        if (node.left == null) {
+            // leaf node
+            for (int i = node.start; i < node.end; ++i) {
+                if (measure.compute(coordinates[i], q) <= radius) {
+                    neighbors.add(points.get(index[i]));
+                }
+            }
+        } else {
+            search(node.left,  q, radius, neighbors);
+            search(node.right, q, radius, neighbors);
+        }
+    }
+
+    /** Node of the tree. */
+    private static class Node {
+
+        /** First index of the points range (included). */
+        private final int start;
+
+        /** Last index of the points range (excluded). */
+        private final int end;
+
+        /** Center of the ball. */
+        private final double[] center;
+
+        /** Radius of the ball. */
+        private final double radius;
+
+        /** Left sub-tree (null for leaves). */
+        private final Node left;
+
+        /** Right sub-tree (null for leaves). */
+        private final Node right;
+
+        /**
+         * Simple constructor.
+         * @param start first index of the points range (included)
+         * @param end last index of the points range (excluded)
+         * @param center center of the ball
+         * @param radius radius of the ball
+         * @param left left sub-tree (null for leaves)
+         * @param right right sub-tree (null for leaves)
+         */
+        Node(final int start, final int end, final double[] center, final double radius,
+             final Node left, final Node right) {
+            this.start  = start;
+            this.end    = end;
+            this.center = center;
+            this.radius = radius;
+            this.left   = left;
+            this.right  = right;
+        }
+
+    }
+
+}
@@ -0,0 +1,85 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.math4.ml.clustering.neighbors;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import org.apache.commons.math4.ml.clustering.Clusterable;
+import org.apache.commons.math4.ml.distance.DistanceMeasure;
+
+/**
+ * Trivial spatial index, scanning all points for each query.
+ * <p>
+ * Queries cost O(n) distance computations, but this index works with
+ * any {@link DistanceMeasure}, even ones which are not metrics. Neighbors
+ * are returned in the iteration order of the indexed collection.
+ * </p>
+ *
+ * @param <T> type of the indexed points
+ * @since 4.0
+ */
+public class BruteForceIndex<T extends Clusterable> implements SpatialIndex<T> {
+
+    /** Factory for brute force indexes. */
+    public static final SpatialIndexFactory FACTORY = new SpatialIndexFactory() {
+        /** {@inheritDoc} */
+        @Override
+        public <P extends Clusterable> SpatialIndex<P> create(final Collection<P> points,
+                                                              final DistanceMeasure measure) {
+            return new BruteForceIndex<P>(points, measure);
+        }
+    };
+
+    /** Indexed points. */
+    private final List<T> points;
+
+    /** Distance measure. */
+    private final DistanceMeasure measure;
+
+    /**
+     * Build an index.
+     *
+     * @param points the points to index
+     * @param measure the distance measure to use
+     */
+    public BruteForceIndex(final Collection<T> points, final DistanceMeasure measure) {
+        this.points  = new ArrayList<T>(points);
+        this.measure = measure;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public int size() {
+        return points.size();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public List<T> getNeighbors(final Clusterable query, final double radius) {
+        final double[] q = query.getPoint();
+        final List<T> neighbors = new ArrayList<T>();
+        for (final T point : points) {
+            if (measure.compute(point.getPoint(), q) <= radius) {
+                neighbors.add(point);
+            }
+        }
+        return neighbors;
+    }
+
+}
@@ -0,0 +1,110 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.math4.ml.clustering.neighbors;
+
+import java.util.Collection;
+
+import org.apache.commons.math4.ml.clustering.Clusterable;
+import org.apache.commons.math4.ml.distance.CanberraDistance;
+import org.apache.commons.math4.ml.distance.ChebyshevDistance;
+import org.apache.commons.math4.ml.distance.DistanceMeasure;
+import org.apache.commons.math4.ml.distance.EarthMoversDistance;
+import org.apache.commons.math4.ml.distance.EuclideanDistance;
+import org.apache.commons.math4.ml.distance.ManhattanDistance;
+
+/**
+ * Factory selecting a suitable {@link SpatialIndex} according to the
+ * points and distance measure.
+ * <p>
+ * The selection is done as follows:
+ * <ul>
+ *   <li>a {@link BruteForceIndex} is used for small sets of points, for
+ *   which building a tree is not worth it,</li>
+ *   <li>a {@link KDTree} is used for low dimension points with the
+ *   Euclidean, Manhattan and Chebyshev distances,</li>
+ *   <li>a {@link BallTree} is used for the other distance measures
+ *   provided by the library, which are all metrics, and for high
+ *   dimension points,</li>
+ *   <li>a {@link BruteForceIndex} is used for all other distance
+ *   measures, which may not satisfy the triangle inequality.</li>
+ * </ul>
+ * Users who know that their own distance measure is a metric can use
+ * {@link BallTree#FACTORY} directly.
+ * </p>
+ *
+ * @since 4.0
+ */
+public class DefaultSpatialIndexFactory implements SpatialIndexFactory {
+
+    /** Default minimum number of points for using a tree. */
+    public static final int DEFAULT_MIN_TREE_SIZE = 64;
+
+    /** Default maximum dimension for using a k-d tree. */
+    public static final int DEFAULT_MAX_KD_DIMENSION = 16;
+
+    /** Minimum number of points for using a tree. */
+    private final int minTreeSize;
+
+    /** Maximum dimension for using a k-d tree. */
+    private final int maxKDDimension;
+
+    /**
+     * Build a factory with default settings.
+     */
+    public DefaultSpatialIndexFactory() {
+        this(DEFAULT_MIN_TREE_SIZE, DEFAULT_MAX_KD_DIMENSION);
+    }
+
+    /**
+     * Build a factory.
+     *
+     * @param minTreeSize minimum number of points for using a tree
+     * @param maxKDDimension maximum dimension for using a k-d tree
+     */
+    public DefaultSpatialIndexFactory(final int minTreeSize, final int maxKDDimension) {
+        this.minTreeSize    = minTreeSize;
+        this.maxKDDimension = maxKDDimension;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public <T extends Clusterable> SpatialIndex<T> create(final Collection<T> points,
+                                                          final DistanceMeasure measure) {
+
+        if (points.size() < minTreeSize) {
+            return new BruteForceIndex<T>(points, measure);
+        }
+
+        // exact class checks, as subclasses may change the distance definition
+        final Class<?> measureClass = measure.getClass();
+        if (measureClass == EuclideanDistance.class ||
+            measureClass == ManhattanDistance.class ||
+            measureClass == ChebyshevDistance.class) {
+            final int dimension = points.iterator().next().getPoint().length;
+            return (dimension <= maxKDDimension) ?
+                   new KDTree<T>(points, measure) :
+                   new BallTree<T>(points, measure);
+        } else if (measureClass == CanberraDistance.class ||
+                   measureClass == EarthMoversDistance.class) {
+            return new BallTree<T>(points, measure);
+        } else {
+            return new BruteForceIndex<T>(points, measure);
+        }
+
+    }
+
+}
@@ -0,0 +1,110 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.math4.ml.clustering.neighbors;
+
+/**
+ * Selection algorithm partitioning a range of point indices according
+ * to keys, used to build balanced trees.
+ *
+ * @since 4.0
+ */
+final class IndexSelection {
+
+    /** Private constructor for utility class. */
+    private IndexSelection() {
+    }
+
+    /**
+     * Partially sort a range so that element {@code k} is the one that
+     * would be there if the range was sorted by keys.
+     * <p>
+     * After the call, all elements in {@code [start, k)} have keys lower
+     * than or equal to the key at {@code k}, and all elements in
+     * {@code (k, end)} have keys greater than or equal to it.
+     * </p>
+     *
+     * @param index point indices, permuted in place
+     * @param keys keys of the elements (aligned with {@code index},
+     * permuted in place along with it)
+     * @param start first element of the range (included)
+     * @param end last element of the range (excluded)
+     * @param k element to select
+     */
+    static void select(final int[] index, final double[] keys,
+                       final int start, final int end, final int k) {
+        int begin = start;
+        int last  = end - 1;
+        while (begin < last) {
+
+            // median of 3 pivot
+            final int middle = (begin + last) >>> 1;
+            if (keys[middle] < keys[begin]) {
+                swap(index, keys, middle, begin);
+            }
+            if (keys[last] < keys[begin]) {
+                swap(index, keys, last, begin);
+            }
+            if (keys[last] < keys[middle]) {
+                swap(index, keys, last, middle);
+            }
+            final double pivot = keys[middle];
+
+            // Hoare partitioning
+            int i = begin;
+            int j = last;
+            while (i <= j) {
+                while (keys[i] < pivot) {
+                    ++i;
+                }
+                while (keys[j] > pivot) {
+                    --j;
+                }
+                if (i <= j) {
+                    swap(index, keys, i++, j--);
+                }
+            }
+
+            // continue in the part containing k
+            if (k <= j) {
+                last = j;
+            } else if (k >= i) {
+                begin = i;
+            } else {
+                return;
+            }
+
+        }
+    }
+
+    /**
+     * Swap two elements.
+     *
+     * @param index point indices
+     * @param keys keys of the elements
+     * @param i index of the first element
+     * @param j index of the second element
+     */
+    private static void swap(final int[] index, final double[] keys, final int i, final int j) {
+        final int    tmpIndex = index[i];
+        final double tmpKey   = keys[i];
+        index[i] = index[j];
+        keys[i]  = keys[j];
+        index[j] = tmpIndex;
+        keys[j]  = tmpKey;
+    }
+
+}
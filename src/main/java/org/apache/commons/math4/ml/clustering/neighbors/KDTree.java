@@ -0,0 +1,270 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.math4.ml.clustering.neighbors;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import org.apache.commons.math4.exception.NotStrictlyPositiveException;
+import org.apache.commons.math4.ml.clustering.Clusterable;
+import org.apache.commons.math4.ml.distance.DistanceMeasure;
+import org.apache.commons.math4.util.FastMath;
+
+/**
+ * Spatial index based on a k-d tree.
+ * <p>
+ * The space is recursively split in two halves by axis-aligned hyperplanes,
+ * at the median of the coordinate with the largest spread, until leaves
+ * hold at most a few points. Neighborhood queries only visit the cells
+ * that may contain neighbors, which typically costs O(log n) distance
+ * computations in low dimensions. The efficiency decreases as the
+ * dimension grows, it is usually not worth using a k-d tree when the
+ * number of points is not much larger than 2<sup>dimension</sup>.
+ * </p>
+ * <p>
+ * Pruning relies on the property that the distance between two points is
+ * never smaller than the absolute difference of any of their coordinates.
+ * This holds for all L<sub>p</sub> norms, hence for the {@link
+ * org.apache.commons.math4.ml.distance.EuclideanDistance Euclidean}, {@link
+ * org.apache.commons.math4.ml.distance.ManhattanDistance Manhattan} and {@link
+ * org.apache.commons.math4.ml.distance.ChebyshevDistance Chebyshev} distances,
+ * but not for all distance measures. Results are wrong if the measure does not
+ * have this property, a {@link BallTree} or a {@link BruteForceIndex} should be
+ * used in this case.
+ * </p>
+ *
+ * @param <T> type of the indexed points
+ * @see <a href="http://en.wikipedia.org/wiki/K-d_tree">k-d tree (Wikipedia)</a>
+ * @since 4.0
+ */
+public class KDTree<T extends Clusterable> implements SpatialIndex<T> {
+
+    /** Default maximum number of points in leaves. */
+    public static final int DEFAULT_LEAF_SIZE = 16;
+
+    /** Factory for k-d trees with default leaf size. */
+    public static final SpatialIndexFactory FACTORY = new SpatialIndexFactory() {
+        /** {@inheritDoc} */
+        @Override
+        public <P extends Clusterable> SpatialIndex<P> create(final Collection<P> points,
+                                                              final DistanceMeasure measure) {
+            return new KDTree<P>(points, measure);
+        }
+    };
+
+    /** Indexed points. */
+    private final List<T> points;
+
+    /** Coordinates of the points, in tree order. */
+    private final double[][] coordinates;
+
+    /** Point indices, in tree order. */
+    private final int[] index;
+
+    /** Distance measure. */
+    private final DistanceMeasure measure;
+
+    /** Maximum number of points in leaves. */
+    private final int leafSize;
+
+    /** Root of the tree (null if there are no points). */
+    private final Node root;
+
+    /**
+     * Build an index with {@link #DEFAULT_LEAF_SIZE default leaf size}.
+     *
+     * @param points the points to index
+     * @param measure the distance measure to use
+     */
+    public KDTree(final Collection<T> points, final DistanceMeasure measure) {
+        this(points, measure, DEFAULT_LEAF_SIZE);
+    }
+
+    /**
+     * Build an index.
+     *
+     * @param points the points to index
+     * @param measure the distance measure to use
+     * @param leafSize maximum number of points in leaves
+     * @throws NotStrictlyPositiveException if {@code leafSize < 1}
+     */
+    public KDTree(final Collection<T> points, final DistanceMeasure measure, final int leafSize)
+        throws NotStrictlyPositiveException {
+        if (leafSize < 1) {
+            throw new NotStrictlyPositiveException(leafSize);
+        }
+        this.points      = new ArrayList<T>(points);
+        this.measure     = measure;
+        this.leafSize    = leafSize;
+        this.index       = new int[this.points.size()];
+        this.coordinates = new double[index.length][];
+        for (int i = 0; i < index.length; ++i) {
+            index[i] = i;
+        }
+        if (index.length == 0) {
+            root = null;
+        } else {
+            root = build(0, index.length, new double[index.length]);
+            for (int i = 0; i < index.length; ++i) {
+                coordinates[i] = this.points.get(index[i]).getPoint();
+            }
+        }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public int size() {
+        return points.size();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public List<T> getNeighbors(final Clusterable query, final double radius) {
+        final List<T> neighbors = new ArrayList<T>();
+        if (root != null) {
+            search(root, query.getPoint(), radius, neighbors);
+        }
+        return neighbors;
+    }
+
+    /**
+     * Build a sub-tree.
+     *
+     * @param start first index of the points range (included)
+     * @param end last index of the points range (excluded)
+     * @param keys work array for selection
+     * @return root of the sub-tree
+     */
+    private Node build(final int start, final int end, final double[] keys) {
+
+        if (end - start <= leafSize) {
+            return new Node(start, end, -1, Double.NaN, null, null);
+        }
+
+        // select the coordinate with largest spread
+        final int dimension = points.get(index[start]).getPoint().length;
+        int splitDimension = -1;
+        double largestSpread = 0;
+        for (int d = 0; d < dimension; ++d) {
+            double min = Double.POSITIVE_INFINITY;
+            double max = Double.NEGATIVE_INFINITY;
+            for (int i = start; i < end; ++i) {
+                final double x = points.get(index[i]).getPoint()[d];
+                min = FastMath.min(min, x);
+                max = FastMath.max(max, x);
+            }
+            if (max - min > largestSpread) {
+                largestSpread  = max - min;
+                splitDimension = d;
+            }
+        }
+
+        if (splitDimension < 0) {
+            // all points are identical, they cannot be split
+            return new Node(start, end, -1, Double.NaN, null, null);
+        }
+
+        // split at median
+        for (int i = start; i < end; ++i) {
+            keys[i] = points.get(index[i]).getPoint()[splitDimension];
+        }
+        final int middle = (start + end) >>> 1;
+        IndexSelection.select(index, keys, start, end, middle);
+        final double split = keys[middle];
+
+        return new Node(start, end, splitDimension, split,
+                        build(start, middle, keys), build(middle, end, keys));
+
+    }
+
+    /**
+     * Search neighbors in a sub-tree.
+     *
+     * @param node root of the sub-tree
+     * @param q coordinates of the query point
+     * @param radius maximum distance
+     * @param neighbors list where neighbors should be added
+     */
+    private void search(final Node node, final double[] q, final double radius,
+                        final List<T> neighbors) {
+        if (node.left == null) {
+            // leaf node
+            for (int i = node.start; i < node.end; ++i) {
+                if (measure.compute(coordinates[i], q) <= radius) {
+                    neighbors.add(points.get(index[i]));
+                }
+            }
+        } else {
+            // points in the left sub-tree have coordinates lower than or equal
+            // to the split value, points in the right sub-tree have coordinates
+            // greater than or equal to the split value; the bounds are inclusive,
+            // as the points test above, so points exactly at the search radius
+            // are never pruned
+            final double delta = q[node.splitDimension] - node.split;
+            if (delta <= radius) {
+                search(node.left, q, radius, neighbors);
+            }
+            if (delta >= -radius) {
+                search(node.right, q, radius, neighbors);
+            }
+        }
+    }
+
+    /** Node of the tree. */
+    private static class Node {
+
+        /** First index of the points range (included). */
+        private final int start;
+
+        /** Last index of the points range (excluded). */
+        private final int end;
+
+        /** Split dimension (-1 for leaves). */
+        private final int splitDimension;
+
+        /** Split value (NaN for leaves). */
+        private final double split;
+
+        /** Left sub-tree (null for leaves). */
+        private final Node left;
+
+        /** Right sub-tree (null for leaves). */
+        private final Node right;
+
+        /**
+         * Simple constructor.
+         * @param start first index of the points range (included)
+         * @param end last index of the points range (excluded)
+         * @param splitDimension split dimension (-1 for leaves)
+         * @param split split value (NaN for leaves)
+         * @param left left sub-tree (null for leaves)
+         * @param right right sub-tree (null for leaves)
+         */
+        Node(final int start, final int end, final int splitDimension, final double split,
+             final Node left, final Node right) {
+            this.start          = start;
+            this.end            = end;
+            this.splitDimension = splitDimension;
+            this.split          = split;
+            this.left           = left;
+            this.right          = right;
+        }
+
+    }
+
+}
@@ -0,0 +1,54 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.math4.ml.clustering.neighbors;
+
+import java.util.List;
+
+import org.apache.commons.math4.ml.clustering.Clusterable;
+
+/**
+ * Index over a fixed set of {@link Clusterable} points, answering
+ * neighborhood queries.
+ *
+ * @param <T> type of the indexed points
+ * @since 4.0
+ */
+public interface SpatialIndex<T extends Clusterable> {
+
+    /**
+     * Get the number of indexed points.
+     *
+     * @return number of indexed points
+     */
+    int size();
+
+    /**
+     * Get the indexed points within a given distance of a query point.
+     * <p>
+     * The query point itself is included in the result if it is indexed.
+     * No specific order of the returned points is guaranteed.
+     * </p>
+     *
+     * @param query the query point
+     * @param radius maximum distance (inclusive) between the query point
+     * and the returned points
+     * @return the list of indexed points {@code p} such that
+     * {@code distance(p, query) <= radius}
+     */
+    List<T> getNeighbors(Clusterable query, double radius);
+
+}
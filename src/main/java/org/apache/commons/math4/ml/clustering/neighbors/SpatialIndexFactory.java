@@ -0,0 +1,45 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.math4.ml.clustering.neighbors;
+
+import java.util.Collection;
+
+import org.apache.commons.math4.ml.clustering.Clusterable;
+import org.apache.commons.math4.ml.distance.DistanceMeasure;
+
+/**
+ * Factory for {@link SpatialIndex spatial indexes}.
+ * <p>
+ * This is the neighbor search strategy used by clustering algorithms
+ * that need neighborhood queries.
+ * </p>
+ *
+ * @since 4.0
+ */
+public interface SpatialIndexFactory {
+
+    /**
+     * Build an index over a set of points.
+     *
+     * @param <T> type of the points
+     * @param points the points to index
+     * @param measure the distance measure to use
+     * @return a new index
+     */
+    <T extends Clusterable> SpatialIndex<T> create(Collection<T> points, DistanceMeasure measure);
+
+}
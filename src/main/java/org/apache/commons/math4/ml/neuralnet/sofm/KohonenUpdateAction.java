@@ -75,6 +75,8 @@ public class KohonenUpdateAction implements UpdateAction {
     private final NeighbourhoodSizeFunction neighbourhoodSize;
     /** Number of calls to {@link #update(Network,double[])}. */
     private final AtomicLong numberOfCalls = new AtomicLong(0);
+    /** Number of neuron updates that had to be retried. */
+    private final AtomicLong numberOfRetries = new AtomicLong(0);
 
     /**
      * @param distance Distance function.
@@ -95,11 +97,27 @@ public class KohonenUpdateAction implements UpdateAction {
     @Override
     public void update(Network net,
                        double[] features) {
+        update(net, features, null);
+    }
+
+    /**
+     * Updates the network in response to the sample {@code features}.
+     *
+     * @param net Network.
+     * @param features Training data.
+     * @param matrix Cached features of the network's neurons, used for
+     * searching the winning neuron and kept up-to-date with the updates
+     * performed (if {@code null}, the network is scanned directly).
+     */
+    void update(Network net,
+                double[] features,
+                NeuronFeatureMatrix matrix) {
         final long numCalls = numberOfCalls.incrementAndGet() - 1;
         final double currentLearning = learningFactor.value(numCalls);
         final Neuron best = findAndUpdateBestNeuron(net,
                                                     features,
-                                                    currentLearning);
+                                                    currentLearning,
+                                                    matrix);
 
         final int currentNeighbourhood = neighbourhoodSize.value(numCalls);
         // The farther away the neighbour is from the winning neuron, the
@@ -124,7 +142,7 @@ public class KohonenUpdateAction implements UpdateAction {
 
                 // Update all the neighbours.
                 for (Neuron n : neighbours) {
-                    updateNeighbouringNeuron(n, features, neighbourhoodDecay.value(radius));
+                    updateNeighbouringNeuron(n, features, neighbourhoodDecay.value(radius), matrix);
                 }
 
                 // Add the neighbours to the exclude list so that they will
@@ -145,24 +163,47 @@ public class KohonenUpdateAction implements UpdateAction {
         return numberOfCalls.get();
     }
 
+    /**
+     * Retrieves the number of neuron updates that failed because of a
+     * concurrent modification, and had to be retried.
+     * This is a measure of the contention between the threads that share
+     * this instance.
+     *
+     * @return the current number of retries.
+     * @since 4.0
+     */
+    public long getNumberOfRetries() {
+        return numberOfRetries.get();
+    }
+
     /**
      * Tries to update a neuron.
      *
      * @param n Neuron to be updated.
      * @param features Training data.
      * @param learningRate Learning factor.
+     * @param matrix Cached features to update (may be {@code null}).
      * @return {@code true} if the update succeeded, {@code true} if a
      * concurrent update has been detected.
      */
     private boolean attemptNeuronUpdate(Neuron n,
                                         double[] features,
-                                        double learningRate) {
+                                        double learningRate,
+                                        NeuronFeatureMatrix matrix) {
         final double[] expect = n.getFeatures();
         final double[] update = computeFeatures(expect,
                                                 features,
                                                 learningRate);
 
-        return n.compareAndSetFeatures(expect, update);
+        if (n.compareAndSetFeatures(expect, update)) {
+            if (matrix != null) {
+                matrix.refresh(n);
+            }
+            return true;
+        }
+
+        numberOfRetries.incrementAndGet();
+        return false;
     }
 
     /**
@@ -171,12 +212,14 @@ public class KohonenUpdateAction implements UpdateAction {
      * @param n Neuron to be updated.
      * @param features Training data.
      * @param learningRate Learning factor.
+     * @param matrix Cached features to update (may be {@code null}).
      */
     private void updateNeighbouringNeuron(Neuron n,
                                           double[] features,
-                                          double learningRate) {
+                                          double learningRate,
+                                          NeuronFeatureMatrix matrix) {
         while (true) {
-            if (attemptNeuronUpdate(n, features, learningRate)) {
+            if (attemptNeuronUpdate(n, features, learningRate, matrix)) {
                 break;
             }
         }
@@ -189,15 +232,20 @@ public class KohonenUpdateAction implements UpdateAction {
      * @param net Network.
      * @param features Sample data.
      * @param learningRate Current learning factor.
+     * @param matrix Cached features to search (if {@code null}, the network
+     * is scanned directly).
      * @return the winning neuron.
      */
     private Neuron findAndUpdateBestNeuron(Network net,
                                            double[] features,
-                                           double learningRate) {
+                                           double learningRate,
+                                           NeuronFeatureMatrix matrix) {
         while (true) {
-            final Neuron best = MapUtils.findBest(features, net, distance);
+            final Neuron best = matrix == null ?
+                                MapUtils.findBest(features, net, distance) :
+                                matrix.findBest(features, distance);
 
-            if (attemptNeuronUpdate(best, features, learningRate)) {
+            if (attemptNeuronUpdate(best, features, learningRate, matrix)) {
                 return best;
             }
 
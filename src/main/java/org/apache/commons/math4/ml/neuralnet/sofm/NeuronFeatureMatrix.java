@@ -0,0 +1,143 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.math4.ml.neuralnet.sofm;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import org.apache.commons.math4.exception.DimensionMismatchException;
+import org.apache.commons.math4.ml.distance.DistanceMeasure;
+import org.apache.commons.math4.ml.distance.EuclideanDistance;
+import org.apache.commons.math4.ml.neuralnet.Network;
+import org.apache.commons.math4.ml.neuralnet.Neuron;
+
+/**
+ * Cache of the features of all the neurons of a network, so that the
+ * search for the best matching unit does not need to copy the features
+ * of each neuron.
+ * <br/>
+ * Each neuron's features are stored as an immutable snapshot, replaced
+ * atomically by the threads that successfully update the neuron: A
+ * concurrent search may thus use slightly stale values, which can only
+ * cause a sub-optimal winner to be selected (the update of the winner
+ * itself is always performed atomically on the {@link Neuron}). Once
+ * the updates of a neuron have completed, its snapshot holds the
+ * features set by the last successful update.
+ * <br/>
+ * The set of neurons is fixed at construction: The network must not be
+ * modified (neurons added or deleted) while the cache is in use.
+ *
+ * @since 4.0
+ */
+class NeuronFeatureMatrix {
+    /** Neurons (sorted by identifier). */
+    private final Neuron[] neurons;
+    /** Row of each neuron, indexed by identifier. */
+    private final Map<Long, Integer> rows;
+    /** Number of features. */
+    private final int size;
+    /** Snapshots of the features of all the neurons (never modified in place). */
+    private final AtomicReferenceArray<double[]> data;
+
+    /**
+     * @param net Network whose neurons' features are cached.
+     */
+    NeuronFeatureMatrix(Network net) {
+        neurons = net.getNeurons(new Network.NeuronIdentifierComparator()).toArray(new Neuron[0]);
+        rows = new HashMap<Long, Integer>();
+        size = net.getFeaturesSize();
+        data = new AtomicReferenceArray<double[]>(neurons.length);
+        for (int i = 0; i < neurons.length; i++) {
+            rows.put(neurons[i].getIdentifier(), i);
+            data.set(i, neurons[i].getFeatures());
+        }
+    }
+
+    /**
+     * Updates the cached features of a neuron, after a successful
+     * update of the neuron.
+     * <br/>
+     * The current features of the neuron are published until they are
+     * still current once published, so that a concurrent refresh that
+     * read older features cannot leave them in the cache.
+     *
+     * @param n Neuron.
+     */
+    void refresh(Neuron n) {
+        final Integer row = rows.get(n.getIdentifier());
+        if (row != null) {
+            double[] features = n.getFeatures();
+            while (true) {
+                data.set(row, features);
+                final double[] current = n.getFeatures();
+                if (Arrays.equals(current, features)) {
+                    return;
+                }
+                features = current;
+            }
+        }
+    }
+
+    /**
+     * Finds the neuron whose cached features best match the given features.
+     *
+     * @param features Data.
+     * @param distance Distance function. The neuron's features are passed
+     * as the first argument to {@link DistanceMeasure#compute(double[],double[])}.
+     * @return the neuron whose features are closest to the given data, or
+     * {@code null} if the network is empty.
+     * @throws DimensionMismatchException if the size of the input is not
+     * compatible with the neurons features size.
+     */
+    Neuron findBest(double[] features,
+                    DistanceMeasure distance) {
+        if (features.length != size) {
+            throw new DimensionMismatchException(features.length, size);
+        }
+
+        int best = -1;
+        double min = Double.POSITIVE_INFINITY;
+        if (distance.getClass() == EuclideanDistance.class) {
+            // Squared distances preserve the ordering.
+            for (int i = 0; i < neurons.length; i++) {
+                final double[] row = data.get(i);
+                double sum = 0;
+                for (int j = 0; j < size; j++) {
+                    final double dx = row[j] - features[j];
+                    sum += dx * dx;
+                }
+                if (sum < min) {
+                    min = sum;
+                    best = i;
+                }
+            }
+        } else {
+            for (int i = 0; i < neurons.length; i++) {
+                // Snapshots are never modified, no copy is needed.
+                final double d = distance.compute(data.get(i), features);
+                if (d < min) {
+                    min = d;
+                    best = i;
+                }
+            }
+        }
+
+        return best < 0 ? null : neurons[best];
+    }
+}
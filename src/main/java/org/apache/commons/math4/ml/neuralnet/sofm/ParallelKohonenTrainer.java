@@ -0,0 +1,241 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.math4.ml.neuralnet.sofm;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.commons.math4.exception.MathIllegalStateException;
+import org.apache.commons.math4.exception.NotStrictlyPositiveException;
+import org.apache.commons.math4.exception.util.LocalizedFormats;
+import org.apache.commons.math4.ml.neuralnet.Network;
+
+/**
+ * Multi-threaded trainer for Kohonen's Self-Organizing Map.
+ * <br/>
+ * The training samples are read from a single iterator, in chunks, by
+ * a number of concurrent tasks that share the same
+ * {@link KohonenUpdateAction update procedure}. The neurons are updated
+ * without locking ("Hogwild" training): Conflicting updates are detected
+ * by {@link org.apache.commons.math4.ml.neuralnet.Neuron#compareAndSetFeatures(double[],double[])
+ * compare-and-set} and retried.
+ * The search for the winning neuron is performed on a cached snapshot of
+ * the neurons' features, that is kept up-to-date by the tasks.
+ * <br/>
+ * The network must not be modified (neurons added or deleted) while it
+ * is being trained.
+ *
+ * @since 4.0
+ */
+public class ParallelKohonenTrainer {
+    /** Default number of samples read at once by a task. */
+    public static final int DEFAULT_CHUNK_SIZE = 256;
+    /** SOFM to be trained. */
+    private final Network net;
+    /** Update procedure. */
+    private final KohonenUpdateAction updateAction;
+    /** Number of samples read at once by a task. */
+    private final int chunkSize;
+
+    /**
+     * Creates a trainer that reads {@link #DEFAULT_CHUNK_SIZE} samples at once.
+     *
+     * @param net Network to be trained with the SOFM algorithm.
+     * @param updateAction SOFM update procedure, shared by all the tasks.
+     */
+    public ParallelKohonenTrainer(Network net,
+                                  KohonenUpdateAction updateAction) {
+        this(net, updateAction, DEFAULT_CHUNK_SIZE);
+    }
+
+    /**
+     * @param net Network to be trained with the SOFM algorithm.
+     * @param updateAction SOFM update procedure, shared by all the tasks.
+     * @param chunkSize Number of samples read at once by a task.
+     * @throws NotStrictlyPositiveException if {@code chunkSize <= 0}.
+     */
+    public ParallelKohonenTrainer(Network net,
+                                  KohonenUpdateAction updateAction,
+                                  int chunkSize) {
+        if (chunkSize <= 0) {
+            throw new NotStrictlyPositiveException(chunkSize);
+        }
+
+        this.net = net;
+        this.updateAction = updateAction;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Trains the network with all the samples provided by the iterator.
+     * The method returns when all the samples have been processed.
+     * If a task fails, the other tasks are cancelled before the failure
+     * is reported.
+     *
+     * @param featuresIterator Training data iterator. It is only accessed
+     * while holding its lock, so it need not be thread-safe.
+     * @param executor Executor that will run the training tasks.
+     * @param numberOfTasks Number of concurrent training tasks (usually
+     * the number of threads of the {@code executor}).
+     * @return the statistics of the training.
+     * @throws NotStrictlyPositiveException if {@code numberOfTasks <= 0}.
+     * @throws MathIllegalStateException if the training is interrupted or
+     * if a task fails with a checked exception.
+     */
+    public TrainingStatistics train(final Iterator<double[]> featuresIterator,
+                                    ExecutorService executor,
+                                    int numberOfTasks) {
+        if (numberOfTasks <= 0) {
+            throw new NotStrictlyPositiveException(numberOfTasks);
+        }
+
+        final NeuronFeatureMatrix matrix = new NeuronFeatureMatrix(net);
+        final AtomicLong numberOfSamples = new AtomicLong(0);
+        final long initialRetries = updateAction.getNumberOfRetries();
+        final long start = System.nanoTime();
+
+        final CompletionService<Void> completion = new ExecutorCompletionService<Void>(executor);
+        final List<Future<Void>> futures = new ArrayList<Future<Void>>(numberOfTasks);
+        for (int i = 0; i < numberOfTasks; i++) {
+            futures.add(completion.submit(new Runnable() {
+                /** {@inheritDoc} */
+                @Override
+                public void run() {
+                    final double[][] chunk = new double[chunkSize][];
+                    while (true) {
+                        int n = 0;
+                        synchronized (featuresIterator) {
+                            while (n < chunkSize && featuresIterator.hasNext()) {
+                                chunk[n++] = featuresIterator.next();
+                            }
+                        }
+                        if (n == 0 || Thread.currentThread().isInterrupted()) {
+                            // No more samples, or cancelled after a failure.
+                            return;
+                        }
+                        for (int j = 0; j < n; j++) {
+                            updateAction.update(net, chunk[j], matrix);
+                            chunk[j] = null;
+                        }
+                        numberOfSamples.addAndGet(n);
+                    }
+                }
+            }, null));
+        }
+
+        try {
+            // Wait in completion order, so that a failure is seen at once.
+            for (int i = 0; i < numberOfTasks; i++) {
+                completion.take().get();
+            }
+        } catch (InterruptedException e) {
+            cancel(futures);
+            Thread.currentThread().interrupt();
+            throw new MathIllegalStateException(e, LocalizedFormats.SIMPLE_MESSAGE, e.getMessage());
+        } catch (ExecutionException e) {
+            cancel(futures);
+            final Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new MathIllegalStateException(cause, LocalizedFormats.SIMPLE_MESSAGE, cause.getMessage());
+        }
+
+        return new TrainingStatistics(numberOfSamples.get(),
+                                      System.nanoTime() - start,
+                                      updateAction.getNumberOfRetries() - initialRetries);
+    }
+
+    /**
+     * Cancels training tasks.
+     *
+     * @param futures Tasks to cancel (the completed ones are unaffected).
+     */
+    private static void cancel(List<Future<Void>> futures) {
+        for (Future<Void> f : futures) {
+            f.cancel(true);
+        }
+    }
+
+    /**
+     * Statistics of a training run.
+     */
+    public static class TrainingStatistics {
+        /** Number of samples processed. */
+        private final long numberOfSamples;
+        /** Elapsed time (in nanoseconds). */
+        private final long elapsedTime;
+        /** Number of neuron updates that had to be retried. */
+        private final long numberOfRetries;
+
+        /**
+         * @param numberOfSamples Number of samples processed.
+         * @param elapsedTime Elapsed time (in nanoseconds).
+         * @param numberOfRetries Number of neuron updates that had to be retried.
+         */
+        TrainingStatistics(long numberOfSamples,
+                           long elapsedTime,
+                           long numberOfRetries) {
+            this.numberOfSamples = numberOfSamples;
+            this.elapsedTime = elapsedTime;
+            this.numberOfRetries = numberOfRetries;
+        }
+
+        /**
+         * @return the number of samples processed.
+         */
+        public long getNumberOfSamples() {
+            return numberOfSamples;
+        }
+
+        /**
+         * @return the elapsed time (in nanoseconds).
+         */
+        public long getElapsedTime() {
+            return elapsedTime;
+        }
+
+        /**
+         * @return the number of samples processed per second.
+         */
+        public double getThroughput() {
+            return elapsedTime == 0 ?
+                Double.POSITIVE_INFINITY :
+                numberOfSamples * 1e9 / elapsedTime;
+        }
+
+        /**
+         * Gets the number of neuron updates that failed because of a
+         * concurrent modification, and had to be retried.
+         *
+         * @return the number of retries.
+         */
+        public long getNumberOfRetries() {
+            return numberOfRetries;
+        }
+    }
+}
@@ -33,6 +33,7 @@ import org.apache.commons.math4.exception.MaxCountExceededException;
 import org.apache.commons.math4.exception.NoBracketingException;
 import org.apache.commons.math4.exception.NumberIsTooSmallException;
 import org.apache.commons.math4.exception.util.LocalizedFormats;
+import org.apache.commons.math4.ode.events.BatchEventDetector;
 import org.apache.commons.math4.ode.events.EventHandler;
 import org.apache.commons.math4.ode.events.EventState;
 import org.apache.commons.math4.ode.sampling.AbstractStepInterpolator;
@@ -62,8 +63,11 @@ public abstract class AbstractIntegrator implements FirstOrderIntegrator {
     /** Indicator that a state or derivative reset was triggered by some event. */
     protected boolean resetOccurred;
 
+    /** Step handlers list, referenced by {@link #stepHandlers} unless a subclass replaced it. */
+    private final List<StepHandler> stepHandlersList;
+
     /** Events states. */
-    private Collection<EventState> eventsStates;
+    private List<EventState> eventsStates;
 
     /** Initialization indicator of events states. */
     private boolean statesInitialized;
@@ -77,12 +81,22 @@ public abstract class AbstractIntegrator implements FirstOrderIntegrator {
     /** Differential equations to integrate. */
     private transient ExpandableStatefulODE expandable;
 
+    /** Complete state at the end of the accepted steps, reused from step to step. */
+    private double[] stepEndState;
+
+    /** Secondary equations mappers, cached for the current integration. */
+    private EquationsMapper[] secondaryMappers;
+
+    /** Detector evaluating all events handlers at once (null for one at a time evaluation). */
+    private BatchEventDetector batchEventDetector;
+
     /** Build an instance.
      * @param name name of the method
      */
     public AbstractIntegrator(final String name) {
         this.name = name;
-        stepHandlers = new ArrayList<StepHandler>();
+        stepHandlersList = new ArrayList<StepHandler>();
+        stepHandlers = stepHandlersList;
         stepStart = Double.NaN;
         stepSize  = Double.NaN;
         eventsStates = new ArrayList<EventState>();
@@ -142,6 +156,30 @@ public abstract class AbstractIntegrator implements FirstOrderIntegrator {
                                         maxIterationCount, solver));
     }
 
+    /** Set the detector evaluating all events handlers at once.
+     * <p>By default, the impact of each step is evaluated for one event
+     * handler at a time. With many event handlers, a {@link
+     * BatchEventDetector batch detector} shares the interpolated state
+     * among handlers, skips handlers whose sign cannot change and can
+     * locate events in parallel.</p>
+     * @param batchEventDetector detector evaluating all events handlers
+     * at once (null to evaluate them one at a time)
+     * @since 4.0
+     */
+    public void setBatchEventDetector(final BatchEventDetector batchEventDetector) {
+        this.batchEventDetector = batchEventDetector;
+    }
+
+    /** Get the detector evaluating all events handlers at once.
+     * @return detector evaluating all events handlers at once
+     * (null if they are evaluated one at a time)
+     * @see #setBatchEventDetector(BatchEventDetector)
+     * @since 4.0
+     */
+    public BatchEventDetector getBatchEventDetector() {
+        return batchEventDetector;
+    }
+
     /** {@inheritDoc} */
     @Override
     public Collection<EventHandler> getEventHandlers() {
@@ -196,6 +234,7 @@ public abstract class AbstractIntegrator implements FirstOrderIntegrator {
     protected void initIntegration(final double t0, final double[] y0, final double t) {
 
         evaluations = evaluations.withStart(0);
+        secondaryMappers = null;
 
         for (final EventState state : eventsStates) {
             state.setExpandable(expandable);
@@ -340,25 +379,23 @@ public abstract class AbstractIntegrator implements FirstOrderIntegrator {
             }
 
             // search for next events that may occur during the step
-            final int orderingSign = interpolator.isForward() ? +1 : -1;
-            SortedSet<EventState> occurringEvents = new TreeSet<EventState>(new Comparator<EventState>() {
-
-                /** {@inheritDoc} */
-                @Override
-                public int compare(EventState es0, EventState es1) {
-                    return orderingSign * Double.compare(es0.getEventTime(), es1.getEventTime());
+            SortedSet<EventState> occurringEvents = null;
+            if (batchEventDetector != null && !eventsStates.isEmpty()) {
+                final List<EventState> triggered = batchEventDetector.evaluateStep(eventsStates, interpolator);
+                for (int i = 0; i < triggered.size(); ++i) {
+                    occurringEvents = addOccurringEvent(occurringEvents, triggered.get(i), interpolator);
                 }
-
-            });
-
-            for (final EventState state : eventsStates) {
-                if (state.evaluateStep(interpolator)) {
-                    // the event occurs during the current step
-                    occurringEvents.add(state);
+            } else {
+                for (int i = 0; i < eventsStates.size(); ++i) {
+                    final EventState state = eventsStates.get(i);
+                    if (state.evaluateStep(interpolator)) {
+                        // the event occurs during the current step
+                        occurringEvents = addOccurringEvent(occurringEvents, state, interpolator);
+                    }
                 }
             }
 
-            while (!occurringEvents.isEmpty()) {
+            while (occurringEvents != null && !occurringEvents.isEmpty()) {
 
                 // handle the chronologically first event
                 final Iterator<EventState> iterator = occurringEvents.iterator();
@@ -373,13 +410,7 @@ public abstract class AbstractIntegrator implements FirstOrderIntegrator {
                 // get state at event time
                 interpolator.setInterpolatedTime(eventT);
                 final double[] eventYComplete = new double[y.length];
-                expandable.getPrimaryMapper().insertEquationData(interpolator.getInterpolatedState(),
-                                                                 eventYComplete);
-                int index = 0;
-                for (EquationsMapper secondary : expandable.getSecondaryMappers()) {
-                    secondary.insertEquationData(interpolator.getInterpolatedSecondaryState(index++),
-                                                 eventYComplete);
-                }
+                getInterpolatedCompleteState(interpolator, eventYComplete);
 
                 // advance all event states to current time
                 for (final EventState state : eventsStates) {
@@ -428,29 +459,79 @@ public abstract class AbstractIntegrator implements FirstOrderIntegrator {
 
             // last part of the step, after the last event
             interpolator.setInterpolatedTime(currentT);
-            final double[] currentY = new double[y.length];
-            expandable.getPrimaryMapper().insertEquationData(interpolator.getInterpolatedState(),
-                                                             currentY);
-            int index = 0;
-            for (EquationsMapper secondary : expandable.getSecondaryMappers()) {
-                secondary.insertEquationData(interpolator.getInterpolatedSecondaryState(index++),
-                                             currentY);
+            if (stepEndState == null || stepEndState.length != y.length) {
+                stepEndState = new double[y.length];
             }
-            for (final EventState state : eventsStates) {
+            final double[] currentY = stepEndState;
+            getInterpolatedCompleteState(interpolator, currentY);
+            for (int i = 0; i < eventsStates.size(); ++i) {
+                final EventState state = eventsStates.get(i);
                 state.stepAccepted(currentT, currentY);
                 isLastStep = isLastStep || state.stop();
             }
             isLastStep = isLastStep || Precision.equals(currentT, tEnd, 1);
 
             // handle the remaining part of the step, after all events if any
-            for (StepHandler handler : stepHandlers) {
-                handler.handleStep(interpolator, isLastStep);
+            // (indexed loop, as an iterator would create garbage at each step)
+            if (stepHandlers == stepHandlersList) {
+                for (int i = 0; i < stepHandlersList.size(); ++i) {
+                    stepHandlersList.get(i).handleStep(interpolator, isLastStep);
+                }
+            } else {
+                for (StepHandler handler : stepHandlers) {
+                    handler.handleStep(interpolator, isLastStep);
+                }
             }
 
             return currentT;
 
     }
 
+    /** Add an event to the set of events occurring during the current step.
+     * @param occurringEvents events occurring during the current step
+     * (null if no event has been found yet)
+     * @param state state of the event occurring during the current step
+     * @param interpolator step interpolator
+     * @return events occurring during the current step, chronologically sorted
+     */
+    private SortedSet<EventState> addOccurringEvent(final SortedSet<EventState> occurringEvents,
+                                                    final EventState state,
+                                                    final AbstractStepInterpolator interpolator) {
+        // the set is built only when needed, so steps without events do not create garbage
+        SortedSet<EventState> events = occurringEvents;
+        if (events == null) {
+            final int orderingSign = interpolator.isForward() ? +1 : -1;
+            events = new TreeSet<EventState>(new Comparator<EventState>() {
+
+                /** {@inheritDoc} */
+                @Override
+                public int compare(EventState es0, EventState es1) {
+                    return orderingSign * Double.compare(es0.getEventTime(), es1.getEventTime());
+                }
+
+            });
+        }
+        events.add(state);
+        return events;
+    }
+
+    /** Get the complete interpolated state, including secondary equations.
+     * @param interpolator step interpolator, with the interpolated time already set
+     * @param completeState placeholder array where to put the complete state
+     */
+    private void getInterpolatedCompleteState(final AbstractStepInterpolator interpolator,
+                                              final double[] completeState) {
+        expandable.getPrimaryMapper().insertEquationData(interpolator.getInterpolatedState(),
+                                                         completeState);
+        if (secondaryMappers == null) {
+            secondaryMappers = expandable.getSecondaryMappers();
+        }
+        for (int index = 0; index < secondaryMappers.length; ++index) {
+            secondaryMappers[index].insertEquationData(interpolator.getInterpolatedSecondaryState(index),
+                                                       completeState);
+        }
+    }
+
     /** Check the integration span.
      * @param equations set of differential equations
      * @param t target time for the integration
@@ -0,0 +1,55 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.math4.ode;
+
+import org.apache.commons.math4.exception.DimensionMismatchException;
+import org.apache.commons.math4.exception.MaxCountExceededException;
+
+/** This interface represents a first order differential equations set
+ * evaluated on a batch of states at once.
+ *
+ * <p>This interface is used by the {@link
+ * EnsembleIntegrator#integrateLockstep(BatchFirstOrderDifferentialEquations,
+ * double, double[][], double) lockstep mode} of {@link EnsembleIntegrator},
+ * where many members of an ensemble share the same time steps. Evaluating
+ * the derivatives of all members in a single call allows implementations
+ * to amortize per-call costs or to use vectorized code.</p>
+ *
+ * @see EnsembleIntegrator
+ * @see FirstOrderDifferentialEquations
+ * @since 4.0
+ */
+public interface BatchFirstOrderDifferentialEquations {
+
+    /** Get the dimension of the state vector of one member.
+     * @return dimension of the state vector of one member
+     */
+    int getDimension();
+
+    /** Get the current time derivatives of a batch of state vectors.
+     * @param t current value of the independent <I>time</I> variable
+     * @param y array containing the current values of the state vectors,
+     * one row per member
+     * @param yDot placeholder array where to put the time derivatives of
+     * the state vectors, one row per member
+     * @exception MaxCountExceededException if the number of functions evaluations is exceeded
+     * @exception DimensionMismatchException if arrays dimensions do not match equations settings
+     */
+    void computeDerivatives(double t, double[][] y, double[][] yDot)
+        throws MaxCountExceededException, DimensionMismatchException;
+
+}
@@ -0,0 +1,572 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.math4.ode;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.RandomAccessFile;
+import java.io.Serializable;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.commons.math4.exception.MathIllegalStateException;
+import org.apache.commons.math4.exception.MaxCountExceededException;
+import org.apache.commons.math4.exception.NumberIsTooSmallException;
+import org.apache.commons.math4.exception.util.LocalizedFormats;
+import org.apache.commons.math4.ode.sampling.StepHandler;
+import org.apache.commons.math4.ode.sampling.StepInterpolator;
+import org.apache.commons.math4.util.FastMath;
+
+/**
+ * Compact continuous model of the solution of an ODE, built from the
+ * steps of an integrator.
+ *
+ * <p>This class plays the same role as {@link ContinuousOutputModel}:
+ * used as a step handler, it records all steps of an integration and can
+ * later provide the state at any time of the integration interval. Instead
+ * of storing copies of the step interpolators, which hold many arrays and
+ * may use a lot of memory for long integrations, each step is sampled at
+ * the {@code degree + 1} Chebyshev-Gauss-Lobatto points of the step and
+ * converted into the coefficients of a Chebyshev polynomial of the specified
+ * degree. The coefficients of all steps are stored in large chunks of
+ * contiguous primitive arrays, and the step boundaries in a single sorted
+ * array, so a step is located by binary search in O(log n) time
+ * (consecutive requests in the same step are even faster). The state and
+ * its derivatives are evaluated from the Chebyshev polynomial.</p>
+ *
+ * <p>Since the polynomial interpolates the dense output of the integrator
+ * at the sampling points, it reproduces it exactly (up to round-off errors)
+ * if its degree is at least the degree of the integrator interpolating
+ * polynomial (for example 7 for {@link
+ * org.apache.commons.math4.ode.nonstiff.DormandPrince853Integrator
+ * Dormand-Prince 8(5,3)}), and it is a very accurate approximation of it
+ * otherwise. The step boundaries are always reproduced exactly. The
+ * {@link #DEFAULT_DEGREE default degree} is suitable for all Runge-Kutta
+ * integrators of the library.</p>
+ *
+ * <p>The coefficients can optionally be stored in a memory-mapped file
+ * rather than in the heap, so that very long integrations do not exhaust
+ * memory. The file is truncated when the model is built and at the start
+ * of each new integration, so it only holds the chunks of the current
+ * integration.</p>
+ *
+ * <p>Only the main state is recorded; secondary states are not
+ * available. Contrary to {@link ContinuousOutputModel}, the integration
+ * cannot be split in several phases: each call to {@link #init(double,
+ * double[], double) init} resets the model. Querying a model is not
+ * thread-safe, as it relies on internal arrays updated by {@link
+ * #setInterpolatedTime(double)}.</p>
+ *
+ * <p>This class implements the <code>Serializable</code> interface;
+ * serialized instances always store their coefficients in the heap
+ * when deserialized.</p>
+ *
+ * @see ContinuousOutputModel
+ * @since 4.0
+ */
+public class CompactContinuousOutputModel implements StepHandler, Closeable, Serializable {
+
+    /** Default degree of the polynomial representing each step. */
+    public static final int DEFAULT_DEGREE = 7;
+
+    /** Serializable version identifier. */
+    private static final long serialVersionUID = 20161018L;
+
+    /** Number of steps per storage chunk. */
+    private static final int STEPS_PER_CHUNK = 1024;
+
+    /** Initial size of the step boundaries array. */
+    private static final int INITIAL_CAPACITY = 64;
+
+    /** Degree of the polynomial representing each step. */
+    private final int degree;
+
+    /** Matrix converting values at sampling points into Chebyshev coefficients. */
+    private final double[][] valuesToCoefficients;
+
+    /** Normalized sampling points, in [0, 1]. */
+    private final double[] samplingPoints;
+
+    /** File channel (null for heap storage). */
+    private transient FileChannel channel;
+
+    /** Storage chunks for coefficients. */
+    private transient List<DoubleBuffer> chunks;
+
+    /** Step boundaries: step i covers [boundaries[i], boundaries[i + 1]]. */
+    private double[] boundaries;
+
+    /** Number of stored steps. */
+    private int nbSteps;
+
+    /** State dimension. */
+    private int dimension;
+
+    /** Integration direction indicator. */
+    private boolean forward;
+
+    /** Index of the current step. */
+    private int index;
+
+    /** Interpolated time. */
+    private double interpolatedTime;
+
+    /** Interpolated state. */
+    private double[] interpolatedState;
+
+    /** Interpolated derivatives. */
+    private double[] interpolatedDerivatives;
+
+    /** Chebyshev polynomials at interpolated time. */
+    private double[] t;
+
+    /** Chebyshev polynomials derivatives at interpolated time. */
+    private double[] tDot;
+
+    /** Values sampled in the last step, one row per sampling point. */
+    private double[][] samples;
+
+    /** Simple constructor.
+     * Build an empty model storing steps in the heap with the
+     * {@link #DEFAULT_DEGREE default degree}.
+     */
+    public CompactContinuousOutputModel() {
+        this(DEFAULT_DEGREE);
+    }
+
+    /** Build an empty model storing steps in the heap.
+     * @param degree degree of the polynomial representing each step
+     * @exception NumberIsTooSmallException if degree is lower than 1
+     */
+    public CompactContinuousOutputModel(final int degree)
+        throws NumberIsTooSmallException {
+        this.degree               = checkDegree(degree);
+        this.valuesToCoefficients = buildConversionMatrix(degree);
+        this.samplingPoints       = buildSamplingPoints(degree);
+        this.channel              = null;
+        reset();
+    }
+
+    /** Build an empty model storing steps in a memory-mapped file.
+     * <p>The file is created if needed, and truncated otherwise. It is
+     * not deleted when the model is {@link #close() closed}.</p>
+     * @param degree degree of the polynomial representing each step
+     * @param file file where to store the steps
+     * @exception NumberIsTooSmallException if degree is lower than 1
+     * @exception IOException if the file cannot be opened
+     */
+    public CompactContinuousOutputModel(final int degree, final File file)
+        throws NumberIsTooSmallException, IOException {
+        this.degree               = checkDegree(degree);
+        this.valuesToCoefficients = buildConversionMatrix(degree);
+        this.samplingPoints       = buildSamplingPoints(degree);
+        this.channel              = new RandomAccessFile(file, "rw").getChannel();
+        try {
+            channel.truncate(0);
+        } catch (IOException ioe) {
+            channel.close();
+            throw ioe;
+        }
+        reset();
+    }
+
+    /** Check the degree.
+     * @param degree degree of the polynomial representing each step
+     * @return degree
+     * @exception NumberIsTooSmallException if degree is lower than 1
+     */
+    private static int checkDegree(final int degree) throws NumberIsTooSmallException {
+        if (degree < 1) {
+            throw new NumberIsTooSmallException(degree, 1, true);
+        }
+        return degree;
+    }
+
+    /** Build the normalized Chebyshev-Gauss-Lobatto sampling points.
+     * @param degree degree of the polynomial representing each step
+     * @return sampling points in [0, 1], the first one being 1 (end of step)
+     * and the last one being 0 (start of step)
+     */
+    private static double[] buildSamplingPoints(final int degree) {
+        final double[] points = new double[degree + 1];
+        for (int j = 0; j <= degree; ++j) {
+            points[j] = 0.5 * (1 + FastMath.cos(FastMath.PI * j / degree));
+        }
+        points[0]      = 1;
+        points[degree] = 0;
+        return points;
+    }
+
+    /** Build the matrix converting values at Chebyshev-Gauss-Lobatto points
+     * into Chebyshev coefficients.
+     * @param degree degree of the polynomial representing each step
+     * @return conversion matrix
+     */
+    private static double[][] buildConversionMatrix(final int degree) {
+        final double[][] m = new double[degree + 1][degree + 1];
+        for (int k = 0; k <= degree; ++k) {
+            final double ck = (k == 0 || k == degree) ? 1.0 / degree : 2.0 / degree;
+            for (int j = 0; j <= degree; ++j) {
+                final double cj = (j == 0 || j == degree) ? 0.5 : 1.0;
+                m[k][j] = ck * cj * FastMath.cos(FastMath.PI * ((j * k) % (2 * degree)) / degree);
+            }
+        }
+        return m;
+    }
+
+    /** Reset the model to empty state. */
+    private void reset() {
+        chunks                  = new ArrayList<DoubleBuffer>();
+        boundaries              = new double[INITIAL_CAPACITY];
+        nbSteps                 = 0;
+        dimension               = 0;
+        forward                 = true;
+        index                   = 0;
+        interpolatedTime        = Double.NaN;
+        interpolatedState       = null;
+        interpolatedDerivatives = null;
+        t                       = new double[degree + 1];
+        tDot                    = new double[degree + 1];
+        samples                 = null;
+    }
+
+    /** Get the degree of the polynomial representing each step.
+     * @return degree of the polynomial representing each step
+     */
+    public int getDegree() {
+        return degree;
+    }
+
+    /** Get the number of stored steps.
+     * @return number of stored steps
+     */
+    public int getNumberOfSteps() {
+        return nbSteps;
+    }
+
+    /** {@inheritDoc}
+     * @exception MathIllegalStateException if the memory-mapped file cannot be truncated
+     */
+    @Override
+    public void init(final double t0, final double[] y0, final double tEnd)
+        throws MathIllegalStateException {
+        reset();
+        if (channel != null) {
+            // the chunks of a previous integration must not remain in the file
+            try {
+                channel.truncate(0);
+            } catch (IOException ioe) {
+                throw new MathIllegalStateException(ioe, LocalizedFormats.SIMPLE_MESSAGE, ioe.getMessage());
+            }
+        }
+    }
+
+    /** Handle the last accepted step.
+     * The step is sampled and its coefficients are stored in the
+     * instance for later use.
+     * @param interpolator interpolator for the last accepted step.
+     * @param isLast true if the step is the last one
+     * @exception MaxCountExceededException if the number of functions evaluations is exceeded
+     * during step finalization
+     * @exception MathIllegalStateException if the memory-mapped file cannot be extended
+     */
+    @Override
+    public void handleStep(final StepInterpolator interpolator, final boolean isLast)
+        throws MaxCountExceededException, MathIllegalStateException {
+
+        final double previous = interpolator.getPreviousTime();
+        final double current  = interpolator.getCurrentTime();
+
+        if (nbSteps == 0) {
+            forward                 = interpolator.isForward();
+            dimension               = interpolator.getInterpolatedState().length;
+            interpolatedState       = new double[dimension];
+            interpolatedDerivatives = new double[dimension];
+            samples                 = new double[degree + 1][dimension];
+            boundaries[0]           = previous;
+        }
+
+        // sample the step, ending at current time to leave the interpolator as we found it
+        final double h = current - previous;
+        for (int j = degree; j >= 0; --j) {
+            final double time = (j == 0) ? current : previous + samplingPoints[j] * h;
+            interpolator.setInterpolatedTime(time);
+            System.arraycopy(interpolator.getInterpolatedState(), 0, samples[j], 0, dimension);
+        }
+
+        // convert the samples into Chebyshev coefficients
+        final int stepSize  = (degree + 1) * dimension;
+        final int chunkSize = STEPS_PER_CHUNK * stepSize;
+        if (nbSteps % STEPS_PER_CHUNK == 0) {
+            chunks.add(allocateChunk(chunks.size(), chunkSize));
+        }
+        final DoubleBuffer chunk = chunks.get(chunks.size() - 1);
+        final int base = (nbSteps % STEPS_PER_CHUNK) * stepSize;
+        for (int k = 0; k <= degree; ++k) {
+            final double[] mk = valuesToCoefficients[k];
+            for (int i = 0; i < dimension; ++i) {
+                double sum = 0;
+                for (int j = 0; j <= degree; ++j) {
+                    sum += mk[j] * samples[j][i];
+                }
+                chunk.put(base + k * dimension + i, sum);
+            }
+        }
+
+        if (nbSteps + 2 > boundaries.length) {
+            final double[] tmp = new double[2 * boundaries.length];
+            System.arraycopy(boundaries, 0, tmp, 0, nbSteps + 1);
+            boundaries = tmp;
+        }
+        boundaries[++nbSteps] = current;
+        index = nbSteps - 1;
+
+    }
+
+    /** Allocate a storage chunk.
+     * @param chunkIndex index of the chunk
+     * @param chunkSize number of double elements in the chunk
+     * @return allocated chunk
+     * @exception MathIllegalStateException if the memory-mapped file cannot be extended
+     */
+    private DoubleBuffer allocateChunk(final int chunkIndex, final int chunkSize)
+        throws MathIllegalStateException {
+        if (channel == null) {
+            return DoubleBuffer.wrap(new double[chunkSize]);
+        }
+        try {
+            final long bytes = 8l * chunkSize;
+            return channel.map(FileChannel.MapMode.READ_WRITE, chunkIndex * bytes, bytes).
+                   order(ByteOrder.nativeOrder()).
+                   asDoubleBuffer();
+        } catch (IOException ioe) {
+            throw new MathIllegalStateException(ioe, LocalizedFormats.SIMPLE_MESSAGE, ioe.getMessage());
+        }
+    }
+
+    /** Close the memory-mapped file, if any.
+     * <p>The model cannot be used for a new integration after this
+     * method has been called, but the already recorded steps can
+     * still be queried.</p>
+     * @exception IOException if the file cannot be closed
+     */
+    @Override
+    public void close() throws IOException {
+        if (channel != null) {
+            channel.close();
+        }
+    }
+
+    /**
+     * Get the initial integration time.
+     * @return initial integration time, or NaN if no steps have been stored
+     */
+    public double getInitialTime() {
+        return nbSteps == 0 ? Double.NaN : boundaries[0];
+    }
+
+    /**
+     * Get the final integration time.
+     * @return final integration time, or NaN if no steps have been stored
+     */
+    public double getFinalTime() {
+        return nbSteps == 0 ? Double.NaN : boundaries[nbSteps];
+    }
+
+    /**
+     * Get the time of the interpolated point.
+     * @return interpolation point time, or NaN if {@link #setInterpolatedTime}
+     * has not been called
+     */
+    public double getInterpolatedTime() {
+        return interpolatedTime;
+    }
+
+    /** Set the time of the interpolated point.
+     * <p>Setting the time outside of the integration interval is allowed,
+     * but should be used with care since the accuracy of the model will
+     * probably be very poor far from this interval.</p>
+     * <p>Note that each time this method is called, the internal arrays
+     * returned in {@link #getInterpolatedState()} and {@link
+     * #getInterpolatedDerivatives()} <em>will</em> be overwritten. So if
+     * their content must be preserved across several calls, user must
+     * copy them.</p>
+     * @param time time of the interpolated point
+     * @exception MathIllegalStateException if no steps have been stored
+     * @see #getInterpolatedState()
+     * @see #getInterpolatedDerivatives()
+     */
+    public void setInterpolatedTime(final double time) throws MathIllegalStateException {
+
+        if (nbSteps == 0) {
+            throw new MathIllegalStateException(LocalizedFormats.NO_DATA);
+        }
+
+        // locate the step, checking the current step first
+        if (locatePoint(time, index) != 0) {
+            int iMin = 0;
+            int iMax = nbSteps - 1;
+            while (iMin < iMax) {
+                final int iMed = (iMin + iMax) >>> 1;
+                if (locatePoint(time, iMed) > 0) {
+                    iMin = iMed + 1;
+                } else {
+                    iMax = iMed;
+                }
+            }
+            index = iMin;
+        }
+
+        // evaluate Chebyshev polynomials and their derivatives
+        final double t0 = boundaries[index];
+        final double t1 = boundaries[index + 1];
+        final double x  = (2 * time - t0 - t1) / (t1 - t0);
+        t[0]    = 1;
+        tDot[0] = 0;
+        t[1]    = x;
+        tDot[1] = 1;
+        for (int k = 2; k <= degree; ++k) {
+            t[k]    = 2 * x * t[k - 1] - t[k - 2];
+            tDot[k] = 2 * t[k - 1] + 2 * x * tDot[k - 1] - tDot[k - 2];
+        }
+
+        // combine the coefficients
+        final int stepSize = (degree + 1) * dimension;
+        final DoubleBuffer chunk = chunks.get(index / STEPS_PER_CHUNK);
+        final int base = (index % STEPS_PER_CHUNK) * stepSize;
+        final double scale = 2 / (t1 - t0);
+        for (int i = 0; i < dimension; ++i) {
+            double y    = 0;
+            double yDot = 0;
+            for (int k = 0; k <= degree; ++k) {
+                final double c = chunk.get(base + k * dimension + i);
+                y    += c * t[k];
+                yDot += c * tDot[k];
+            }
+            interpolatedState[i]       = y;
+            interpolatedDerivatives[i] = yDot * scale;
+        }
+
+        interpolatedTime = time;
+
+    }
+
+    /**
+     * Get the state vector of the interpolated point.
+     * <p>The returned vector is a reference to a reused array, so
+     * it should not be modified and it should be copied if it needs
+     * to be preserved across several calls to the associated
+     * {@link #setInterpolatedTime(double)} method.</p>
+     * @return state vector at time {@link #getInterpolatedTime}
+     * @see #setInterpolatedTime(double)
+     * @see #getInterpolatedDerivatives()
+     */
+    public double[] getInterpolatedState() {
+        return interpolatedState;
+    }
+
+    /**
+     * Get the derivatives of the state vector of the interpolated point.
+     * <p>The returned vector is a reference to a reused array, so
+     * it should not be modified and it should be copied if it needs
+     * to be preserved across several calls to the associated
+     * {@link #setInterpolatedTime(double)} method.</p>
+     * @return derivatives of the state vector at time {@link #getInterpolatedTime}
+     * @see #setInterpolatedTime(double)
+     * @see #getInterpolatedState()
+     */
+    public double[] getInterpolatedDerivatives() {
+        return interpolatedDerivatives;
+    }
+
+    /** Compare a step interval and a double.
+     * <p>Points before the first step are considered to belong to the
+     * first step, and points after the last step to the last step.</p>
+     * @param time point to locate
+     * @param step index of the step
+     * @return -1 if the double is before the step, 0 if it is in
+     * the step, and +1 if it is after the step, according to
+     * the integration direction
+     */
+    private int locatePoint(final double time, final int step) {
+        final double start = boundaries[step];
+        final double end   = boundaries[step + 1];
+        if (forward) {
+            if (time < start && step > 0) {
+                return -1;
+            } else if (time > end && step < nbSteps - 1) {
+                return +1;
+            } else {
+                return 0;
+            }
+        }
+        if (time > start && step > 0) {
+            return -1;
+        } else if (time < end && step < nbSteps - 1) {
+            return +1;
+        } else {
+            return 0;
+        }
+    }
+
+    /** Serialize the instance.
+     * @param oos stream where object should be written
+     * @throws IOException if object cannot be written to stream
+     */
+    private void writeObject(final ObjectOutputStream oos)
+        throws IOException {
+        oos.defaultWriteObject();
+        final int stepSize = (degree + 1) * dimension;
+        for (int s = 0; s < nbSteps; ++s) {
+            final DoubleBuffer chunk = chunks.get(s / STEPS_PER_CHUNK);
+            final int base = (s % STEPS_PER_CHUNK) * stepSize;
+            for (int i = 0; i < stepSize; ++i) {
+                oos.writeDouble(chunk.get(base + i));
+            }
+        }
+    }
+
+    /** Deserialize the instance.
+     * @param ois stream from which the object should be read
+     * @throws ClassNotFoundException if a class in the stream cannot be found
+     * @throws IOException if object cannot be read from the stream
+     */
+    private void readObject(final ObjectInputStream ois)
+      throws ClassNotFoundException, IOException {
+        ois.defaultReadObject();
+        channel = null;
+        chunks  = new ArrayList<DoubleBuffer>();
+        final int stepSize  = (degree + 1) * dimension;
+        for (int s = 0; s < nbSteps; ++s) {
+            if (s % STEPS_PER_CHUNK == 0) {
+                chunks.add(DoubleBuffer.wrap(new double[STEPS_PER_CHUNK * stepSize]));
+            }
+            final DoubleBuffer chunk = chunks.get(s / STEPS_PER_CHUNK);
+            final int base = (s % STEPS_PER_CHUNK) * stepSize;
+            for (int i = 0; i < stepSize; ++i) {
+                chunk.put(base + i, ois.readDouble());
+            }
+        }
+    }
+
+}
@@ -0,0 +1,396 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.math4.ode;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+import org.apache.commons.math4.exception.DimensionMismatchException;
+import org.apache.commons.math4.exception.MathIllegalStateException;
+import org.apache.commons.math4.exception.MathUnsupportedOperationException;
+import org.apache.commons.math4.exception.MaxCountExceededException;
+import org.apache.commons.math4.exception.NotStrictlyPositiveException;
+import org.apache.commons.math4.exception.util.LocalizedFormats;
+import org.apache.commons.math4.ode.nonstiff.AdaptiveStepsizeIntegrator;
+import org.apache.commons.math4.ode.sampling.StepHandler;
+import org.apache.commons.math4.ode.sampling.StepInterpolator;
+import org.apache.commons.math4.util.FastMath;
+
+/**
+ * Driver integrating an ensemble of initial states of the same differential
+ * equations in parallel.
+ *
+ * <p>Integrators are stateful and cannot be shared between threads, so
+ * this class does not use an integrator instance directly but a {@link
+ * IntegratorFactory factory} that creates one integrator for each parallel
+ * task. The members of the ensemble are split into chunks, and each chunk
+ * is integrated by a task submitted to an {@link ExecutorService}, using
+ * its own integrator.</p>
+ *
+ * <p>Two modes are available:</p>
+ * <ul>
+ *   <li>in the {@link #integrate(FirstOrderDifferentialEquations, double,
+ *   double[][], double, StepHandlerFactory) independent mode}, each member is
+ *   integrated separately, with its own step size control, and may have its
+ *   own {@link StepHandlerFactory step handler};</li>
+ *   <li>in the {@link #integrateLockstep(BatchFirstOrderDifferentialEquations,
+ *   double, double[][], double) lockstep mode}, all members of a chunk are
+ *   integrated together as one large system, so they share the same steps
+ *   and the {@link BatchFirstOrderDifferentialEquations derivatives} of all
+ *   members of a chunk are computed in a single call.</li>
+ * </ul>
+ *
+ * <p>In both modes, the differential equations are shared by all tasks,
+ * so they must be thread-safe (which is the case if they do not have any
+ * mutable state).</p>
+ *
+ * @see BatchFirstOrderDifferentialEquations
+ * @since 4.0
+ */
+public class EnsembleIntegrator {
+
+    /** Default number of members integrated by a task. */
+    public static final int DEFAULT_CHUNK_SIZE = 64;
+
+    /** Factory for integrators. */
+    private final IntegratorFactory factory;
+
+    /** Executor running the integration tasks. */
+    private final ExecutorService executor;
+
+    /** Number of members integrated by a task. */
+    private final int chunkSize;
+
+    /** Interface for creating integrators. */
+    public interface IntegratorFactory {
+
+        /** Create a new integrator.
+         * <p>Each call must return a new instance, not shared with
+         * any other call.</p>
+         * @return new integrator
+         */
+        FirstOrderIntegrator createIntegrator();
+
+    }
+
+    /** Interface for creating step handlers for ensemble members. */
+    public interface StepHandlerFactory {
+
+        /** Create a step handler for one member of the ensemble.
+         * <p>The handler is used only for the integration of the specified
+         * member, in the thread running this integration.</p>
+         * @param member index of the member in the ensemble
+         * @return step handler for the member (may be null if no
+         * handler is needed for this member)
+         */
+        StepHandler createStepHandler(int member);
+
+    }
+
+    /** Build an ensemble integrator with {@link #DEFAULT_CHUNK_SIZE default chunk size}.
+     * @param factory factory for the integrators used by the tasks
+     * @param executor executor running the integration tasks
+     */
+    public EnsembleIntegrator(final IntegratorFactory factory, final ExecutorService executor) {
+        this(factory, executor, DEFAULT_CHUNK_SIZE);
+    }
+
+    /** Build an ensemble integrator.
+     * @param factory factory for the integrators used by the tasks
+     * @param executor executor running the integration tasks
+     * @param chunkSize number of members integrated by a task
+     * (in lockstep mode, this is the size of the batches)
+     * @exception NotStrictlyPositiveException if {@code chunkSize <= 0}
+     */
+    public EnsembleIntegrator(final IntegratorFactory factory, final ExecutorService executor,
+                              final int chunkSize)
+        throws NotStrictlyPositiveException {
+        if (chunkSize <= 0) {
+            throw new NotStrictlyPositiveException(chunkSize);
+        }
+        this.factory   = factory;
+        this.executor  = executor;
+        this.chunkSize = chunkSize;
+    }
+
+    /** Get the number of members integrated by a task.
+     * @return number of members integrated by a task
+     */
+    public int getChunkSize() {
+        return chunkSize;
+    }
+
+    /** Integrate independently all members of an ensemble.
+     * @param equations differential equations to integrate (shared by all tasks)
+     * @param t0 initial time
+     * @param y0 initial states, one row per member (not modified)
+     * @param t target time for the integration
+     * (can be set to a value smaller than {@code t0} for backward integration)
+     * @return final states, one row per member
+     * @exception MathIllegalStateException if the integration is interrupted or
+     * if a task fails with a checked exception
+     */
+    public double[][] integrate(final FirstOrderDifferentialEquations equations,
+                                final double t0, final double[][] y0, final double t)
+        throws MathIllegalStateException {
+        return integrate(equations, t0, y0, t, null);
+    }
+
+    /** Integrate independently all members of an ensemble, with per-member step handlers.
+     * <p>The step handlers created by the factory are called in addition to
+     * the step handlers that may have been registered in the integrators by
+     * the {@link IntegratorFactory integrators factory}.</p>
+     * <p>Errors raised during the integration of a member (for example
+     * {@link MaxCountExceededException}) are rethrown in the calling thread.</p>
+     * @param equations differential equations to integrate (shared by all tasks)
+     * @param t0 initial time
+     * @param y0 initial states, one row per member (not modified)
+     * @param t target time for the integration
+     * (can be set to a value smaller than {@code t0} for backward integration)
+     * @param handlers factory for per-member step handlers (may be null)
+     * @return final states, one row per member
+     * @exception MathIllegalStateException if the integration is interrupted or
+     * if a task fails with a checked exception
+     */
+    public double[][] integrate(final FirstOrderDifferentialEquations equations,
+                                final double t0, final double[][] y0, final double t,
+                                final StepHandlerFactory handlers)
+        throws MathIllegalStateException {
+
+        final double[][] y = new double[y0.length][];
+        final List<Callable<Void>> tasks = new ArrayList<Callable<Void>>();
+        for (int start = 0; start < y0.length; start += chunkSize) {
+            final int first = start;
+            final int last  = FastMath.min(start + chunkSize, y0.length);
+            tasks.add(new Callable<Void>() {
+                /** {@inheritDoc} */
+                @Override
+                public Void call() {
+                    final FirstOrderIntegrator integrator = factory.createIntegrator();
+                    final MemberStepHandler dispatcher = new MemberStepHandler();
+                    if (handlers != null) {
+                        integrator.addStepHandler(dispatcher);
+                    }
+                    for (int member = first; member < last; ++member) {
+                        if (handlers != null) {
+                            dispatcher.setDelegate(handlers.createStepHandler(member));
+                        }
+                        y[member] = new double[y0[member].length];
+                        integrator.integrate(equations, t0, y0[member], t, y[member]);
+                    }
+                    return null;
+                }
+            });
+        }
+        run(tasks);
+        return y;
+
+    }
+
+    /** Integrate all members of an ensemble in lockstep.
+     * <p>The members are split in batches of {@link #getChunkSize() chunk size}
+     * members. Each batch is integrated as one large system whose state is the
+     * concatenation of the states of the members, so all members of a batch
+     * share the same steps, and the derivatives of all members of the batch
+     * are computed by a single call to {@link
+     * BatchFirstOrderDifferentialEquations#computeDerivatives(double,
+     * double[][], double[][])}. Step handlers registered in the integrators
+     * by the {@link IntegratorFactory integrators factory} see the concatenated
+     * states.</p>
+     * <p>With adaptive step size integrators, the error is controlled on the
+     * whole batch: the normalized error of the batch is the root mean square
+     * of the normalized errors of its members, so the error of one member may
+     * reach {@code sqrt(chunkSize)} times the one allowed by the tolerances.
+     * Dividing the tolerances by {@code sqrt(chunkSize)} ensures each member
+     * meets them, as in an independent integration. As the members of the
+     * last batch may be fewer than the chunk size, the integrators must use
+     * scalar tolerances.</p>
+     * @param equations differential equations to integrate (shared by all tasks)
+     * @param t0 initial time
+     * @param y0 initial states, one row per member (not modified)
+     * @param t target time for the integration
+     * (can be set to a value smaller than {@code t0} for backward integration)
+     * @return final states, one row per member
+     * @exception DimensionMismatchException if some initial state does not have
+     * the dimension of the equations
+     * @exception MathUnsupportedOperationException if the integrators use
+     * vectorial tolerances
+     * @exception MathIllegalStateException if the integration is interrupted or
+     * if a task fails with a checked exception
+     */
+    public double[][] integrateLockstep(final BatchFirstOrderDifferentialEquations equations,
+                                        final double t0, final double[][] y0, final double t)
+        throws DimensionMismatchException, MathUnsupportedOperationException,
+               MathIllegalStateException {
+
+        final int dimension = equations.getDimension();
+        for (final double[] row : y0) {
+            if (row.length != dimension) {
+                throw new DimensionMismatchException(row.length, dimension);
+            }
+        }
+
+        final double[][] y = new double[y0.length][dimension];
+        final List<Callable<Void>> tasks = new ArrayList<Callable<Void>>();
+        for (int start = 0; start < y0.length; start += chunkSize) {
+            final int first = start;
+            final int count = FastMath.min(chunkSize, y0.length - start);
+            tasks.add(new Callable<Void>() {
+                /** {@inheritDoc} */
+                @Override
+                public Void call() {
+                    final double[] flat0 = new double[count * dimension];
+                    for (int m = 0; m < count; ++m) {
+                        System.arraycopy(y0[first + m], 0, flat0, m * dimension, dimension);
+                    }
+                    final double[] flat = new double[flat0.length];
+                    final FirstOrderIntegrator integrator = factory.createIntegrator();
+                    if (integrator instanceof AdaptiveStepsizeIntegrator &&
+                        ((AdaptiveStepsizeIntegrator) integrator).hasVectorialTolerances()) {
+                        // tolerances cannot be given for all the members of all the batches
+                        throw new MathUnsupportedOperationException();
+                    }
+                    integrator.integrate(new BatchAdapter(equations, count), t0, flat0, t, flat);
+                    for (int m = 0; m < count; ++m) {
+                        System.arraycopy(flat, m * dimension, y[first + m], 0, dimension);
+                    }
+                    return null;
+                }
+            });
+        }
+        run(tasks);
+        return y;
+
+    }
+
+    /** Run tasks and wait for their completion.
+     * @param tasks tasks to run
+     * @exception MathIllegalStateException if the integration is interrupted or
+     * if a task fails with a checked exception
+     */
+    private void run(final List<Callable<Void>> tasks) throws MathIllegalStateException {
+        final List<Future<Void>> futures = new ArrayList<Future<Void>>(tasks.size());
+        try {
+            for (final Callable<Void> task : tasks) {
+                futures.add(executor.submit(task));
+            }
+            for (final Future<Void> future : futures) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new MathIllegalStateException(e, LocalizedFormats.SIMPLE_MESSAGE, e.getMessage());
+        } catch (ExecutionException e) {
+            final Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new MathIllegalStateException(cause, LocalizedFormats.SIMPLE_MESSAGE, cause.getMessage());
+        } finally {
+            for (final Future<Void> future : futures) {
+                future.cancel(true);
+            }
+        }
+    }
+
+    /** Step handler forwarding calls to the handler of the member being integrated. */
+    private static class MemberStepHandler implements StepHandler {
+
+        /** Handler of the member being integrated (may be null). */
+        private StepHandler delegate;
+
+        /** Set the handler of the member being integrated.
+         * @param delegate handler of the member being integrated (may be null)
+         */
+        void setDelegate(final StepHandler delegate) {
+            this.delegate = delegate;
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public void init(final double t0, final double[] y0, final double t) {
+            if (delegate != null) {
+                delegate.init(t0, y0, t);
+            }
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public void handleStep(final StepInterpolator interpolator, final boolean isLast)
+            throws MaxCountExceededException {
+            if (delegate != null) {
+                delegate.handleStep(interpolator, isLast);
+            }
+        }
+
+    }
+
+    /** Adapter presenting a batch of members as one large system. */
+    private static class BatchAdapter implements FirstOrderDifferentialEquations {
+
+        /** Batch equations. */
+        private final BatchFirstOrderDifferentialEquations equations;
+
+        /** Dimension of one member. */
+        private final int dimension;
+
+        /** States of the members. */
+        private final double[][] y;
+
+        /** Derivatives of the members. */
+        private final double[][] yDot;
+
+        /** Simple constructor.
+         * @param equations batch equations
+         * @param count number of members in the batch
+         */
+        BatchAdapter(final BatchFirstOrderDifferentialEquations equations, final int count) {
+            this.equations = equations;
+            this.dimension = equations.getDimension();
+            this.y         = new double[count][dimension];
+            this.yDot      = new double[count][dimension];
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public int getDimension() {
+            return y.length * dimension;
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public void computeDerivatives(final double t, final double[] flatY, final double[] flatYDot)
+            throws MaxCountExceededException, DimensionMismatchException {
+            for (int m = 0; m < y.length; ++m) {
+                System.arraycopy(flatY, m * dimension, y[m], 0, dimension);
+            }
+            equations.computeDerivatives(t, y, yDot);
+            for (int m = 0; m < y.length; ++m) {
+                System.arraycopy(yDot[m], 0, flatYDot, m * dimension, dimension);
+            }
+        }
+
+    }
+
+}
@@ -118,7 +118,8 @@ public class ExpandableStatefulODE {
         primary.computeDerivatives(t, primaryState, primaryStateDot);
 
         // Add contribution for secondary equations
-        for (final SecondaryComponent component : components) {
+        for (int i = 0; i < components.size(); ++i) {
+            final SecondaryComponent component = components.get(i);
             component.mapper.extractEquationData(y, component.state);
             component.equation.computeDerivatives(t, primaryState, primaryStateDot,
                                                   component.state, component.stateDot);
@@ -0,0 +1,287 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.commons.math4.ode.events;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+import org.apache.commons.math4.analysis.solvers.UnivariateSolver;
+import org.apache.commons.math4.exception.MathIllegalStateException;
+import org.apache.commons.math4.exception.MaxCountExceededException;
+import org.apache.commons.math4.exception.NoBracketingException;
+import org.apache.commons.math4.exception.util.LocalizedFormats;
+import org.apache.commons.math4.ode.sampling.StepInterpolator;
+
+/** This class evaluates the impact of a proposed step on all event
+ * handlers at once.
+ *
+ * <p>When events are evaluated one {@link EventState event state} at a
+ * time, each handler samples its switching function throughout the step,
+ * which implies interpolating the state again at each sample point for
+ * each handler. With many handlers, this can cost more than the
+ * integration itself. This class uses the same sample points and root
+ * finding as the one-at-a-time evaluation, so it finds the same events,
+ * but:</p>
+ * <ul>
+ *   <li>the state is interpolated only once per sample point and shared
+ *   by all handlers using the same sample points (i.e. the handlers
+ *   registered with the same maximal check interval),</li>
+ *   <li>handlers implementing {@link RateBoundedEventHandler} are not
+ *   sampled anymore as soon as their sign cannot change before the end
+ *   of the step,</li>
+ *   <li>the value of the switching functions at step end is cached and
+ *   reused when the integrator accepts the step, so it is not computed
+ *   twice,</li>
+ *   <li>if an {@link ExecutorService executor} is provided, the events
+ *   of different handlers bracketed in the same step are located in
+ *   parallel, each one using its own copy of the step interpolator.</li>
+ * </ul>
+ *
+ * <p>As the state array is shared, the {@link EventHandler#g(double, double[])
+ * switching functions} must not modify it. When an executor is provided,
+ * the switching functions of different handlers may be called concurrently,
+ * so they must not share mutable data. Event states sharing the same
+ * root-finding algorithm instance are always located sequentially, as
+ * solvers are not thread-safe.</p>
+ *
+ * <p>Instances of this class hold work lists reused from step to step,
+ * so they must not be shared among integrators used concurrently.</p>
+ *
+ * @see org.apache.commons.math4.ode.AbstractIntegrator#setBatchEventDetector(BatchEventDetector)
+ * @since 4.0
+ */
+public class BatchEventDetector {
+
+    /** Executor used to locate events in parallel (null for sequential location). */
+    private final ExecutorService executor;
+
+    /** Event states still to be sampled. */
+    private final List<EventState> remaining;
+
+    /** Event states sampled together. */
+    private final List<EventState> group;
+
+    /** Event states with a sign change to locate. */
+    private final List<EventState> bracketed;
+
+    /** Event states triggering an event during the current step. */
+    private final List<EventState> triggered;
+
+    /** Build a detector locating events sequentially.
+     */
+    public BatchEventDetector() {
+        this(null);
+    }
+
+    /** Build a detector locating events in parallel.
+     * @param executor executor used to locate the events of different
+     * handlers in parallel (may be null to locate events sequentially)
+     */
+    public BatchEventDetector(final ExecutorService executor) {
+        this.executor  = executor;
+        this.remaining = new ArrayList<EventState>();
+        this.group     = new ArrayList<EventState>();
+        this.bracketed = new ArrayList<EventState>();
+        this.triggered = new ArrayList<EventState>();
+    }
+
+    /** Get the executor used to locate events in parallel.
+     * @return executor used to locate events in parallel (null for sequential location)
+     */
+    public ExecutorService getExecutor() {
+        return executor;
+    }
+
+    /** Evaluate the impact of the proposed step on all event handlers.
+     * <p>This method is equivalent to calling {@link
+     * EventState#evaluateStep(StepInterpolator)} on each event state.</p>
+     * @param states event states to evaluate
+     * @param interpolator step interpolator for the proposed step
+     * @return event states triggering an event before the end of the proposed
+     * step, in the same order as in {@code states} (the list is reused by the
+     * next call)
+     * @exception MaxCountExceededException if the interpolator throws one because
+     * the number of functions evaluations is exceeded
+     * @exception NoBracketingException if an event cannot be bracketed
+     * @exception MathIllegalStateException if the parallel location is interrupted
+     */
+    public List<EventState> evaluateStep(final List<EventState> states,
+                                         final StepInterpolator interpolator)
+        throws MaxCountExceededException, NoBracketingException, MathIllegalStateException {
+
+        remaining.clear();
+        bracketed.clear();
+        triggered.clear();
+
+        for (int i = 0; i < states.size(); ++i) {
+            final EventState state = states.get(i);
+            if (state.startScan(interpolator)) {
+                remaining.add(state);
+            }
+        }
+
+        while (!remaining.isEmpty()) {
+            sampleGroup(interpolator);
+        }
+
+        if (executor == null || bracketed.size() < 2 || shareSolvers()) {
+            for (int i = 0; i < bracketed.size(); ++i) {
+                bracketed.get(i).locate(interpolator);
+            }
+        } else {
+            locateInParallel(interpolator);
+        }
+
+        for (int i = 0; i < states.size(); ++i) {
+            final EventState state = states.get(i);
+            if (state.isTriggered()) {
+                triggered.add(state);
+            }
+        }
+        return triggered;
+
+    }
+
+    /** Sample together the remaining event states sharing the substeps of the first one.
+     * @param interpolator step interpolator for the proposed step
+     * @exception MaxCountExceededException if the interpolator throws one because
+     * the number of functions evaluations is exceeded
+     */
+    private void sampleGroup(final StepInterpolator interpolator)
+        throws MaxCountExceededException {
+
+        // extract the group from the remaining states
+        final EventState first = remaining.get(0);
+        group.clear();
+        int kept = 0;
+        for (int i = 0; i < remaining.size(); ++i) {
+            final EventState state = remaining.get(i);
+            if (state.sharesSubsteps(first)) {
+                group.add(state);
+            } else {
+                remaining.set(kept++, state);
+            }
+        }
+        truncate(remaining, kept);
+
+        // sample all states of the group at each substep end
+        final int n = first.getSubstepsNumber();
+        for (int i = 0; i < n && !group.isEmpty(); ++i) {
+            final double t = first.getSubstepEnd(i);
+            interpolator.setInterpolatedTime(t);
+            final double[] y = first.getCompleteState(interpolator);
+            kept = 0;
+            for (int j = 0; j < group.size(); ++j) {
+                final EventState state = group.get(j);
+                final double g = state.getEventHandler().g(t, y);
+                if (state.checkSubstepEnd(t, g)) {
+                    bracketed.add(state);
+                } else if (i == n - 1) {
+                    state.scanCompleted(g);
+                } else if (!state.skipRemainingSubsteps()) {
+                    group.set(kept++, state);
+                }
+            }
+            truncate(group, kept);
+        }
+
+    }
+
+    /** Check if some bracketed event states share the same root-finding algorithm.
+     * @return true if some bracketed event states share the same root-finding algorithm
+     */
+    private boolean shareSolvers() {
+        final Set<UnivariateSolver> solvers =
+                Collections.newSetFromMap(new IdentityHashMap<UnivariateSolver, Boolean>());
+        for (final EventState state : bracketed) {
+            if (!solvers.add(state.getSolver())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /** Locate the bracketed events in parallel.
+     * @param interpolator step interpolator for the proposed step
+     * @exception MaxCountExceededException if the interpolator throws one because
+     * the number of functions evaluations is exceeded
+     * @exception NoBracketingException if an event cannot be bracketed
+     * @exception MathIllegalStateException if the location is interrupted
+     */
+    private void locateInParallel(final StepInterpolator interpolator)
+        throws MaxCountExceededException, NoBracketingException, MathIllegalStateException {
+
+        // prepare one task per event state, each one with its own interpolator
+        final List<Future<Boolean>> futures = new ArrayList<Future<Boolean>>(bracketed.size());
+        final List<Callable<Boolean>> tasks = new ArrayList<Callable<Boolean>>(bracketed.size());
+        for (final EventState state : bracketed) {
+            final StepInterpolator copy = interpolator.copy();
+            tasks.add(new Callable<Boolean>() {
+                /** {@inheritDoc} */
+                @Override
+                public Boolean call() {
+                    return state.locate(copy);
+                }
+            });
+        }
+
+        try {
+            for (final Callable<Boolean> task : tasks) {
+                futures.add(executor.submit(task));
+            }
+            for (final Future<Boolean> future : futures) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new MathIllegalStateException(e, LocalizedFormats.SIMPLE_MESSAGE, e.getMessage());
+        } catch (ExecutionException e) {
+            final Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new MathIllegalStateException(cause, LocalizedFormats.SIMPLE_MESSAGE, cause.getMessage());
+        } finally {
+            for (final Future<Boolean> future : futures) {
+                future.cancel(true);
+            }
+        }
+
+    }
+
+    /** Truncate a list.
+     * @param list list to truncate
+     * @param size new size of the list
+     */
+    private static void truncate(final List<EventState> list, final int size) {
+        while (list.size() > size) {
+            list.remove(list.size() - 1);
+        }
+    }
+
+}
@@ -91,6 +91,45 @@ public class EventState {
     /** Root-finding algorithm to use to detect state events. */
     private final UnivariateSolver solver;
 
+    /** Secondary equations mappers (cached when the equation is set). */
+    private EquationsMapper[] secondaryMappers;
+
+    /** Complete state array, reused for all switching function evaluations. */
+    private double[] completeState;
+
+    /** End of the step being scanned. */
+    private double t1;
+
+    /** Number of substeps in the step being scanned. */
+    private int substepsNumber;
+
+    /** Size of the substeps in the step being scanned. */
+    private double substepSize;
+
+    /** Index of the next substep to check in the step being scanned. */
+    private int substep;
+
+    /** Start of the substep being checked. */
+    private double ta;
+
+    /** Value of the events handler at the start of the substep being checked. */
+    private double ga;
+
+    /** End of the substep in which a sign change has been detected. */
+    private double tb;
+
+    /** Value of the events handler at the end of the substep in which a sign change has been detected. */
+    private double gb;
+
+    /** Indicator of event triggered during the last evaluated step. */
+    private boolean triggered;
+
+    /** Time at which {@link #cachedG} has been computed. */
+    private double cachedT;
+
+    /** Value of the events handler at step end, as computed during a batch evaluation. */
+    private double cachedG;
+
     /** Simple constructor.
      * @param handler event handler
      * @param maxCheckInterval maximal time interval between switching
@@ -120,6 +159,8 @@ public class EventState {
         previousEventTime = Double.NaN;
         increasing        = true;
         nextAction        = EventHandler.Action.CONTINUE;
+        cachedT           = Double.NaN;
+        cachedG           = Double.NaN;
 
     }
 
@@ -134,7 +175,9 @@ public class EventState {
      * @param expandable equation being integrated
      */
     public void setExpandable(final ExpandableStatefulODE expandable) {
-        this.expandable = expandable;
+        this.expandable       = expandable;
+        this.secondaryMappers = (expandable == null) ? null : expandable.getSecondaryMappers();
+        this.completeState    = (expandable == null) ? null : new double[expandable.getTotalDimension()];
     }
 
     /** Get the maximal time interval between events handler checks.
@@ -194,22 +237,20 @@ public class EventState {
     }
 
     /** Get the complete state (primary and secondary).
+     * <p>The returned array is reused by all calls.</p>
      * @param interpolator interpolator to use
      * @return complete state
      */
-    private double[] getCompleteState(final StepInterpolator interpolator) {
-
-        final double[] complete = new double[expandable.getTotalDimension()];
+    double[] getCompleteState(final StepInterpolator interpolator) {
 
         expandable.getPrimaryMapper().insertEquationData(interpolator.getInterpolatedState(),
-                                                         complete);
-        int index = 0;
-        for (EquationsMapper secondary : expandable.getSecondaryMappers()) {
-            secondary.insertEquationData(interpolator.getInterpolatedSecondaryState(index++),
-                                         complete);
+                                                         completeState);
+        for (int index = 0; index < secondaryMappers.length; ++index) {
+            secondaryMappers[index].insertEquationData(interpolator.getInterpolatedSecondaryState(index),
+                                                       completeState);
         }
 
-        return complete;
+        return completeState;
 
     }
 
@@ -225,119 +266,279 @@ public class EventState {
         throws MaxCountExceededException, NoBracketingException {
 
         try {
-            forward = interpolator.isForward();
-            final double t1 = interpolator.getCurrentTime();
-            final double dt = t1 - t0;
-            if (FastMath.abs(dt) < convergence) {
-                // we cannot do anything on such a small step, don't trigger any events
-                return false;
+            if (!startScan(interpolator)) {
+                return triggered;
             }
-            final int    n = FastMath.max(1, (int) FastMath.ceil(FastMath.abs(dt) / maxCheckInterval));
-            final double h = dt / n;
-
-            final UnivariateFunction f = new UnivariateFunction() {
-                /** {@inheritDoc} */
-                @Override
-                public double value(final double t) throws LocalMaxCountExceededException {
-                    try {
-                        interpolator.setInterpolatedTime(t);
-                        return handler.g(t, getCompleteState(interpolator));
-                    } catch (MaxCountExceededException mcee) {
-                        throw new LocalMaxCountExceededException(mcee);
-                    }
-                }
-            };
-
-            double ta = t0;
-            double ga = g0;
-            for (int i = 0; i < n; ++i) {
-
-                // evaluate handler value at the end of the substep
-                final double tb = (i == n - 1) ? t1 : t0 + (i + 1) * h;
-                interpolator.setInterpolatedTime(tb);
-                final double gb = handler.g(tb, getCompleteState(interpolator));
-
-                // check events occurrence
-                if (g0Positive ^ (gb >= 0)) {
-                    // there is a sign change: an event is expected during this step
-
-                    // variation direction, with respect to the integration direction
-                    increasing = gb >= ga;
-
-                    // find the event time making sure we select a solution just at or past the exact root
-                    final double root;
-                    if (solver instanceof BracketedUnivariateSolver<?>) {
-                        @SuppressWarnings("unchecked")
-                        BracketedUnivariateSolver<UnivariateFunction> bracketing =
-                                (BracketedUnivariateSolver<UnivariateFunction>) solver;
-                        root = forward ?
-                               bracketing.solve(maxIterationCount, f, ta, tb, AllowedSolution.RIGHT_SIDE) :
-                               bracketing.solve(maxIterationCount, f, tb, ta, AllowedSolution.LEFT_SIDE);
-                    } else {
-                        final double baseRoot = forward ?
-                                                solver.solve(maxIterationCount, f, ta, tb) :
-                                                solver.solve(maxIterationCount, f, tb, ta);
-                        final int remainingEval = maxIterationCount - solver.getEvaluations();
-                        BracketedUnivariateSolver<UnivariateFunction> bracketing =
-                                new PegasusSolver(solver.getRelativeAccuracy(), solver.getAbsoluteAccuracy());
-                        root = forward ?
-                               UnivariateSolverUtils.forceSide(remainingEval, f, bracketing,
-                                                                   baseRoot, ta, tb, AllowedSolution.RIGHT_SIDE) :
-                               UnivariateSolverUtils.forceSide(remainingEval, f, bracketing,
-                                                                   baseRoot, tb, ta, AllowedSolution.LEFT_SIDE);
-                    }
-
-                    if ((!Double.isNaN(previousEventTime)) &&
-                        (FastMath.abs(root - ta) <= convergence) &&
-                        (FastMath.abs(root - previousEventTime) <= convergence)) {
-                        // we have either found nothing or found (again ?) a past event,
-                        // retry the substep excluding this value, and taking care to have the
-                        // required sign in case the g function is noisy around its zero and
-                        // crosses the axis several times
-                        do {
-                            ta = forward ? ta + convergence : ta - convergence;
-                            ga = f.value(ta);
-                        } while ((g0Positive ^ (ga >= 0)) && (forward ^ (ta >= tb)));
-
-                        if (forward ^ (ta >= tb)) {
-                            // we were able to skip this spurious root
-                            --i;
-                        } else {
-                            // we can't avoid this root before the end of the step,
-                            // we have to handle it despite it is close to the former one
-                            // maybe we have two very close roots
-                            pendingEventTime = root;
-                            pendingEvent = true;
-                            return true;
-                        }
-                    } else if (Double.isNaN(previousEventTime) ||
-                               (FastMath.abs(previousEventTime - root) > convergence)) {
-                        pendingEventTime = root;
-                        pendingEvent = true;
-                        return true;
-                    } else {
-                        // no sign change: there is no event for now
-                        ta = tb;
-                        ga = gb;
-                    }
-
-                } else {
-                    // no sign change: there is no event for now
-                    ta = tb;
-                    ga = gb;
-                }
+            return scan(interpolator);
+        } catch (LocalMaxCountExceededException lmcee) {
+            throw lmcee.getException();
+        }
 
-            }
+    }
 
-            // no event during the whole step
-            pendingEvent     = false;
-            pendingEventTime = Double.NaN;
+    /** Start the scan of a proposed step.
+     * @param interpolator step interpolator for the proposed step
+     * @return true if the substeps must be scanned, false if the
+     * step evaluation is already complete
+     */
+    boolean startScan(final StepInterpolator interpolator) {
+
+        forward   = interpolator.isForward();
+        t1        = interpolator.getCurrentTime();
+        triggered = false;
+        cachedT   = Double.NaN;
+        final double dt = t1 - t0;
+        if (FastMath.abs(dt) < convergence) {
+            // we cannot do anything on such a small step, don't trigger any events
             return false;
+        }
+        substepsNumber = FastMath.max(1, (int) FastMath.ceil(FastMath.abs(dt) / maxCheckInterval));
+        substepSize    = dt / substepsNumber;
+        substep        = 0;
+        ta             = t0;
+        ga             = g0;
+
+        return !skipRemainingSubsteps();
 
+    }
+
+    /** Get the number of substeps in the step being scanned.
+     * @return number of substeps in the step being scanned
+     */
+    int getSubstepsNumber() {
+        return substepsNumber;
+    }
+
+    /** Get the end time of a substep.
+     * @param i index of the substep
+     * @return end time of the substep
+     */
+    double getSubstepEnd(final int i) {
+        return (i == substepsNumber - 1) ? t1 : t0 + (i + 1) * substepSize;
+    }
+
+    /** Check if another event state uses the same substeps.
+     * @param other other event state
+     * @return true if both event states use the same substeps in the step being scanned
+     */
+    boolean sharesSubsteps(final EventState other) {
+        return t0 == other.t0 && t1 == other.t1 && substepsNumber == other.substepsNumber;
+    }
+
+    /** Get the root-finding algorithm used to locate events.
+     * @return root-finding algorithm used to locate events
+     */
+    UnivariateSolver getSolver() {
+        return solver;
+    }
+
+    /** Locate the event in the substep where a sign change has been detected
+     * and scan the remaining substeps if there are no events in this substep.
+     * @param interpolator step interpolator for the proposed step
+     * (it may be a copy of the integrator interpolator, so that several event
+     * states can be located in parallel)
+     * @return true if the event handler triggers an event before
+     * the end of the proposed step
+     * @exception MaxCountExceededException if the interpolator throws one because
+     * the number of functions evaluations is exceeded
+     * @exception NoBracketingException if the event cannot be bracketed
+     */
+    boolean locate(final StepInterpolator interpolator)
+        throws MaxCountExceededException, NoBracketingException {
+        try {
+            return solveSubstep(interpolator) || scan(interpolator);
         } catch (LocalMaxCountExceededException lmcee) {
             throw lmcee.getException();
         }
+    }
 
+    /** Scan the remaining substeps of the proposed step.
+     * @param interpolator step interpolator for the proposed step
+     * @return true if the event handler triggers an event before
+     * the end of the proposed step
+     */
+    private boolean scan(final StepInterpolator interpolator) {
+
+        while (substep < substepsNumber) {
+
+            // evaluate handler value at the end of the substep
+            final double t = getSubstepEnd(substep);
+            interpolator.setInterpolatedTime(t);
+            if (checkSubstepEnd(t, handler.g(t, getCompleteState(interpolator)))) {
+                // there is a sign change: an event is expected during this step
+                if (solveSubstep(interpolator)) {
+                    return true;
+                }
+            } else if (skipRemainingSubsteps()) {
+                return false;
+            }
+
+        }
+
+        // no event during the whole step
+        return noEvent();
+
+    }
+
+    /** Check the value of the events handler at the end of the current substep.
+     * <p>If there are no sign change, the scan moves to the next substep.</p>
+     * @param t end time of the current substep
+     * @param g value of the events handler at substep end
+     * @return true if there is a sign change in the current substep
+     */
+    boolean checkSubstepEnd(final double t, final double g) {
+        if (g0Positive ^ (g >= 0)) {
+            // variation direction, with respect to the integration direction
+            increasing = g >= ga;
+            tb = t;
+            gb = g;
+            return true;
+        } else {
+            // no sign change: there is no event for now
+            ta = t;
+            ga = g;
+            ++substep;
+            return false;
+        }
+    }
+
+    /** Check if the remaining substeps can be skipped.
+     * <p>They can be skipped when the event handler provides an upper bound
+     * of its rate and the current value is too far from zero for the sign
+     * to change before the end of the step. In this case, the scan is
+     * completed without event.</p>
+     * @return true if the remaining substeps can be skipped
+     * @see RateBoundedEventHandler
+     */
+    boolean skipRemainingSubsteps() {
+        if (handler instanceof RateBoundedEventHandler && (g0Positive == (ga >= 0))) {
+            final double maxRate = ((RateBoundedEventHandler) handler).getMaximalRate();
+            if (FastMath.abs(ga) > maxRate * FastMath.abs(t1 - ta)) {
+                noEvent();
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /** Set the scan result when no event occurs during the whole step.
+     * @return false (no event)
+     */
+    private boolean noEvent() {
+        pendingEvent     = false;
+        pendingEventTime = Double.NaN;
+        triggered        = false;
+        return false;
+    }
+
+    /** Complete the scan of a step where no sign change has been detected.
+     * <p>The value of the events handler at step end is cached, it will be
+     * used by the call to {@link #stepAccepted(double, double[])} occurring
+     * exactly at the end of the scanned step, which is what integrators do
+     * once they have handled the events occurring before, if any.</p>
+     * @param gEnd value of the events handler at step end
+     */
+    void scanCompleted(final double gEnd) {
+        noEvent();
+        cachedT = t1;
+        cachedG = gEnd;
+    }
+
+    /** Check if an event has been triggered during the last evaluated step.
+     * @return true if an event has been triggered during the last evaluated step
+     */
+    boolean isTriggered() {
+        return triggered;
+    }
+
+    /** Locate the event in the substep where a sign change has been detected.
+     * <p>If the root found corresponds to an already handled event, the scan
+     * either resumes at the current substep, excluding the root, or moves to
+     * the next substep.</p>
+     * @param interpolator step interpolator for the proposed step
+     * @return true if the event handler triggers an event in the substep
+     */
+    private boolean solveSubstep(final StepInterpolator interpolator) {
+
+        final UnivariateFunction f = new UnivariateFunction() {
+            /** {@inheritDoc} */
+            @Override
+            public double value(final double t) throws LocalMaxCountExceededException {
+                try {
+                    interpolator.setInterpolatedTime(t);
+                    return handler.g(t, getCompleteState(interpolator));
+                } catch (MaxCountExceededException mcee) {
+                    throw new LocalMaxCountExceededException(mcee);
+                }
+            }
+        };
+
+        // find the event time making sure we select a solution just at or past the exact root
+        final double root;
+        if (solver instanceof BracketedUnivariateSolver<?>) {
+            @SuppressWarnings("unchecked")
+            BracketedUnivariateSolver<UnivariateFunction> bracketing =
+                    (BracketedUnivariateSolver<UnivariateFunction>) solver;
+            root = forward ?
+                   bracketing.solve(maxIterationCount, f, ta, tb, AllowedSolution.RIGHT_SIDE) :
+                   bracketing.solve(maxIterationCount, f, tb, ta, AllowedSolution.LEFT_SIDE);
+        } else {
+            final double baseRoot = forward ?
+                                    solver.solve(maxIterationCount, f, ta, tb) :
+                                    solver.solve(maxIterationCount, f, tb, ta);
+            final int remainingEval = maxIterationCount - solver.getEvaluations();
+            BracketedUnivariateSolver<UnivariateFunction> bracketing =
+                    new PegasusSolver(solver.getRelativeAccuracy(), solver.getAbsoluteAccuracy());
+            root = forward ?
+                   UnivariateSolverUtils.forceSide(remainingEval, f, bracketing,
+                                                       baseRoot, ta, tb, AllowedSolution.RIGHT_SIDE) :
+                   UnivariateSolverUtils.forceSide(remainingEval, f, bracketing,
+                                                       baseRoot, tb, ta, AllowedSolution.LEFT_SIDE);
+        }
+
+        if ((!Double.isNaN(previousEventTime)) &&
+            (FastMath.abs(root - ta) <= convergence) &&
+            (FastMath.abs(root - previousEventTime) <= convergence)) {
+            // we have either found nothing or found (again ?) a past event,
+            // retry the substep excluding this value, and taking care to have the
+            // required sign in case the g function is noisy around its zero and
+            // crosses the axis several times
+            do {
+                ta = forward ? ta + convergence : ta - convergence;
+                ga = f.value(ta);
+            } while ((g0Positive ^ (ga >= 0)) && (forward ^ (ta >= tb)));
+
+            if (forward ^ (ta >= tb)) {
+                // we were able to skip this spurious root, the substep will be checked again
+                return false;
+            } else {
+                // we can't avoid this root before the end of the step,
+                // we have to handle it despite it is close to the former one
+                // maybe we have two very close roots
+                return eventFound(root);
+            }
+        } else if (Double.isNaN(previousEventTime) ||
+                   (FastMath.abs(previousEventTime - root) > convergence)) {
+            return eventFound(root);
+        } else {
+            // no sign change: there is no event for now
+            ta = tb;
+            ga = gb;
+            ++substep;
+            return false;
+        }
+
+    }
+
+    /** Set the scan result when an event is found.
+     * @param root event time
+     * @return true (event found)
+     */
+    private boolean eventFound(final double root) {
+        pendingEventTime = root;
+        pendingEvent     = true;
+        triggered        = true;
+        return true;
     }
 
     /** Get the occurrence time of the event triggered in the current step.
@@ -359,7 +560,12 @@ public class EventState {
     public void stepAccepted(final double t, final double[] y) {
 
         t0 = t;
-        g0 = handler.g(t, y);
+        if (t == cachedT) {
+            g0      = cachedG;
+            cachedT = Double.NaN;
+        } else {
+            g0 = handler.g(t, y);
+        }
 
         if (pendingEvent && (FastMath.abs(pendingEventTime - t) <= convergence)) {
             // force the sign to its value "just after the event"
@@ -0,0 +1,46 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.commons.math4.ode.events;
+
+/** This interface represents an event handler whose switching function
+ * has a bounded rate of change.
+ *
+ * <p>Knowing an upper bound of |dg/dt| allows the integrator to skip
+ * the evaluation of the switching function inside the steps where
+ * its sign cannot change, i.e. where |g| at the start of a substep is
+ * larger than the bound multiplied by the remaining duration of the
+ * step. This is typically useful when many handlers are registered
+ * and most of them are far from their roots most of the time, like
+ * visibility windows of many ground stations from a spacecraft
+ * whose elevation rate is limited by the orbital motion.</p>
+ *
+ * <p>The bound must be valid for the whole integration: a bound
+ * too small would lead to missed events.</p>
+ *
+ * @see EventState
+ * @since 4.0
+ */
+public interface RateBoundedEventHandler extends EventHandler {
+
+    /** Get an upper bound of the absolute value of the switching function time derivative.
+     * @return upper bound of |dg/dt|, may be {@code Double.POSITIVE_INFINITY}
+     * if no bound is known
+     */
+    double getMaximalRate();
+
+}
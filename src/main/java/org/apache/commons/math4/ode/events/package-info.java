@@ -91,6 +91,16 @@
  * </pre>
  * </p>
  *
+ * <p>
+ * When many event handlers are registered in the same integrator, a {@link
+ * org.apache.commons.math4.ode.events.BatchEventDetector BatchEventDetector}
+ * can be set up to evaluate all of them at once, sharing the interpolated state
+ * and possibly locating events in parallel. Handlers implementing {@link
+ * org.apache.commons.math4.ode.events.RateBoundedEventHandler
+ * RateBoundedEventHandler} are not evaluated in the parts of the steps where
+ * their sign cannot change.
+ * </p>
+ *
  *
  */
 package org.apache.commons.math4.ode.events;
@@ -372,4 +372,12 @@ public abstract class AdaptiveStepsizeIntegrator
     return maxStep;
   }
 
+  /** Check if the step size control uses vectorial tolerances.
+   * @return true if the tolerances have been set component by component
+   * @since 4.0
+   */
+  public boolean hasVectorialTolerances() {
+    return vecAbsoluteTolerance != null;
+  }
+
 }
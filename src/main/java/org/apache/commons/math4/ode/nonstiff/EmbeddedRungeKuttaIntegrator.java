@@ -90,6 +90,27 @@ public abstract class EmbeddedRungeKuttaIntegrator
     /** Maximal growth factor for stepsize control. */
     private double maxGrowth;
 
+    /** Indicator for work arrays reuse across integrations. */
+    private boolean reuseWorkArrays;
+
+    /** Work array for the state at step start. */
+    private double[] yWork;
+
+    /** Work array for the intermediate and step end states. */
+    private double[] yTmpWork;
+
+    /** Work array for the derivatives at step end. */
+    private double[] yDotTmpWork;
+
+    /** Work array for the stages derivatives. */
+    private double[][] yDotKWork;
+
+    /** Work array for initial step scaling. */
+    private double[] scaleWork;
+
+    /** Step interpolator sharing the work arrays. */
+    private RungeKuttaStepInterpolator interpolatorWork;
+
   /** Build a Runge-Kutta integrator with the given Butcher array.
    * @param name name of the method
    * @param fsal indicate that the method is an <i>fsal</i>
@@ -173,6 +194,51 @@ public abstract class EmbeddedRungeKuttaIntegrator
    */
   public abstract int getOrder();
 
+  /** Set the work arrays reuse mode.
+   * <p>By default, each call to {@link #integrate(ExpandableStatefulODE, double)
+   * integrate} allocates its own stage and work arrays and its own step
+   * interpolator. When reuse is enabled, they are allocated at the first
+   * integration and reused by the following ones as long as the state
+   * dimension does not change. This avoids creating garbage in loops that
+   * call the integrator repeatedly (the integration steps themselves do not
+   * allocate work arrays in either mode, as long as no event occurs). The step
+   * handlers then receive the same interpolator instance for all steps of
+   * all integrations, so they must {@link
+   * org.apache.commons.math4.ode.sampling.StepInterpolator#copy() copy} it
+   * if they need to keep it after the {@link
+   * org.apache.commons.math4.ode.sampling.StepHandler#handleStep(
+   * org.apache.commons.math4.ode.sampling.StepInterpolator, boolean) handleStep}
+   * call returns.</p>
+   * @param reuseWorkArrays if true, work arrays and step interpolator
+   * are reused across integrations
+   * @since 4.0
+   */
+  public void setReuseWorkArrays(final boolean reuseWorkArrays) {
+    this.reuseWorkArrays = reuseWorkArrays;
+    if (!reuseWorkArrays) {
+      releaseWorkArrays();
+    }
+  }
+
+  /** Release the work arrays. */
+  private void releaseWorkArrays() {
+    yWork            = null;
+    yTmpWork         = null;
+    yDotTmpWork      = null;
+    yDotKWork        = null;
+    scaleWork        = null;
+    interpolatorWork = null;
+  }
+
+  /** Check if work arrays are reused across integrations.
+   * @return true if work arrays and step interpolator are reused across integrations
+   * @see #setReuseWorkArrays(boolean)
+   * @since 4.0
+   */
+  public boolean getReuseWorkArrays() {
+    return reuseWorkArrays;
+  }
+
   /** Get the safety factor for stepsize control.
    * @return safety factor
    */
@@ -199,14 +265,26 @@ public abstract class EmbeddedRungeKuttaIntegrator
 
     // create some internal working arrays
     final double[] y0  = equations.getCompleteState();
-    final double[] y = y0.clone();
     final int stages = c.length + 1;
-    final double[][] yDotK = new double[stages][y.length];
-    final double[] yTmp    = y0.clone();
-    final double[] yDotTmp = new double[y.length];
+    if (!reuseWorkArrays || yWork == null || yWork.length != y0.length) {
+      yWork            = new double[y0.length];
+      yTmpWork         = new double[y0.length];
+      yDotTmpWork      = new double[y0.length];
+      yDotKWork        = new double[stages][y0.length];
+      scaleWork        = new double[mainSetDimension];
+      interpolatorWork = (RungeKuttaStepInterpolator) prototype.copy();
+    } else if (scaleWork.length != mainSetDimension) {
+      scaleWork = new double[mainSetDimension];
+    }
+    final double[] y       = yWork;
+    final double[][] yDotK = yDotKWork;
+    final double[] yTmp    = yTmpWork;
+    final double[] yDotTmp = yDotTmpWork;
+    System.arraycopy(y0, 0, y,    0, y0.length);
+    System.arraycopy(y0, 0, yTmp, 0, y0.length);
 
     // set up an interpolator sharing the integrator arrays
-    final RungeKuttaStepInterpolator interpolator = (RungeKuttaStepInterpolator) prototype.copy();
+    final RungeKuttaStepInterpolator interpolator = interpolatorWork;
     interpolator.reinitialize(this, yTmp, yDotK, forward,
                               equations.getPrimaryMapper(), equations.getSecondaryMappers());
     interpolator.storeTime(equations.getTime());
@@ -233,7 +311,7 @@ public abstract class EmbeddedRungeKuttaIntegrator
         }
 
         if (firstTime) {
-          final double[] scale = new double[mainSetDimension];
+          final double[] scale = scaleWork;
           if (vecAbsoluteTolerance == null) {
               for (int i = 0; i < scale.length; ++i) {
                 scale[i] = scalAbsoluteTolerance + scalRelativeTolerance * FastMath.abs(y[i]);
@@ -335,6 +413,10 @@ public abstract class EmbeddedRungeKuttaIntegrator
     equations.setCompleteState(y);
 
     resetInternalState();
+    if (!reuseWorkArrays) {
+      // don't keep references to the arrays, they now belong to the interpolator seen by handlers
+      releaseWorkArrays();
+    }
 
   }
 
@@ -159,6 +159,14 @@
  * to the classical algorithms using the Nordsieck vector representation.
  * </p>
  *
+ * <table border="1" align="center">
+ * <tr BGCOLOR="#CCCCFF"><td colspan=3><font size="+2">Stiff Integrators</font></td></tr>
+ * <tr BGCOLOR="#EEEEFF"><font size="+1"><td>Name</td><td>Integration Order</td><td>Error Estimation Order</td></font></tr>
+ * <tr><td>{@link org.apache.commons.math4.ode.stiff.RosenbrockIntegrator Rosenbrock 4(3)}</td><td>4</td><td>3</td></tr>
+ * <tr><td>{@link org.apache.commons.math4.ode.stiff.BDFIntegrator BDF}</td><td>variable (1 to 5)</td><td>variable</td></tr>
+ * </table>
+ * </p>
+ *
  *
  */
 package org.apache.commons.math4.ode;
@@ -206,9 +206,15 @@ public abstract class AbstractStepInterpolator
   }
 
   /** Allocate the various interpolated states arrays.
+   * <p>Arrays that already have the right size are reused, so
+   * reinitializing an interpolator for a new integration of the
+   * same equations does not allocate memory.</p>
    * @param dimension total dimension (negative if arrays should be set to null)
    */
   private void allocateInterpolatedArrays(final int dimension) {
+      if (dimension >= 0 && hasInterpolatedArrays(dimension)) {
+          return;
+      }
       if (dimension < 0) {
           interpolatedState                = null;
           interpolatedDerivatives          = null;
@@ -235,6 +241,30 @@ public abstract class AbstractStepInterpolator
       }
   }
 
+  /** Check if the interpolated states arrays are already allocated with the right sizes.
+   * @param dimension total dimension
+   * @return true if the existing arrays can be reused
+   */
+  private boolean hasInterpolatedArrays(final int dimension) {
+      if (interpolatedState == null || interpolatedState.length != dimension ||
+          interpolatedPrimaryState.length != primaryMapper.getDimension()) {
+          return false;
+      }
+      if (secondaryMappers == null) {
+          return interpolatedSecondaryState == null;
+      }
+      if (interpolatedSecondaryState == null ||
+          interpolatedSecondaryState.length != secondaryMappers.length) {
+          return false;
+      }
+      for (int i = 0; i < secondaryMappers.length; ++i) {
+          if (interpolatedSecondaryState[i].length != secondaryMappers[i].getDimension()) {
+              return false;
+          }
+      }
+      return true;
+  }
+
   /** Reinitialize the instance
    * @param y reference to the integrator array holding the state at the end of the step
    * @param isForward integration direction indicator
@@ -0,0 +1,576 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.commons.math4.ode.stiff;
+
+import org.apache.commons.math4.exception.DimensionMismatchException;
+import org.apache.commons.math4.exception.MaxCountExceededException;
+import org.apache.commons.math4.exception.NoBracketingException;
+import org.apache.commons.math4.exception.NumberIsTooSmallException;
+import org.apache.commons.math4.exception.OutOfRangeException;
+import org.apache.commons.math4.linear.DecompositionSolver;
+import org.apache.commons.math4.ode.ExpandableStatefulODE;
+import org.apache.commons.math4.util.FastMath;
+import org.apache.commons.math4.util.Precision;
+
+/**
+ * This class implements a variable order, variable step Backward
+ * Differentiation Formulas integrator for stiff Ordinary Differential
+ * Equations.
+ *
+ * <p>The method uses orders from 1 to 5 (or to a user-specified smaller
+ * maximal order, order 2 being the highest A-stable one). The solution
+ * history is represented by backward differences in the quasi-constant
+ * step size form, the formulas being written as:
+ * <pre>
+ *   &sum;<sub>m=1..k</sub> (1/m) &nabla;<sup>m</sup>y<sub>n+1</sub> = h f(t<sub>n+1</sub>, y<sub>n+1</sub>)
+ * </pre>
+ * When the step size changes, the backward differences are interpolated
+ * to the new step size. This is the formulation used by the
+ * numerical differentiation formulas (with all &kappa; set to zero)
+ * published in:
+ * <pre>
+ *  The MATLAB ODE Suite
+ *  L. F. Shampine and M. W. Reichelt
+ *  SIAM Journal on Scientific Computing, Vol. 18, No. 1, January 1997, pp. 1-22
+ * </pre>
+ * The implicit equation is solved by a simplified Newton iteration on the
+ * iteration matrix I - h/&gamma;<sub>k</sub> J. The jacobian J is not
+ * reevaluated at each step: it is kept as long as the Newton iteration
+ * converges and is recomputed only when convergence fails. The LU
+ * decomposition of the iteration matrix is kept as long as neither the
+ * jacobian, nor the step size nor the order change. Dense output is
+ * provided by cubic Hermite interpolation.</p>
+ *
+ * @see ImplicitIntegrator
+ * @since 4.0
+ */
+
+public class BDFIntegrator extends ImplicitIntegrator {
+
+    /** Integrator method name. */
+    private static final String METHOD_NAME = "BDF";
+
+    /** Maximal supported order. */
+    private static final int MAX_ORDER = 5;
+
+    /** Leading coefficients &gamma;<sub>k</sub> = &sum;<sub>m=1..k</sub> 1/m of the formulas. */
+    private static final double[] GAMMA = {
+        1.0, 3.0 / 2.0, 11.0 / 6.0, 25.0 / 12.0, 137.0 / 60.0
+    };
+
+    /** Maximal number of Newton iterations per step attempt. */
+    private static final int MAX_NEWTON_ITERATIONS = 4;
+
+    /** Convergence threshold of the Newton iteration, relative to the error tolerance. */
+    private static final double NEWTON_TOLERANCE = 0.05;
+
+    /** Step reduction factor when Newton iteration fails. */
+    private static final double NEWTON_FAILURE_REDUCTION = 0.3;
+
+    /** Maximal order used. */
+    private final int maxOrder;
+
+    /** Interpolation matrix for a step ratio of 1. */
+    private final double[][] u;
+
+    /** Estimated convergence rate of the Newton iteration (NaN if unknown). */
+    private double newtonRate;
+
+    /** Simple constructor.
+     * Build a BDF integrator with the given step bounds
+     * @param maxOrder maximal order used (between 1 and 5)
+     * @param minStep minimal step (sign is irrelevant, regardless of
+     * integration direction, forward or backward), the last step can
+     * be smaller than this
+     * @param maxStep maximal step (sign is irrelevant, regardless of
+     * integration direction, forward or backward), the last step can
+     * be smaller than this
+     * @param scalAbsoluteTolerance allowed absolute error
+     * @param scalRelativeTolerance allowed relative error
+     * @exception OutOfRangeException if maximal order is not between 1 and 5
+     */
+    public BDFIntegrator(final int maxOrder,
+                         final double minStep, final double maxStep,
+                         final double scalAbsoluteTolerance,
+                         final double scalRelativeTolerance)
+        throws OutOfRangeException {
+        super(METHOD_NAME, minStep, maxStep, scalAbsoluteTolerance, scalRelativeTolerance);
+        this.maxOrder = checkOrder(maxOrder);
+        this.u        = interpolationMatrix(1.0, maxOrder);
+    }
+
+    /** Simple constructor.
+     * Build a BDF integrator with the given step bounds
+     * @param maxOrder maximal order used (between 1 and 5)
+     * @param minStep minimal step (sign is irrelevant, regardless of
+     * integration direction, forward or backward), the last step can
+     * be smaller than this
+     * @param maxStep maximal step (sign is irrelevant, regardless of
+     * integration direction, forward or backward), the last step can
+     * be smaller than this
+     * @param vecAbsoluteTolerance allowed absolute error
+     * @param vecRelativeTolerance allowed relative error
+     * @exception OutOfRangeException if maximal order is not between 1 and 5
+     */
+    public BDFIntegrator(final int maxOrder,
+                         final double minStep, final double maxStep,
+                         final double[] vecAbsoluteTolerance,
+                         final double[] vecRelativeTolerance)
+        throws OutOfRangeException {
+        super(METHOD_NAME, minStep, maxStep, vecAbsoluteTolerance, vecRelativeTolerance);
+        this.maxOrder = checkOrder(maxOrder);
+        this.u        = interpolationMatrix(1.0, maxOrder);
+    }
+
+    /** Check the maximal order.
+     * @param order maximal order to check
+     * @return the order
+     * @exception OutOfRangeException if order is not between 1 and 5
+     */
+    private static int checkOrder(final int order) throws OutOfRangeException {
+        if (order < 1 || order > MAX_ORDER) {
+            throw new OutOfRangeException(order, 1, MAX_ORDER);
+        }
+        return order;
+    }
+
+    /** Get the maximal order used.
+     * @return maximal order used
+     */
+    public int getMaxOrder() {
+        return maxOrder;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void integrate(final ExpandableStatefulODE equations, final double t)
+        throws NumberIsTooSmallException, DimensionMismatchException,
+               MaxCountExceededException, NoBracketingException {
+
+        sanityChecks(equations, t);
+        setEquations(equations);
+        setUpJacobian(equations);
+        final boolean forward = t > equations.getTime();
+
+        // create some internal working arrays
+        final double[] y0         = equations.getCompleteState();
+        final int n               = y0.length;
+        final double[] y          = y0.clone();
+        final double[] yDot       = new double[n];
+        final double[] yNew       = y0.clone();
+        final double[] yDotNew    = new double[n];
+        final double[] yPredicted = new double[n];
+        final double[] psi        = new double[n];
+        final double[] correction = new double[n];
+        final double[] work       = new double[n];
+        final double[][] dFdY     = new double[n][n];
+
+        // backward differences: dif[j] holds the (j+1)-th difference at current step
+        final double[][] dif = new double[maxOrder + 2][n];
+
+        // set up an interpolator sharing the integrator arrays
+        final HermiteStepInterpolator interpolator = new HermiteStepInterpolator();
+        interpolator.reinitialize(yNew, yDotNew, forward,
+                                  equations.getPrimaryMapper(), equations.getSecondaryMappers());
+        interpolator.storeTime(equations.getTime());
+
+        // set up integration control objects
+        stepStart = equations.getTime();
+        initIntegration(equations.getTime(), y0, t);
+        computeDerivatives(stepStart, y, yDot);
+        System.arraycopy(yDot, 0, yDotNew, 0, n);
+        stepSize = initializeStep(forward, 1, stepStart, y, yDot, yNew, work);
+        System.arraycopy(y, 0, yNew, 0, n);
+        if (forward ? (stepStart + stepSize >= t) : (stepStart + stepSize <= t)) {
+            stepSize = t - stepStart;
+        }
+
+        int order         = 1;
+        int constantSteps = 0;
+        restart(dif, yDot, stepSize);
+        computeJacobian(stepStart, y, yDot, dFdY);
+        boolean jacobianCurrent = true;
+        DecompositionSolver solver = null;
+        double decomposedFactor    = Double.NaN;
+        newtonRate                 = Double.NaN;
+
+        // main integration loop
+        isLastStep = false;
+        do {
+
+            interpolator.shift();
+
+            // iterate over step size and order, ensuring local normalized error is smaller than 1
+            int failures = 0;
+            double errorNorm;
+            double hInvGamma;
+            while (true) {
+
+                hInvGamma = stepSize / GAMMA[order - 1];
+                if (solver == null || hInvGamma != decomposedFactor) {
+                    // a singular iteration matrix is handled as a Newton failure
+                    solver           = decompose(dFdY, 1.0, hInvGamma);
+                    decomposedFactor = hInvGamma;
+                    newtonRate       = Double.NaN;
+                }
+
+                // predict the state at the end of the step
+                for (int i = 0; i < n; ++i) {
+                    double sumDif = 0;
+                    double sumPsi = 0;
+                    for (int j = 0; j < order; ++j) {
+                        sumDif += dif[j][i];
+                        sumPsi += GAMMA[j] * dif[j][i];
+                    }
+                    yPredicted[i] = y[i] + sumDif;
+                    psi[i]        = sumPsi / GAMMA[order - 1];
+                    correction[i] = 0;
+                    yNew[i]       = yPredicted[i];
+                }
+
+                // correct it
+                final boolean converged =
+                        (solver != null) &&
+                        solveCorrector(solver, stepStart + stepSize, hInvGamma, y,
+                                       yPredicted, psi, yNew, yDotNew, correction, work);
+
+                if (!converged) {
+                    if (!jacobianCurrent) {
+                        // the jacobian is outdated, update it and retry with the same step
+                        computeJacobian(stepStart, y, yDot, dFdY);
+                        jacobianCurrent = true;
+                        solver          = null;
+                    } else {
+                        // reduce the step
+                        final double hNew = filterStep(stepSize * NEWTON_FAILURE_REDUCTION, forward, false);
+                        rescale(dif, order, hNew / stepSize);
+                        stepSize      = hNew;
+                        constantSteps = 0;
+                    }
+                    continue;
+                }
+
+                // estimate the error at the end of the step
+                errorNorm = errorNorm(correction, y, yNew) / (order + 1);
+                if (errorNorm <= 1.0) {
+                    break;
+                }
+
+                // reject the step and attempt to reduce error by stepsize and order control
+                double factor;
+                ++failures;
+                if (failures == 1) {
+                    factor = reductionFactor(errorNorm, order + 1, 0.833);
+                    if (order > 1) {
+                        for (int i = 0; i < n; ++i) {
+                            work[i] = dif[order - 1][i] + correction[i];
+                        }
+                        final double errorKm1  = errorNorm(work, y, yNew) / order;
+                        final double factorKm1 = reductionFactor(errorKm1, order, 0.769);
+                        if (factorKm1 > factor) {
+                            factor = factorKm1;
+                            --order;
+                        }
+                    }
+                } else if (failures == 2) {
+                    factor = 0.5;
+                } else {
+                    factor = 0.25;
+                    order  = 1;
+                }
+                final double hNew = filterStep(stepSize * factor, forward, false);
+                rescale(dif, order, hNew / stepSize);
+                stepSize      = hNew;
+                constantSteps = 0;
+
+            }
+
+            // update the backward differences
+            for (int i = 0; i < n; ++i) {
+                dif[order + 1][i] = correction[i] - dif[order][i];
+                dif[order][i]     = correction[i];
+                for (int j = order - 1; j >= 0; --j) {
+                    dif[j][i] += dif[j + 1][i];
+                }
+                // derivatives consistent with the corrector equation
+                yDotNew[i] = (psi[i] + correction[i]) / hInvGamma;
+            }
+            jacobianCurrent = false;
+
+            // local error is small enough: accept the step, trigger events and step handlers
+            interpolator.storeTime(stepStart + stepSize);
+            System.arraycopy(yNew, 0, y, 0, n);
+            System.arraycopy(yDotNew, 0, yDot, 0, n);
+            resetOccurred = false;
+            stepStart = acceptStep(interpolator, y, yDot, t);
+            System.arraycopy(y, 0, yNew, 0, n);
+            System.arraycopy(yDot, 0, yDotNew, 0, n);
+
+            if (!isLastStep) {
+
+                // prepare next step
+                interpolator.storeTime(stepStart);
+
+                if (resetOccurred) {
+
+                    // the history is meaningless after a reset, restart at order 1
+                    double hNew = filterStep(stepSize, forward, true);
+                    if (forward ? (stepStart + hNew >= t) : (stepStart + hNew <= t)) {
+                        hNew = t - stepStart;
+                    }
+                    stepSize      = hNew;
+                    order         = 1;
+                    constantSteps = 0;
+                    restart(dif, yDot, stepSize);
+                    computeJacobian(stepStart, y, yDot, dFdY);
+                    jacobianCurrent = true;
+                    solver          = null;
+
+                } else {
+
+                    // stepsize and order control for next step
+                    constantSteps = FastMath.min(constantSteps + 1, maxOrder + 2);
+                    double factor = 1.0;
+                    int newOrder  = order;
+                    if (constantSteps >= order + 2) {
+                        // enough steps with same size and order to consider a change
+                        factor = growthFactor(errorNorm, order + 1, 1.2);
+                        if (order > 1) {
+                            final double errorKm1  = errorNorm(dif[order - 1], y, y) / order;
+                            final double factorKm1 = growthFactor(errorKm1, order, 1.3);
+                            if (factorKm1 > factor) {
+                                factor   = factorKm1;
+                                newOrder = order - 1;
+                            }
+                        }
+                        if (order < maxOrder) {
+                            final double errorKp1  = errorNorm(dif[order + 1], y, y) / (order + 2);
+                            final double factorKp1 = growthFactor(errorKp1, order + 2, 1.4);
+                            if (factorKp1 > factor) {
+                                factor   = factorKp1;
+                                newOrder = order + 1;
+                            }
+                        }
+                        if (factor <= 1.0) {
+                            // only increase the step size
+                            factor   = 1.0;
+                            newOrder = order;
+                        }
+                    }
+
+                    final double  scaledH    = stepSize * factor;
+                    final double  nextT      = stepStart + scaledH;
+                    final boolean nextIsLast = forward ? (nextT >= t) : (nextT <= t);
+                    double hNew = filterStep(scaledH, forward, nextIsLast);
+
+                    final double  filteredNextT      = stepStart + hNew;
+                    final boolean filteredNextIsLast = forward ? (filteredNextT >= t) : (filteredNextT <= t);
+                    if (filteredNextIsLast) {
+                        hNew = t - stepStart;
+                    }
+
+                    if (newOrder != order || hNew != stepSize) {
+                        order = newOrder;
+                        rescale(dif, order, hNew / stepSize);
+                        stepSize      = hNew;
+                        constantSteps = 0;
+                    }
+
+                }
+
+            }
+
+        } while (!isLastStep);
+
+        // dispatch results
+        equations.setTime(stepStart);
+        equations.setCompleteState(y);
+
+        resetInternalState();
+
+    }
+
+    /** Solve the corrector equation by simplified Newton iteration.
+     * @param solver solver for the iteration matrix
+     * @param tNew time at the end of the step
+     * @param hInvGamma ratio of the step size to the leading coefficient of the formula
+     * @param y state at the start of the step (used for scaling)
+     * @param yPredicted predicted state at the end of the step
+     * @param psi constant part of the corrector equation
+     * @param yNew placeholder for the corrected state at the end of the step
+     * @param yDotNew work array for derivatives
+     * @param correction placeholder for the difference between corrected and predicted states
+     * @param delta work array for Newton increments
+     * @return true if the iteration converged
+     * @exception MaxCountExceededException if the number of functions evaluations is exceeded
+     * @exception DimensionMismatchException if arrays dimensions do not match equations settings
+     */
+    private boolean solveCorrector(final DecompositionSolver solver,
+                                   final double tNew, final double hInvGamma,
+                                   final double[] y, final double[] yPredicted, final double[] psi,
+                                   final double[] yNew, final double[] yDotNew,
+                                   final double[] correction, final double[] delta)
+        throws MaxCountExceededException, DimensionMismatchException {
+
+        final double minNorm = 100 * Precision.EPSILON * errorNorm(yPredicted, y, yPredicted);
+        double previousNorm = Double.NaN;
+        for (int iteration = 0; iteration < MAX_NEWTON_ITERATIONS; ++iteration) {
+
+            computeDerivatives(tNew, yNew, yDotNew);
+            for (int i = 0; i < delta.length; ++i) {
+                delta[i] = hInvGamma * yDotNew[i] - (psi[i] + correction[i]);
+            }
+            solve(solver, delta);
+            final double norm = errorNorm(delta, y, yNew);
+            for (int i = 0; i < delta.length; ++i) {
+                correction[i] += delta[i];
+                yNew[i]        = yPredicted[i] + correction[i];
+            }
+
+            if (norm <= minNorm) {
+                return true;
+            }
+
+            if (iteration > 0) {
+                final double rate = norm / previousNorm;
+                if (rate > 0.9) {
+                    // the iteration converges too slowly or diverges
+                    return false;
+                }
+                newtonRate = FastMath.max(0.9 * newtonRate, rate);
+                if (Double.isNaN(newtonRate)) {
+                    newtonRate = rate;
+                }
+            }
+
+            if (!Double.isNaN(newtonRate)) {
+                final double estimate = norm * newtonRate / (1 - newtonRate);
+                if (estimate <= NEWTON_TOLERANCE) {
+                    return true;
+                }
+                if (estimate * FastMath.pow(newtonRate, MAX_NEWTON_ITERATIONS - 1 - iteration) > NEWTON_TOLERANCE) {
+                    // the iteration will not converge within the allowed iterations count
+                    return false;
+                }
+            }
+
+            previousNorm = norm;
+
+        }
+
+        return false;
+
+    }
+
+    /** Restart the backward differences history at order 1.
+     * @param dif backward differences
+     * @param yDot current derivatives
+     * @param h step size
+     */
+    private static void restart(final double[][] dif, final double[] yDot, final double h) {
+        for (final double[] d : dif) {
+            for (int i = 0; i < d.length; ++i) {
+                d[i] = 0;
+            }
+        }
+        for (int i = 0; i < yDot.length; ++i) {
+            dif[0][i] = h * yDot[i];
+        }
+    }
+
+    /** Interpolate the backward differences for a new step size.
+     * @param dif backward differences
+     * @param order order of the formula
+     * @param ratio ratio of the new step size to the previous one
+     */
+    private void rescale(final double[][] dif, final int order, final double ratio) {
+
+        if (ratio == 1.0) {
+            return;
+        }
+
+        // combined interpolation matrix R(ratio) U restricted to the first differences
+        final double[][] r  = interpolationMatrix(ratio, order);
+        final double[][] ru = new double[order][order];
+        for (int i = 0; i < order; ++i) {
+            for (int j = 0; j < order; ++j) {
+                double sum = 0;
+                for (int l = 0; l <= j; ++l) {
+                    sum += r[i][l] * u[l][j];
+                }
+                ru[i][j] = sum;
+            }
+        }
+
+        final double[] tmp = new double[order];
+        for (int p = 0; p < dif[0].length; ++p) {
+            for (int j = 0; j < order; ++j) {
+                double sum = 0;
+                for (int i = 0; i < order; ++i) {
+                    sum += dif[i][p] * ru[i][j];
+                }
+                tmp[j] = sum;
+            }
+            for (int j = 0; j < order; ++j) {
+                dif[j][p] = tmp[j];
+            }
+        }
+
+    }
+
+    /** Build the backward differences interpolation matrix.
+     * <p>The matrix elements are R<sub>i,j</sub> = &prod;<sub>m=1..i</sub> (m - 1 - j &rho;) / m,
+     * for i and j from 1 to k.</p>
+     * @param rho ratio of the new step size to the previous one
+     * @param k dimension of the matrix
+     * @return interpolation matrix
+     */
+    private static double[][] interpolationMatrix(final double rho, final int k) {
+        final double[][] r = new double[k][k];
+        for (int j = 0; j < k; ++j) {
+            double p = 1.0;
+            for (int i = 0; i < k; ++i) {
+                p *= (i - (j + 1) * rho) / (i + 1);
+                r[i][j] = p;
+            }
+        }
+        return r;
+    }
+
+    /** Compute a step growth factor.
+     * @param error scaled error estimate
+     * @param exponent inverse of the error exponent
+     * @param safety safety factor
+     * @return step growth factor
+     */
+    private static double growthFactor(final double error, final int exponent, final double safety) {
+        final double temp = safety * FastMath.pow(error, 1.0 / exponent);
+        return (temp > 0.1) ? 1.0 / temp : 10.0;
+    }
+
+    /** Compute a step reduction factor after a rejected step.
+     * @param error scaled error estimate
+     * @param exponent inverse of the error exponent
+     * @param safety safety factor
+     * @return step reduction factor
+     */
+    private static double reductionFactor(final double error, final int exponent, final double safety) {
+        return FastMath.min(0.9, FastMath.max(0.1, safety * FastMath.pow(error, -1.0 / exponent)));
+    }
+
+}
@@ -0,0 +1,213 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.commons.math4.ode.stiff;
+
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+
+import org.apache.commons.math4.ode.EquationsMapper;
+import org.apache.commons.math4.ode.sampling.AbstractStepInterpolator;
+import org.apache.commons.math4.ode.sampling.StepInterpolator;
+
+/**
+ * This class implements a cubic Hermite interpolator for steps.
+ *
+ * <p>This interpolator computes dense output inside the last step
+ * computed, using only the states and derivatives at both ends of
+ * the step:
+ * <pre>
+ *   y(t<sub>n</sub> + &theta; h) = (1-&theta;)<sup>2</sup> (1+2&theta;) y<sub>n</sub>
+ *                    + &theta; (1-&theta;)<sup>2</sup> h y'<sub>n</sub>
+ *                    + &theta;<sup>2</sup> (3-2&theta;) y<sub>n+1</sub>
+ *                    - &theta;<sup>2</sup> (1-&theta;) h y'<sub>n+1</sub>
+ * </pre>
+ * where &theta; belongs to [0 ; 1]. It is used by the stiff integrators
+ * whose stages are not suitable for a method-specific dense output.</p>
+ *
+ * @see RosenbrockIntegrator
+ * @see BDFIntegrator
+ * @since 4.0
+ */
+
+class HermiteStepInterpolator
+  extends AbstractStepInterpolator {
+
+    /** Serializable version identifier. */
+    private static final long serialVersionUID = 20161018L;
+
+    /** Previous state. */
+    private double[] previousState;
+
+    /** Derivatives at the previous state. */
+    private double[] previousDerivatives;
+
+    /** Derivatives at the current state. */
+    private double[] currentDerivatives;
+
+  /** Simple constructor.
+   * This constructor builds an instance that is not usable yet, the
+   * {@link #reinitialize(double[], double[], boolean, EquationsMapper, EquationsMapper[])}
+   * method should be called before using the instance in order to
+   * initialize the internal arrays.
+   */
+  // CHECKSTYLE: stop RedundantModifier
+  // the public modifier here is needed for serialization
+  public HermiteStepInterpolator() {
+    previousState       = null;
+    previousDerivatives = null;
+    currentDerivatives  = null;
+  }
+  // CHECKSTYLE: resume RedundantModifier
+
+  /** Copy constructor.
+   * @param interpolator interpolator to copy from. The copy is a deep
+   * copy: its arrays are separated from the original arrays of the
+   * instance
+   */
+  HermiteStepInterpolator(final HermiteStepInterpolator interpolator) {
+
+    super(interpolator);
+
+    if (interpolator.currentState != null) {
+      previousState       = interpolator.previousState.clone();
+      previousDerivatives = interpolator.previousDerivatives.clone();
+      currentDerivatives  = interpolator.currentDerivatives.clone();
+    } else {
+      previousState       = null;
+      previousDerivatives = null;
+      currentDerivatives  = null;
+    }
+
+  }
+
+  /** Reinitialize the instance.
+   * <p>The interpolator keeps references to the integrator arrays,
+   * which must hold the state and derivatives at the end of the step
+   * each time the step is stored, and the state and derivatives at
+   * the start of the next step each time the interpolator is
+   * {@link #shift() shifted}.</p>
+   * @param y reference to the integrator array holding the state at
+   * the end of the step
+   * @param yDot reference to the integrator array holding the derivatives
+   * at the end of the step
+   * @param forward integration direction indicator
+   * @param primaryMapper equations mapper for the primary equations set
+   * @param secondaryMappers equations mappers for the secondary equations sets
+   */
+  void reinitialize(final double[] y, final double[] yDot, final boolean forward,
+                    final EquationsMapper primaryMapper,
+                    final EquationsMapper[] secondaryMappers) {
+    reinitialize(y, forward, primaryMapper, secondaryMappers);
+    previousState       = new double[y.length];
+    previousDerivatives = new double[y.length];
+    currentDerivatives  = yDot;
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  protected StepInterpolator doCopy() {
+    return new HermiteStepInterpolator(this);
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public void shift() {
+    System.arraycopy(currentState,       0, previousState,       0, currentState.length);
+    System.arraycopy(currentDerivatives, 0, previousDerivatives, 0, currentDerivatives.length);
+    super.shift();
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  protected void computeInterpolatedStateAndDerivatives(final double theta,
+                                                        final double oneMinusThetaH) {
+
+    final double theta2 = theta * theta;
+    final double c0     = (1 - theta) * (1 - theta) * (1 + 2 * theta);
+    final double c1     = theta2 * (3 - 2 * theta);
+    final double d0     = theta * (1 - theta) * (1 - theta) * h;
+    final double d1     = -theta2 * (1 - theta) * h;
+    final double cDot   = (h == 0) ? 0 : 6 * theta * (1 - theta) / h;
+    final double dDot0  = (1 - theta) * (1 - 3 * theta);
+    final double dDot1  = theta * (3 * theta - 2);
+
+    for (int i = 0; i < interpolatedState.length; ++i) {
+      final double y0    = previousState[i];
+      final double y1    = currentState[i];
+      final double yDot0 = previousDerivatives[i];
+      final double yDot1 = currentDerivatives[i];
+      interpolatedState[i]       = c0 * y0 + c1 * y1 + d0 * yDot0 + d1 * yDot1;
+      interpolatedDerivatives[i] = cDot * (y1 - y0) + dDot0 * yDot0 + dDot1 * yDot1;
+    }
+
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public void writeExternal(final ObjectOutput out)
+    throws IOException {
+
+    // save the state of the base class
+    writeBaseExternal(out);
+
+    // save the local attributes
+    final int n = (currentState == null) ? -1 : currentState.length;
+    for (int i = 0; i < n; ++i) {
+      out.writeDouble(previousState[i]);
+      out.writeDouble(previousDerivatives[i]);
+      out.writeDouble(currentDerivatives[i]);
+    }
+
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public void readExternal(final ObjectInput in)
+    throws IOException, ClassNotFoundException {
+
+    // read the base class
+    final double t = readBaseExternal(in);
+
+    // read the local attributes
+    final int n = (currentState == null) ? -1 : currentState.length;
+    if (n < 0) {
+      previousState       = null;
+      previousDerivatives = null;
+      currentDerivatives  = null;
+    } else {
+      previousState       = new double[n];
+      previousDerivatives = new double[n];
+      currentDerivatives  = new double[n];
+      for (int i = 0; i < n; ++i) {
+        previousState[i]       = in.readDouble();
+        previousDerivatives[i] = in.readDouble();
+        currentDerivatives[i]  = in.readDouble();
+      }
+    }
+
+    if (currentState != null) {
+        // we can now set the interpolated time and state
+        setInterpolatedTime(t);
+    } else {
+        interpolatedTime = t;
+    }
+
+  }
+
+}
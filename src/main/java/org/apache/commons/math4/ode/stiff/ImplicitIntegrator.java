@@ -0,0 +1,303 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.commons.math4.ode.stiff;
+
+import org.apache.commons.math4.exception.DimensionMismatchException;
+import org.apache.commons.math4.exception.MaxCountExceededException;
+import org.apache.commons.math4.linear.Array2DRowRealMatrix;
+import org.apache.commons.math4.linear.ArrayRealVector;
+import org.apache.commons.math4.linear.DecompositionSolver;
+import org.apache.commons.math4.linear.LUDecomposition;
+import org.apache.commons.math4.ode.ExpandableStatefulODE;
+import org.apache.commons.math4.ode.FirstOrderDifferentialEquations;
+import org.apache.commons.math4.ode.MainStateJacobianProvider;
+import org.apache.commons.math4.ode.nonstiff.AdaptiveStepsizeIntegrator;
+import org.apache.commons.math4.util.FastMath;
+import org.apache.commons.math4.util.Precision;
+
+/**
+ * This abstract class holds the common part of all implicit and
+ * linearly implicit integrators for stiff Ordinary Differential Equations.
+ *
+ * <p>These integrators need the jacobian matrix of the differential
+ * equations with respect to the state. If the primary equations set
+ * implements {@link MainStateJacobianProvider} and no secondary equations
+ * are present, the jacobian is computed exactly by {@link
+ * MainStateJacobianProvider#computeMainStateJacobian(double, double[], double[],
+ * double[][]) computeMainStateJacobian}, otherwise it is approximated by
+ * forward finite differences on the complete state. Since both jacobian
+ * evaluations and LU decompositions of the iteration matrix are expensive,
+ * implementations reuse them across steps as long as they are allowed to
+ * by the method. The {@link #getJacobianEvaluations()} and {@link
+ * #getDecompositions()} counters allow checking how often they occur.</p>
+ *
+ * @see RosenbrockIntegrator
+ * @see BDFIntegrator
+ * @since 4.0
+ */
+
+public abstract class ImplicitIntegrator extends AdaptiveStepsizeIntegrator {
+
+    /** Relative increment for finite differences. */
+    private static final double FINITE_DIFFERENCES_STEP = FastMath.sqrt(Precision.EPSILON);
+
+    /** Floor of the finite differences increment, for components close to zero. */
+    private static final double FINITE_DIFFERENCES_FLOOR = 1.0e-5;
+
+    /** Provider for exact jacobians (null if finite differences are used). */
+    private MainStateJacobianProvider jacobianProvider;
+
+    /** Work array for finite differences. */
+    private double[] yShifted;
+
+    /** Work array for finite differences. */
+    private double[] yDotReference;
+
+    /** Work array for finite differences. */
+    private double[] yDotShifted;
+
+    /** Number of jacobian evaluations during the last integration. */
+    private int jacobianEvaluations;
+
+    /** Number of LU decompositions during the last integration. */
+    private int decompositions;
+
+    /** Build an implicit integrator with the given stepsize bounds.
+     * @param name name of the method
+     * @param minStep minimal step (sign is irrelevant, regardless of
+     * integration direction, forward or backward), the last step can
+     * be smaller than this
+     * @param maxStep maximal step (sign is irrelevant, regardless of
+     * integration direction, forward or backward), the last step can
+     * be smaller than this
+     * @param scalAbsoluteTolerance allowed absolute error
+     * @param scalRelativeTolerance allowed relative error
+     */
+    protected ImplicitIntegrator(final String name,
+                                 final double minStep, final double maxStep,
+                                 final double scalAbsoluteTolerance,
+                                 final double scalRelativeTolerance) {
+        super(name, minStep, maxStep, scalAbsoluteTolerance, scalRelativeTolerance);
+    }
+
+    /** Build an implicit integrator with the given stepsize bounds.
+     * @param name name of the method
+     * @param minStep minimal step (sign is irrelevant, regardless of
+     * integration direction, forward or backward), the last step can
+     * be smaller than this
+     * @param maxStep maximal step (sign is irrelevant, regardless of
+     * integration direction, forward or backward), the last step can
+     * be smaller than this
+     * @param vecAbsoluteTolerance allowed absolute error
+     * @param vecRelativeTolerance allowed relative error
+     */
+    protected ImplicitIntegrator(final String name,
+                                 final double minStep, final double maxStep,
+                                 final double[] vecAbsoluteTolerance,
+                                 final double[] vecRelativeTolerance) {
+        super(name, minStep, maxStep, vecAbsoluteTolerance, vecRelativeTolerance);
+    }
+
+    /** Get the number of jacobian evaluations performed during the last integration.
+     * @return number of jacobian evaluations
+     */
+    public int getJacobianEvaluations() {
+        return jacobianEvaluations;
+    }
+
+    /** Get the number of LU decompositions performed during the last integration.
+     * @return number of LU decompositions of the iteration matrix
+     */
+    public int getDecompositions() {
+        return decompositions;
+    }
+
+    /** Prepare the jacobian computation for an integration.
+     * <p>This method must be called by implementations once the
+     * equations have been set up, before any call to {@link
+     * #computeJacobian(double, double[], double[], double[][])}.</p>
+     * @param equations complete set of differential equations to integrate
+     */
+    protected void setUpJacobian(final ExpandableStatefulODE equations) {
+        final FirstOrderDifferentialEquations primary = equations.getPrimary();
+        if (primary instanceof MainStateJacobianProvider &&
+            equations.getSecondaryMappers().length == 0) {
+            jacobianProvider = (MainStateJacobianProvider) primary;
+        } else {
+            jacobianProvider = null;
+        }
+        final int n = equations.getTotalDimension();
+        yShifted            = new double[n];
+        yDotReference       = new double[n];
+        yDotShifted         = new double[n];
+        jacobianEvaluations = 0;
+        decompositions      = 0;
+    }
+
+    /** Compute the jacobian matrix of the complete state.
+     * <p>The time derivative is only passed to the exact jacobian provider.
+     * Finite differences evaluate the derivatives at (t, y) again, as the
+     * caller may provide derivatives that are only consistent with the
+     * integration formula, and any inconsistency would be amplified by the
+     * small increments.</p>
+     * @param t current value of the independent <I>time</I> variable
+     * @param y array containing the current value of the complete state vector
+     * @param yDot array containing the current value of the time derivative
+     * of the complete state vector
+     * @param dFdY placeholder array where to put the jacobian matrix
+     * @exception MaxCountExceededException if the number of functions evaluations is exceeded
+     * @exception DimensionMismatchException if arrays dimensions do not match equations settings
+     */
+    protected void computeJacobian(final double t, final double[] y, final double[] yDot,
+                                   final double[][] dFdY)
+        throws MaxCountExceededException, DimensionMismatchException {
+
+        ++jacobianEvaluations;
+
+        if (jacobianProvider != null) {
+            jacobianProvider.computeMainStateJacobian(t, y, yDot, dFdY);
+            return;
+        }
+
+        // forward finite differences, one column at a time
+        computeDerivatives(t, y, yDotReference);
+        System.arraycopy(y, 0, yShifted, 0, y.length);
+        for (int j = 0; j < y.length; ++j) {
+            final double delta = FINITE_DIFFERENCES_STEP *
+                                 FastMath.max(FastMath.abs(y[j]), FINITE_DIFFERENCES_FLOOR);
+            yShifted[j] = y[j] + delta;
+            final double realDelta = yShifted[j] - y[j];
+            computeDerivatives(t, yShifted, yDotShifted);
+            for (int i = 0; i < y.length; ++i) {
+                dFdY[i][j] = (yDotShifted[i] - yDotReference[i]) / realDelta;
+            }
+            yShifted[j] = y[j];
+        }
+
+    }
+
+    /** Compute the partial derivatives of the equations with respect to time.
+     * <p>The derivatives are approximated by forward finite differences.</p>
+     * @param t current value of the independent <I>time</I> variable
+     * @param y array containing the current value of the complete state vector
+     * @param yDot array containing the time derivative of the complete state
+     * vector, as evaluated at (t, y) by the differential equations
+     * @param timeScale typical time scale of the problem (used to select
+     * the finite differences increment)
+     * @param dFdT placeholder array where to put the time derivatives
+     * @exception MaxCountExceededException if the number of functions evaluations is exceeded
+     * @exception DimensionMismatchException if arrays dimensions do not match equations settings
+     */
+    protected void computeTimeDerivatives(final double t, final double[] y, final double[] yDot,
+                                          final double timeScale, final double[] dFdT)
+        throws MaxCountExceededException, DimensionMismatchException {
+        final double delta     = FINITE_DIFFERENCES_STEP *
+                                 FastMath.max(FastMath.abs(t), FastMath.abs(timeScale));
+        final double tShifted  = t + delta;
+        final double realDelta = tShifted - t;
+        computeDerivatives(tShifted, y, yDotShifted);
+        for (int i = 0; i < y.length; ++i) {
+            dFdT[i] = (yDotShifted[i] - yDot[i]) / realDelta;
+        }
+    }
+
+    /** Compute the LU decomposition of the iteration matrix
+     * &alpha; I - &beta; J.
+     * @param dFdY jacobian matrix J
+     * @param alpha factor of the identity matrix
+     * @param beta factor of the jacobian matrix
+     * @return solver for the iteration matrix, or null if it is singular
+     */
+    protected DecompositionSolver decompose(final double[][] dFdY,
+                                            final double alpha, final double beta) {
+        ++decompositions;
+        final int n = dFdY.length;
+        final double[][] m = new double[n][n];
+        for (int i = 0; i < n; ++i) {
+            final double[] dFdYi = dFdY[i];
+            final double[] mi    = m[i];
+            for (int j = 0; j < n; ++j) {
+                mi[j] = -beta * dFdYi[j];
+            }
+            mi[i] += alpha;
+        }
+        final DecompositionSolver solver =
+                new LUDecomposition(new Array2DRowRealMatrix(m, false)).getSolver();
+        return solver.isNonSingular() ? solver : null;
+    }
+
+    /** Solve a linear system in place.
+     * @param solver solver for the iteration matrix
+     * @param b right hand side, replaced by the solution on return
+     */
+    protected static void solve(final DecompositionSolver solver, final double[] b) {
+        final double[] x = solver.solve(new ArrayRealVector(b, false)).toArray();
+        System.arraycopy(x, 0, b, 0, b.length);
+    }
+
+    /** Compute the scaled root mean square norm of an error vector.
+     * <p>Only the components of the main set of equations are considered.
+     * Each component is scaled by the tolerance computed from the largest
+     * absolute value of the corresponding component of two states.</p>
+     * @param error error vector
+     * @param y0 first reference state
+     * @param y1 second reference state
+     * @return scaled norm of the error vector, smaller than 1 if within tolerance
+     */
+    protected double errorNorm(final double[] error, final double[] y0, final double[] y1) {
+
+        double sum = 0;
+        for (int j = 0; j < mainSetDimension; ++j) {
+            final double yScale = FastMath.max(FastMath.abs(y0[j]), FastMath.abs(y1[j]));
+            final double tol = (vecAbsoluteTolerance == null) ?
+                               (scalAbsoluteTolerance + scalRelativeTolerance * yScale) :
+                               (vecAbsoluteTolerance[j] + vecRelativeTolerance[j] * yScale);
+            final double ratio = error[j] / tol;
+            sum += ratio * ratio;
+        }
+
+        return FastMath.sqrt(sum / mainSetDimension);
+
+    }
+
+    /** Compute the initial step size.
+     * @param forward forward integration indicator
+     * @param order order of the method used for the first step
+     * @param t0 start time
+     * @param y0 state vector at t0
+     * @param yDot0 first time derivative of y0
+     * @param work1 work array, scratched on return
+     * @param work2 work array, scratched on return
+     * @return first integration step
+     * @exception MaxCountExceededException if the number of functions evaluations is exceeded
+     * @exception DimensionMismatchException if arrays dimensions do not match equations settings
+     */
+    protected double initializeStep(final boolean forward, final int order, final double t0,
+                                    final double[] y0, final double[] yDot0,
+                                    final double[] work1, final double[] work2)
+        throws MaxCountExceededException, DimensionMismatchException {
+        final double[] scale = new double[mainSetDimension];
+        for (int i = 0; i < scale.length; ++i) {
+            scale[i] = (vecAbsoluteTolerance == null) ?
+                       (scalAbsoluteTolerance + scalRelativeTolerance * FastMath.abs(y0[i])) :
+                       (vecAbsoluteTolerance[i] + vecRelativeTolerance[i] * FastMath.abs(y0[i]));
+        }
+        return initializeStep(forward, order, scale, t0, y0, yDot0, work1, work2);
+    }
+
+}
@@ -0,0 +1,400 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.commons.math4.ode.stiff;
+
+import org.apache.commons.math4.exception.DimensionMismatchException;
+import org.apache.commons.math4.exception.MaxCountExceededException;
+import org.apache.commons.math4.exception.NoBracketingException;
+import org.apache.commons.math4.exception.NumberIsTooSmallException;
+import org.apache.commons.math4.linear.DecompositionSolver;
+import org.apache.commons.math4.ode.ExpandableStatefulODE;
+import org.apache.commons.math4.util.FastMath;
+
+/**
+ * This class implements a 4(3) Rosenbrock integrator for stiff
+ * Ordinary Differential Equations.
+ *
+ * <p>Rosenbrock methods are linearly implicit Runge-Kutta methods: each
+ * stage only needs the solution of a linear system involving the
+ * iteration matrix I/(&gamma;h) - J, where J is the jacobian of the
+ * equations with respect to the state, so no Newton iteration is
+ * needed. This integrator uses the four stages, L-stable, Shampine
+ * coefficients with an embedded third order error estimator, as
+ * published in:
+ * <pre>
+ *  Implementation of Rosenbrock Methods
+ *  L. F. Shampine
+ *  ACM Transactions on Mathematical Software, Vol. 8, No. 2, June 1982, pp. 93-113
+ * </pre>
+ * The last stage reuses the derivatives evaluation of the third one
+ * and the first stage reuses the derivatives at the end of the previous
+ * step, so each step costs four evaluations of the differential equations
+ * (one of them for the finite differences time derivatives), one jacobian
+ * evaluation and one LU decomposition. When a step is rejected, the jacobian is reused
+ * and only the iteration matrix is decomposed again for the reduced step.
+ * Dense output is provided by cubic Hermite interpolation.</p>
+ *
+ * @see ImplicitIntegrator
+ * @since 4.0
+ */
+
+public class RosenbrockIntegrator extends ImplicitIntegrator {
+
+    /** Integrator method name. */
+    private static final String METHOD_NAME = "Rosenbrock";
+
+    /** Diagonal coefficient. */
+    private static final double GAMMA = 1.0 / 2.0;
+
+    /** Stage 2 coefficient. */
+    private static final double A21 = 2.0;
+
+    /** Stage 3 coefficient. */
+    private static final double A31 = 48.0 / 25.0;
+
+    /** Stage 3 coefficient. */
+    private static final double A32 = 6.0 / 25.0;
+
+    /** Stage 2 coupling coefficient. */
+    private static final double C21 = -8.0;
+
+    /** Stage 3 coupling coefficient. */
+    private static final double C31 = 372.0 / 25.0;
+
+    /** Stage 3 coupling coefficient. */
+    private static final double C32 = 12.0 / 5.0;
+
+    /** Stage 4 coupling coefficient. */
+    private static final double C41 = -112.0 / 125.0;
+
+    /** Stage 4 coupling coefficient. */
+    private static final double C42 = -54.0 / 125.0;
+
+    /** Stage 4 coupling coefficient. */
+    private static final double C43 = -2.0 / 5.0;
+
+    /** Solution weight. */
+    private static final double B1 = 19.0 / 9.0;
+
+    /** Solution weight. */
+    private static final double B2 = 1.0 / 2.0;
+
+    /** Solution weight. */
+    private static final double B3 = 25.0 / 108.0;
+
+    /** Solution weight. */
+    private static final double B4 = 125.0 / 108.0;
+
+    /** Error weight. */
+    private static final double E1 = 17.0 / 54.0;
+
+    /** Error weight. */
+    private static final double E2 = 7.0 / 36.0;
+
+    /** Error weight (E3 is 0). */
+    private static final double E4 = 125.0 / 108.0;
+
+    /** Stage 1 time derivative coefficient. */
+    private static final double C1X = 1.0 / 2.0;
+
+    /** Stage 2 time derivative coefficient. */
+    private static final double C2X = -3.0 / 2.0;
+
+    /** Stage 3 time derivative coefficient. */
+    private static final double C3X = 121.0 / 50.0;
+
+    /** Stage 4 time derivative coefficient. */
+    private static final double C4X = 29.0 / 250.0;
+
+    /** Stage 2 time. */
+    private static final double A2X = 1.0;
+
+    /** Stage 3 time. */
+    private static final double A3X = 3.0 / 5.0;
+
+    /** Stepsize control exponent. */
+    private static final double EXP = -1.0 / 4.0;
+
+    /** Safety factor for stepsize control. */
+    private double safety;
+
+    /** Minimal reduction factor for stepsize control. */
+    private double minReduction;
+
+    /** Maximal growth factor for stepsize control. */
+    private double maxGrowth;
+
+    /** Simple constructor.
+     * Build a Rosenbrock integrator with the given step bounds
+     * @param minStep minimal step (sign is irrelevant, regardless of
+     * integration direction, forward or backward), the last step can
+     * be smaller than this
+     * @param maxStep maximal step (sign is irrelevant, regardless of
+     * integration direction, forward or backward), the last step can
+     * be smaller than this
+     * @param scalAbsoluteTolerance allowed absolute error
+     * @param scalRelativeTolerance allowed relative error
+     */
+    public RosenbrockIntegrator(final double minStep, final double maxStep,
+                                final double scalAbsoluteTolerance,
+                                final double scalRelativeTolerance) {
+        super(METHOD_NAME, minStep, maxStep, scalAbsoluteTolerance, scalRelativeTolerance);
+        setDefaultStepControl();
+    }
+
+    /** Simple constructor.
+     * Build a Rosenbrock integrator with the given step bounds
+     * @param minStep minimal step (sign is irrelevant, regardless of
+     * integration direction, forward or backward), the last step can
+     * be smaller than this
+     * @param maxStep maximal step (sign is irrelevant, regardless of
+     * integration direction, forward or backward), the last step can
+     * be smaller than this
+     * @param vecAbsoluteTolerance allowed absolute error
+     * @param vecRelativeTolerance allowed relative error
+     */
+    public RosenbrockIntegrator(final double minStep, final double maxStep,
+                                final double[] vecAbsoluteTolerance,
+                                final double[] vecRelativeTolerance) {
+        super(METHOD_NAME, minStep, maxStep, vecAbsoluteTolerance, vecRelativeTolerance);
+        setDefaultStepControl();
+    }
+
+    /** Set the default stepsize control parameters. */
+    private void setDefaultStepControl() {
+        setSafety(0.9);
+        setMinReduction(0.2);
+        setMaxGrowth(6.0);
+    }
+
+    /** Get the order of the method.
+     * @return order of the method
+     */
+    public int getOrder() {
+        return 4;
+    }
+
+    /** Get the safety factor for stepsize control.
+     * @return safety factor
+     */
+    public double getSafety() {
+        return safety;
+    }
+
+    /** Set the safety factor for stepsize control.
+     * @param safety safety factor
+     */
+    public void setSafety(final double safety) {
+        this.safety = safety;
+    }
+
+    /** Get the minimal reduction factor for stepsize control.
+     * @return minimal reduction factor
+     */
+    public double getMinReduction() {
+        return minReduction;
+    }
+
+    /** Set the minimal reduction factor for stepsize control.
+     * @param minReduction minimal reduction factor
+     */
+    public void setMinReduction(final double minReduction) {
+        this.minReduction = minReduction;
+    }
+
+    /** Get the maximal growth factor for stepsize control.
+     * @return maximal growth factor
+     */
+    public double getMaxGrowth() {
+        return maxGrowth;
+    }
+
+    /** Set the maximal growth factor for stepsize control.
+     * @param maxGrowth maximal growth factor
+     */
+    public void setMaxGrowth(final double maxGrowth) {
+        this.maxGrowth = maxGrowth;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void integrate(final ExpandableStatefulODE equations, final double t)
+        throws NumberIsTooSmallException, DimensionMismatchException,
+               MaxCountExceededException, NoBracketingException {
+
+        sanityChecks(equations, t);
+        setEquations(equations);
+        setUpJacobian(equations);
+        final boolean forward = t > equations.getTime();
+
+        // create some internal working arrays
+        final double[] y0      = equations.getCompleteState();
+        final int n            = y0.length;
+        final double[] y       = y0.clone();
+        final double[] yDot    = new double[n];
+        final double[] yTmp    = y0.clone();
+        final double[] yDotTmp = new double[n];
+        final double[] dFdT    = new double[n];
+        final double[] error   = new double[n];
+        final double[] g1      = new double[n];
+        final double[] g2      = new double[n];
+        final double[] g3      = new double[n];
+        final double[] g4      = new double[n];
+        final double[][] dFdY  = new double[n][n];
+
+        // set up an interpolator sharing the integrator arrays
+        final HermiteStepInterpolator interpolator = new HermiteStepInterpolator();
+        interpolator.reinitialize(yTmp, yDotTmp, forward,
+                                  equations.getPrimaryMapper(), equations.getSecondaryMappers());
+        interpolator.storeTime(equations.getTime());
+
+        // set up integration control objects
+        stepStart = equations.getTime();
+        initIntegration(equations.getTime(), y0, t);
+        computeDerivatives(stepStart, y, yDot);
+        System.arraycopy(yDot, 0, yDotTmp, 0, n);
+        double hNew = initializeStep(forward, getOrder(), stepStart, y, yDot, yTmp, error);
+        System.arraycopy(y, 0, yTmp, 0, n);
+
+        // main integration loop
+        isLastStep = false;
+        do {
+
+            interpolator.shift();
+
+            // the jacobian at step start is shared by all attempts for this step
+            computeJacobian(stepStart, y, yDot, dFdY);
+            computeTimeDerivatives(stepStart, y, yDot, hNew, dFdT);
+            DecompositionSolver solver = null;
+            double decomposedStep      = Double.NaN;
+
+            // iterate over step size, ensuring local normalized error is smaller than 1
+            double errorNorm = 10;
+            while (errorNorm >= 1.0) {
+
+                stepSize = hNew;
+                if (forward) {
+                    if (stepStart + stepSize >= t) {
+                        stepSize = t - stepStart;
+                    }
+                } else {
+                    if (stepStart + stepSize <= t) {
+                        stepSize = t - stepStart;
+                    }
+                }
+
+                if (solver == null || stepSize != decomposedStep) {
+                    solver         = decompose(dFdY, 1.0 / (GAMMA * stepSize), 1.0);
+                    decomposedStep = stepSize;
+                    if (solver == null) {
+                        // singular iteration matrix, reduce the step
+                        hNew = filterStep(stepSize * minReduction, forward, false);
+                        continue;
+                    }
+                }
+                final double invH = 1.0 / stepSize;
+
+                // first stage
+                for (int i = 0; i < n; ++i) {
+                    g1[i] = yDot[i] + stepSize * C1X * dFdT[i];
+                }
+                solve(solver, g1);
+
+                // second stage
+                for (int i = 0; i < n; ++i) {
+                    yTmp[i] = y[i] + A21 * g1[i];
+                }
+                computeDerivatives(stepStart + A2X * stepSize, yTmp, yDotTmp);
+                for (int i = 0; i < n; ++i) {
+                    g2[i] = yDotTmp[i] + stepSize * C2X * dFdT[i] + C21 * g1[i] * invH;
+                }
+                solve(solver, g2);
+
+                // third and fourth stages share the same derivatives evaluation
+                for (int i = 0; i < n; ++i) {
+                    yTmp[i] = y[i] + A31 * g1[i] + A32 * g2[i];
+                }
+                computeDerivatives(stepStart + A3X * stepSize, yTmp, yDotTmp);
+                for (int i = 0; i < n; ++i) {
+                    g3[i] = yDotTmp[i] + stepSize * C3X * dFdT[i] + (C31 * g1[i] + C32 * g2[i]) * invH;
+                }
+                solve(solver, g3);
+                for (int i = 0; i < n; ++i) {
+                    g4[i] = yDotTmp[i] + stepSize * C4X * dFdT[i] +
+                            (C41 * g1[i] + C42 * g2[i] + C43 * g3[i]) * invH;
+                }
+                solve(solver, g4);
+
+                // estimate the state and the error at the end of the step
+                for (int i = 0; i < n; ++i) {
+                    yTmp[i]  = y[i] + B1 * g1[i] + B2 * g2[i] + B3 * g3[i] + B4 * g4[i];
+                    error[i] = E1 * g1[i] + E2 * g2[i] + E4 * g4[i];
+                }
+                errorNorm = errorNorm(error, y, yTmp);
+
+                if (errorNorm >= 1.0) {
+                    // reject the step and attempt to reduce error by stepsize control
+                    final double factor =
+                        FastMath.min(maxGrowth,
+                                     FastMath.max(minReduction, safety * FastMath.pow(errorNorm, EXP)));
+                    hNew = filterStep(stepSize * factor, forward, false);
+                }
+
+            }
+
+            // local error is small enough: accept the step, trigger events and step handlers
+            computeDerivatives(stepStart + stepSize, yTmp, yDotTmp);
+            interpolator.storeTime(stepStart + stepSize);
+            System.arraycopy(yTmp, 0, y, 0, n);
+            System.arraycopy(yDotTmp, 0, yDot, 0, n);
+            stepStart = acceptStep(interpolator, y, yDot, t);
+            System.arraycopy(y, 0, yTmp, 0, n);
+            System.arraycopy(yDot, 0, yDotTmp, 0, n);
+
+            if (!isLastStep) {
+
+                // prepare next step
+                interpolator.storeTime(stepStart);
+
+                // stepsize control for next step
+                final double factor =
+                    FastMath.min(maxGrowth, FastMath.max(minReduction, safety * FastMath.pow(errorNorm, EXP)));
+                final double  scaledH    = stepSize * factor;
+                final double  nextT      = stepStart + scaledH;
+                final boolean nextIsLast = forward ? (nextT >= t) : (nextT <= t);
+                hNew = filterStep(scaledH, forward, nextIsLast);
+
+                final double  filteredNextT      = stepStart + hNew;
+                final boolean filteredNextIsLast = forward ? (filteredNextT >= t) : (filteredNextT <= t);
+                if (filteredNextIsLast) {
+                    hNew = t - stepStart;
+                }
+
+            }
+
+        } while (!isLastStep);
+
+        // dispatch results
+        equations.setTime(stepStart);
+        equations.setCompleteState(y);
+
+        resetInternalState();
+
+    }
+
+}
@@ -27,14 +27,20 @@ import java.net.URL;
 import java.nio.charset.Charset;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 
 import org.apache.commons.math4.distribution.AbstractRealDistribution;
 import org.apache.commons.math4.distribution.ConstantRealDistribution;
 import org.apache.commons.math4.distribution.NormalDistribution;
 import org.apache.commons.math4.distribution.RealDistribution;
+import org.apache.commons.math4.exception.MathIllegalArgumentException;
 import org.apache.commons.math4.exception.MathIllegalStateException;
 import org.apache.commons.math4.exception.MathInternalError;
 import org.apache.commons.math4.exception.NullArgumentException;
+import org.apache.commons.math4.exception.NumberIsTooLargeException;
 import org.apache.commons.math4.exception.OutOfRangeException;
 import org.apache.commons.math4.exception.ZeroException;
 import org.apache.commons.math4.exception.NotStrictlyPositiveException;
@@ -97,6 +103,13 @@ import org.apache.commons.math4.util.MathUtils;
  *    by 10. </li>
  *<li>The input file <i>must</i> be a plain text file containing one valid numeric
  *    entry per line.</li>
+ *<li>Large data files can be loaded with {@link #load(File, FileFormat, ExecutorService)},
+ *    which memory-maps the file (text or binary doubles) and processes it in
+ *    chunks, in parallel if an executor is provided. If the range of the data is
+ *    known beforehand, {@link #load(File, FileFormat, double, double, ExecutorService)}
+ *    reads the file in a single pass.</li>
+ *<li>Data can be added to a loaded distribution with the <code>append</code>
+ *    methods; the bins are not changed.</li>
  * </ul></p>
  *
  */
@@ -138,6 +151,28 @@ public class EmpiricalDistribution extends AbstractRealDistribution {
     /** upper bounds of subintervals in (0,1) "belonging" to the bins */
     private double[] upperBounds = null;
 
+    /** Size of the chunks in which data files are split for parallel loading. */
+    private int chunkSize = MappedDataFile.DEFAULT_CHUNK_SIZE;
+
+    /**
+     * Format of the data files loaded by {@link #load(File, FileFormat, ExecutorService)}.
+     * @since 4.0
+     */
+    public enum FileFormat {
+
+        /** ASCII text file containing one valid numeric entry per line. */
+        TEXT,
+
+        /** Binary file of IEEE 754 doubles in big endian byte order
+         * (as written by {@link java.io.DataOutputStream#writeDouble(double)}).
+         */
+        BINARY_BIG_ENDIAN,
+
+        /** Binary file of IEEE 754 doubles in little endian byte order. */
+        BINARY_LITTLE_ENDIAN
+
+    }
+
     /**
      * Creates a new EmpiricalDistribution with the default bin count.
      */
@@ -287,6 +322,324 @@ public class EmpiricalDistribution extends AbstractRealDistribution {
         }
     }
 
+    /**
+     * Computes the empirical distribution from a large data file.
+     *
+     * <p>The file is memory-mapped and split in chunks. Each chunk is processed
+     * by a task submitted to the executor, which computes the statistics of the
+     * chunk values; the statistics of all chunks are then merged using {@link
+     * SummaryStatistics#combine(SummaryStatistics)}. As the bins range depends
+     * on the data, the file is read twice: once to compute the sample statistics
+     * and once to fill the bins. When the range is known beforehand, {@link
+     * #load(File, FileFormat, double, double, ExecutorService)} reads the file
+     * only once.</p>
+     *
+     * <p>If the first pass fails, the distribution is not modified. If the
+     * second pass fails, the distribution is left unloaded.</p>
+     *
+     * @param file the input file
+     * @param format format of the input file
+     * @param executor executor running the chunks tasks (if null, the chunks
+     * are processed in the calling thread)
+     * @throws IOException if an IO error occurs
+     * @throws NullArgumentException if file or format is null
+     * @throws ZeroException if the file contains no data
+     * @throws MathIllegalArgumentException if a binary file size is not a multiple of 8
+     * @throws MathIllegalStateException if the loading is interrupted
+     * @since 4.0
+     */
+    public void load(final File file, final FileFormat format, final ExecutorService executor)
+        throws IOException, NullArgumentException, ZeroException,
+               MathIllegalArgumentException, MathIllegalStateException {
+        MathUtils.checkNotNull(file);
+        MathUtils.checkNotNull(format);
+        final MappedDataFile data = new MappedDataFile(file, format, chunkSize);
+
+        // first pass, for the range
+        final ChunkStatistics stats = readChunks(data, true, false, executor);
+        if (stats.sample.getN() == 0) {
+            throw new ZeroException(LocalizedFormats.NO_DATA);
+        }
+
+        // the previous state is lost from now on
+        loaded = false;
+        sampleStats = stats.sample;
+
+        // second pass, for the bins
+        setUpGrid(sampleStats.getMin(), sampleStats.getMax());
+        combineBins(readChunks(data, false, true, executor));
+        loaded = true;
+
+    }
+
+    /**
+     * Computes the empirical distribution from a large data file, in a single pass.
+     *
+     * <p>This method is similar to {@link #load(File, FileFormat, ExecutorService)},
+     * except the bins are set up beforehand from the specified range, so the file
+     * is read only once. Values out of the range are accumulated in the first or
+     * last bin, so the range should contain all data.</p>
+     *
+     * <p>If the file cannot be read, the distribution is left unloaded.</p>
+     *
+     * @param file the input file
+     * @param format format of the input file
+     * @param lower lower bound of the bins range
+     * @param upper upper bound of the bins range
+     * @param executor executor running the chunks tasks (if null, the chunks
+     * are processed in the calling thread)
+     * @throws IOException if an IO error occurs
+     * @throws NullArgumentException if file or format is null
+     * @throws NumberIsTooLargeException if {@code lower >= upper}
+     * @throws ZeroException if the file contains no data
+     * @throws MathIllegalArgumentException if a binary file size is not a multiple of 8
+     * @throws MathIllegalStateException if the loading is interrupted
+     * @since 4.0
+     */
+    public void load(final File file, final FileFormat format,
+                     final double lower, final double upper,
+                     final ExecutorService executor)
+        throws IOException, NullArgumentException, NumberIsTooLargeException, ZeroException,
+               MathIllegalArgumentException, MathIllegalStateException {
+        MathUtils.checkNotNull(file);
+        MathUtils.checkNotNull(format);
+        if (lower >= upper) {
+            throw new NumberIsTooLargeException(lower, upper, false);
+        }
+        final MappedDataFile data = new MappedDataFile(file, format, chunkSize);
+        loaded = false;
+        setUpGrid(lower, upper);
+        final ChunkStatistics stats = readChunks(data, true, true, executor);
+        if (stats.sample.getN() == 0) {
+            throw new ZeroException(LocalizedFormats.NO_DATA);
+        }
+        sampleStats = stats.sample;
+        combineBins(stats);
+        loaded = true;
+    }
+
+    /**
+     * Adds data to an already loaded distribution.
+     *
+     * <p>The bins are not changed, values out of their range are accumulated
+     * in the first or last bin.</p>
+     *
+     * @param in the input data array
+     * @throws NullArgumentException if in is null
+     * @throws MathIllegalStateException if the distribution has not been loaded
+     * @since 4.0
+     */
+    public void append(final double[] in)
+        throws NullArgumentException, MathIllegalStateException {
+        MathUtils.checkNotNull(in);
+        checkLoaded();
+        final ChunkStatistics stats = new ChunkStatistics(true, true);
+        for (final double value : in) {
+            stats.handle(value);
+        }
+        combine(stats);
+    }
+
+    /**
+     * Adds data from a large data file to an already loaded distribution.
+     *
+     * <p>The file is processed in a single pass, in chunks as in {@link
+     * #load(File, FileFormat, ExecutorService)}. The bins are not changed,
+     * values out of their range are accumulated in the first or last bin.</p>
+     *
+     * @param file the input file
+     * @param format format of the input file
+     * @param executor executor running the chunks tasks (if null, the chunks
+     * are processed in the calling thread)
+     * @throws IOException if an IO error occurs
+     * @throws NullArgumentException if file or format is null
+     * @throws MathIllegalArgumentException if a binary file size is not a multiple of 8
+     * @throws MathIllegalStateException if the distribution has not been loaded
+     * or if the loading is interrupted
+     * @since 4.0
+     */
+    public void append(final File file, final FileFormat format, final ExecutorService executor)
+        throws IOException, NullArgumentException,
+               MathIllegalArgumentException, MathIllegalStateException {
+        MathUtils.checkNotNull(file);
+        MathUtils.checkNotNull(format);
+        checkLoaded();
+        combine(readChunks(new MappedDataFile(file, format, chunkSize), true, true, executor));
+    }
+
+    /**
+     * Set the size of the chunks in which data files are split.
+     *
+     * @param chunkSize size of the chunks in bytes
+     */
+    void setChunkSize(final int chunkSize) {
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Check the distribution has been loaded.
+     *
+     * @throws MathIllegalStateException if the distribution has not been loaded
+     */
+    private void checkLoaded() throws MathIllegalStateException {
+        if (!loaded) {
+            throw new MathIllegalStateException(LocalizedFormats.DISTRIBUTION_NOT_LOADED);
+        }
+    }
+
+    /**
+     * Reads all chunks of a data file.
+     *
+     * @param data data file
+     * @param sample if true, the sample statistics are computed
+     * @param bins if true, the bins statistics are computed
+     * @param executor executor running the chunks tasks (if null, the chunks
+     * are processed in the calling thread)
+     * @return merged statistics of all chunks
+     * @throws IOException if an IO error occurs
+     * @throws MathIllegalStateException if the loading is interrupted
+     */
+    private ChunkStatistics readChunks(final MappedDataFile data,
+                                       final boolean sample, final boolean bins,
+                                       final ExecutorService executor)
+        throws IOException, MathIllegalStateException {
+
+        final ChunkStatistics merged = new ChunkStatistics(sample, bins);
+        if (executor == null) {
+            for (int chunk = 0; chunk < data.getChunksNumber(); ++chunk) {
+                data.read(chunk, merged);
+            }
+            return merged;
+        }
+
+        final List<Future<ChunkStatistics>> futures =
+                new ArrayList<Future<ChunkStatistics>>(data.getChunksNumber());
+        try {
+            for (int chunk = 0; chunk < data.getChunksNumber(); ++chunk) {
+                final int index = chunk;
+                futures.add(executor.submit(new Callable<ChunkStatistics>() {
+                    /** {@inheritDoc} */
+                    @Override
+                    public ChunkStatistics call() throws IOException {
+                        final ChunkStatistics stats = new ChunkStatistics(sample, bins);
+                        data.read(index, stats);
+                        return stats;
+                    }
+                }));
+            }
+            // merge in chunks order, so the result does not depend on tasks scheduling
+            for (final Future<ChunkStatistics> future : futures) {
+                merged.combine(future.get());
+            }
+            return merged;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new MathIllegalStateException(e, LocalizedFormats.SIMPLE_MESSAGE, e.getMessage());
+        } catch (ExecutionException e) {
+            final Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new MathIllegalStateException(cause, LocalizedFormats.SIMPLE_MESSAGE, cause.getMessage());
+        } finally {
+            for (final Future<ChunkStatistics> future : futures) {
+                future.cancel(true);
+            }
+        }
+
+    }
+
+    /**
+     * Combines statistics into the distribution sample and bins statistics.
+     *
+     * @param stats statistics to combine
+     */
+    private void combine(final ChunkStatistics stats) {
+        sampleStats.combine(stats.sample);
+        combineBins(stats);
+    }
+
+    /**
+     * Combines statistics into the distribution bins statistics.
+     *
+     * @param stats statistics to combine
+     */
+    private void combineBins(final ChunkStatistics stats) {
+        for (int i = 0; i < binCount; i++) {
+            if (stats.bins[i] != null) {
+                binStats.get(i).combine(stats.bins[i]);
+            }
+        }
+        updateUpperBounds();
+    }
+
+    /**
+     * Statistics of a chunk of data.
+     */
+    private class ChunkStatistics implements MappedDataFile.ValueHandler {
+
+        /** Sample statistics (null if not computed). */
+        private final SummaryStatistics sample;
+
+        /** Bins statistics (null if not computed, with null elements for empty bins). */
+        private final SummaryStatistics[] bins;
+
+        /**
+         * Simple constructor.
+         *
+         * @param sample if true, the sample statistics are computed
+         * @param bins if true, the bins statistics are computed
+         */
+        ChunkStatistics(final boolean sample, final boolean bins) {
+            this.sample = sample ? new SummaryStatistics() : null;
+            this.bins   = bins ? new SummaryStatistics[binCount] : null;
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public void handle(final double value) {
+            if (sample != null) {
+                sample.addValue(value);
+            }
+            if (bins != null) {
+                final int i = findBin(value);
+                if (bins[i] == null) {
+                    bins[i] = new SummaryStatistics();
+                }
+                bins[i].addValue(value);
+            }
+        }
+
+        /**
+         * Combines the statistics of another chunk into this one.
+         *
+         * @param other statistics of another chunk
+         */
+        public void combine(final ChunkStatistics other) {
+            if (sample != null) {
+                sample.combine(other.sample);
+            }
+            if (bins != null) {
+                for (int i = 0; i < binCount; i++) {
+                    if (other.bins[i] != null) {
+                        if (bins[i] == null) {
+                            bins[i] = other.bins[i];
+                        } else {
+                            bins[i].combine(other.bins[i]);
+                        }
+                    }
+                }
+            }
+        }
+
+    }
+
     /**
      * Provides methods for computing <code>sampleStats</code> and
      * <code>beanStats</code> abstracting the source of data.
@@ -406,8 +759,24 @@ public class EmpiricalDistribution extends AbstractRealDistribution {
     private void fillBinStats(final DataAdapter da)
         throws IOException {
         // Set up grid
-        min = sampleStats.getMin();
-        max = sampleStats.getMax();
+        setUpGrid(sampleStats.getMin(), sampleStats.getMax());
+
+        // Filling data in binStats Array
+        da.computeBinStats();
+
+        // Assign upperBounds based on bin counts
+        updateUpperBounds();
+    }
+
+    /**
+     * Sets up the bins grid, with empty bins.
+     *
+     * @param lower lower bound of the grid
+     * @param upper upper bound of the grid
+     */
+    private void setUpGrid(final double lower, final double upper) {
+        min = lower;
+        max = upper;
         delta = (max - min)/binCount;
 
         // Initialize binStats ArrayList
@@ -418,11 +787,12 @@ public class EmpiricalDistribution extends AbstractRealDistribution {
             SummaryStatistics stats = new SummaryStatistics();
             binStats.add(i,stats);
         }
+    }
 
-        // Filling data in binStats Array
-        da.computeBinStats();
-
-        // Assign upperBounds based on bin counts
+    /**
+     * Assigns upperBounds based on bin counts.
+     */
+    private void updateUpperBounds() {
         upperBounds = new double[binCount];
         upperBounds[0] =
         ((double) binStats.get(0).getN()) / (double) sampleStats.getN();
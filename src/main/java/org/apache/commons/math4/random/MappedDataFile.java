@@ -0,0 +1,244 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.commons.math4.random;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+import org.apache.commons.math4.exception.MathIllegalArgumentException;
+import org.apache.commons.math4.exception.util.LocalizedFormats;
+import org.apache.commons.math4.util.FastMath;
+
+/**
+ * Memory-mapped data file, split in chunks that can be read independently.
+ * <p>
+ * Each chunk is read through its own file channel, so different chunks can
+ * be read concurrently by different threads. For text files, a line belongs
+ * to the chunk in which it starts, so the chunks boundaries do not need to
+ * match lines boundaries.
+ * </p>
+ * @since 4.0
+ */
+class MappedDataFile {
+
+    /** Default size of the chunks (64 MiB). */
+    static final int DEFAULT_CHUNK_SIZE = 1 << 26;
+
+    /** Number of bytes mapped after the end of text chunks, for the last line. */
+    private static final int LINE_MARGIN = 4096;
+
+    /** Size of the blocks used to transfer binary values. */
+    private static final int BLOCK_SIZE = 4096;
+
+    /** Receiver for the values read from the file. */
+    interface ValueHandler {
+
+        /** Handle one value.
+         * @param value value read from the file
+         */
+        void handle(double value);
+
+    }
+
+    /** Data file. */
+    private final File file;
+
+    /** File format. */
+    private final EmpiricalDistribution.FileFormat format;
+
+    /** File size in bytes. */
+    private final long size;
+
+    /** Size of the chunks in bytes. */
+    private final int chunkSize;
+
+    /** Simple constructor.
+     * @param file data file
+     * @param format file format
+     * @param chunkSize size of the chunks in bytes (rounded down to a multiple
+     * of 8 for binary files)
+     * @exception MathIllegalArgumentException if a binary file size is
+     * not a multiple of 8
+     */
+    MappedDataFile(final File file, final EmpiricalDistribution.FileFormat format,
+                   final int chunkSize)
+        throws MathIllegalArgumentException {
+        this.file   = file;
+        this.format = format;
+        this.size   = file.length();
+        if (format == EmpiricalDistribution.FileFormat.TEXT) {
+            this.chunkSize = chunkSize;
+        } else {
+            if (size % 8 != 0) {
+                throw new MathIllegalArgumentException(LocalizedFormats.WRONG_BINARY_FILE_SIZE, size, 8);
+            }
+            this.chunkSize = FastMath.max(8, chunkSize & ~7);
+        }
+    }
+
+    /** Get the number of chunks.
+     * @return number of chunks
+     */
+    int getChunksNumber() {
+        return (int) ((size + chunkSize - 1) / chunkSize);
+    }
+
+    /** Read one chunk.
+     * @param chunk index of the chunk
+     * @param handler receiver for the values read
+     * @exception IOException if an I/O error occurs
+     * @exception NumberFormatException if a text line cannot be parsed
+     */
+    void read(final int chunk, final ValueHandler handler)
+        throws IOException, NumberFormatException {
+        final long start = ((long) chunk) * chunkSize;
+        final long end   = FastMath.min(size, start + chunkSize);
+        final RandomAccessFile raf = new RandomAccessFile(file, "r");
+        try {
+            final FileChannel channel = raf.getChannel();
+            if (format == EmpiricalDistribution.FileFormat.TEXT) {
+                readText(channel, start, end, handler);
+            } else {
+                readBinary(channel, start, end, handler);
+            }
+        } finally {
+            raf.close();
+        }
+    }
+
+    /** Read binary values.
+     * @param channel file channel
+     * @param start start of the chunk
+     * @param end end of the chunk
+     * @param handler receiver for the values read
+     * @exception IOException if an I/O error occurs
+     */
+    private void readBinary(final FileChannel channel, final long start, final long end,
+                            final ValueHandler handler)
+        throws IOException {
+        final MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+        buffer.order(format == EmpiricalDistribution.FileFormat.BINARY_BIG_ENDIAN ?
+                     ByteOrder.BIG_ENDIAN : ByteOrder.LITTLE_ENDIAN);
+        final DoubleBuffer doubles = buffer.asDoubleBuffer();
+        final double[] block = new double[BLOCK_SIZE];
+        while (doubles.hasRemaining()) {
+            final int n = FastMath.min(block.length, doubles.remaining());
+            doubles.get(block, 0, n);
+            for (int i = 0; i < n; ++i) {
+                handler.handle(block[i]);
+            }
+        }
+    }
+
+    /** Read text values, one per line.
+     * @param channel file channel
+     * @param start start of the chunk
+     * @param end end of the chunk
+     * @param handler receiver for the values read
+     * @exception IOException if an I/O error occurs
+     * @exception NumberFormatException if a line cannot be parsed
+     */
+    private void readText(final FileChannel channel, final long start, final long end,
+                          final ValueHandler handler)
+        throws IOException, NumberFormatException {
+
+        // the byte before the chunk tells if its first line starts in the previous chunk
+        final long mapStart = (start == 0) ? 0 : start - 1;
+        final TextWindow window = new TextWindow(channel, mapStart,
+                                                 FastMath.min(size, end + LINE_MARGIN) - mapStart);
+        long p = start;
+        if (start > 0 && window.get(start - 1) != '\n') {
+            // skip the end of a line started in the previous chunk
+            while (p < size && window.get(p) != '\n') {
+                ++p;
+            }
+            ++p;
+        }
+
+        char[] line = new char[64];
+        while (p < end) {
+            int length = 0;
+            while (p < size) {
+                final byte b = window.get(p++);
+                if (b == '\n') {
+                    break;
+                }
+                if (length == line.length) {
+                    final char[] grown = new char[2 * length];
+                    System.arraycopy(line, 0, grown, 0, length);
+                    line = grown;
+                }
+                line[length++] = (char) (b & 0xff);
+            }
+            if (length > 0 && line[length - 1] == '\r') {
+                --length;
+            }
+            handler.handle(Double.parseDouble(new String(line, 0, length)));
+        }
+
+    }
+
+    /** Mapped window over a text file, moved forward as needed. */
+    private class TextWindow {
+
+        /** File channel. */
+        private final FileChannel channel;
+
+        /** Position of the window in the file. */
+        private long position;
+
+        /** Mapped bytes. */
+        private MappedByteBuffer buffer;
+
+        /** Simple constructor.
+         * @param channel file channel
+         * @param position initial position of the window
+         * @param length initial length of the window
+         * @exception IOException if the file cannot be mapped
+         */
+        TextWindow(final FileChannel channel, final long position, final long length)
+            throws IOException {
+            this.channel  = channel;
+            this.position = position;
+            this.buffer   = channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+        }
+
+        /** Get a byte.
+         * @param p position of the byte in the file (must be after the
+         * position of the bytes already read, and before the end of the file)
+         * @return byte at specified position
+         * @exception IOException if the file cannot be mapped
+         */
+        byte get(final long p) throws IOException {
+            if (p - position >= buffer.limit()) {
+                // the line extends beyond the window, move it forward
+                position = p;
+                buffer   = channel.map(FileChannel.MapMode.READ_ONLY, position,
+                                       FastMath.min(size - position, LINE_MARGIN));
+            }
+            return buffer.get((int) (p - position));
+        }
+
+    }
+
+}
@@ -0,0 +1,47 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.math4.stat.descriptive;
+
+import org.apache.commons.math4.exception.NullArgumentException;
+
+/**
+ * A statistic whose state can be merged with the state of another
+ * instance of the same statistic.
+ * <p>
+ * Aggregation allows a statistic to be computed on independent partitions
+ * of a data set (for example in different threads), the partial results
+ * being combined afterwards, without any synchronization while the data
+ * are being processed.
+ *
+ * @param <T> the type of statistic that can be aggregated into this one
+ * @since 4.0
+ */
+public interface AggregatableStatistic<T> {
+
+    /**
+     * Aggregates the state of another statistic into this one.
+     * <p>
+     * Upon return, this instance is in the state it would have reached if
+     * all the values added to {@code other} had been added to it. The other
+     * statistic is not modified.
+     *
+     * @param other the statistic to aggregate into this one
+     * @throws NullArgumentException if other is null
+     */
+    void aggregate(T other) throws NullArgumentException;
+
+}
@@ -0,0 +1,421 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.math4.stat.descriptive;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.apache.commons.math4.exception.NotStrictlyPositiveException;
+import org.apache.commons.math4.util.FastMath;
+
+/**
+ * Summary statistics that can be updated concurrently by many threads
+ * with little contention.
+ * <p>
+ * The values are accumulated in a small array of cells, in the spirit of
+ * {@code java.util.concurrent.atomic.LongAdder}. Each cell is guarded by its
+ * own flag, acquired by compare-and-set: a thread updates the cell selected
+ * by a per-thread probe in place (so adding a value does not allocate
+ * memory), and moves to another cell instead of waiting when the flag is
+ * already held. The cells are merged (using the pairwise update of Chan,
+ * Golub and LeVeque for the variance) only when statistics are read, so
+ * updates are cheap and do not contend with each other as long as there
+ * are enough cells.
+ * </p>
+ * <p>
+ * Each read method acquires the flags of all the cells before merging them,
+ * so the statistics are an atomic snapshot: they reflect the state of the
+ * data at one instant, and those returned by {@link #getSummary()} are
+ * mutually consistent. Updates are paused while the cells are merged, which
+ * only takes a few operations per cell. {@link #clear()} and serialization
+ * are atomic too.
+ * </p>
+ * <p>
+ * This class only computes the statistics of {@link StatisticalSummary};
+ * use {@link SynchronizedSummaryStatistics} if other statistics or custom
+ * implementations are required.
+ * </p>
+ *
+ * @since 4.0
+ */
+public class ConcurrentSummaryStatistics implements StatisticalSummary, Serializable {
+
+    /** Serializable version identifier */
+    private static final long serialVersionUID = 20161018L;
+
+    /** Per-thread probe used to select a cell. */
+    private static final ThreadLocal<int[]> PROBE = new ThreadLocal<int[]>() {
+        /** {@inheritDoc} */
+        @Override
+        protected int[] initialValue() {
+            // spread the thread identifiers (golden ratio hashing), never 0
+            final int h = (int) (Thread.currentThread().getId() * 0x9E3779B97F4A7C15L >>> 32);
+            return new int[] { h == 0 ? 1 : h };
+        }
+    };
+
+    /** Cells. */
+    private final Cell[] cells;
+
+    /** Mask for cells indices. */
+    private final int mask;
+
+    /**
+     * Construct an instance with a number of cells adapted to the number of processors.
+     */
+    public ConcurrentSummaryStatistics() {
+        this(2 * Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Construct an instance with a specified number of cells.
+     *
+     * @param concurrency expected number of concurrently updating threads
+     * (the number of cells is the smallest power of two not less than this value)
+     * @throws NotStrictlyPositiveException if {@code concurrency <= 0}
+     */
+    public ConcurrentSummaryStatistics(final int concurrency) throws NotStrictlyPositiveException {
+        if (concurrency <= 0) {
+            throw new NotStrictlyPositiveException(concurrency);
+        }
+        int size = 1;
+        while (size < concurrency && size < (1 << 30)) {
+            size <<= 1;
+        }
+        cells = new Cell[size];
+        mask  = size - 1;
+        for (int i = 0; i < size; ++i) {
+            cells[i] = new Cell();
+        }
+    }
+
+    /**
+     * Add a value to the data.
+     * <p>
+     * This method can be called concurrently from any number of threads.
+     * </p>
+     * @param value the value to add
+     */
+    public void addValue(final double value) {
+        final int[] probe = PROBE.get();
+        int h = probe[0];
+        for (int attempt = 1;; ++attempt) {
+            final Cell cell = cells[h & mask];
+            if (cell.tryLock()) {
+                cell.add(value);
+                cell.unlock();
+                probe[0] = h;
+                return;
+            }
+            // contention on this cell, move to another one (xorshift)
+            h ^= h << 13;
+            h ^= h >>> 17;
+            h ^= h << 5;
+            if (attempt % cells.length == 0) {
+                // all the cells may be held by a reader
+                Thread.yield();
+            }
+        }
+    }
+
+    /**
+     * Resets all statistics.
+     */
+    public void clear() {
+        lockAll();
+        for (final Cell cell : cells) {
+            cell.reset();
+        }
+        unlockAll();
+    }
+
+    /**
+     * Return a {@link StatisticalSummaryValues} instance reporting current
+     * statistics, all computed from the same snapshot.
+     * @return Current values of statistics
+     */
+    public StatisticalSummary getSummary() {
+        final Cell merged = snapshot();
+        return new StatisticalSummaryValues(merged.getMean(), merged.getVariance(), merged.getN(),
+                                            merged.getMax(), merged.getMin(), merged.getSum());
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public double getMean() {
+        return snapshot().getMean();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public double getVariance() {
+        return snapshot().getVariance();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public double getStandardDeviation() {
+        return FastMath.sqrt(getVariance());
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public long getN() {
+        return snapshot().getN();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public double getMax() {
+        return snapshot().getMax();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public double getMin() {
+        return snapshot().getMin();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public double getSum() {
+        return snapshot().getSum();
+    }
+
+    /**
+     * Generates a text report displaying summary statistics from values that
+     * have been added.
+     * @return String with line feeds displaying statistics
+     */
+    @Override
+    public String toString() {
+        return getSummary().toString();
+    }
+
+    /**
+     * Merges a snapshot of all the cells.
+     * @return merged state of the cells
+     */
+    private Cell snapshot() {
+        final Cell merged = new Cell();
+        lockAll();
+        for (final Cell cell : cells) {
+            merged.merge(cell);
+        }
+        unlockAll();
+        return merged;
+    }
+
+    /**
+     * Acquires the flags of all the cells.
+     * <p>
+     * The flags are always acquired in the same order, so concurrent
+     * readers cannot deadlock, and writers never wait while holding one.
+     * </p>
+     */
+    private void lockAll() {
+        for (final Cell cell : cells) {
+            cell.lock();
+        }
+    }
+
+    /**
+     * Releases the flags of all the cells.
+     */
+    private void unlockAll() {
+        for (final Cell cell : cells) {
+            cell.unlock();
+        }
+    }
+
+    /**
+     * Serializes an atomic snapshot of the cells.
+     * @param out stream where the instance is written
+     * @throws IOException if the instance cannot be written
+     */
+    private void writeObject(final ObjectOutputStream out) throws IOException {
+        lockAll();
+        try {
+            out.defaultWriteObject();
+        } finally {
+            unlockAll();
+        }
+    }
+
+    /** State of a cell, guarded by a flag. */
+    private static class Cell implements Serializable {
+
+        /** Serializable version identifier */
+        private static final long serialVersionUID = 20161018L;
+
+        /** Flag guarding the state (held by at most one thread). */
+        private transient AtomicBoolean locked = new AtomicBoolean(false);
+
+        /** Number of values. */
+        private long n;
+
+        /** Sum of the values. */
+        private double sum;
+
+        /** Mean of the values. */
+        private double mean;
+
+        /** Sum of squared deviations from the mean. */
+        private double m2;
+
+        /** Minimum value. */
+        private double min = Double.NaN;
+
+        /** Maximum value. */
+        private double max = Double.NaN;
+
+        /** Try to acquire the flag, without waiting.
+         * @return true if the flag has been acquired
+         */
+        boolean tryLock() {
+            return !locked.get() && locked.compareAndSet(false, true);
+        }
+
+        /** Acquire the flag, waiting for the thread that holds it.
+         */
+        void lock() {
+            while (!tryLock()) {
+                Thread.yield();
+            }
+        }
+
+        /** Release the flag.
+         */
+        void unlock() {
+            locked.set(false);
+        }
+
+        /** Reset the state.
+         */
+        void reset() {
+            n    = 0;
+            sum  = 0;
+            mean = 0;
+            m2   = 0;
+            min  = Double.NaN;
+            max  = Double.NaN;
+        }
+
+        /** Add a value.
+         * @param value value to add
+         */
+        void add(final double value) {
+            final long   newN    = n + 1;
+            final double delta   = value - mean;
+            final double newMean = mean + delta / newN;
+            n     = newN;
+            sum  += value;
+            mean  = newMean;
+            m2   += delta * (value - newMean);
+            min   = (value < min || Double.isNaN(min)) ? value : min;
+            max   = (value > max || Double.isNaN(max)) ? value : max;
+        }
+
+        /** Merge another state into this one.
+         * @param other other state
+         */
+        void merge(final Cell other) {
+            if (other.n == 0) {
+                return;
+            }
+            if (n == 0) {
+                n    = other.n;
+                sum  = other.sum;
+                mean = other.mean;
+                m2   = other.m2;
+                min  = other.min;
+                max  = other.max;
+                return;
+            }
+            final double nA    = n;
+            final double nB    = other.n;
+            final double nAB   = nA + nB;
+            final double delta = other.mean - mean;
+            n    += other.n;
+            sum  += other.sum;
+            mean += delta * (nB / nAB);
+            m2   += other.m2 + delta * delta * nA * nB / nAB;
+            min   = (other.min < min || Double.isNaN(min)) ? other.min : min;
+            max   = (other.max > max || Double.isNaN(max)) ? other.max : max;
+        }
+
+        /** Get the number of values.
+         * @return number of values
+         */
+        long getN() {
+            return n;
+        }
+
+        /** Get the sum.
+         * @return sum of the values
+         */
+        double getSum() {
+            return sum;
+        }
+
+        /** Get the mean.
+         * @return mean, or NaN if there are no values
+         */
+        double getMean() {
+            return n == 0 ? Double.NaN : mean;
+        }
+        /** Get the bias-corrected variance.
+         * @return variance, or NaN if there are no values
+         */
+        double getVariance() {
+            if (n == 0) {
+                return Double.NaN;
+            }
+            return n == 1 ? 0.0 : m2 / (n - 1);
+        }
+
+        /** Get the minimum.
+         * @return minimum, or NaN if there are no values
+         */
+        double getMin() {
+            return min;
+        }
+
+        /** Get the maximum.
+         * @return maximum, or NaN if there are no values
+         */
+        double getMax() {
+            return max;
+        }
+
+        /** Restore the flag of a deserialized cell.
+         * @param in stream from which the cell is read
+         * @throws IOException if the cell cannot be read
+         * @throws ClassNotFoundException if a class cannot be found
+         */
+        private void readObject(final ObjectInputStream in)
+            throws IOException, ClassNotFoundException {
+            in.defaultReadObject();
+            locked = new AtomicBoolean(false);
+        }
+
+    }
+
+}
@@ -19,6 +19,7 @@ package org.apache.commons.math4.stat.descriptive;
 import java.io.Serializable;
 
 import org.apache.commons.math4.exception.MathIllegalStateException;
+import org.apache.commons.math4.exception.MathUnsupportedOperationException;
 import org.apache.commons.math4.exception.NullArgumentException;
 import org.apache.commons.math4.exception.util.LocalizedFormats;
 import org.apache.commons.math4.stat.descriptive.moment.GeometricMean;
@@ -56,6 +57,18 @@ import org.apache.commons.math4.util.Precision;
  * {@link SynchronizedSummaryStatistics} if concurrent access from multiple
  * threads is required.
  * </p>
+ * <p>
+ * Alternatively, independent instances can be filled in different threads
+ * and merged afterwards using {@link #combine(SummaryStatistics)}, which
+ * requires no locking. The no-argument constructor, {@link #addValue(double)}
+ * and {@link #combine(SummaryStatistics)} are the supplier, accumulator and
+ * combiner of a {@code java.util.stream.Collector}, so that with Java 8 a
+ * parallel stream can be summarized with
+ * {@code Collector.of(SummaryStatistics::new, SummaryStatistics::addValue,
+ * SummaryStatistics::combine)} (or with
+ * {@code stream.collect(SummaryStatistics::new, SummaryStatistics::addValue,
+ * SummaryStatistics::combine)} for a {@code DoubleStream}).
+ * </p>
  */
 public class SummaryStatistics implements StatisticalSummary, Serializable {
 
@@ -167,6 +180,94 @@ public class SummaryStatistics implements StatisticalSummary, Serializable {
         n++;
     }
 
+    /**
+     * Combines the statistics of another instance into this one.
+     * <p>
+     * Upon return, this instance holds the statistics of the union of the
+     * values added to both instances, computed using the pairwise update of
+     * Chan, Golub and LeVeque for the moments. The other instance is not
+     * modified, and this instance is returned so that the method can be used
+     * as the combiner of a reduction.
+     * </p>
+     * <p>
+     * All the configured statistics implementations must be either the
+     * default ones or implementations of {@link AggregatableStatistic}, and
+     * both instances must use the same implementation classes.
+     * </p>
+     *
+     * @param other the statistics to combine into this one
+     * @return this instance
+     * @throws NullArgumentException if other is null
+     * @throws MathUnsupportedOperationException if the statistics
+     * implementations cannot be aggregated
+     * @since 4.0
+     */
+    public SummaryStatistics combine(SummaryStatistics other)
+        throws NullArgumentException, MathUnsupportedOperationException {
+        MathUtils.checkNotNull(other);
+
+        // check everything before modifying anything
+        checkAggregatable(sumImpl, other.sumImpl);
+        checkAggregatable(sumsqImpl, other.sumsqImpl);
+        checkAggregatable(minImpl, other.minImpl);
+        checkAggregatable(maxImpl, other.maxImpl);
+        checkAggregatable(sumLogImpl, other.sumLogImpl);
+        if (meanImpl != mean) {
+            checkAggregatable(meanImpl, other.meanImpl);
+        }
+        if (varianceImpl != variance) {
+            checkAggregatable(varianceImpl, other.varianceImpl);
+        }
+        if (geoMeanImpl != geoMean) {
+            checkAggregatable(geoMeanImpl, other.geoMeanImpl);
+        }
+
+        aggregate(sumImpl, other.sumImpl);
+        aggregate(sumsqImpl, other.sumsqImpl);
+        aggregate(minImpl, other.minImpl);
+        aggregate(maxImpl, other.maxImpl);
+        aggregate(sumLogImpl, other.sumLogImpl);
+        secondMoment.aggregate(other.secondMoment);
+        // If mean, variance or geomean have been overridden,
+        // need to aggregate these
+        if (meanImpl != mean) {
+            aggregate(meanImpl, other.meanImpl);
+        }
+        if (varianceImpl != variance) {
+            aggregate(varianceImpl, other.varianceImpl);
+        }
+        if (geoMeanImpl != geoMean) {
+            aggregate(geoMeanImpl, other.geoMeanImpl);
+        }
+        n += other.n;
+        return this;
+    }
+
+    /**
+     * Checks that a statistic can aggregate another one.
+     * @param stat statistic into which other will be aggregated
+     * @param other statistic to aggregate
+     * @throws MathUnsupportedOperationException if the statistic cannot be aggregated
+     */
+    private static void checkAggregatable(StorelessUnivariateStatistic stat,
+                                          StorelessUnivariateStatistic other)
+        throws MathUnsupportedOperationException {
+        if (!(stat instanceof AggregatableStatistic) || stat.getClass() != other.getClass()) {
+            throw new MathUnsupportedOperationException();
+        }
+    }
+
+    /**
+     * Aggregates a statistic into another one.
+     * @param stat statistic into which other will be aggregated
+     * @param other statistic to aggregate
+     */
+    @SuppressWarnings("unchecked")
+    private static void aggregate(StorelessUnivariateStatistic stat,
+                                  StorelessUnivariateStatistic other) {
+        ((AggregatableStatistic<StorelessUnivariateStatistic>) stat).aggregate(other);
+    }
+
     /**
      * Returns the number of available values
      * @return The number of available values
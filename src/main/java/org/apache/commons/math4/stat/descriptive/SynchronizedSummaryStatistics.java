@@ -17,6 +17,7 @@
 package org.apache.commons.math4.stat.descriptive;
 
 import org.apache.commons.math4.exception.MathIllegalStateException;
+import org.apache.commons.math4.exception.MathUnsupportedOperationException;
 import org.apache.commons.math4.exception.NullArgumentException;
 import org.apache.commons.math4.util.MathUtils;
 
@@ -175,6 +176,25 @@ public class SynchronizedSummaryStatistics extends SummaryStatistics {
         super.clear();
     }
 
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The other instance is copied before being combined, so that its
+     * own lock is held (if it is synchronized) while it is read, but not
+     * at the same time as the lock of this instance.
+     * </p>
+     * @since 4.0
+     */
+    @Override
+    public SummaryStatistics combine(SummaryStatistics other)
+        throws NullArgumentException, MathUnsupportedOperationException {
+        MathUtils.checkNotNull(other);
+        final SummaryStatistics snapshot = other.copy();
+        synchronized (this) {
+            return super.combine(snapshot);
+        }
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -120,6 +120,24 @@ class FirstMoment extends AbstractStorelessUnivariateStatistic
         nDev = Double.NaN;
     }
 
+    /**
+     * Aggregates the state of another moment into this one, using the
+     * pairwise update of Chan, Golub and LeVeque.
+     *
+     * @param other the moment to aggregate into this one
+     */
+    void aggregate(FirstMoment other) {
+        if (other.n == 0) {
+            return;
+        }
+        if (n == 0) {
+            m1 = other.m1;
+        } else {
+            m1 += (other.m1 - m1) * ((double) other.n / (n + other.n));
+        }
+        n += other.n;
+    }
+
     /**
      * {@inheritDoc}
      */
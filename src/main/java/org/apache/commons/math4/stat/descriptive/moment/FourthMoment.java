@@ -18,6 +18,7 @@ package org.apache.commons.math4.stat.descriptive.moment;
 
 import java.io.Serializable;
 
+import org.apache.commons.math4.exception.MathUnsupportedOperationException;
 import org.apache.commons.math4.exception.NullArgumentException;
 import org.apache.commons.math4.util.MathUtils;
 
@@ -104,6 +105,41 @@ class FourthMoment extends ThirdMoment implements Serializable{
             ((n0 * n0) - 3 * (n0 -1)) * (nDevSq * nDevSq * (n0 - 1) * n0);
     }
 
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The other moment must be a {@code FourthMoment}.
+     * </p>
+     * @throws MathUnsupportedOperationException if {@code other} is not a
+     * {@code FourthMoment}
+     */
+    @Override
+    public void aggregate(SecondMoment other)
+        throws NullArgumentException, MathUnsupportedOperationException {
+        MathUtils.checkNotNull(other);
+        if (!(other instanceof FourthMoment)) {
+            throw new MathUnsupportedOperationException();
+        }
+        final FourthMoment o = (FourthMoment) other;
+        if (o.n == 0) {
+            return;
+        }
+        if (n == 0) {
+            m4 = o.m4;
+        } else {
+            final double nA      = n;
+            final double nB      = o.n;
+            final double nAB     = nA + nB;
+            final double delta   = o.m1 - m1;
+            final double delta2  = delta * delta;
+            m4 += o.m4 +
+                  delta2 * delta2 * nA * nB * (nA * nA - nA * nB + nB * nB) / (nAB * nAB * nAB) +
+                  6.0 * delta2 * (nA * nA * o.m2 + nB * nB * m2) / (nAB * nAB) +
+                  4.0 * delta * (nA * o.m3 - nB * m3) / nAB;
+        }
+        super.aggregate(other);
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -19,6 +19,7 @@ package org.apache.commons.math4.stat.descriptive.moment;
 import java.io.Serializable;
 
 import org.apache.commons.math4.exception.NullArgumentException;
+import org.apache.commons.math4.stat.descriptive.AggregatableStatistic;
 import org.apache.commons.math4.util.MathUtils;
 
 /**
@@ -45,7 +46,8 @@ import org.apache.commons.math4.util.MathUtils;
  * one of the threads invokes the <code>increment()</code> or
  * <code>clear()</code> method, it must be synchronized externally.</p>
  */
-public class SecondMoment extends FirstMoment implements Serializable {
+public class SecondMoment extends FirstMoment
+    implements AggregatableStatistic<SecondMoment>, Serializable {
 
     /** Serializable version identifier */
     private static final long serialVersionUID = 20150412L;
@@ -94,6 +96,31 @@ public class SecondMoment extends FirstMoment implements Serializable {
         m2 = Double.NaN;
     }
 
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The moments are combined using the pairwise update of Chan, Golub and
+     * LeVeque, which is as accurate as the incremental update.
+     * </p>
+     * @since 4.0
+     */
+    @Override
+    public void aggregate(SecondMoment other) throws NullArgumentException {
+        MathUtils.checkNotNull(other);
+        if (other.n == 0) {
+            return;
+        }
+        if (n == 0) {
+            m2 = other.m2;
+        } else {
+            final double nA    = n;
+            final double nB    = other.n;
+            final double delta = other.m1 - m1;
+            m2 += other.m2 + delta * delta * nA * nB / (nA + nB);
+        }
+        super.aggregate(other);
+    }
+
     /**
      * {@inheritDoc}
      */
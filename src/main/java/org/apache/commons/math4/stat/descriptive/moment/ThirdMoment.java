@@ -18,6 +18,7 @@ package org.apache.commons.math4.stat.descriptive.moment;
 
 import java.io.Serializable;
 
+import org.apache.commons.math4.exception.MathUnsupportedOperationException;
 import org.apache.commons.math4.exception.NullArgumentException;
 import org.apache.commons.math4.util.MathUtils;
 
@@ -99,6 +100,39 @@ class ThirdMoment extends SecondMoment implements Serializable {
         m3 = m3 - 3.0 * nDev * prevM2 + (n0 - 1) * (n0 - 2) * nDevSq * dev;
     }
 
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The other moment must be a {@code ThirdMoment}.
+     * </p>
+     * @throws MathUnsupportedOperationException if {@code other} is not a
+     * {@code ThirdMoment}
+     */
+    @Override
+    public void aggregate(SecondMoment other)
+        throws NullArgumentException, MathUnsupportedOperationException {
+        MathUtils.checkNotNull(other);
+        if (!(other instanceof ThirdMoment)) {
+            throw new MathUnsupportedOperationException();
+        }
+        final ThirdMoment o = (ThirdMoment) other;
+        if (o.n == 0) {
+            return;
+        }
+        if (n == 0) {
+            m3 = o.m3;
+        } else {
+            final double nA    = n;
+            final double nB    = o.n;
+            final double nAB   = nA + nB;
+            final double delta = o.m1 - m1;
+            m3 += o.m3 +
+                  delta * delta * delta * nA * nB * (nA - nB) / (nAB * nAB) +
+                  3.0 * delta * (nA * o.m2 - nB * m2) / nAB;
+        }
+        super.aggregate(other);
+    }
+
     /**
      * {@inheritDoc}
      */
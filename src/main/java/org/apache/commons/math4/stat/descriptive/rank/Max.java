@@ -21,6 +21,7 @@ import java.io.Serializable;
 import org.apache.commons.math4.exception.MathIllegalArgumentException;
 import org.apache.commons.math4.exception.NullArgumentException;
 import org.apache.commons.math4.stat.descriptive.AbstractStorelessUnivariateStatistic;
+import org.apache.commons.math4.stat.descriptive.AggregatableStatistic;
 import org.apache.commons.math4.util.MathArrays;
 import org.apache.commons.math4.util.MathUtils;
 
@@ -39,7 +40,8 @@ import org.apache.commons.math4.util.MathUtils;
  * one of the threads invokes the <code>increment()</code> or
  * <code>clear()</code> method, it must be synchronized externally.</p>
  */
-public class Max extends AbstractStorelessUnivariateStatistic implements Serializable {
+public class Max extends AbstractStorelessUnivariateStatistic
+    implements AggregatableStatistic<Max>, Serializable {
 
     /** Serializable version identifier */
     private static final long serialVersionUID = 20150412L;
@@ -89,6 +91,19 @@ public class Max extends AbstractStorelessUnivariateStatistic implements Seriali
         n = 0;
     }
 
+    /**
+     * {@inheritDoc}
+     * @since 4.0
+     */
+    @Override
+    public void aggregate(Max other) throws NullArgumentException {
+        MathUtils.checkNotNull(other);
+        if (other.n > 0 && (other.value > value || Double.isNaN(value))) {
+            value = other.value;
+        }
+        n += other.n;
+    }
+
     /**
      * {@inheritDoc}
      */
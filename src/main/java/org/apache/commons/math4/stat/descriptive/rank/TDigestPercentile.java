@@ -0,0 +1,592 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.math4.stat.descriptive.rank;
+
+import java.io.Serializable;
+import java.util.Arrays;
+
+import org.apache.commons.math4.exception.NullArgumentException;
+import org.apache.commons.math4.exception.NumberIsTooSmallException;
+import org.apache.commons.math4.exception.OutOfRangeException;
+import org.apache.commons.math4.exception.util.LocalizedFormats;
+import org.apache.commons.math4.stat.descriptive.AbstractStorelessUnivariateStatistic;
+import org.apache.commons.math4.stat.descriptive.StorelessUnivariateStatistic;
+import org.apache.commons.math4.util.FastMath;
+import org.apache.commons.math4.util.MathUtils;
+
+/**
+ * A {@link StorelessUnivariateStatistic} estimating percentiles using the
+ * merging variant of the <a href="https://arxiv.org/abs/1902.04023">t-digest</a>
+ * sketch by Ted Dunning and Otmar Ertl.
+ * <p>
+ * The sketch summarizes the observations by a bounded number of weighted
+ * centroids, small near the extreme quantiles and larger in the middle of
+ * the distribution, so that tail percentiles (such as the 99th or 99.9th)
+ * are estimated accurately from a memory footprint that only depends on
+ * the {@link #getCompression() compression} parameter. Any percentile can
+ * be {@link #getPercentile(double) retrieved}, not only the one returned by
+ * {@link #getResult()}.
+ * </p>
+ * <p>
+ * Sketches built from different parts of a data set (for example in different
+ * threads) can be combined using {@link #merge(TDigestPercentile)}.
+ * </p>
+ * <p>
+ * {@code NaN} values are ignored (they are not counted in {@link #getN()}).
+ * </p>
+ * <p>
+ * The observations are buffered and merged into the centroids when the
+ * buffer is full. Queries ({@link #getResult()}, {@link #getPercentile(double)},
+ * {@link #getCentroidCount()}, {@link #equals(Object)}, ...) do not modify the
+ * sketch: pending observations are merged into a temporary set of centroids,
+ * which is discarded afterwards.
+ * </p>
+ * <p>
+ * Note: This implementation is not synchronized and produces an approximate
+ * result. For small samples, where data can be stored and processed in memory,
+ * {@link Percentile} should be used.</p>
+ *
+ * @since 4.0
+ */
+public class TDigestPercentile extends AbstractStorelessUnivariateStatistic
+    implements Serializable {
+
+    /** Default compression. */
+    public static final double DEFAULT_COMPRESSION = 100;
+
+    /** Serializable version identifier */
+    private static final long serialVersionUID = 20161018L;
+
+    /** Ratio between the buffer size and the compression. */
+    private static final int BUFFER_RATIO = 5;
+
+    /** Empty set of values to merge. */
+    private static final double[] NO_VALUES = new double[0];
+
+    /** Quantile returned by {@link #getResult()}, in [0, 1]. */
+    private final double quantile;
+
+    /** Compression parameter. */
+    private final double compression;
+
+    /** Means of the centroids, sorted in increasing order. */
+    private double[] means;
+
+    /** Weights of the centroids. */
+    private double[] weights;
+
+    /** Number of centroids. */
+    private int centroids;
+
+    /** Values not yet merged into the centroids. */
+    private double[] buffer;
+
+    /** Number of values in the buffer. */
+    private int buffered;
+
+    /** Number of observations. */
+    private long n;
+
+    /** Smallest observation. */
+    private double min;
+
+    /** Largest observation. */
+    private double max;
+
+    /**
+     * Creates a sketch with the {@link #DEFAULT_COMPRESSION default compression}.
+     *
+     * @param p the percentile returned by {@link #getResult()}
+     * @throws OutOfRangeException if p is not in the range [0, 100]
+     */
+    public TDigestPercentile(final double p) throws OutOfRangeException {
+        this(p, DEFAULT_COMPRESSION);
+    }
+
+    /**
+     * Creates a sketch.
+     * <p>
+     * The number of centroids kept is of the order of the compression, and
+     * the rank error on a quantile q is roughly proportional to
+     * sqrt(q (1 - q)) / compression.
+     * </p>
+     *
+     * @param p the percentile returned by {@link #getResult()}
+     * @param compression the compression parameter
+     * @throws OutOfRangeException if p is not in the range [0, 100]
+     * @throws NumberIsTooSmallException if compression is smaller than 10
+     */
+    public TDigestPercentile(final double p, final double compression)
+        throws OutOfRangeException, NumberIsTooSmallException {
+        if (p > 100 || p < 0) {
+            throw new OutOfRangeException(LocalizedFormats.OUT_OF_BOUNDS_QUANTILE_VALUE, p, 0, 100);
+        }
+        if (!(compression >= 10)) {
+            throw new NumberIsTooSmallException(compression, 10, true);
+        }
+        this.quantile    = p / 100;
+        this.compression = compression;
+        this.buffer      = new double[BUFFER_RATIO * (int) FastMath.ceil(compression)];
+        clear();
+    }
+
+    /**
+     * Copy constructor, creates a new {@code TDigestPercentile} identical
+     * to the {@code original}.
+     *
+     * @param original the {@code TDigestPercentile} instance to copy
+     * @throws NullArgumentException if original is null
+     */
+    public TDigestPercentile(final TDigestPercentile original) throws NullArgumentException {
+        MathUtils.checkNotNull(original);
+        this.quantile    = original.quantile;
+        this.compression = original.compression;
+        this.means       = original.means.clone();
+        this.weights     = original.weights.clone();
+        this.centroids   = original.centroids;
+        this.buffer      = original.buffer.clone();
+        this.buffered    = original.buffered;
+        this.n           = original.n;
+        this.min         = original.min;
+        this.max         = original.max;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void increment(final double d) {
+        if (Double.isNaN(d)) {
+            return;
+        }
+        if (buffered == buffer.length) {
+            compress();
+        }
+        buffer[buffered++] = d;
+        if (n++ == 0) {
+            min = d;
+            max = d;
+        } else {
+            min = FastMath.min(min, d);
+            max = FastMath.max(max, d);
+        }
+    }
+
+    /**
+     * Merges another sketch into this one.
+     * <p>
+     * Upon return, this instance summarizes the union of the observations
+     * of both sketches. The other sketch is not modified. The compression
+     * of the two sketches need not be the same, this instance keeps its own.
+     * </p>
+     *
+     * @param other the sketch to merge
+     * @throws NullArgumentException if other is null
+     */
+    public void merge(final TDigestPercentile other) throws NullArgumentException {
+        MathUtils.checkNotNull(other);
+        if (other.n == 0) {
+            return;
+        }
+
+        // gather the other sketch centroids and pending values
+        final double[] otherValues = Arrays.copyOf(other.buffer, other.buffered);
+        Arrays.sort(otherValues);
+        final double[] otherMeans   = new double[other.centroids + otherValues.length];
+        final double[] otherWeights = new double[otherMeans.length];
+        int i = 0;
+        int j = 0;
+        for (int k = 0; k < otherMeans.length; ++k) {
+            if (j >= otherValues.length || (i < other.centroids && other.means[i] <= otherValues[j])) {
+                otherMeans[k]   = other.means[i];
+                otherWeights[k] = other.weights[i++];
+            } else {
+                otherMeans[k]   = otherValues[j++];
+                otherWeights[k] = 1;
+            }
+        }
+
+        if (n == 0) {
+            min = other.min;
+            max = other.max;
+        } else {
+            min = FastMath.min(min, other.min);
+            max = FastMath.max(max, other.max);
+        }
+        n += other.n;
+        compress(otherMeans, otherWeights, otherMeans.length);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void clear() {
+        means     = new double[0];
+        weights   = new double[0];
+        centroids = 0;
+        buffered  = 0;
+        n         = 0;
+        min       = Double.NaN;
+        max       = Double.NaN;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public double getResult() {
+        return estimate(quantile);
+    }
+
+    /**
+     * Returns an estimate of any percentile of the observations.
+     *
+     * @param p the requested percentile
+     * @return an estimate of the p<sup>th</sup> percentile, or {@code NaN}
+     * if there are no observations
+     * @throws OutOfRangeException if p is not in the range [0, 100]
+     */
+    public double getPercentile(final double p) throws OutOfRangeException {
+        if (p > 100 || p < 0) {
+            throw new OutOfRangeException(LocalizedFormats.OUT_OF_BOUNDS_QUANTILE_VALUE, p, 0, 100);
+        }
+        return estimate(p / 100);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long getN() {
+        return n;
+    }
+
+    /**
+     * Returns the compression parameter.
+     *
+     * @return the compression parameter
+     */
+    public double getCompression() {
+        return compression;
+    }
+
+    /**
+     * Returns the quantile estimated by {@link #getResult()} in the range [0.0-1.0].
+     *
+     * @return quantile estimated by {@link #getResult()}
+     */
+    public double quantile() {
+        return quantile;
+    }
+
+    /**
+     * Returns the number of centroids currently used by the sketch.
+     *
+     * @return the number of centroids
+     */
+    public int getCentroidCount() {
+        return buffered == 0 ? centroids : merge(NO_VALUES, NO_VALUES, 0)[0].length;
+    }
+
+    /**
+     * Returns true iff <code>object</code> is a {@code TDigestPercentile}
+     * with the same percentile, compression and number of observations as
+     * this instance, and whose centroids (including the pending observations)
+     * and extreme values are the same.
+     *
+     * @param object object to test equality against.
+     * @return true if object summarizes the observations in the same way as this
+     */
+    @Override
+    public boolean equals(Object object) {
+        if (object == this) {
+            return true;
+        }
+        if (!(object instanceof TDigestPercentile)) {
+            return false;
+        }
+        final TDigestPercentile other = (TDigestPercentile) object;
+        if (other.quantile != quantile || other.compression != compression || other.n != n) {
+            return false;
+        }
+        final double[][] view      = compressedView();
+        final double[][] otherView = other.compressedView();
+        return Arrays.equals(view[0], otherView[0]) &&
+               Arrays.equals(view[1], otherView[1]) &&
+               MathUtils.equals(min, other.min) &&
+               MathUtils.equals(max, other.max);
+    }
+
+    /**
+     * Returns hash code based on the percentile, the number of observations
+     * and the centroids (including the pending observations).
+     *
+     * @return hash code
+     */
+    @Override
+    public int hashCode() {
+        final double[][] view = compressedView();
+        int result = 31 + MathUtils.hash(quantile);
+        result = 31 * result + MathUtils.hash(n);
+        result = 31 * result + MathUtils.hash(view[0]);
+        return 31 * result + MathUtils.hash(view[1]);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public TDigestPercentile copy() {
+        return new TDigestPercentile(this);
+    }
+
+    /**
+     * Estimates a quantile.
+     *
+     * @param q quantile, in [0, 1]
+     * @return estimate of the quantile
+     */
+    private double estimate(final double q) {
+        if (n == 0) {
+            return Double.NaN;
+        }
+        final double[][] view = compressedView();
+        final double[] m      = view[0];
+        final double[] w      = view[1];
+        final int size        = m.length;
+        if (size == 1) {
+            return m[0];
+        }
+
+        // position of the quantile in the cumulated weights
+        final double total = n;
+        final double index = q * total;
+        if (index < 1) {
+            return min;
+        }
+        if (index > total - 1) {
+            return max;
+        }
+
+        // between the smallest observation and the first centroid
+        final double first = w[0];
+        if (first > 1 && index < first / 2) {
+            return min + (index - 1) / (first / 2 - 1) * (m[0] - min);
+        }
+
+        // between the last centroid and the largest observation
+        final double last = w[size - 1];
+        if (last > 1 && total - index <= last / 2) {
+            return max - (total - index - 1) / (last / 2 - 1) * (max - m[size - 1]);
+        }
+
+        // between two centroids
+        double weightSoFar = first / 2;
+        for (int i = 0; i < size - 1; ++i) {
+            final double dw = (w[i] + w[i + 1]) / 2;
+            if (weightSoFar + dw > index) {
+                // singletons are exact values and are not interpolated
+                double leftUnit = 0;
+                if (w[i] == 1) {
+                    if (index - weightSoFar < 0.5) {
+                        return m[i];
+                    }
+                    leftUnit = 0.5;
+                }
+                double rightUnit = 0;
+                if (w[i + 1] == 1) {
+                    if (weightSoFar + dw - index <= 0.5) {
+                        return m[i + 1];
+                    }
+                    rightUnit = 0.5;
+                }
+                final double z1 = index - weightSoFar - leftUnit;
+                final double z2 = weightSoFar + dw - index - rightUnit;
+                return weightedAverage(m[i], z2, m[i + 1], z1);
+            }
+            weightSoFar += dw;
+        }
+
+        // only reached because of rounding
+        return m[size - 1];
+    }
+
+    /**
+     * Computes a weighted average of two values, kept within the two values.
+     *
+     * @param x1 first value
+     * @param w1 weight of the first value
+     * @param x2 second value (not smaller than x1)
+     * @param w2 weight of the second value
+     * @return weighted average
+     */
+    private static double weightedAverage(final double x1, final double w1,
+                                          final double x2, final double w2) {
+        final double x = (x1 * w1 + x2 * w2) / (w1 + w2);
+        return FastMath.max(x1, FastMath.min(x, x2));
+    }
+
+    /**
+     * Gets the centroids, including the buffered values.
+     * <p>
+     * The sketch is not modified: if values are pending, they are merged
+     * into new arrays.
+     * </p>
+     *
+     * @return means and weights of the centroids
+     */
+    private double[][] compressedView() {
+        return buffered == 0 ? new double[][] { means, weights } : merge(NO_VALUES, NO_VALUES, 0);
+    }
+
+    /**
+     * Merges the buffered values into the centroids.
+     */
+    private void compress() {
+        if (buffered > 0) {
+            compress(NO_VALUES, NO_VALUES, 0);
+        }
+    }
+
+    /**
+     * Merges sorted weighted values, and the buffered values, into the centroids.
+     * <p>
+     * The total weight of the sketch ({@link #n}) must already include
+     * the weight of the merged values.
+     * </p>
+     *
+     * @param addedMeans values to merge, sorted in increasing order
+     * @param addedWeights weights of the values to merge
+     * @param added number of values to merge
+     */
+    private void compress(final double[] addedMeans, final double[] addedWeights, final int added) {
+        final double[][] merged = merge(addedMeans, addedWeights, added);
+        means     = merged[0];
+        weights   = merged[1];
+        centroids = means.length;
+        buffered  = 0;
+    }
+
+    /**
+     * Computes the centroids resulting from the merge of sorted weighted
+     * values, and the buffered values, into the current centroids.
+     * <p>
+     * The sketch is not modified.
+     * </p>
+     *
+     * @param addedMeans values to merge, sorted in increasing order
+     * @param addedWeights weights of the values to merge
+     * @param added number of values to merge
+     * @return means and weights of the merged centroids
+     */
+    private double[][] merge(final double[] addedMeans, final double[] addedWeights, final int added) {
+
+        // pending buffered values must be included too
+        double[] otherMeans   = addedMeans;
+        double[] otherWeights = addedWeights;
+        int other             = added;
+        if (buffered > 0) {
+            final double[] values = Arrays.copyOf(buffer, buffered);
+            Arrays.sort(values);
+            otherMeans   = new double[added + values.length];
+            otherWeights = new double[otherMeans.length];
+            int i = 0;
+            int j = 0;
+            for (int k = 0; k < otherMeans.length; ++k) {
+                if (j >= values.length || (i < added && addedMeans[i] <= values[j])) {
+                    otherMeans[k]   = addedMeans[i];
+                    otherWeights[k] = addedWeights[i++];
+                } else {
+                    otherMeans[k]   = values[j++];
+                    otherWeights[k] = 1;
+                }
+            }
+            other = otherMeans.length;
+        }
+
+        final double total        = n;
+        final double[] newMeans   = new double[centroids + other];
+        final double[] newWeights = new double[newMeans.length];
+        int count = 0;
+
+        double weightSoFar   = 0;
+        double weightLimit   = total * upperQuantile(0);
+        double currentMean   = Double.NaN;
+        double currentWeight = 0;
+        int i = 0;
+        int j = 0;
+        while (i < centroids || j < other) {
+
+            // pick the next item in increasing means order
+            final double mean;
+            final double weight;
+            if (j >= other || (i < centroids && means[i] <= otherMeans[j])) {
+                mean   = means[i];
+                weight = weights[i++];
+            } else {
+                mean   = otherMeans[j];
+                weight = otherWeights[j++];
+            }
+
+            if (currentWeight == 0) {
+                currentMean   = mean;
+                currentWeight = weight;
+            } else if (weightSoFar + currentWeight + weight <= weightLimit) {
+                // the item fits in the current centroid
+                currentWeight += weight;
+                currentMean   += weight * (mean - currentMean) / currentWeight;
+            } else {
+                // close the current centroid and start a new one
+                newMeans[count]     = currentMean;
+                newWeights[count++] = currentWeight;
+                weightSoFar        += currentWeight;
+                weightLimit         = total * upperQuantile(weightSoFar / total);
+                currentMean         = mean;
+                currentWeight       = weight;
+            }
+        }
+        if (currentWeight > 0) {
+            newMeans[count]     = currentMean;
+            newWeights[count++] = currentWeight;
+        }
+
+        return new double[][] {
+            Arrays.copyOf(newMeans, count), Arrays.copyOf(newWeights, count)
+        };
+
+    }
+
+    /**
+     * Computes the largest quantile a centroid starting at a given quantile may reach.
+     * <p>
+     * This uses the scale function k(q) = &delta; / (2&pi;) asin(2q - 1), a centroid
+     * spanning at most one unit of k.
+     * </p>
+     *
+     * @param q quantile at which the centroid starts
+     * @return largest quantile the centroid may reach
+     */
+    private double upperQuantile(final double q) {
+        final double k = compression / (2 * FastMath.PI) * FastMath.asin(2 * q - 1) + 1;
+        if (k >= compression / 4) {
+            return 1;
+        }
+        return (FastMath.sin(2 * FastMath.PI * k / compression) + 1) / 2;
+    }
+
+}
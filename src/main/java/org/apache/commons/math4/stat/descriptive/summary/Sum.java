@@ -21,6 +21,7 @@ import java.io.Serializable;
 import org.apache.commons.math4.exception.MathIllegalArgumentException;
 import org.apache.commons.math4.exception.NullArgumentException;
 import org.apache.commons.math4.stat.descriptive.AbstractStorelessUnivariateStatistic;
+import org.apache.commons.math4.stat.descriptive.AggregatableStatistic;
 import org.apache.commons.math4.util.MathArrays;
 import org.apache.commons.math4.util.MathUtils;
 
@@ -37,7 +38,8 @@ import org.apache.commons.math4.util.MathUtils;
  * one of the threads invokes the <code>increment()</code> or
  * <code>clear()</code> method, it must be synchronized externally.</p>
  */
-public class Sum extends AbstractStorelessUnivariateStatistic implements Serializable {
+public class Sum extends AbstractStorelessUnivariateStatistic
+    implements AggregatableStatistic<Sum>, Serializable {
 
     /** Serializable version identifier */
     private static final long serialVersionUID = 20150412L;
@@ -103,6 +105,17 @@ public class Sum extends AbstractStorelessUnivariateStatistic implements Seriali
         n = 0;
     }
 
+    /**
+     * {@inheritDoc}
+     * @since 4.0
+     */
+    @Override
+    public void aggregate(Sum other) throws NullArgumentException {
+        MathUtils.checkNotNull(other);
+        value += other.value;
+        n += other.n;
+    }
+
     /**
      * The sum of the entries in the specified portion of the input array,
      * or 0 if the designated subarray is empty.
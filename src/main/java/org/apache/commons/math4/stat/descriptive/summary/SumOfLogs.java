@@ -21,6 +21,7 @@ import java.io.Serializable;
 import org.apache.commons.math4.exception.MathIllegalArgumentException;
 import org.apache.commons.math4.exception.NullArgumentException;
 import org.apache.commons.math4.stat.descriptive.AbstractStorelessUnivariateStatistic;
+import org.apache.commons.math4.stat.descriptive.AggregatableStatistic;
 import org.apache.commons.math4.util.FastMath;
 import org.apache.commons.math4.util.MathArrays;
 import org.apache.commons.math4.util.MathUtils;
@@ -45,7 +46,8 @@ import org.apache.commons.math4.util.MathUtils;
  * one of the threads invokes the <code>increment()</code> or
  * <code>clear()</code> method, it must be synchronized externally.</p>
  */
-public class SumOfLogs extends AbstractStorelessUnivariateStatistic implements Serializable {
+public class SumOfLogs extends AbstractStorelessUnivariateStatistic
+    implements AggregatableStatistic<SumOfLogs>, Serializable {
 
     /** Serializable version identifier */
     private static final long serialVersionUID = 20150412L;
@@ -111,6 +113,17 @@ public class SumOfLogs extends AbstractStorelessUnivariateStatistic implements S
         n = 0;
     }
 
+    /**
+     * {@inheritDoc}
+     * @since 4.0
+     */
+    @Override
+    public void aggregate(SumOfLogs other) throws NullArgumentException {
+        MathUtils.checkNotNull(other);
+        value += other.value;
+        n += other.n;
+    }
+
     /**
      * Returns the sum of the natural logs of the entries in the specified portion of
      * the input array, or <code>Double.NaN</code> if the designated subarray
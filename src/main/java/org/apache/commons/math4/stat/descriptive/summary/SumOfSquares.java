@@ -21,6 +21,7 @@ import java.io.Serializable;
 import org.apache.commons.math4.exception.MathIllegalArgumentException;
 import org.apache.commons.math4.exception.NullArgumentException;
 import org.apache.commons.math4.stat.descriptive.AbstractStorelessUnivariateStatistic;
+import org.apache.commons.math4.stat.descriptive.AggregatableStatistic;
 import org.apache.commons.math4.util.MathArrays;
 import org.apache.commons.math4.util.MathUtils;
 
@@ -36,7 +37,8 @@ import org.apache.commons.math4.util.MathUtils;
  * one of the threads invokes the <code>increment()</code> or
  * <code>clear()</code> method, it must be synchronized externally.</p>
  */
-public class SumOfSquares extends AbstractStorelessUnivariateStatistic implements Serializable {
+public class SumOfSquares extends AbstractStorelessUnivariateStatistic
+    implements AggregatableStatistic<SumOfSquares>, Serializable {
 
     /** Serializable version identifier */
     private static final long serialVersionUID = 20150412L;
@@ -102,6 +104,17 @@ public class SumOfSquares extends AbstractStorelessUnivariateStatistic implement
         n = 0;
     }
 
+    /**
+     * {@inheritDoc}
+     * @since 4.0
+     */
+    @Override
+    public void aggregate(SumOfSquares other) throws NullArgumentException {
+        MathUtils.checkNotNull(other);
+        value += other.value;
+        n += other.n;
+    }
+
     /**
      * Returns the sum of the squares of the entries in the specified portion of
      * the input array, or <code>Double.NaN</code> if the designated subarray
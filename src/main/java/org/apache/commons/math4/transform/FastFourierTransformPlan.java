@@ -0,0 +1,507 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.math4.transform;
+
+import org.apache.commons.math4.exception.DimensionMismatchException;
+import org.apache.commons.math4.exception.MathIllegalStateException;
+import org.apache.commons.math4.exception.NotPositiveException;
+import org.apache.commons.math4.exception.NotStrictlyPositiveException;
+import org.apache.commons.math4.exception.NumberIsTooLargeException;
+import org.apache.commons.math4.util.ArithmeticUtils;
+import org.apache.commons.math4.util.FastMath;
+
+/**
+ * Precomputed plan for fast Fourier transforms of a fixed length.
+ * <p>
+ * A plan computes once the tables needed to transform signals of its
+ * length, and then transforms any number of such signals. Signals are
+ * stored as split real and imaginary {@code double[]} arrays and are
+ * transformed in place. Several signals can be stored one after the
+ * other in the same arrays and transformed in one call, which is
+ * convenient for batch processing.
+ * </p>
+ * <p>
+ * When the length is a power of two, the plan uses the same radix-2
+ * algorithm as {@link
+ * FastFourierTransformer#transformInPlace(double[][], DftNormalization, TransformType)},
+ * with precomputed bit-reversal permutation and roots of unity, and
+ * transforming a signal does not allocate any memory. As the roots of
+ * unity are computed directly rather than by recurrence, the results may
+ * differ from those of {@link FastFourierTransformer} by a few ulps.
+ * </p>
+ * <p>
+ * Other lengths are handled by Bluestein's algorithm, which expresses the
+ * transform as a circular convolution of length the smallest power of two
+ * {@code m >= 2n - 1}, computed using power of two transforms. This is
+ * about three times slower than a power of two transform of length
+ * {@code m}, and each call allocates two working arrays of length
+ * {@code m}, but it computes the exact transform of the signal, without
+ * zero padding.
+ * </p>
+ * <p>
+ * Instances of this class are immutable, and can therefore be shared
+ * between threads.
+ * </p>
+ *
+ * @see FastFourierTransformer#createPlan(int)
+ * @see RealFastFourierTransformPlan
+ * @since 4.0
+ */
+public class FastFourierTransformPlan {
+
+    /** Length of the signals. */
+    private final int n;
+
+    /** Normalization to apply to transformed data. */
+    private final DftNormalization normalization;
+
+    /** Pairs of indices to swap for bit-reversal permutation (power of two lengths only). */
+    private final int[] swaps;
+
+    /** Real parts of {@code exp(-2 i pi k / n)} for {@code 0 <= k < n / 2} (power of two lengths only). */
+    private final double[] cos;
+
+    /** Imaginary parts of {@code exp(-2 i pi k / n)} for {@code 0 <= k < n / 2} (power of two lengths only). */
+    private final double[] sin;
+
+    /** Power of two plan for Bluestein convolution (other lengths only). */
+    private final FastFourierTransformPlan convolution;
+
+    /** Real parts of the chirp {@code exp(-i pi k^2 / n)} (other lengths only). */
+    private final double[] chirpR;
+
+    /** Imaginary parts of the chirp {@code exp(-i pi k^2 / n)} (other lengths only). */
+    private final double[] chirpI;
+
+    /** Real parts of the scaled transform of the convolution kernel (other lengths only). */
+    private final double[] kernelR;
+
+    /** Imaginary parts of the scaled transform of the convolution kernel (other lengths only). */
+    private final double[] kernelI;
+
+    /**
+     * Build a plan for signals of a fixed length.
+     *
+     * @param n length of the signals
+     * @param normalization the type of normalization to be applied to the
+     * transformed data
+     * @throws NotStrictlyPositiveException if {@code n <= 0}
+     */
+    public FastFourierTransformPlan(final int n, final DftNormalization normalization)
+        throws NotStrictlyPositiveException {
+
+        if (n <= 0) {
+            throw new NotStrictlyPositiveException(n);
+        }
+        this.n             = n;
+        this.normalization = normalization;
+
+        if (ArithmeticUtils.isPowerOfTwo(n)) {
+
+            // bit-reversal permutation
+            int count = 0;
+            final int[] pairs = new int[n];
+            final int halfOfN = n >> 1;
+            int j = 0;
+            for (int i = 0; i < n; i++) {
+                if (i < j) {
+                    pairs[count++] = i;
+                    pairs[count++] = j;
+                }
+                int k = halfOfN;
+                while (k <= j && k > 0) {
+                    j -= k;
+                    k >>= 1;
+                }
+                j += k;
+            }
+            swaps = new int[count];
+            System.arraycopy(pairs, 0, swaps, 0, count);
+
+            // roots of unity
+            cos = new double[halfOfN];
+            sin = new double[halfOfN];
+            for (int k = 0; k < halfOfN; ++k) {
+                final double theta = 2 * FastMath.PI * k / n;
+                cos[k] = FastMath.cos(theta);
+                sin[k] = -FastMath.sin(theta);
+            }
+
+            convolution = null;
+            chirpR      = null;
+            chirpI      = null;
+            kernelR     = null;
+            kernelI     = null;
+
+        } else {
+
+            swaps = null;
+            cos   = null;
+            sin   = null;
+
+            int m = 1;
+            while (m < 2 * n - 1) {
+                m <<= 1;
+            }
+            convolution = new FastFourierTransformPlan(m, DftNormalization.STANDARD);
+
+            // chirp, reducing k^2 modulo 2n to preserve accuracy of the angle
+            chirpR = new double[n];
+            chirpI = new double[n];
+            final long twoN = 2l * n;
+            for (int k = 0; k < n; ++k) {
+                final double theta = FastMath.PI * ((((long) k) * k) % twoN) / n;
+                chirpR[k] =  FastMath.cos(theta);
+                chirpI[k] = -FastMath.sin(theta);
+            }
+
+            // kernel b[k] = conj(chirp[|k|]), wrapped around, transformed
+            // and scaled so the inverse transform needs no normalization
+            kernelR = new double[m];
+            kernelI = new double[m];
+            kernelR[0] =  chirpR[0];
+            kernelI[0] = -chirpI[0];
+            for (int k = 1; k < n; ++k) {
+                kernelR[k]     =  chirpR[k];
+                kernelI[k]     = -chirpI[k];
+                kernelR[m - k] =  chirpR[k];
+                kernelI[m - k] = -chirpI[k];
+            }
+            convolution.transformUnnormalized(kernelR, kernelI, 0, TransformType.FORWARD);
+            final double scale = 1.0 / m;
+            for (int k = 0; k < m; ++k) {
+                kernelR[k] *= scale;
+                kernelI[k] *= scale;
+            }
+
+        }
+
+    }
+
+    /**
+     * Get the length of the signals transformed by this plan.
+     *
+     * @return length of the signals
+     */
+    public int getLength() {
+        return n;
+    }
+
+    /**
+     * Get the normalization applied to transformed data.
+     *
+     * @return normalization applied to transformed data
+     */
+    public DftNormalization getNormalization() {
+        return normalization;
+    }
+
+    /**
+     * Transform in place one signal.
+     *
+     * @param dataR real parts of the signal
+     * @param dataI imaginary parts of the signal
+     * @param type the type of transform (forward, inverse) to be performed
+     * @throws DimensionMismatchException if the arrays lengths are not
+     * equal to the plan length
+     */
+    public void transform(final double[] dataR, final double[] dataI, final TransformType type)
+        throws DimensionMismatchException {
+        if (dataR.length != n) {
+            throw new DimensionMismatchException(dataR.length, n);
+        }
+        if (dataI.length != n) {
+            throw new DimensionMismatchException(dataI.length, n);
+        }
+        transformSignal(dataR, dataI, 0, type);
+    }
+
+    /**
+     * Transform in place a batch of signals stored one after the other.
+     * <p>
+     * Signal {@code s} (with {@code 0 <= s < count}) occupies the indices
+     * {@code offset + s * n} to {@code offset + (s + 1) * n - 1} in
+     * both arrays, {@code n} being the {@link #getLength() plan length}.
+     * </p>
+     *
+     * @param dataR real parts of the signals
+     * @param dataI imaginary parts of the signals
+     * @param offset index of the first element of the first signal
+     * @param count number of signals to transform
+     * @param type the type of transform (forward, inverse) to be performed
+     * @throws DimensionMismatchException if the arrays do not have the same length
+     * @throws NotPositiveException if {@code offset} or {@code count} is negative
+     * @throws NumberIsTooLargeException if the signals extend past the end of the arrays
+     */
+    public void transform(final double[] dataR, final double[] dataI,
+                          final int offset, final int count, final TransformType type)
+        throws DimensionMismatchException, NotPositiveException, NumberIsTooLargeException {
+        if (dataR.length != dataI.length) {
+            throw new DimensionMismatchException(dataI.length, dataR.length);
+        }
+        if (offset < 0) {
+            throw new NotPositiveException(offset);
+        }
+        if (count < 0) {
+            throw new NotPositiveException(count);
+        }
+        final long end = offset + ((long) count) * n;
+        if (end > dataR.length) {
+            throw new NumberIsTooLargeException(end, dataR.length, true);
+        }
+        for (int s = 0; s < count; ++s) {
+            transformSignal(dataR, dataI, offset + s * n, type);
+        }
+    }
+
+    /**
+     * Transform in place a batch of signals stored in separate arrays.
+     *
+     * @param dataR real parts of the signals, one row per signal
+     * @param dataI imaginary parts of the signals, one row per signal
+     * @param type the type of transform (forward, inverse) to be performed
+     * @throws DimensionMismatchException if the number of real and imaginary
+     * rows differ or if some row length is not equal to the plan length
+     */
+    public void transform(final double[][] dataR, final double[][] dataI, final TransformType type)
+        throws DimensionMismatchException {
+        if (dataR.length != dataI.length) {
+            throw new DimensionMismatchException(dataI.length, dataR.length);
+        }
+        for (int s = 0; s < dataR.length; ++s) {
+            transform(dataR[s], dataI[s], type);
+        }
+    }
+
+    /**
+     * Transform in place one signal, without checking arguments.
+     *
+     * @param dataR real parts of the signal
+     * @param dataI imaginary parts of the signal
+     * @param offset index of the first element of the signal
+     * @param type the type of transform (forward, inverse) to be performed
+     */
+    private void transformSignal(final double[] dataR, final double[] dataI,
+                                 final int offset, final TransformType type) {
+        transformUnnormalized(dataR, dataI, offset, type);
+        normalize(dataR, dataI, offset, n, normalization, n, type);
+    }
+
+    /**
+     * Transform in place one signal, without checking arguments and
+     * without normalization.
+     *
+     * @param dataR real parts of the signal
+     * @param dataI imaginary parts of the signal
+     * @param offset index of the first element of the signal
+     * @param type the type of transform (forward, inverse) to be performed
+     */
+    void transformUnnormalized(final double[] dataR, final double[] dataI,
+                               final int offset, final TransformType type) {
+        if (convolution == null) {
+            radix2(dataR, dataI, offset, type);
+        } else {
+            bluestein(dataR, dataI, offset, type);
+        }
+    }
+
+    /**
+     * Transform in place one signal whose length is a power of two, without
+     * normalization.
+     *
+     * @param dataR real parts of the signal
+     * @param dataI imaginary parts of the signal
+     * @param offset index of the first element of the signal
+     * @param type the type of transform (forward, inverse) to be performed
+     */
+    private void radix2(final double[] dataR, final double[] dataI,
+                        final int offset, final TransformType type) {
+
+        // sign of the imaginary part of the roots of unity
+        final double sign = (type == TransformType.INVERSE) ? -1.0 : 1.0;
+
+        if (n == 1) {
+            return;
+        } else if (n == 2) {
+            final int i1 = offset + 1;
+            final double srcR0 = dataR[offset];
+            final double srcI0 = dataI[offset];
+            final double srcR1 = dataR[i1];
+            final double srcI1 = dataI[i1];
+            dataR[offset] = srcR0 + srcR1;
+            dataI[offset] = srcI0 + srcI1;
+            dataR[i1]     = srcR0 - srcR1;
+            dataI[i1]     = srcI0 - srcI1;
+            return;
+        }
+
+        // bit-reversal permutation
+        for (int p = 0; p < swaps.length; p += 2) {
+            final int i = offset + swaps[p];
+            final int j = offset + swaps[p + 1];
+            double temp = dataR[i];
+            dataR[i] = dataR[j];
+            dataR[j] = temp;
+            temp = dataI[i];
+            dataI[i] = dataI[j];
+            dataI[j] = temp;
+        }
+
+        // 4-term DFTs (the two first radix-2 stages need no multiplication)
+        final int end = offset + n;
+        for (int i0 = offset; i0 < end; i0 += 4) {
+            final int i1 = i0 + 1;
+            final int i2 = i0 + 2;
+            final int i3 = i0 + 3;
+
+            final double srcR0 = dataR[i0];
+            final double srcI0 = dataI[i0];
+            final double srcR1 = dataR[i2];
+            final double srcI1 = dataI[i2];
+            final double srcR2 = dataR[i1];
+            final double srcI2 = dataI[i1];
+            final double srcR3 = dataR[i3];
+            final double srcI3 = dataI[i3];
+
+            final double aR = srcR0 - srcR2;
+            final double aI = srcI0 - srcI2;
+            final double dR = sign * (srcI1 - srcI3);
+            final double dI = sign * (srcR3 - srcR1);
+
+            // X_0 = x_0 + x_1 + x_2 + x_3
+            dataR[i0] = srcR0 + srcR1 + srcR2 + srcR3;
+            dataI[i0] = srcI0 + srcI1 + srcI2 + srcI3;
+            // X_1 = x_0 - x_2 -/+ j * (x_1 - x_3)
+            dataR[i1] = aR + dR;
+            dataI[i1] = aI + dI;
+            // X_2 = x_0 - x_1 + x_2 - x_3
+            dataR[i2] = srcR0 - srcR1 + srcR2 - srcR3;
+            dataI[i2] = srcI0 - srcI1 + srcI2 - srcI3;
+            // X_3 = x_0 - x_2 +/- j * (x_1 - x_3)
+            dataR[i3] = aR - dR;
+            dataI[i3] = aI - dI;
+        }
+
+        // remaining radix-2 stages, using the precomputed roots of unity
+        for (int lastN0 = 4; lastN0 < n; lastN0 <<= 1) {
+            final int n0     = lastN0 << 1;
+            final int stride = n / n0;
+            for (int evenStart = offset; evenStart < end; evenStart += n0) {
+                final int oddStart = evenStart + lastN0;
+                for (int r = 0, k = 0; r < lastN0; ++r, k += stride) {
+                    final int    e   = evenStart + r;
+                    final int    o   = oddStart  + r;
+                    final double wR  = cos[k];
+                    final double wI  = sign * sin[k];
+                    final double grR = dataR[e];
+                    final double grI = dataI[e];
+                    final double hrR = dataR[o];
+                    final double hrI = dataI[o];
+                    final double tR  = wR * hrR - wI * hrI;
+                    final double tI  = wR * hrI + wI * hrR;
+                    dataR[e] = grR + tR;
+                    dataI[e] = grI + tI;
+                    dataR[o] = grR - tR;
+                    dataI[o] = grI - tI;
+                }
+            }
+        }
+
+    }
+
+    /**
+     * Transform in place one signal using Bluestein's algorithm, without
+     * normalization.
+     *
+     * @param dataR real parts of the signal
+     * @param dataI imaginary parts of the signal
+     * @param offset index of the first element of the signal
+     * @param type the type of transform (forward, inverse) to be performed
+     */
+    private void bluestein(final double[] dataR, final double[] dataI,
+                           final int offset, final TransformType type) {
+
+        // the inverse transform is the conjugate of the forward transform of the conjugate
+        final double sign = (type == TransformType.INVERSE) ? -1.0 : 1.0;
+
+        // a[k] = x[k] chirp[k], zero padded
+        final int m = convolution.getLength();
+        final double[] aR = new double[m];
+        final double[] aI = new double[m];
+        for (int k = 0; k < n; ++k) {
+            final double xR = dataR[offset + k];
+            final double xI = sign * dataI[offset + k];
+            aR[k] = xR * chirpR[k] - xI * chirpI[k];
+            aI[k] = xR * chirpI[k] + xI * chirpR[k];
+        }
+
+        // circular convolution with the kernel
+        convolution.transformUnnormalized(aR, aI, 0, TransformType.FORWARD);
+        for (int k = 0; k < m; ++k) {
+            final double pR = aR[k] * kernelR[k] - aI[k] * kernelI[k];
+            final double pI = aR[k] * kernelI[k] + aI[k] * kernelR[k];
+            aR[k] = pR;
+            aI[k] = pI;
+        }
+        convolution.transformUnnormalized(aR, aI, 0, TransformType.INVERSE);
+
+        // X[k] = chirp[k] (a * b)[k]
+        for (int k = 0; k < n; ++k) {
+            dataR[offset + k] = aR[k] * chirpR[k] - aI[k] * chirpI[k];
+            dataI[offset + k] = sign * (aR[k] * chirpI[k] + aI[k] * chirpR[k]);
+        }
+
+    }
+
+    /**
+     * Applies the proper normalization to one transformed signal.
+     *
+     * @param dataR real parts of the signal
+     * @param dataI imaginary parts of the signal
+     * @param offset index of the first element of the signal
+     * @param length number of elements to normalize
+     * @param normalization the normalization to be applied
+     * @param n length of the transform
+     * @param type the type of transform (forward, inverse) which resulted in the specified data
+     */
+    static void normalize(final double[] dataR, final double[] dataI,
+                          final int offset, final int length,
+                          final DftNormalization normalization, final int n,
+                          final TransformType type) {
+        final double scaleFactor;
+        switch (normalization) {
+            case STANDARD:
+                if (type != TransformType.INVERSE) {
+                    return;
+                }
+                scaleFactor = 1.0 / n;
+                break;
+            case UNITARY:
+                scaleFactor = 1.0 / FastMath.sqrt(n);
+                break;
+            default:
+                // this should never happen
+                throw new MathIllegalStateException();
+        }
+        final int end = offset + length;
+        for (int i = offset; i < end; i++) {
+            dataR[i] *= scaleFactor;
+            dataI[i] *= scaleFactor;
+        }
+    }
+
+}
@@ -358,6 +358,42 @@ public class FastFourierTransformer implements Serializable {
         normalizeTransformedData(dataRI, normalization, type);
     }
 
+    /**
+     * Creates a reusable plan for transforming many signals of the same length,
+     * using the normalization of this transformer.
+     * <p>
+     * Contrary to the other methods of this class, plans are not restricted
+     * to power of two lengths.
+     * </p>
+     *
+     * @param n the length of the signals
+     * @return a plan for signals of length {@code n}
+     * @throws org.apache.commons.math4.exception.NotStrictlyPositiveException
+     * if {@code n <= 0}
+     * @since 4.0
+     */
+    public FastFourierTransformPlan createPlan(final int n) {
+        return new FastFourierTransformPlan(n, normalization);
+    }
+
+    /**
+     * Creates a reusable plan for transforming many real signals of the same
+     * length, using the normalization of this transformer.
+     * <p>
+     * Contrary to the other methods of this class, plans are not restricted
+     * to power of two lengths.
+     * </p>
+     *
+     * @param n the length of the signals
+     * @return a plan for real signals of length {@code n}
+     * @throws org.apache.commons.math4.exception.NotStrictlyPositiveException
+     * if {@code n <= 0}
+     * @since 4.0
+     */
+    public RealFastFourierTransformPlan createRealPlan(final int n) {
+        return new RealFastFourierTransformPlan(n, normalization);
+    }
+
     /**
      * Returns the (forward, inverse) transform of the specified real data set.
      *
@@ -430,6 +466,7 @@ public class FastFourierTransformer implements Serializable {
      * @param type the type of transform (forward, inverse) to be performed
      * @return transform of {@code mdca} as a Multi-Dimensional Complex Array, i.e. {@code Complex[][][][]}
      * @throws IllegalArgumentException if any dimension is not a power of two
+     * @see MultidimensionalFastFourierTransformPlan
      * @deprecated see MATH-736
      */
     @Deprecated
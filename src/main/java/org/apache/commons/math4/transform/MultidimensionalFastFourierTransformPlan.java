@@ -0,0 +1,375 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.math4.transform;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import org.apache.commons.math4.exception.DimensionMismatchException;
+import org.apache.commons.math4.exception.NoDataException;
+import org.apache.commons.math4.exception.NotStrictlyPositiveException;
+import org.apache.commons.math4.exception.NumberIsTooLargeException;
+import org.apache.commons.math4.util.FastMath;
+
+/**
+ * Precomputed plan for multi-dimensional fast Fourier transforms.
+ * <p>
+ * The data is stored in flat row-major split real and imaginary {@code
+ * double[]} arrays: for a two-dimensional transform with dimensions
+ * {@code {rows, columns}}, element {@code (r, c)} is stored at index
+ * {@code r * columns + c}, and similarly for higher dimensions, the last
+ * index varying fastest. The transform is computed in place by applying
+ * one-dimensional {@link FastFourierTransformPlan plans} along each
+ * dimension in turn. Lines along the last dimension are contiguous and are
+ * transformed directly; lines along the other dimensions are copied by
+ * blocks of adjacent lines into small work buffers, so that memory is
+ * accessed sequentially.
+ * </p>
+ * <p>
+ * The work buffers are allocated by each thread (the calling thread, or the
+ * pool workers) the first time it transforms strided lines with this plan,
+ * and are then reused by all the transforms it performs with the same plan.
+ * A thread therefore keeps two buffers of {@code min(16, stride) * n} doubles
+ * (for the largest such product over the dimensions other than the last one),
+ * until the plan is no longer referenced. Repeated transforms do not allocate
+ * memory.
+ * </p>
+ * <p>
+ * If a {@link ForkJoinPool} is provided, the lines along each dimension
+ * are transformed in parallel in the pool. The results do not depend on
+ * the use of a pool.
+ * </p>
+ * <p>
+ * Instances of this class are immutable (apart from the per-thread work
+ * buffers), and can therefore be shared between threads.
+ * </p>
+ *
+ * @see FastFourierTransformer#mdfft(Object, TransformType)
+ * @since 4.0
+ */
+public class MultidimensionalFastFourierTransformPlan {
+
+    /** Minimum number of elements transformed by a parallel task. */
+    private static final int MIN_ELEMENTS_PER_TASK = 1 << 14;
+
+    /** Number of parallel tasks per pool thread, for load balancing. */
+    private static final int TASKS_PER_THREAD = 4;
+
+    /** Maximum number of adjacent strided lines copied together. */
+    private static final int BLOCK_SIZE = 16;
+
+    /** Dimensions. */
+    private final int[] dimensions;
+
+    /** Distance between consecutive elements along each dimension. */
+    private final int[] strides;
+
+    /** Total number of elements. */
+    private final int size;
+
+    /** One-dimensional plans for each dimension. */
+    private final FastFourierTransformPlan[] plans;
+
+    /** Normalization to apply to transformed data. */
+    private final DftNormalization normalization;
+
+    /** Pool for parallel transforms (may be null). */
+    private final ForkJoinPool pool;
+
+    /** Size of each work buffer. */
+    private final int workSize;
+
+    /** Per-thread work buffers (real and imaginary parts) for strided lines. */
+    private final ThreadLocal<double[][]> work;
+
+    /**
+     * Build a plan for sequential transforms.
+     *
+     * @param dimensions size of the data along each dimension
+     * @param normalization the type of normalization to be applied to the
+     * transformed data
+     * @throws NoDataException if {@code dimensions} is empty
+     * @throws NotStrictlyPositiveException if some dimension is not strictly positive
+     * @throws NumberIsTooLargeException if the total number of elements
+     * exceeds {@code Integer.MAX_VALUE}
+     */
+    public MultidimensionalFastFourierTransformPlan(final int[] dimensions,
+                                                    final DftNormalization normalization)
+        throws NoDataException, NotStrictlyPositiveException, NumberIsTooLargeException {
+        this(dimensions, normalization, null);
+    }
+
+    /**
+     * Build a plan for parallel transforms.
+     *
+     * @param dimensions size of the data along each dimension
+     * @param normalization the type of normalization to be applied to the
+     * transformed data
+     * @param pool pool in which lines are transformed in parallel
+     * (if null, transforms are sequential)
+     * @throws NoDataException if {@code dimensions} is empty
+     * @throws NotStrictlyPositiveException if some dimension is not strictly positive
+     * @throws NumberIsTooLargeException if the total number of elements
+     * exceeds {@code Integer.MAX_VALUE}
+     */
+    public MultidimensionalFastFourierTransformPlan(final int[] dimensions,
+                                                    final DftNormalization normalization,
+                                                    final ForkJoinPool pool)
+        throws NoDataException, NotStrictlyPositiveException, NumberIsTooLargeException {
+
+        if (dimensions.length == 0) {
+            throw new NoDataException();
+        }
+
+        this.dimensions    = dimensions.clone();
+        this.strides       = new int[dimensions.length];
+        this.plans         = new FastFourierTransformPlan[dimensions.length];
+        this.normalization = normalization;
+        this.pool          = pool;
+
+        long total = 1;
+        for (int d = dimensions.length - 1; d >= 0; --d) {
+            if (dimensions[d] <= 0) {
+                throw new NotStrictlyPositiveException(dimensions[d]);
+            }
+            strides[d] = (int) total;
+            total *= dimensions[d];
+            if (total > Integer.MAX_VALUE) {
+                throw new NumberIsTooLargeException(total, Integer.MAX_VALUE, true);
+            }
+
+            // share plans between dimensions of the same size
+            for (int d2 = d + 1; d2 < dimensions.length && plans[d] == null; ++d2) {
+                if (dimensions[d2] == dimensions[d]) {
+                    plans[d] = plans[d2];
+                }
+            }
+            if (plans[d] == null) {
+                plans[d] = new FastFourierTransformPlan(dimensions[d], normalization);
+            }
+        }
+        size = (int) total;
+
+        // a block of strided lines never exceeds the data, so this cannot overflow
+        int maxWork = 0;
+        for (int d = 0; d < dimensions.length - 1; ++d) {
+            maxWork = FastMath.max(maxWork, FastMath.min(BLOCK_SIZE, strides[d]) * dimensions[d]);
+        }
+        workSize = maxWork;
+        work     = new ThreadLocal<double[][]>() {
+            /** {@inheritDoc} */
+            @Override
+            protected double[][] initialValue() {
+                return new double[][] { new double[workSize], new double[workSize] };
+            }
+        };
+
+    }
+
+    /**
+     * Get the dimensions of the data transformed by this plan.
+     *
+     * @return size of the data along each dimension
+     */
+    public int[] getDimensions() {
+        return dimensions.clone();
+    }
+
+    /**
+     * Get the normalization applied to transformed data.
+     *
+     * @return normalization applied to transformed data
+     */
+    public DftNormalization getNormalization() {
+        return normalization;
+    }
+
+    /**
+     * Transform in place multi-dimensional data.
+     * <p>
+     * Apart from the first call in each thread, which allocates the work
+     * buffers, this method does not allocate memory (except for the
+     * fork-join tasks, if the plan uses a pool).
+     * </p>
+     *
+     * @param dataR real parts of the data, in row-major order
+     * @param dataI imaginary parts of the data, in row-major order
+     * @param type the type of transform (forward, inverse) to be performed
+     * @throws DimensionMismatchException if the arrays lengths are not equal
+     * to the product of the dimensions
+     */
+    public void transform(final double[] dataR, final double[] dataI, final TransformType type)
+        throws DimensionMismatchException {
+
+        if (dataR.length != size) {
+            throw new DimensionMismatchException(dataR.length, size);
+        }
+        if (dataI.length != size) {
+            throw new DimensionMismatchException(dataI.length, size);
+        }
+
+        for (int d = 0; d < dimensions.length; ++d) {
+            if (dimensions[d] == 1) {
+                // nothing to do along this dimension
+                continue;
+            }
+            final int lines = size / dimensions[d];
+            if (pool == null) {
+                transformLines(dataR, dataI, d, 0, lines, type);
+            } else {
+                final int grain = FastMath.max(MIN_ELEMENTS_PER_TASK / dimensions[d],
+                                               lines / (TASKS_PER_THREAD * pool.getParallelism()));
+                pool.invoke(new LinesTask(dataR, dataI, d, 0, lines, FastMath.max(1, grain), type));
+            }
+        }
+
+        FastFourierTransformPlan.normalize(dataR, dataI, 0, size, normalization, size, type);
+
+    }
+
+    /**
+     * Transform without normalization a range of lines along one dimension.
+     * <p>
+     * Lines along dimension {@code d} are numbered in row-major order of the
+     * other indices, so line {@code l} starts at index
+     * {@code (l / stride) * n * stride + l % stride}, where {@code n} is the
+     * size and {@code stride} the stride of the dimension.
+     * </p>
+     *
+     * @param dataR real parts of the data
+     * @param dataI imaginary parts of the data
+     * @param d dimension along which lines are transformed
+     * @param start index of the first line to transform
+     * @param end index after the last line to transform
+     * @param type the type of transform (forward, inverse) to be performed
+     */
+    private void transformLines(final double[] dataR, final double[] dataI, final int d,
+                                final int start, final int end, final TransformType type) {
+
+        final FastFourierTransformPlan plan = plans[d];
+        final int n      = dimensions[d];
+        final int stride = strides[d];
+
+        if (stride == 1) {
+            // contiguous lines
+            for (int l = start; l < end; ++l) {
+                plan.transformUnnormalized(dataR, dataI, l * n, type);
+            }
+            return;
+        }
+
+        // strided lines, copied in blocks of adjacent lines
+        final int blockSize = FastMath.min(BLOCK_SIZE, FastMath.min(stride, end - start));
+        final double[][] buffers = work.get();
+        final double[] workR = buffers[0];
+        final double[] workI = buffers[1];
+        int l = start;
+        while (l < end) {
+            final int outer = l / stride;
+            final int inner = l - outer * stride;
+            final int count = FastMath.min(blockSize, FastMath.min(end - l, stride - inner));
+            final int base  = outer * n * stride + inner;
+
+            // gather
+            for (int j = 0; j < n; ++j) {
+                final int src = base + j * stride;
+                for (int b = 0; b < count; ++b) {
+                    workR[b * n + j] = dataR[src + b];
+                    workI[b * n + j] = dataI[src + b];
+                }
+            }
+
+            for (int b = 0; b < count; ++b) {
+                plan.transformUnnormalized(workR, workI, b * n, type);
+            }
+
+            // scatter
+            for (int j = 0; j < n; ++j) {
+                final int dst = base + j * stride;
+                for (int b = 0; b < count; ++b) {
+                    dataR[dst + b] = workR[b * n + j];
+                    dataI[dst + b] = workI[b * n + j];
+                }
+            }
+
+            l += count;
+        }
+
+    }
+
+    /** Fork-join task transforming a range of lines along one dimension. */
+    private class LinesTask extends RecursiveAction {
+
+        /** Serializable version identifier. */
+        private static final long serialVersionUID = 20161018L;
+
+        /** Real parts of the data. */
+        private final double[] dataR;
+
+        /** Imaginary parts of the data. */
+        private final double[] dataI;
+
+        /** Dimension along which lines are transformed. */
+        private final int d;
+
+        /** Index of the first line to transform. */
+        private final int start;
+
+        /** Index after the last line to transform. */
+        private final int end;
+
+        /** Maximum number of lines transformed without splitting. */
+        private final int grain;
+
+        /** Type of transform. */
+        private final TransformType type;
+
+        /** Simple constructor.
+         * @param dataR real parts of the data
+         * @param dataI imaginary parts of the data
+         * @param d dimension along which lines are transformed
+         * @param start index of the first line to transform
+         * @param end index after the last line to transform
+         * @param grain maximum number of lines transformed without splitting
+         * @param type the type of transform (forward, inverse) to be performed
+         */
+        LinesTask(final double[] dataR, final double[] dataI, final int d,
+                  final int start, final int end, final int grain, final TransformType type) {
+            this.dataR = dataR;
+            this.dataI = dataI;
+            this.d     = d;
+            this.start = start;
+            this.end   = end;
+            this.grain = grain;
+            this.type  = type;
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        protected void compute() {
+            if (end - start <= grain) {
+                transformLines(dataR, dataI, d, start, end, type);
+            } else {
+                final int middle = (start + end) >>> 1;
+                invokeAll(new LinesTask(dataR, dataI, d, start, middle, grain, type),
+                          new LinesTask(dataR, dataI, d, middle, end, grain, type));
+            }
+        }
+
+    }
+
+}
@@ -0,0 +1,217 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.math4.transform;
+
+import org.apache.commons.math4.exception.DimensionMismatchException;
+import org.apache.commons.math4.exception.NotStrictlyPositiveException;
+import org.apache.commons.math4.util.FastMath;
+
+/**
+ * Precomputed plan for fast Fourier transforms of real signals of a fixed length.
+ * <p>
+ * The transform of a real signal {@code x} of length {@code n} is Hermitian:
+ * {@code X[n - k] = conj(X[k])}, so only its {@code n / 2 + 1} first elements
+ * (using integer division) are computed. When {@code n} is even, the
+ * computation uses the classical half-length trick: the even and odd
+ * samples are packed as the real and imaginary parts of a complex signal of
+ * length {@code n / 2}, which is transformed using a {@link
+ * FastFourierTransformPlan}, and the two interleaved transforms are then
+ * separated and combined. This is about twice as fast as transforming the
+ * signal as a complex signal with zero imaginary parts. When {@code n} is
+ * a power of two, transforming a signal does not allocate any memory.
+ * </p>
+ * <p>
+ * Odd lengths are supported by transforming a complex copy of the signal,
+ * so they do not benefit from the half-length trick.
+ * </p>
+ * <p>
+ * Instances of this class are immutable, and can therefore be shared
+ * between threads.
+ * </p>
+ *
+ * @see FastFourierTransformer#createRealPlan(int)
+ * @since 4.0
+ */
+public class RealFastFourierTransformPlan {
+
+    /** Length of the signals. */
+    private final int n;
+
+    /** Normalization to apply to transformed data. */
+    private final DftNormalization normalization;
+
+    /** Complex plan (of length {@code n / 2} if {@code n} is even, {@code n} otherwise). */
+    private final FastFourierTransformPlan complexPlan;
+
+    /** Real parts of {@code exp(-2 i pi k / n)} for {@code 0 <= k <= n / 4} (even lengths only). */
+    private final double[] cos;
+
+    /** Imaginary parts of {@code exp(-2 i pi k / n)} for {@code 0 <= k <= n / 4} (even lengths only). */
+    private final double[] sin;
+
+    /**
+     * Build a plan for real signals of a fixed length.
+     *
+     * @param n length of the signals
+     * @param normalization the type of normalization to be applied to the
+     * transformed data
+     * @throws NotStrictlyPositiveException if {@code n <= 0}
+     */
+    public RealFastFourierTransformPlan(final int n, final DftNormalization normalization)
+        throws NotStrictlyPositiveException {
+
+        if (n <= 0) {
+            throw new NotStrictlyPositiveException(n);
+        }
+        this.n             = n;
+        this.normalization = normalization;
+
+        if ((n & 0x1) == 0) {
+            final int h = n / 2;
+            complexPlan = new FastFourierTransformPlan(h, normalization);
+            cos = new double[h / 2 + 1];
+            sin = new double[h / 2 + 1];
+            for (int k = 0; k < cos.length; ++k) {
+                final double theta = 2 * FastMath.PI * k / n;
+                cos[k] =  FastMath.cos(theta);
+                sin[k] = -FastMath.sin(theta);
+            }
+        } else {
+            complexPlan = new FastFourierTransformPlan(n, normalization);
+            cos         = null;
+            sin         = null;
+        }
+
+    }
+
+    /**
+     * Get the length of the signals transformed by this plan.
+     *
+     * @return length of the signals
+     */
+    public int getLength() {
+        return n;
+    }
+
+    /**
+     * Get the number of elements of the transformed signals.
+     *
+     * @return {@code n / 2 + 1}, where {@code n} is the {@link #getLength() signals length}
+     */
+    public int getTransformedLength() {
+        return n / 2 + 1;
+    }
+
+    /**
+     * Get the normalization applied to transformed data.
+     *
+     * @return normalization applied to transformed data
+     */
+    public DftNormalization getNormalization() {
+        return normalization;
+    }
+
+    /**
+     * Transform one real signal.
+     * <p>
+     * Only the {@link #getTransformedLength() n / 2 + 1} first elements
+     * of the transform are computed, the other ones being given by
+     * {@code X[n - k] = conj(X[k])}.
+     * </p>
+     *
+     * @param data real signal (not modified)
+     * @param transformedR array where to store the real parts of the transform
+     * @param transformedI array where to store the imaginary parts of the transform
+     * @param type the type of transform (forward, inverse) to be performed
+     * @throws DimensionMismatchException if {@code data} length is not equal
+     * to the plan length, or if the output arrays lengths are not equal to
+     * the transformed length
+     */
+    public void transform(final double[] data,
+                          final double[] transformedR, final double[] transformedI,
+                          final TransformType type)
+        throws DimensionMismatchException {
+
+        if (data.length != n) {
+            throw new DimensionMismatchException(data.length, n);
+        }
+        final int outLength = getTransformedLength();
+        if (transformedR.length != outLength) {
+            throw new DimensionMismatchException(transformedR.length, outLength);
+        }
+        if (transformedI.length != outLength) {
+            throw new DimensionMismatchException(transformedI.length, outLength);
+        }
+
+        if (cos == null) {
+            // odd length, use a full complex transform
+            final double[] workR = data.clone();
+            final double[] workI = new double[n];
+            complexPlan.transform(workR, workI, type);
+            System.arraycopy(workR, 0, transformedR, 0, outLength);
+            System.arraycopy(workI, 0, transformedI, 0, outLength);
+            return;
+        }
+
+        // pack even samples as real parts and odd samples as imaginary parts
+        final int h = n / 2;
+        for (int j = 0; j < h; ++j) {
+            transformedR[j] = data[2 * j];
+            transformedI[j] = data[2 * j + 1];
+        }
+        complexPlan.transformUnnormalized(transformedR, transformedI, 0, type);
+
+        // separate the transforms E and O of the even and odd samples,
+        // and combine them: X[k] = E[k] + w^k O[k], X[h - k] = conj(E[k] - w^k O[k])
+        final double sign = (type == TransformType.INVERSE) ? -1.0 : 1.0;
+        final double z0R  = transformedR[0];
+        final double z0I  = transformedI[0];
+        transformedR[0] = z0R + z0I;
+        transformedI[0] = 0;
+        transformedR[h] = z0R - z0I;
+        transformedI[h] = 0;
+        for (int k = 1; 2 * k <= h; ++k) {
+            final int    l   = h - k;
+            final double zkR = transformedR[k];
+            final double zkI = transformedI[k];
+            final double zlR = transformedR[l];
+            final double zlI = transformedI[l];
+
+            // E[k] = (Z[k] + conj(Z[h - k])) / 2
+            final double eR = 0.5 * (zkR + zlR);
+            final double eI = 0.5 * (zkI - zlI);
+            // O[k] = (Z[k] - conj(Z[h - k])) / 2i
+            final double oR = 0.5 * (zkI + zlI);
+            final double oI = 0.5 * (zlR - zkR);
+
+            // t = w^k O[k]
+            final double wR = cos[k];
+            final double wI = sign * sin[k];
+            final double tR = wR * oR - wI * oI;
+            final double tI = wR * oI + wI * oR;
+
+            transformedR[k] = eR + tR;
+            transformedI[k] = eI + tI;
+            transformedR[l] = eR - tR;
+            transformedI[l] = tI - eI;
+        }
+
+        FastFourierTransformPlan.normalize(transformedR, transformedI, 0, outLength, normalization, n, type);
+
+    }
+
+}
@@ -17,6 +17,8 @@
 
 package org.apache.commons.math4.distribution;
 
+import java.util.Arrays;
+
 import org.apache.commons.math4.distribution.ConstantRealDistribution;
 import org.apache.commons.math4.distribution.RealDistribution;
 import org.junit.Assert;
@@ -90,4 +92,18 @@ public class ConstantRealDistributionTest extends RealDistributionAbstractTest {
         }
 
     }
+
+    @Override
+    @Test
+    public void testBulkSampling() {
+        ConstantRealDistribution dist = new ConstantRealDistribution(0);
+        double[] sample = new double[12];
+        Arrays.fill(sample, Double.NaN);
+        dist.sample(sample, 1, 10);
+        Assert.assertTrue(Double.isNaN(sample[0]));
+        for (int i = 1; i <= 10; i++) {
+            Assert.assertEquals(0, sample[i], 0);
+        }
+        Assert.assertTrue(Double.isNaN(sample[11]));
+    }
 }
@@ -21,6 +21,7 @@ import static org.junit.Assert.assertEquals;
 import java.util.ArrayList;
 import java.util.List;
 
+import org.apache.commons.math4.TestUtils;
 import org.apache.commons.math4.distribution.EnumeratedDistribution;
 import org.apache.commons.math4.distribution.EnumeratedRealDistribution;
 import org.apache.commons.math4.exception.DimensionMismatchException;
@@ -28,6 +29,7 @@ import org.apache.commons.math4.exception.MathArithmeticException;
 import org.apache.commons.math4.exception.NotANumberException;
 import org.apache.commons.math4.exception.NotFiniteNumberException;
 import org.apache.commons.math4.exception.NotPositiveException;
+import org.apache.commons.math4.random.Well19937c;
 import org.apache.commons.math4.util.FastMath;
 import org.apache.commons.math4.util.Pair;
 import org.junit.Assert;
@@ -190,6 +192,34 @@ public class EnumeratedRealDistributionTest {
                 sumOfSquares / n - FastMath.pow(sum / n, 2), 1e-2);
     }
 
+    @Test
+    public void testAliasSampling() {
+        final List<Pair<String, Double>> pmf = new ArrayList<Pair<String, Double>>();
+        pmf.add(new Pair<String, Double>("a", 0.5));
+        pmf.add(new Pair<String, Double>("b", 0.0));
+        pmf.add(new Pair<String, Double>("c", 3.0));
+        pmf.add(new Pair<String, Double>("d", 1.5));
+        pmf.add(new Pair<String, Double>("e", 0.25));
+        final EnumeratedDistribution<String> distribution =
+                new EnumeratedDistribution<String>(new Well19937c(0x2e1b7f3c9a84d605l), pmf);
+        final String[] sample = new String[100002];
+        distribution.sample(sample, 1, 100000);
+        Assert.assertNull(sample[0]);
+        Assert.assertNull(sample[sample.length - 1]);
+        final String[] labels = { "a", "c", "d", "e" };
+        final double[] expected = { 9523.8095, 57142.857, 28571.429, 4761.9048 };
+        final long[] observed = new long[labels.length];
+        for (int i = 1; i <= 100000; i++) {
+            Assert.assertFalse("b".equals(sample[i]));
+            for (int j = 0; j < labels.length; j++) {
+                if (labels[j].equals(sample[i])) {
+                    observed[j]++;
+                }
+            }
+        }
+        TestUtils.assertChiSquareAccept(labels, expected, observed, 0.001);
+    }
+
     @Test
     public void testIssue942() {
         List<Pair<Object,Double>> list = new ArrayList<Pair<Object, Double>>();
@@ -18,6 +18,7 @@ package org.apache.commons.math4.distribution;
 
 import org.apache.commons.math4.distribution.ExponentialDistribution;
 import org.apache.commons.math4.exception.NotStrictlyPositiveException;
+import org.apache.commons.math4.random.Well19937c;
 import org.apache.commons.math4.util.FastMath;
 import org.apache.commons.math4.util.Precision;
 import org.junit.Assert;
@@ -132,4 +133,10 @@ public class ExponentialDistributionTest extends RealDistributionAbstractTest {
         Assert.assertEquals(dist.getNumericalMean(), 10.5d, tol);
         Assert.assertEquals(dist.getNumericalVariance(), 10.5d * 10.5d, tol);
     }
+
+    @Test
+    public void testZigguratSampling() {
+        checkBulkSamplingFit(new ExponentialDistribution(new Well19937c(0x18e3c4a92f0d6b75l), 3.0),
+                             200000, 200);
+    }
 }
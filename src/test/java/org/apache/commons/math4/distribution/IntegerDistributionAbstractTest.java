@@ -16,10 +16,13 @@
  */
 package org.apache.commons.math4.distribution;
 
+import java.util.Arrays;
+
 import org.apache.commons.math4.TestUtils;
 import org.apache.commons.math4.distribution.AbstractIntegerDistribution;
 import org.apache.commons.math4.distribution.IntegerDistribution;
 import org.apache.commons.math4.exception.MathIllegalArgumentException;
+import org.apache.commons.math4.exception.NumberIsTooLargeException;
 import org.apache.commons.math4.util.FastMath;
 import org.junit.After;
 import org.junit.Assert;
@@ -308,6 +311,44 @@ public abstract class IntegerDistributionAbstractTest {
         TestUtils.assertChiSquareAccept(densityPoints, expectedCounts, observedCounts, .001);
     }
 
+    /**
+     * Test bulk sampling into a sub-array
+     */
+    @Test
+    public void testBulkSampling() {
+        int[] densityPoints = makeDensityTestPoints();
+        double[] densityValues = makeDensityTestValues();
+        int sampleSize = 1000;
+        int length = TestUtils.eliminateZeroMassPoints(densityPoints, densityValues);
+        IntegerDistribution distribution = makeDistribution();
+        double[] expectedCounts = new double[length];
+        long[] observedCounts = new long[length];
+        for (int i = 0; i < length; i++) {
+            expectedCounts[i] = sampleSize * densityValues[i];
+        }
+        distribution.reseedRandomGenerator(1000); // Use fixed seed
+        int[] sample = new int[sampleSize + 20];
+        Arrays.fill(sample, Integer.MIN_VALUE);
+        distribution.sample(sample, 10, sampleSize);
+        for (int i = 0; i < sample.length; i++) {
+            if (i < 10 || i >= 10 + sampleSize) {
+                Assert.assertEquals(Integer.MIN_VALUE, sample[i]);
+            } else {
+                for (int j = 0; j < length; j++) {
+                    if (sample[i] == densityPoints[j]) {
+                        observedCounts[j]++;
+                    }
+                }
+            }
+        }
+        TestUtils.assertChiSquareAccept(densityPoints, expectedCounts, observedCounts, .001);
+    }
+
+    @Test(expected=NumberIsTooLargeException.class)
+    public void testBulkSamplingOutOfRange() {
+        makeDistribution().sample(new int[10], 5, 6);
+    }
+
     //------------------ Getters / Setters for test instance data -----------
     /**
      * @return Returns the cumulativeTestPoints.
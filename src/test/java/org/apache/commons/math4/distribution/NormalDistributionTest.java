@@ -19,6 +19,7 @@ package org.apache.commons.math4.distribution;
 
 import org.apache.commons.math4.distribution.NormalDistribution;
 import org.apache.commons.math4.exception.NotStrictlyPositiveException;
+import org.apache.commons.math4.random.Well19937c;
 import org.junit.Assert;
 import org.junit.Test;
 
@@ -213,4 +214,10 @@ public class NormalDistributionTest extends RealDistributionAbstractTest {
         Assert.assertEquals(dist.getNumericalMean(), -2000.9, tol);
         Assert.assertEquals(dist.getNumericalVariance(), 10.4 * 10.4, tol);
     }
+
+    @Test
+    public void testZigguratSampling() {
+        checkBulkSamplingFit(new NormalDistribution(new Well19937c(0x4b3a1e9d5f27c803l), 1.5, 0.5),
+                             200000, 200);
+    }
 }
@@ -18,6 +18,7 @@ package org.apache.commons.math4.distribution;
 
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
@@ -339,6 +340,58 @@ public abstract class RealDistributionAbstractTest {
         TestUtils.assertChiSquareAccept(expected, counts, 0.001);
     }
 
+    /**
+     * Test bulk sampling into a sub-array
+     */
+    @Test
+    public void testBulkSampling() {
+        final int sampleSize = 1000;
+        distribution.reseedRandomGenerator(1000); // Use fixed seed
+        final double[] sample = new double[sampleSize + 20];
+        Arrays.fill(sample, Double.NaN);
+        distribution.sample(sample, 10, sampleSize);
+        double[] quartiles = TestUtils.getDistributionQuartiles(distribution);
+        double[] expected = {250, 250, 250, 250};
+        long[] counts = new long[4];
+        for (int i = 0; i < sample.length; i++) {
+            if (i < 10 || i >= 10 + sampleSize) {
+                Assert.assertTrue(Double.isNaN(sample[i]));
+            } else {
+                TestUtils.updateCounts(sample[i], counts, quartiles);
+            }
+        }
+        TestUtils.assertChiSquareAccept(expected, counts, 0.001);
+    }
+
+    @Test(expected=NumberIsTooLargeException.class)
+    public void testBulkSamplingOutOfRange() {
+        distribution.sample(new double[10], 5, 6);
+    }
+
+    /**
+     * Check bulk sampling against equiprobable bins, including the tails.
+     * @param dist distribution to check
+     * @param sampleSize number of values to generate
+     * @param bins number of equiprobable bins
+     */
+    protected static void checkBulkSamplingFit(final RealDistribution dist,
+                                               final int sampleSize, final int bins) {
+        final double[] limits = new double[bins - 1];
+        for (int k = 0; k < limits.length; k++) {
+            limits[k] = dist.inverseCumulativeProbability((k + 1) / (double) bins);
+        }
+        final double[] sample = new double[sampleSize];
+        dist.sample(sample, 0, sampleSize);
+        final double[] expected = new double[bins];
+        Arrays.fill(expected, sampleSize / (double) bins);
+        final long[] counts = new long[bins];
+        for (final double x : sample) {
+            final int index = Arrays.binarySearch(limits, x);
+            ++counts[index < 0 ? -index - 1 : index];
+        }
+        TestUtils.assertChiSquareAccept(expected, counts, 0.001);
+    }
+
     /**
      * Verify that density integrals match the distribution.
      * The (filtered, sorted) cumulativeTestPoints array is used to source
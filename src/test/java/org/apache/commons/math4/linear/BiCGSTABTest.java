@@ -0,0 +1,107 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.math4.linear;
+
+import org.apache.commons.math4.exception.DimensionMismatchException;
+import org.apache.commons.math4.exception.MaxCountExceededException;
+import org.apache.commons.math4.util.FastMath;
+import org.apache.commons.math4.util.IterationEvent;
+import org.apache.commons.math4.util.IterationListener;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class BiCGSTABTest {
+
+    @Test(expected = NonSquareOperatorException.class)
+    public void testNonSquareOperator() {
+        new BiCGSTAB(100, 1.0e-10).solve(new Array2DRowRealMatrix(2, 3),
+                                         new ArrayRealVector(2));
+    }
+
+    @Test(expected = DimensionMismatchException.class)
+    public void testDimensionMismatchRightHandSide() {
+        new BiCGSTAB(100, 1.0e-10).solve(new Array2DRowRealMatrix(3, 3),
+                                         new ArrayRealVector(2));
+    }
+
+    @Test(expected = MaxCountExceededException.class)
+    public void testMaxIterations() {
+        final CompressedRowRealMatrix a = PreconditionerTestUtils.createConvectionDiffusion(20, 2.0);
+        new BiCGSTAB(5, 1.0e-10).solve(a, new ArrayRealVector(a.getRowDimension(), 1.0));
+    }
+
+    @Test
+    public void testNonSymmetric() {
+        final CompressedRowRealMatrix a = PreconditionerTestUtils.createConvectionDiffusion(20, 2.0);
+        final RealVector b = new ArrayRealVector(a.getRowDimension(), 1.0);
+        final BiCGSTAB solver = new BiCGSTAB(10000, 1.0e-10);
+        final RealVector x = solver.solve(a, b);
+        Assert.assertEquals(0.0, b.subtract(a.operate(x)).getNorm(), 1.0e-9 * b.getNorm());
+    }
+
+    @Test
+    public void testPreconditioned() {
+        final CompressedRowRealMatrix a = PreconditionerTestUtils.createConvectionDiffusion(20, 2.0);
+        final RealVector b = new ArrayRealVector(a.getRowDimension(), 1.0);
+        final BiCGSTAB bicgstab  = new BiCGSTAB(10000, 1.0e-10);
+        final BiCGSTAB pbicgstab = new BiCGSTAB(10000, 1.0e-10);
+        bicgstab.solve(a, b);
+        final RealVector x = pbicgstab.solve(a, new IncompleteLUPreconditioner(a), b);
+        Assert.assertTrue(pbicgstab.getIterationManager().getIterations() <
+                          bicgstab.getIterationManager().getIterations());
+        Assert.assertEquals(0.0, b.subtract(a.operate(x)).getNorm(), 1.0e-9 * b.getNorm());
+    }
+
+    @Test
+    public void testNormOfResidual() {
+        final CompressedRowRealMatrix a = PreconditionerTestUtils.createConvectionDiffusion(10, 1.0);
+        final RealVector b = new ArrayRealVector(a.getRowDimension(), 1.0);
+        final IterationListener listener = new IterationListener() {
+
+            private void doTestNormOfResidual(final IterationEvent e) {
+                final IterativeLinearSolverEvent evt = (IterativeLinearSolverEvent) e;
+                final RealVector r = evt.getRightHandSideVector().subtract(a.operate(evt.getSolution()));
+                final double rnorm = r.getNorm();
+                Assert.assertTrue(evt.providesResidual());
+                Assert.assertEquals(rnorm, evt.getNormOfResidual(),
+                                    FastMath.max(1.0e-5 * rnorm, 1.0e-10));
+                Assert.assertEquals(rnorm, evt.getResidual().getNorm(),
+                                    FastMath.max(1.0e-5 * rnorm, 1.0e-10));
+            }
+
+            public void initializationPerformed(final IterationEvent e) {
+                doTestNormOfResidual(e);
+            }
+
+            public void iterationStarted(final IterationEvent e) {
+                doTestNormOfResidual(e);
+            }
+
+            public void iterationPerformed(final IterationEvent e) {
+                doTestNormOfResidual(e);
+            }
+
+            public void terminationPerformed(final IterationEvent e) {
+                doTestNormOfResidual(e);
+            }
+        };
+        final BiCGSTAB solver = new BiCGSTAB(1000, 1.0e-10);
+        solver.getIterationManager().addIterationListener(listener);
+        solver.solve(a, b);
+    }
+
+}
@@ -18,10 +18,12 @@ package org.apache.commons.math4.linear;
 
 import java.util.Arrays;
 import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
 
 import org.junit.Test;
 import org.junit.Assert;
 import org.apache.commons.math4.TestUtils;
+import org.apache.commons.math4.exception.DimensionMismatchException;
 import org.apache.commons.math4.exception.MathIllegalArgumentException;
 import org.apache.commons.math4.exception.NoDataException;
 import org.apache.commons.math4.exception.NullArgumentException;
@@ -309,6 +311,46 @@ public final class BlockRealMatrixTest {
         assertClose(m3.multiply(m4), m5, entryTolerance);
     }
 
+    @Test
+    public void testParallelMultiply() {
+        int p = (7 * BlockRealMatrix.BLOCK_SIZE) / 2;
+        int q = (5 * BlockRealMatrix.BLOCK_SIZE) / 2;
+        int r =  3 * BlockRealMatrix.BLOCK_SIZE + 1;
+        Random random = new Random(0x6b9a1dc4e2f3a85bl);
+        BlockRealMatrix m1 = createRandomMatrix(random, p, q);
+        BlockRealMatrix m2 = createRandomMatrix(random, q, r);
+        BlockRealMatrix sequential = m1.multiply(m2);
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            // summation order is the same, results must be exactly identical
+            Assert.assertEquals(sequential, m1.multiply(m2, pool, 0l));
+            Assert.assertEquals(sequential, m1.multiply(m2, pool));
+            // below threshold
+            Assert.assertEquals(sequential, m1.multiply(m2, pool, Long.MAX_VALUE));
+            // single output block
+            BlockRealMatrix m3 = createRandomMatrix(random, 3, q);
+            Assert.assertEquals(m3.multiply(m2.getSubMatrix(0, q - 1, 0, 2)),
+                                m3.multiply((BlockRealMatrix) m2.getSubMatrix(0, q - 1, 0, 2), pool, 0l));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test(expected=DimensionMismatchException.class)
+    public void testParallelMultiplyDimensionMismatch() {
+        ForkJoinPool pool = new ForkJoinPool(2);
+        try {
+            new BlockRealMatrix(200, 100).multiply(new BlockRealMatrix(200, 100), pool, 0l);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test(expected=NullArgumentException.class)
+    public void testParallelMultiplyNullPool() {
+        new BlockRealMatrix(100, 100).multiply(new BlockRealMatrix(100, 100), null);
+    }
+
     /** test trace */
     @Test
     public void testTrace() {
@@ -17,6 +17,9 @@
 
 package org.apache.commons.math4.linear;
 
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
 import org.apache.commons.math4.linear.CholeskyDecomposition;
 import org.apache.commons.math4.linear.MatrixUtils;
 import org.apache.commons.math4.linear.NonPositiveDefiniteMatrixException;
@@ -141,4 +144,33 @@ public class CholeskyDecompositionTest {
         Assert.assertTrue(l  == llt.getL());
         Assert.assertTrue(lt == llt.getLT());
     }
+
+    /** test parallel decomposition of a matrix spanning several blocks */
+    @Test
+    public void testParallel() {
+        final int n = 3 * BlockRealMatrix.BLOCK_SIZE + 7;
+        final Random r = new Random(0x9b2f61e07c43d8a5l);
+        final RealMatrix a = new BlockRealMatrix(n, n);
+        for (int i = 0; i < n; ++i) {
+            for (int j = 0; j < n; ++j) {
+                a.setEntry(i, j, 2 * r.nextDouble() - 1);
+            }
+        }
+        final RealMatrix matrix = a.transpose().multiply(a).add(MatrixUtils.createRealIdentityMatrix(n));
+        final CholeskyDecomposition sequential = new CholeskyDecomposition(matrix);
+        final ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            final CholeskyDecomposition parallel =
+                new CholeskyDecomposition(matrix,
+                                          CholeskyDecomposition.DEFAULT_RELATIVE_SYMMETRY_THRESHOLD,
+                                          CholeskyDecomposition.DEFAULT_ABSOLUTE_POSITIVITY_THRESHOLD,
+                                          pool);
+            // update order is the same, results must be exactly identical
+            Assert.assertEquals(sequential.getL(), parallel.getL());
+            RealMatrix llt = parallel.getL().multiply(parallel.getLT());
+            Assert.assertEquals(0, matrix.subtract(llt).getNorm(), 1.0e-12 * matrix.getNorm());
+        } finally {
+            pool.shutdown();
+        }
+    }
 }
@@ -0,0 +1,183 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.math4.linear;
+
+import org.apache.commons.math4.TestUtils;
+import org.apache.commons.math4.exception.DimensionMismatchException;
+import org.apache.commons.math4.exception.OutOfRangeException;
+import org.apache.commons.math4.random.Well1024a;
+import org.apache.commons.math4.util.FastMath;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class CompressedRowRealMatrixTest {
+
+    @Test
+    public void testBuilderDuplicatesAndOrder() {
+        final CompressedRowRealMatrix m = new CompressedRowRealMatrix.Builder(3, 4).
+                                          addEntry(2, 3, 1.0).
+                                          addEntry(0, 2, 2.0).
+                                          addEntry(2, 0, 3.0).
+                                          addEntry(0, 2, 0.5).
+                                          addEntry(1, 1, 0.0).
+                                          addEntry(0, 0, 4.0).
+                                          build();
+        Assert.assertEquals(5, m.getNonZeroCount());
+        final double[][] expected = {
+            { 4.0, 0.0, 2.5, 0.0 },
+            { 0.0, 0.0, 0.0, 0.0 },
+            { 3.0, 0.0, 0.0, 1.0 }
+        };
+        TestUtils.assertEquals("", new Array2DRowRealMatrix(expected), m, 1.0e-15);
+        final int[] columns = m.getColumnIndicesRef();
+        final int[] start   = m.getRowStartRef();
+        for (int i = 0; i < m.getRowDimension(); ++i) {
+            for (int k = start[i] + 1; k < start[i + 1]; ++k) {
+                Assert.assertTrue(columns[k - 1] < columns[k]);
+            }
+        }
+    }
+
+    @Test(expected=OutOfRangeException.class)
+    public void testBuilderOutOfRange() {
+        new CompressedRowRealMatrix.Builder(3, 4).addEntry(1, 4, 1.0);
+    }
+
+    @Test
+    public void testSetEntry() {
+        final RealMatrix reference = createRandom(7, 5, 0.3, 0x8fb27c3d401ae265l);
+        final CompressedRowRealMatrix m = new CompressedRowRealMatrix(7, 5);
+        for (int j = reference.getColumnDimension() - 1; j >= 0; --j) {
+            for (int i = reference.getRowDimension() - 1; i >= 0; --i) {
+                m.setEntry(i, j, reference.getEntry(i, j));
+            }
+        }
+        TestUtils.assertEquals("", reference, m, 1.0e-15);
+        Assert.assertEquals(new CompressedRowRealMatrix(reference).getNonZeroCount(),
+                            m.getNonZeroCount());
+
+        m.addToEntry(6, 4, 2.0);
+        m.multiplyEntry(6, 4, 3.0);
+        m.setEntry(0, 0, 0.0);
+        Assert.assertEquals(3 * (reference.getEntry(6, 4) + 2.0), m.getEntry(6, 4), 1.0e-15);
+        Assert.assertEquals(0.0, m.getEntry(0, 0), 0.0);
+
+        final CompressedRowRealMatrix copy = m.copy();
+        copy.setEntry(3, 3, 17.0);
+        Assert.assertEquals(reference.getEntry(3, 3), m.getEntry(3, 3), 0.0);
+    }
+
+    @Test
+    public void testOperate() {
+        final RealMatrix dense = createRandom(40, 30, 0.1, 0x5c1e7d2f93b84a06l);
+        final CompressedRowRealMatrix m = new CompressedRowRealMatrix(dense);
+        final double[] v = createRandom(30, 1, 1.0, 0x13f9ac6e2087bd45l).getColumn(0);
+        final double[] u = createRandom(40, 1, 1.0, 0x6d40e8b1f2c793a5l).getColumn(0);
+        TestUtils.assertEquals(dense.operate(v), m.operate(v), 1.0e-14);
+        TestUtils.assertEquals(dense.preMultiply(u), m.preMultiply(u), 1.0e-14);
+        TestUtils.assertEquals(dense.preMultiply(u),
+                               m.operateTranspose(new ArrayRealVector(u)).toArray(), 1.0e-14);
+        TestUtils.assertEquals(dense.operate(v),
+                               m.operate(new OpenMapRealVector(v)).toArray(), 1.0e-14);
+        Assert.assertTrue(m.isTransposable());
+    }
+
+    @Test(expected=DimensionMismatchException.class)
+    public void testOperateDimensionMismatch() {
+        new CompressedRowRealMatrix(4, 3).operate(new double[4]);
+    }
+
+    @Test
+    public void testMultiply() {
+        final RealMatrix a = createRandom(20, 15, 0.2, 0x2a9b71e4c05d36f8l);
+        final RealMatrix b = createRandom(15, 25, 0.2, 0x7ec30d85b1a4629fl);
+        final CompressedRowRealMatrix sa = new CompressedRowRealMatrix(a);
+        final CompressedRowRealMatrix sb = new CompressedRowRealMatrix(b);
+        TestUtils.assertEquals("", a.multiply(b), sa.multiply(sb), 1.0e-14);
+        TestUtils.assertEquals("", a.multiply(b), sa.multiply(b), 1.0e-14);
+        TestUtils.assertEquals("", a.multiply(b), sa.multiply((RealMatrix) sb), 1.0e-14);
+        Assert.assertTrue(sa.multiply((RealMatrix) sb) instanceof CompressedRowRealMatrix);
+    }
+
+    @Test
+    public void testTranspose() {
+        final RealMatrix a = createRandom(9, 13, 0.3, 0x4d6f02b9e83a1c57l);
+        final CompressedRowRealMatrix t = new CompressedRowRealMatrix(a).transpose();
+        TestUtils.assertEquals("", a.transpose(), t, 1.0e-15);
+        TestUtils.assertEquals("", a, t.transpose(), 1.0e-15);
+    }
+
+    @Test
+    public void testAddSubtract() {
+        final RealMatrix a = createRandom(11, 8, 0.3, 0x91c4a57e3b0d6f28l);
+        final RealMatrix b = createRandom(11, 8, 0.3, 0x0b5d93e6a7f1284cl);
+        final CompressedRowRealMatrix sa = new CompressedRowRealMatrix(a);
+        final CompressedRowRealMatrix sb = new CompressedRowRealMatrix(b);
+        TestUtils.assertEquals("", a.add(b), sa.add(sb), 1.0e-15);
+        TestUtils.assertEquals("", a.subtract(b), sa.subtract(sb), 1.0e-15);
+        TestUtils.assertEquals("", a.add(b), sa.add(b), 1.0e-15);
+        TestUtils.assertEquals("", a.subtract(b), sa.subtract(b), 1.0e-15);
+        TestUtils.assertEquals("", a.scalarMultiply(-2.5), sa.scalarMultiply(-2.5), 1.0e-15);
+    }
+
+    @Test
+    public void testConjugateGradient() {
+        // 1D Laplacian
+        final int n = 1000;
+        final CompressedRowRealMatrix.Builder builder =
+                new CompressedRowRealMatrix.Builder(n, n, 3 * n);
+        for (int e = 0; e < n - 1; ++e) {
+            // assemble one element at a time, sharing nodes
+            builder.addEntry(e,     e,      1.0).addEntry(e,     e + 1, -1.0);
+            builder.addEntry(e + 1, e,     -1.0).addEntry(e + 1, e + 1,  1.0);
+        }
+        builder.addEntry(0, 0, 1.0).addEntry(n - 1, n - 1, 1.0);
+        final CompressedRowRealMatrix a = builder.build();
+        Assert.assertEquals(3 * n - 2, a.getNonZeroCount());
+
+        final double[] expected = new double[n];
+        for (int i = 0; i < n; ++i) {
+            expected[i] = FastMath.sin(0.01 * i);
+        }
+        final RealVector b = a.operate(new ArrayRealVector(expected));
+        final RealVector x = new ConjugateGradient(10 * n, 1.0e-12, false).
+                             solve(a, b);
+        TestUtils.assertEquals(expected, x.toArray(), 1.0e-6);
+    }
+
+    @Test
+    public void testSerial() {
+        final CompressedRowRealMatrix m =
+                new CompressedRowRealMatrix(createRandom(6, 4, 0.5, 0x3e7a19c05fd2b864l));
+        Assert.assertEquals(m, TestUtils.serializeAndRecover(m));
+    }
+
+    private static RealMatrix createRandom(final int rows, final int columns,
+                                           final double density, final long seed) {
+        final Well1024a random = new Well1024a(seed);
+        final RealMatrix m = new Array2DRowRealMatrix(rows, columns);
+        for (int i = 0; i < rows; ++i) {
+            for (int j = 0; j < columns; ++j) {
+                if (random.nextDouble() < density) {
+                    m.setEntry(i, j, 2 * random.nextDouble() - 1);
+                }
+            }
+        }
+        return m;
+    }
+
+}
@@ -19,6 +19,7 @@ package org.apache.commons.math4.linear;
 
 import java.util.Arrays;
 import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
 
 import org.apache.commons.math4.distribution.NormalDistribution;
 import org.apache.commons.math4.exception.MathUnsupportedOperationException;
@@ -325,6 +326,96 @@ public class EigenDecompositionTest {
         }
     }
 
+    @Test
+    public void testDivideAndConquerBigMatrix() {
+        Random r = new Random(0x5a4e1f3d2c7b9081l);
+        double[] bigValues = new double[300];
+        for (int i = 0; i < bigValues.length; ++i) {
+            bigValues[i] = 2 * r.nextDouble() - 1;
+        }
+        Arrays.sort(bigValues);
+        final RealMatrix m = createTestMatrix(r, bigValues);
+        final ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            final EigenDecomposition ed = new EigenDecomposition(m, pool);
+            double[] eigenValues = ed.getRealEigenvalues();
+            Assert.assertEquals(bigValues.length, eigenValues.length);
+            for (int i = 0; i < bigValues.length; ++i) {
+                Assert.assertEquals(bigValues[bigValues.length - i - 1], eigenValues[i], 2.0e-14);
+            }
+            checkDecomposition(m, ed, 1.0e-12);
+
+            // the results do not depend on the pool
+            final EigenDecomposition sequential = new EigenDecomposition(m, null);
+            Assert.assertArrayEquals(eigenValues, sequential.getRealEigenvalues(), 0.0);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void testDivideAndConquerRepeatedEigenvalues() {
+        // many repeated and close eigenvalues trigger deflation
+        Random r = new Random(0x1c2d3e4f5a6b7c8dl);
+        double[] values = new double[200];
+        for (int i = 0; i < values.length; ++i) {
+            values[i] = (i % 3 == 0) ? 2.0 : ((i % 3 == 1) ? -1.0 : 0.5 + 1.0e-10 * i);
+        }
+        final RealMatrix m = createTestMatrix(r, values);
+        final ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            final EigenDecomposition ed = new EigenDecomposition(m, pool);
+            Arrays.sort(values);
+            for (int i = 0; i < values.length; ++i) {
+                Assert.assertEquals(values[values.length - i - 1], ed.getRealEigenvalue(i), 1.0e-12);
+            }
+            checkDecomposition(m, ed, 1.0e-12);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void testDivideAndConquerTridiagonal() {
+        // Wilkinson matrix, with pairs of very close eigenvalues
+        final int n = 101;
+        final double[][] data = new double[n][n];
+        for (int i = 0; i < n; ++i) {
+            data[i][i] = FastMath.abs(n / 2 - i);
+            if (i > 0) {
+                data[i][i - 1] = 1;
+                data[i - 1][i] = 1;
+            }
+        }
+        final RealMatrix m = MatrixUtils.createRealMatrix(data);
+        final EigenDecomposition ed = new EigenDecomposition(m, null);
+        final EigenDecomposition ql = new EigenDecomposition(m);
+        for (int i = 0; i < n; ++i) {
+            Assert.assertEquals(ql.getRealEigenvalue(i), ed.getRealEigenvalue(i), 1.0e-12);
+        }
+        checkDecomposition(m, ed, 1.0e-13);
+    }
+
+    @Test
+    public void testDivideAndConquerUnsymmetric() {
+        final RealMatrix m = MatrixUtils.createRealMatrix(new double[][] {
+            { 1, 2 }, { 0, 3 }
+        });
+        final double[] eigenValues = new EigenDecomposition(m, null).getRealEigenvalues();
+        Arrays.sort(eigenValues);
+        Assert.assertEquals(1.0, eigenValues[0], 1.0e-15);
+        Assert.assertEquals(3.0, eigenValues[1], 1.0e-15);
+    }
+
+    private void checkDecomposition(final RealMatrix m, final EigenDecomposition ed,
+                                    final double tolerance) {
+        final RealMatrix v = ed.getV();
+        final RealMatrix identity = MatrixUtils.createRealIdentityMatrix(m.getRowDimension());
+        Assert.assertEquals(0, v.multiply(ed.getD()).multiply(ed.getVT()).subtract(m).getNorm(),
+                            tolerance * FastMath.max(1, m.getNorm()));
+        Assert.assertEquals(0, v.transpose().multiply(v).subtract(identity).getNorm(), tolerance);
+    }
+
     @Test
     public void testSymmetric() {
         RealMatrix symmetric = MatrixUtils.createRealMatrix(new double[][] {
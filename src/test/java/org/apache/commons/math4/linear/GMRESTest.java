@@ -0,0 +1,123 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.math4.linear;
+
+import org.apache.commons.math4.TestUtils;
+import org.apache.commons.math4.exception.DimensionMismatchException;
+import org.apache.commons.math4.exception.MaxCountExceededException;
+import org.apache.commons.math4.exception.NotStrictlyPositiveException;
+import org.apache.commons.math4.util.IterationEvent;
+import org.apache.commons.math4.util.IterationListener;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class GMRESTest {
+
+    @Test(expected = NotStrictlyPositiveException.class)
+    public void testInvalidRestart() {
+        new GMRES(100, 0, 1.0e-10);
+    }
+
+    @Test(expected = NonSquareOperatorException.class)
+    public void testNonSquareOperator() {
+        new GMRES(100, 10, 1.0e-10).solve(new Array2DRowRealMatrix(2, 3),
+                                          new ArrayRealVector(2));
+    }
+
+    @Test(expected = DimensionMismatchException.class)
+    public void testDimensionMismatchRightHandSide() {
+        new GMRES(100, 10, 1.0e-10).solve(new Array2DRowRealMatrix(3, 3),
+                                          new ArrayRealVector(2));
+    }
+
+    @Test(expected = MaxCountExceededException.class)
+    public void testMaxIterations() {
+        final CompressedRowRealMatrix a = PreconditionerTestUtils.createConvectionDiffusion(20, 2.0);
+        new GMRES(5, 10, 1.0e-10).solve(a, new ArrayRealVector(a.getRowDimension(), 1.0));
+    }
+
+    @Test
+    public void testExactWithoutRestart() {
+        // in exact arithmetic, GMRES converges in at most n iterations
+        final Array2DRowRealMatrix a = new Array2DRowRealMatrix(new double[][] {
+            { 4, 1, 0, 2 }, { -1, 3, 1, 0 }, { 0, -2, 5, 1 }, { 1, 0, -1, 2 }
+        });
+        final RealVector b = new ArrayRealVector(new double[] { 1, 2, 3, 4 });
+        final GMRES solver = new GMRES(10, 10, 1.0e-14);
+        final RealVector x = solver.solve(a, b);
+        TestUtils.assertEquals(b.toArray(), a.operate(x).toArray(), 1.0e-12);
+        Assert.assertTrue(solver.getIterationManager().getIterations() <= 5);
+    }
+
+    @Test
+    public void testNonSymmetric() {
+        final CompressedRowRealMatrix a = PreconditionerTestUtils.createConvectionDiffusion(20, 2.0);
+        final RealVector b = new ArrayRealVector(a.getRowDimension(), 1.0);
+        final GMRES solver = new GMRES(10000, 30, 1.0e-10);
+        final RealVector x = solver.solve(a, b);
+        Assert.assertEquals(0.0, b.subtract(a.operate(x)).getNorm(), 1.0e-9 * b.getNorm());
+    }
+
+    @Test
+    public void testPreconditioned() {
+        final CompressedRowRealMatrix a = PreconditionerTestUtils.createConvectionDiffusion(20, 2.0);
+        final RealVector b = new ArrayRealVector(a.getRowDimension(), 1.0);
+        final GMRES gmres  = new GMRES(10000, 30, 1.0e-10);
+        final GMRES pgmres = new GMRES(10000, 30, 1.0e-10);
+        gmres.solve(a, b);
+        final RealVector x = pgmres.solve(a, new IncompleteLUPreconditioner(a), b);
+        Assert.assertTrue(2 * pgmres.getIterationManager().getIterations() <
+                          gmres.getIterationManager().getIterations());
+        Assert.assertEquals(0.0, b.subtract(a.operate(x)).getNorm(), 1.0e-9 * b.getNorm());
+    }
+
+    @Test
+    public void testEvents() {
+        final CompressedRowRealMatrix a = PreconditionerTestUtils.createConvectionDiffusion(10, 1.0);
+        final RealVector b = new ArrayRealVector(a.getRowDimension(), 1.0);
+        final int[] count = new int[4];
+        final IterationListener listener = new IterationListener() {
+
+            public void initializationPerformed(final IterationEvent e) {
+                ++count[0];
+            }
+
+            public void iterationStarted(final IterationEvent e) {
+                ++count[1];
+            }
+
+            public void iterationPerformed(final IterationEvent e) {
+                ++count[2];
+                Assert.assertEquals(count[1], count[2]);
+            }
+
+            public void terminationPerformed(final IterationEvent e) {
+                ++count[3];
+                final IterativeLinearSolverEvent evt = (IterativeLinearSolverEvent) e;
+                Assert.assertTrue(evt.providesResidual());
+                Assert.assertEquals(evt.getResidual().getNorm(), evt.getNormOfResidual(), 0.0);
+            }
+        };
+        final GMRES solver = new GMRES(1000, 8, 1.0e-10);
+        solver.getIterationManager().addIterationListener(listener);
+        solver.solve(a, b);
+        Assert.assertEquals(1, count[0]);
+        Assert.assertEquals(solver.getIterationManager().getIterations() - 1, count[1]);
+        Assert.assertEquals(1, count[3]);
+    }
+
+}
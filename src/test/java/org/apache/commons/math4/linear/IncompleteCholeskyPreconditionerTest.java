@@ -0,0 +1,79 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.math4.linear;
+
+import org.apache.commons.math4.TestUtils;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class IncompleteCholeskyPreconditionerTest {
+
+    @Test
+    public void testExactForTridiagonal() {
+        // no fill-in, the incomplete factorization is the complete one
+        final int n = 50;
+        final CompressedRowRealMatrix.Builder builder = new CompressedRowRealMatrix.Builder(n, n);
+        for (int i = 0; i < n; ++i) {
+            builder.addEntry(i, i, 3.0 + 0.1 * i);
+            if (i > 0) {
+                builder.addEntry(i, i - 1, -1.0).addEntry(i - 1, i, -1.0);
+            }
+        }
+        final CompressedRowRealMatrix a = builder.build();
+        final RealVector x = new ArrayRealVector(n, 1.0);
+        final IncompleteCholeskyPreconditioner m = new IncompleteCholeskyPreconditioner(a);
+        TestUtils.assertEquals(x.toArray(), a.operate(m.operate(x)).toArray(), 1.0e-13);
+        Assert.assertTrue(m.isTransposable());
+    }
+
+    @Test
+    public void testFewerIterations() {
+        final CompressedRowRealMatrix a = PreconditionerTestUtils.createLaplacian(30);
+        final RealVector b = new ArrayRealVector(a.getRowDimension(), 1.0);
+        final ConjugateGradient cg  = new ConjugateGradient(10000, 1.0e-10, true);
+        final ConjugateGradient pcg = new ConjugateGradient(10000, 1.0e-10, true);
+        cg.solve(a, b);
+        final RealVector x = pcg.solve(a, new IncompleteCholeskyPreconditioner(a), b);
+        Assert.assertTrue(5 * pcg.getIterationManager().getIterations() <
+                          3 * cg.getIterationManager().getIterations());
+        TestUtils.assertEquals(b.toArray(), a.operate(x).toArray(), 1.0e-8);
+    }
+
+    @Test
+    public void testShift() {
+        // indefinite matrix: IC(0) breaks down at the second pivot
+        final CompressedRowRealMatrix a = new CompressedRowRealMatrix.Builder(2, 2).
+                                          addEntry(0, 0, 1.0).addEntry(0, 1, 2.0).
+                                          addEntry(1, 0, 2.0).addEntry(1, 1, 1.0).
+                                          build();
+        try {
+            new IncompleteCholeskyPreconditioner(a);
+            Assert.fail("an exception should have been thrown");
+        } catch (NonPositiveDefiniteMatrixException npdme) {
+            Assert.assertEquals(1, npdme.getRow());
+        }
+        final RealVector x = new ArrayRealVector(2, 1.0);
+        final RealVector y = new IncompleteCholeskyPreconditioner(a, 4.0).operate(x);
+        Assert.assertTrue(x.dotProduct(y) > 0);
+    }
+
+    @Test(expected=NonSquareOperatorException.class)
+    public void testNonSquare() {
+        new IncompleteCholeskyPreconditioner(new CompressedRowRealMatrix(2, 3));
+    }
+
+}
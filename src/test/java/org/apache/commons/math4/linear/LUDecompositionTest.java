@@ -17,6 +17,9 @@
 
 package org.apache.commons.math4.linear;
 
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
 import org.apache.commons.math4.linear.LUDecomposition;
 import org.apache.commons.math4.linear.MatrixUtils;
 import org.apache.commons.math4.linear.NonSquareMatrixException;
@@ -292,4 +295,53 @@ public class LUDecompositionTest {
         Assert.assertTrue(u == lu.getU());
         Assert.assertTrue(p == lu.getP());
     }
+
+    /** test parallel decomposition of a matrix spanning several blocks */
+    @Test
+    public void testParallel() {
+        final int n = 3 * BlockRealMatrix.BLOCK_SIZE + 7;
+        final Random r = new Random(0x3e7c8a51d4f2b96fl);
+        final RealMatrix matrix = new BlockRealMatrix(n, n);
+        for (int i = 0; i < n; ++i) {
+            for (int j = 0; j < n; ++j) {
+                matrix.setEntry(i, j, 2 * r.nextDouble() - 1);
+            }
+        }
+        final LUDecomposition sequential = new LUDecomposition(matrix);
+        final ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            final LUDecomposition parallel = new LUDecomposition(matrix, 1.0e-11, pool);
+            // update order is the same, results must be exactly identical
+            Assert.assertEquals(sequential.getL(), parallel.getL());
+            Assert.assertEquals(sequential.getU(), parallel.getU());
+            Assert.assertArrayEquals(sequential.getPivot(), parallel.getPivot());
+            Assert.assertEquals(sequential.getDeterminant(), parallel.getDeterminant(), 0.0);
+            RealMatrix pa = parallel.getP().multiply(matrix);
+            RealMatrix lu = parallel.getL().multiply(parallel.getU());
+            Assert.assertEquals(0, pa.subtract(lu).getNorm(), 1.0e-12 * n);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /** test parallel decomposition of a singular matrix */
+    @Test
+    public void testParallelSingular() {
+        final int n = 2 * BlockRealMatrix.BLOCK_SIZE + 3;
+        final RealMatrix matrix = new BlockRealMatrix(n, n);
+        for (int i = 0; i < n; ++i) {
+            for (int j = 0; j < n; ++j) {
+                // rank 2 matrix
+                matrix.setEntry(i, j, i + 2.0 * j);
+            }
+        }
+        final ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            final LUDecomposition lu = new LUDecomposition(matrix, 1.0e-11, pool);
+            Assert.assertFalse(lu.getSolver().isNonSingular());
+            Assert.assertEquals(0.0, lu.getDeterminant(), 0.0);
+        } finally {
+            pool.shutdown();
+        }
+    }
 }
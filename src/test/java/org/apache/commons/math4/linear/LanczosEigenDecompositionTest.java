@@ -0,0 +1,156 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.math4.linear;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import org.apache.commons.math4.exception.MaxCountExceededException;
+import org.apache.commons.math4.exception.NumberIsTooSmallException;
+import org.apache.commons.math4.exception.OutOfRangeException;
+import org.apache.commons.math4.util.FastMath;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class LanczosEigenDecompositionTest {
+
+    @Test
+    public void testLargestEigenvalues() {
+        final Random r = new Random(0x6f2a1b3c4d5e6f70l);
+        final double[] values = new double[300];
+        for (int i = 0; i < values.length; ++i) {
+            values[i] = r.nextDouble();
+        }
+        values[10] = 5.0;
+        values[20] = 4.0;
+        values[30] = 3.5;
+        final AbstractRealMatrix m = (AbstractRealMatrix) EigenDecompositionTest.createTestMatrix(r, values);
+        Arrays.sort(values);
+
+        final LanczosEigenDecomposition ld = new LanczosEigenDecomposition(m, 5);
+        Assert.assertEquals(5, ld.getRealEigenvalues().length);
+        for (int i = 0; i < 5; ++i) {
+            Assert.assertEquals(values[values.length - 1 - i], ld.getRealEigenvalue(i), 1.0e-12);
+            final RealVector v = ld.getEigenvector(i);
+            Assert.assertEquals(1.0, v.getNorm(), 1.0e-12);
+            Assert.assertEquals(0.0, m.operate(v).subtract(v.mapMultiply(ld.getRealEigenvalue(i))).getNorm(),
+                                1.0e-9);
+        }
+        final RealMatrix v = ld.getV();
+        Assert.assertEquals(0.0,
+                            v.transpose().multiply(v).subtract(MatrixUtils.createRealIdentityMatrix(5)).getNorm(),
+                            1.0e-12);
+    }
+
+    @Test
+    public void testRestarts() {
+        // eigenvalues -2 + 2 cos(k pi / (n + 1)) of the 1D Laplacian are close to each other
+        final int n = 200;
+        final CompressedRowRealMatrix.Builder builder = new CompressedRowRealMatrix.Builder(n, n);
+        for (int i = 0; i < n; ++i) {
+            builder.addEntry(i, i, -2.0);
+            if (i > 0) {
+                builder.addEntry(i, i - 1, 1.0);
+            }
+            if (i < n - 1) {
+                builder.addEntry(i, i + 1, 1.0);
+            }
+        }
+        final CompressedRowRealMatrix m = builder.build();
+        final ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            final LanczosEigenDecomposition ld =
+                    new LanczosEigenDecomposition(new ParallelRealLinearOperator(m, pool),
+                                                  3, 10, 1.0e-10, 1000, pool);
+            Assert.assertTrue(ld.getRestarts() > 0);
+            for (int k = 1; k <= 3; ++k) {
+                Assert.assertEquals(-2 + 2 * FastMath.cos(k * FastMath.PI / (n + 1)),
+                                    ld.getRealEigenvalue(k - 1), 1.0e-9);
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void testMultipleEigenvalue() {
+        final AbstractRealMatrix m = (AbstractRealMatrix) MatrixUtils.createRealIdentityMatrix(40).scalarMultiply(2.0);
+        final LanczosEigenDecomposition ld = new LanczosEigenDecomposition(m, 4);
+        for (int i = 0; i < 4; ++i) {
+            Assert.assertEquals(2.0, ld.getRealEigenvalue(i), 1.0e-14);
+        }
+        final RealMatrix v = ld.getV();
+        Assert.assertEquals(0.0,
+                            v.transpose().multiply(v).subtract(MatrixUtils.createRealIdentityMatrix(4)).getNorm(),
+                            1.0e-13);
+    }
+
+    @Test
+    public void testFullSpectrum() {
+        final AbstractRealMatrix m = (AbstractRealMatrix) MatrixUtils.createRealMatrix(new double[][] {
+            { 4, 1, 0 }, { 1, 3, 1 }, { 0, 1, 2 }
+        });
+        final LanczosEigenDecomposition ld = new LanczosEigenDecomposition(m, 3);
+        final EigenDecomposition ed = new EigenDecomposition(m);
+        for (int i = 0; i < 3; ++i) {
+            Assert.assertEquals(ed.getRealEigenvalue(i), ld.getRealEigenvalue(i), 1.0e-14);
+        }
+    }
+
+    @Test(expected = MaxCountExceededException.class)
+    public void testMaxRestarts() {
+        final AbstractRealMatrix m = (AbstractRealMatrix) EigenDecompositionTest.createTestMatrix(new Random(0x1234l), createValues(100));
+        new LanczosEigenDecomposition(m, 5, 6, 1.0e-14, 1, null);
+    }
+
+    @Test(expected = OutOfRangeException.class)
+    public void testTooManyEigenvalues() {
+        new LanczosEigenDecomposition(new Array2DRowRealMatrix(3, 3), 4);
+    }
+
+    @Test
+    public void testSubspaceTooSmall() {
+        try {
+            new LanczosEigenDecomposition(new Array2DRowRealMatrix(10, 10), 4, 4, 1.0e-10, 10, null);
+            Assert.fail("an exception should have been thrown");
+        } catch (NumberIsTooSmallException e) {
+            // expected
+        }
+        try {
+            // all eigenpairs need a subspace spanning the whole space
+            new LanczosEigenDecomposition(new Array2DRowRealMatrix(5, 5), 5, 3, 1.0e-10, 10, null);
+            Assert.fail("an exception should have been thrown");
+        } catch (NumberIsTooSmallException e) {
+            // expected
+        }
+    }
+
+    @Test(expected = NonSquareOperatorException.class)
+    public void testNonSquare() {
+        new LanczosEigenDecomposition(new Array2DRowRealMatrix(3, 4), 1);
+    }
+
+    private double[] createValues(final int n) {
+        final double[] values = new double[n];
+        for (int i = 0; i < n; ++i) {
+            values[i] = 1.0 + 1.0e-3 * i;
+        }
+        return values;
+    }
+
+}
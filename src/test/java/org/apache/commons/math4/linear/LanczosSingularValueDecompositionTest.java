@@ -0,0 +1,201 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.math4.linear;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import org.apache.commons.math4.exception.MathUnsupportedOperationException;
+import org.apache.commons.math4.exception.MaxCountExceededException;
+import org.apache.commons.math4.exception.NumberIsTooSmallException;
+import org.apache.commons.math4.exception.OutOfRangeException;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class LanczosSingularValueDecompositionTest {
+
+    @Test
+    public void testLargestSingularValues() {
+        final Random r = new Random(0x3b6c2f8e1d4a7095l);
+        final double[] values = new double[200];
+        for (int i = 0; i < values.length; ++i) {
+            values[i] = r.nextDouble();
+        }
+        values[0] = 5.0;
+        values[1] = 4.0;
+        values[2] = 3.5;
+        values[3] = 3.0;
+        values[4] = 2.0;
+        final AbstractRealMatrix m = createTestMatrix(r, 300, 200, values);
+
+        final LanczosSingularValueDecomposition ld = new LanczosSingularValueDecomposition(m, 5);
+        final double[] s = ld.getSingularValues();
+        Assert.assertEquals(5, s.length);
+        for (int i = 0; i < 5; ++i) {
+            Assert.assertEquals(values[i], s[i], 1.0e-12);
+        }
+        checkTriplets(m, ld.getU(), ld.getS(), ld.getV(), 1.0e-9);
+        Assert.assertEquals(5.0, ld.getNorm(), 1.0e-12);
+        Assert.assertEquals(0.0, ld.getUT().subtract(ld.getU().transpose()).getNorm(), 0.0);
+        Assert.assertEquals(0.0, ld.getVT().subtract(ld.getV().transpose()).getNorm(), 0.0);
+    }
+
+    @Test
+    public void testRestarts() {
+        final RealMatrix dense = createSparseMatrix(new Random(0x5a4d1e7f09b3c268l), 150, 120);
+        final CompressedRowRealMatrix m = new CompressedRowRealMatrix(dense);
+        final double[] reference = new SingularValueDecomposition(dense).getSingularValues();
+        final ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            final LanczosSingularValueDecomposition ld =
+                    new LanczosSingularValueDecomposition(m, 4, 10, 1.0e-10, 1000, pool);
+            Assert.assertTrue(ld.getRestarts() > 0);
+            final double[] s = ld.getSingularValues();
+            for (int i = 0; i < 4; ++i) {
+                Assert.assertEquals(reference[i], s[i], 1.0e-9 * reference[0]);
+            }
+            checkTriplets(m, ld.getU(), ld.getS(), ld.getV(), 1.0e-8);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void testWideMatrix() {
+        final RealMatrix m = createSparseMatrix(new Random(0x2c71e4b95f08a3d6l), 30, 80);
+        final double[] reference = new SingularValueDecomposition(m).getSingularValues();
+        final LanczosSingularValueDecomposition ld =
+                new LanczosSingularValueDecomposition((AbstractRealMatrix) m, 30);
+        final double[] s = ld.getSingularValues();
+        for (int i = 0; i < 30; ++i) {
+            Assert.assertEquals(reference[i], s[i], 1.0e-12 * reference[0]);
+        }
+        checkTriplets((AbstractRealMatrix) m, ld.getU(), ld.getS(), ld.getV(), 1.0e-10);
+    }
+
+    @Test
+    public void testRankDeficient() {
+        final AbstractRealMatrix m =
+                createTestMatrix(new Random(0x7e3a9c5b2d1f4086l), 60, 40, new double[] { 3.0, 2.0, 1.0 });
+        final LanczosSingularValueDecomposition ld = new LanczosSingularValueDecomposition(m, 5);
+        final double[] s = ld.getSingularValues();
+        Assert.assertArrayEquals(new double[] { 3.0, 2.0, 1.0, 0.0, 0.0 }, s, 1.0e-12);
+        final RealMatrix u = ld.getU();
+        Assert.assertEquals(0.0,
+                            u.transpose().multiply(u).subtract(MatrixUtils.createRealIdentityMatrix(5)).getNorm(),
+                            1.0e-12);
+    }
+
+    @Test(expected = MaxCountExceededException.class)
+    public void testMaxRestarts() {
+        final RealMatrix m = createSparseMatrix(new Random(0x1234l), 100, 100);
+        new LanczosSingularValueDecomposition(new CompressedRowRealMatrix(m), 5, 6, 1.0e-14, 1, null);
+    }
+
+    @Test(expected = OutOfRangeException.class)
+    public void testTooManySingularValues() {
+        new LanczosSingularValueDecomposition(new Array2DRowRealMatrix(3, 5), 4);
+    }
+
+    @Test
+    public void testSubspaceTooSmall() {
+        try {
+            new LanczosSingularValueDecomposition(new Array2DRowRealMatrix(10, 10), 4, 4, 1.0e-10, 10, null);
+            Assert.fail("an exception should have been thrown");
+        } catch (NumberIsTooSmallException e) {
+            // expected
+        }
+        try {
+            // all singular triplets need subspaces spanning the smallest dimension
+            new LanczosSingularValueDecomposition(new Array2DRowRealMatrix(8, 5), 5, 3, 1.0e-10, 10, null);
+            Assert.fail("an exception should have been thrown");
+        } catch (NumberIsTooSmallException e) {
+            // expected
+        }
+    }
+
+    @Test(expected = MathUnsupportedOperationException.class)
+    public void testNotTransposable() {
+        new LanczosSingularValueDecomposition(new JacobiPreconditioner(new double[] { 1, 2, 3 }, false), 1);
+    }
+
+    /**
+     * Create a matrix with prescribed singular values.
+     * @param r random generator for the singular vectors
+     * @param m number of rows
+     * @param n number of columns
+     * @param singularValues non-zero singular values
+     * @return a m &times; n matrix
+     */
+    static AbstractRealMatrix createTestMatrix(final Random r, final int m, final int n,
+                                               final double[] singularValues) {
+        final int k = singularValues.length;
+        final RealMatrix u = createOrthonormalColumns(r, m, k);
+        final RealMatrix v = createOrthonormalColumns(r, n, k);
+        final RealMatrix s = MatrixUtils.createRealDiagonalMatrix(singularValues);
+        return (AbstractRealMatrix) u.multiply(s).multiply(v.transpose());
+    }
+
+    /**
+     * Create a random sparse matrix, with about 5 non-zero entries per row.
+     * @param r random generator
+     * @param m number of rows
+     * @param n number of columns
+     * @return a m &times; n matrix
+     */
+    static RealMatrix createSparseMatrix(final Random r, final int m, final int n) {
+        final RealMatrix matrix = new Array2DRowRealMatrix(m, n);
+        for (int i = 0; i < m; ++i) {
+            matrix.setEntry(i, i % n, 1.0 + r.nextDouble());
+            for (int l = 0; l < 4; ++l) {
+                matrix.setEntry(i, r.nextInt(n), r.nextDouble() - 0.5);
+            }
+        }
+        return matrix;
+    }
+
+    /**
+     * Check the singular triplets of a truncated decomposition.
+     * @param m decomposed matrix
+     * @param u left singular vectors
+     * @param s singular values
+     * @param v right singular vectors
+     * @param tolerance tolerance on the residuals
+     */
+    static void checkTriplets(final AbstractRealMatrix m, final RealMatrix u,
+                              final RealMatrix s, final RealMatrix v,
+                              final double tolerance) {
+        final int k = s.getRowDimension();
+        final RealMatrix id = MatrixUtils.createRealIdentityMatrix(k);
+        Assert.assertEquals(0.0, u.transpose().multiply(u).subtract(id).getNorm(), 1.0e-12);
+        Assert.assertEquals(0.0, v.transpose().multiply(v).subtract(id).getNorm(), 1.0e-12);
+        final double scale = s.getEntry(0, 0);
+        Assert.assertEquals(0.0, m.multiply(v).subtract(u.multiply(s)).getNorm(), tolerance * scale);
+        Assert.assertEquals(0.0, m.transpose().multiply(u).subtract(v.multiply(s)).getNorm(), tolerance * scale);
+    }
+
+    private static RealMatrix createOrthonormalColumns(final Random r, final int n, final int k) {
+        final RealMatrix x = new Array2DRowRealMatrix(n, k);
+        for (int i = 0; i < n; ++i) {
+            for (int j = 0; j < k; ++j) {
+                x.setEntry(i, j, r.nextGaussian());
+            }
+        }
+        return new QRDecomposition(x).getQ().getSubMatrix(0, n - 1, 0, k - 1);
+    }
+
+}
@@ -0,0 +1,133 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.math4.linear;
+
+import java.util.concurrent.ForkJoinPool;
+
+import org.apache.commons.math4.TestUtils;
+import org.apache.commons.math4.exception.DimensionMismatchException;
+import org.apache.commons.math4.exception.NullArgumentException;
+import org.apache.commons.math4.random.Well1024a;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ParallelRealLinearOperatorTest {
+
+    @Test
+    public void testCompressedRow() {
+        final CompressedRowRealMatrix a = PreconditionerTestUtils.createConvectionDiffusion(200, 1.5);
+        checkProducts(a);
+    }
+
+    @Test
+    public void testCompressedRowModified() {
+        final CompressedRowRealMatrix a = PreconditionerTestUtils.createConvectionDiffusion(200, 1.5);
+        final double[] y = new double[a.getRowDimension()];
+        for (int i = 0; i < y.length; ++i) {
+            y[i] = 1.0 / (i + 1);
+        }
+        final ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            // the products must follow the changes of the referenced matrix
+            final ParallelRealLinearOperator op = new ParallelRealLinearOperator(a, pool);
+            op.operateTranspose(new ArrayRealVector(y));
+            a.setEntry(0, 0, 10.0);
+            a.addToEntry(y.length - 1, 3, 2.0);
+            TestUtils.assertEquals(a.preMultiply(y),
+                                   op.operateTranspose(new ArrayRealVector(y)).toArray(), 1.0e-12);
+            TestUtils.assertEquals(a.operate(y),
+                                   op.operate(new ArrayRealVector(y)).toArray(), 1.0e-12);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void testArray2DRow() {
+        checkProducts(createRandom(600, 400));
+    }
+
+    @Test
+    public void testBlock() {
+        checkProducts(new BlockRealMatrix(createRandom(300, 500).getData()));
+    }
+
+    @Test
+    public void testSolver() {
+        final CompressedRowRealMatrix a = PreconditionerTestUtils.createConvectionDiffusion(100, 2.0);
+        final RealVector b = new ArrayRealVector(a.getRowDimension(), 1.0);
+        final ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            final RealVector x = new BiCGSTAB(10000, 1.0e-10).
+                                 solve(new ParallelRealLinearOperator(a, pool), b);
+            Assert.assertEquals(0.0, b.subtract(a.operate(x)).getNorm(), 1.0e-8 * b.getNorm());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test(expected = NullArgumentException.class)
+    public void testNullPool() {
+        new ParallelRealLinearOperator(new Array2DRowRealMatrix(2, 2), null);
+    }
+
+    @Test(expected = DimensionMismatchException.class)
+    public void testDimensionMismatch() {
+        final ForkJoinPool pool = new ForkJoinPool(2);
+        try {
+            new ParallelRealLinearOperator(new Array2DRowRealMatrix(2, 3), pool).
+            operate(new ArrayRealVector(2));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private void checkProducts(final RealMatrix m) {
+        final Well1024a random = new Well1024a(0x7dc3a5b1l);
+        final double[] x = new double[m.getColumnDimension()];
+        for (int i = 0; i < x.length; ++i) {
+            x[i] = random.nextDouble() - 0.5;
+        }
+        final double[] y = new double[m.getRowDimension()];
+        for (int i = 0; i < y.length; ++i) {
+            y[i] = random.nextDouble() - 0.5;
+        }
+        final ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            final ParallelRealLinearOperator op = new ParallelRealLinearOperator(m, pool);
+            Assert.assertTrue(op.isTransposable());
+            TestUtils.assertEquals(m.operate(x),
+                                   op.operate(new ArrayRealVector(x)).toArray(), 1.0e-12);
+            TestUtils.assertEquals(m.preMultiply(y),
+                                   op.operateTranspose(new ArrayRealVector(y)).toArray(), 1.0e-12);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private Array2DRowRealMatrix createRandom(final int rows, final int columns) {
+        final Well1024a random = new Well1024a(0x2a4f19e3l);
+        final double[][] data = new double[rows][columns];
+        for (int i = 0; i < rows; ++i) {
+            for (int j = 0; j < columns; ++j) {
+                data[i][j] = random.nextDouble() - 0.5;
+            }
+        }
+        return new Array2DRowRealMatrix(data, false);
+    }
+
+}
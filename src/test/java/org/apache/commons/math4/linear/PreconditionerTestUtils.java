@@ -0,0 +1,88 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.math4.linear;
+
+/**
+ * Test matrices for the preconditioners.
+ */
+class PreconditionerTestUtils {
+
+    /** Private constructor for a utility class. */
+    private PreconditionerTestUtils() {
+    }
+
+    /**
+     * Create the five points finite differences Laplacian on a square grid.
+     * @param n number of points in each direction
+     * @return Laplacian matrix, of dimension n<sup>2</sup>
+     */
+    static CompressedRowRealMatrix createLaplacian(final int n) {
+        final CompressedRowRealMatrix.Builder builder =
+                new CompressedRowRealMatrix.Builder(n * n, n * n, 5 * n * n);
+        for (int i = 0; i < n; ++i) {
+            for (int j = 0; j < n; ++j) {
+                final int r = i * n + j;
+                builder.addEntry(r, r, 4.0);
+                if (i > 0) {
+                    builder.addEntry(r, r - n, -1.0);
+                }
+                if (i < n - 1) {
+                    builder.addEntry(r, r + n, -1.0);
+                }
+                if (j > 0) {
+                    builder.addEntry(r, r - 1, -1.0);
+                }
+                if (j < n - 1) {
+                    builder.addEntry(r, r + 1, -1.0);
+                }
+            }
+        }
+        return builder.build();
+    }
+
+    /**
+     * Create the upwind finite differences convection-diffusion operator
+     * -&Delta;u + c &part;u/&part;x on a square grid (non-symmetric).
+     * @param n number of points in each direction
+     * @param c convection coefficient (scaled by the grid step)
+     * @return convection-diffusion matrix, of dimension n<sup>2</sup>
+     */
+    static CompressedRowRealMatrix createConvectionDiffusion(final int n, final double c) {
+        final CompressedRowRealMatrix.Builder builder =
+                new CompressedRowRealMatrix.Builder(n * n, n * n, 5 * n * n);
+        for (int i = 0; i < n; ++i) {
+            for (int j = 0; j < n; ++j) {
+                final int r = i * n + j;
+                builder.addEntry(r, r, 4.0 + c);
+                if (i > 0) {
+                    builder.addEntry(r, r - n, -1.0);
+                }
+                if (i < n - 1) {
+                    builder.addEntry(r, r + n, -1.0);
+                }
+                if (j > 0) {
+                    builder.addEntry(r, r - 1, -1.0 - c);
+                }
+                if (j < n - 1) {
+                    builder.addEntry(r, r + 1, -1.0);
+                }
+            }
+        }
+        return builder.build();
+    }
+
+}
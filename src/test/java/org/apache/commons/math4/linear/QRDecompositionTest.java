@@ -18,6 +18,7 @@
 package org.apache.commons.math4.linear;
 
 import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
 
 import org.apache.commons.math4.linear.ArrayRealVector;
 import org.apache.commons.math4.linear.BlockRealMatrix;
@@ -291,4 +292,26 @@ public class QRDecompositionTest {
         new QRDecomposition(a, 1.0e-15).getSolver().solve(b);
     }
 
+    @Test
+    public void testParallel() {
+        final ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            final Random r = new Random(0x5d1e8b7f3a92c604l);
+            final int p = (7 * BlockRealMatrix.BLOCK_SIZE) / 4;
+            final int q = (5 * BlockRealMatrix.BLOCK_SIZE) / 4;
+            for (RealMatrix matrix : new RealMatrix[] {
+                createTestMatrix(r, p, p), createTestMatrix(r, p, q), createTestMatrix(r, q, p)
+            }) {
+                final QRDecomposition sequential = new QRDecomposition(matrix);
+                final QRDecomposition parallel   = new QRDecomposition(matrix, 0.0, pool);
+                // reflections order is the same, results must be exactly identical
+                Assert.assertEquals(sequential.getR(), parallel.getR());
+                Assert.assertEquals(sequential.getQ(), parallel.getQ());
+                Assert.assertEquals(sequential.getH(), parallel.getH());
+                checkAEqualQR(matrix);
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
 }
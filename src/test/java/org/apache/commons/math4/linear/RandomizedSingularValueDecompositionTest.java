@@ -0,0 +1,114 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.math4.linear;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import org.apache.commons.math4.exception.MathUnsupportedOperationException;
+import org.apache.commons.math4.exception.NotPositiveException;
+import org.apache.commons.math4.exception.OutOfRangeException;
+import org.apache.commons.math4.util.FastMath;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class RandomizedSingularValueDecompositionTest {
+
+    @Test
+    public void testLowRank() {
+        final double[] values = { 10.0, 7.0, 4.0, 2.0, 1.0 };
+        final AbstractRealMatrix m =
+                LanczosSingularValueDecompositionTest.createTestMatrix(new Random(0x4f1c9a3e7b2d5068l),
+                                                                       250, 180, values);
+        final RandomizedSingularValueDecomposition rd = new RandomizedSingularValueDecomposition(m, 5);
+        Assert.assertArrayEquals(values, rd.getSingularValues(), 1.0e-12);
+        LanczosSingularValueDecompositionTest.checkTriplets(m, rd.getU(), rd.getS(), rd.getV(), 1.0e-12);
+        Assert.assertEquals(10.0, rd.getNorm(), 1.0e-12);
+        Assert.assertEquals(0.0, rd.getUT().subtract(rd.getU().transpose()).getNorm(), 0.0);
+        Assert.assertEquals(0.0, rd.getVT().subtract(rd.getV().transpose()).getNorm(), 0.0);
+    }
+
+    @Test
+    public void testDecayingSpectrum() {
+        // singular values decay geometrically, so the truncation error is small
+        final double[] values = new double[150];
+        for (int i = 0; i < values.length; ++i) {
+            values[i] = FastMath.pow(0.5, i);
+        }
+        final AbstractRealMatrix m =
+                LanczosSingularValueDecompositionTest.createTestMatrix(new Random(0x6d2b8f4a1c7e3059l),
+                                                                       200, 150, values);
+        final RandomizedSingularValueDecomposition rd = new RandomizedSingularValueDecomposition(m, 8);
+        final double[] s = rd.getSingularValues();
+        for (int i = 0; i < 8; ++i) {
+            Assert.assertEquals(values[i], s[i], 1.0e-10);
+        }
+        LanczosSingularValueDecompositionTest.checkTriplets(m, rd.getU(), rd.getS(), rd.getV(), 1.0e-8);
+    }
+
+    @Test
+    public void testSparseParallel() {
+        final RealMatrix dense =
+                LanczosSingularValueDecompositionTest.createSparseMatrix(new Random(0x0a9e5c3b7d1f2468l), 300, 200);
+        final CompressedRowRealMatrix m = new CompressedRowRealMatrix(dense);
+        final double[] reference = new SingularValueDecomposition(dense).getSingularValues();
+        final RandomizedSingularValueDecomposition sequential =
+                new RandomizedSingularValueDecomposition(m, 3, 20, 4, null);
+        final ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            final RandomizedSingularValueDecomposition parallel =
+                    new RandomizedSingularValueDecomposition(m, 3, 20, 4, pool);
+            // the spectrum decays slowly, so the approximation is coarse,
+            // but it never overestimates the singular values
+            final double[] s = parallel.getSingularValues();
+            for (int i = 0; i < 3; ++i) {
+                Assert.assertTrue(s[i] <= reference[i]);
+                Assert.assertEquals(reference[i], s[i], 2.0e-2 * reference[0]);
+            }
+            Assert.assertArrayEquals(sequential.getSingularValues(), s, 0.0);
+            Assert.assertEquals(0.0, parallel.getU().subtract(sequential.getU()).getNorm(), 0.0);
+            Assert.assertEquals(0.0, parallel.getV().subtract(sequential.getV()).getNorm(), 0.0);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void testFullRank() {
+        final RealMatrix m = LanczosSingularValueDecompositionTest.createSparseMatrix(new Random(0x3c8e1a5f7b9d2046l), 40, 25);
+        final double[] reference = new SingularValueDecomposition(m).getSingularValues();
+        final RandomizedSingularValueDecomposition rd =
+                new RandomizedSingularValueDecomposition((AbstractRealMatrix) m, 25);
+        Assert.assertArrayEquals(reference, rd.getSingularValues(), 1.0e-12 * reference[0]);
+    }
+
+    @Test(expected = OutOfRangeException.class)
+    public void testTooManySingularValues() {
+        new RandomizedSingularValueDecomposition(new Array2DRowRealMatrix(5, 3), 4);
+    }
+
+    @Test(expected = NotPositiveException.class)
+    public void testNegativeOversampling() {
+        new RandomizedSingularValueDecomposition(new Array2DRowRealMatrix(5, 3), 2, -1, 2, null);
+    }
+
+    @Test(expected = MathUnsupportedOperationException.class)
+    public void testNotTransposable() {
+        new RandomizedSingularValueDecomposition(new JacobiPreconditioner(new double[] { 1, 2, 3 }, false), 1);
+    }
+
+}
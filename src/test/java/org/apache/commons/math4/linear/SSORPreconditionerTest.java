@@ -0,0 +1,67 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.math4.linear;
+
+import org.apache.commons.math4.TestUtils;
+import org.apache.commons.math4.exception.OutOfRangeException;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class SSORPreconditionerTest {
+
+    @Test
+    public void testSymmetric() {
+        final CompressedRowRealMatrix a = PreconditionerTestUtils.createLaplacian(4);
+        final SSORPreconditioner m = new SSORPreconditioner(a, 1.3);
+        final int n = a.getRowDimension();
+        for (int i = 0; i < n; ++i) {
+            final RealVector ei = new ArrayRealVector(n);
+            ei.setEntry(i, 1.0);
+            final RealVector mi = m.operate(ei);
+            for (int j = 0; j < n; ++j) {
+                final RealVector ej = new ArrayRealVector(n);
+                ej.setEntry(j, 1.0);
+                Assert.assertEquals(mi.getEntry(j), m.operate(ej).getEntry(i), 1.0e-15);
+            }
+            Assert.assertTrue(mi.getEntry(i) > 0);
+        }
+    }
+
+    @Test
+    public void testFewerIterations() {
+        final CompressedRowRealMatrix a = PreconditionerTestUtils.createLaplacian(30);
+        final RealVector b = new ArrayRealVector(a.getRowDimension(), 1.0);
+        final ConjugateGradient cg  = new ConjugateGradient(10000, 1.0e-10, true);
+        final ConjugateGradient pcg = new ConjugateGradient(10000, 1.0e-10, true);
+        cg.solve(a, b);
+        final RealVector x = pcg.solve(a, new SSORPreconditioner(a, 1.5), b);
+        Assert.assertTrue(5 * pcg.getIterationManager().getIterations() <
+                          3 * cg.getIterationManager().getIterations());
+        TestUtils.assertEquals(b.toArray(), a.operate(x).toArray(), 1.0e-8);
+    }
+
+    @Test(expected=OutOfRangeException.class)
+    public void testOmegaTooLarge() {
+        new SSORPreconditioner(PreconditionerTestUtils.createLaplacian(3), 2.0);
+    }
+
+    @Test(expected=SingularMatrixException.class)
+    public void testZeroDiagonal() {
+        new SSORPreconditioner(new CompressedRowRealMatrix(3, 3), 1.0);
+    }
+
+}
@@ -18,6 +18,8 @@
 package org.apache.commons.math4.linear;
 
 import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
 
 import org.apache.commons.math4.linear.MatrixUtils;
 import org.apache.commons.math4.linear.NonSquareMatrixException;
@@ -68,6 +70,38 @@ public class TriDiagonalTransformerTest {
         Assert.assertEquals(0, norm, 4.0e-15);
     }
 
+    @Test
+    public void testParallel() {
+        final double[] values = new double[150];
+        for (int i = 0; i < values.length; ++i) {
+            values[i] = i - 0.5 * values.length;
+        }
+        final RealMatrix matrix = EigenDecompositionTest.createTestMatrix(new Random(0x3f1e2d4c5b6a7988l), values);
+        final ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            final TriDiagonalTransformer transformer = new TriDiagonalTransformer(matrix, pool);
+            final RealMatrix q = transformer.getQ();
+            final RealMatrix t = transformer.getT();
+            checkTriDiagonal(t);
+            Assert.assertEquals(0,
+                                q.transpose().multiply(q).subtract(MatrixUtils.createRealIdentityMatrix(values.length)).getNorm(),
+                                1.0e-13);
+            Assert.assertEquals(0, q.multiply(t).multiply(transformer.getQT()).subtract(matrix).getNorm(), 1.0e-11);
+
+            // the results do not depend on the pool
+            final TriDiagonalTransformer sequential = new TriDiagonalTransformer(matrix, null);
+            Assert.assertArrayEquals(sequential.getMainDiagonalRef(), transformer.getMainDiagonalRef(), 0.0);
+            Assert.assertArrayEquals(sequential.getSecondaryDiagonalRef(), transformer.getSecondaryDiagonalRef(), 0.0);
+
+            // Q applied without being built
+            final double[][] z = MatrixUtils.createRealIdentityMatrix(values.length).getData();
+            transformer.applyQ(z, pool);
+            Assert.assertEquals(0, MatrixUtils.createRealMatrix(z).subtract(q).getNorm(), 1.0e-13);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
     @Test
     public void testNoAccessBelowDiagonal() {
         checkNoAccessBelowDiagonal(testSquare5);
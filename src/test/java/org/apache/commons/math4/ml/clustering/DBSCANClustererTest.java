@@ -16,7 +16,9 @@
  */
 package org.apache.commons.math4.ml.clustering;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashSet;
 import java.util.List;
 
 import org.apache.commons.math4.exception.MathIllegalArgumentException;
@@ -24,6 +26,14 @@ import org.apache.commons.math4.exception.NullArgumentException;
 import org.apache.commons.math4.ml.clustering.Cluster;
 import org.apache.commons.math4.ml.clustering.DBSCANClusterer;
 import org.apache.commons.math4.ml.clustering.DoublePoint;
+import org.apache.commons.math4.ml.clustering.neighbors.BallTree;
+import org.apache.commons.math4.ml.clustering.neighbors.BruteForceIndex;
+import org.apache.commons.math4.ml.clustering.neighbors.DefaultSpatialIndexFactory;
+import org.apache.commons.math4.ml.clustering.neighbors.KDTree;
+import org.apache.commons.math4.ml.clustering.neighbors.SpatialIndexFactory;
+import org.apache.commons.math4.ml.distance.EuclideanDistance;
+import org.apache.commons.math4.random.RandomGenerator;
+import org.apache.commons.math4.random.Well19937c;
 import org.junit.Assert;
 import org.junit.Test;
 
@@ -190,4 +200,65 @@ public class DBSCANClustererTest {
         clusterer.cluster(null);
     }
 
+    @Test
+    public void testSpatialIndexes() {
+        final RandomGenerator random = new Well19937c(0x3c9e1a7d5b2f8064l);
+        final List<DoublePoint> points = new ArrayList<DoublePoint>();
+        for (int blob = 0; blob < 5; ++blob) {
+            final double cx = 100 * random.nextDouble();
+            final double cy = 100 * random.nextDouble();
+            for (int i = 0; i < 300; ++i) {
+                points.add(new DoublePoint(new double[] {
+                    cx + 3 * random.nextGaussian(), cy + 3 * random.nextGaussian()
+                }));
+            }
+        }
+        for (int i = 0; i < 200; ++i) {
+            points.add(new DoublePoint(new double[] { 100 * random.nextDouble(), 100 * random.nextDouble() }));
+        }
+
+        final List<Cluster<DoublePoint>> reference =
+                new DBSCANClusterer<DoublePoint>(1.5, 6, new EuclideanDistance(), BruteForceIndex.FACTORY).cluster(points);
+        Assert.assertTrue(reference.size() >= 5);
+        for (final SpatialIndexFactory factory : new SpatialIndexFactory[] {
+            KDTree.FACTORY, BallTree.FACTORY, new DefaultSpatialIndexFactory()
+        }) {
+            final DBSCANClusterer<DoublePoint> clusterer =
+                    new DBSCANClusterer<DoublePoint>(1.5, 6, new EuclideanDistance(), factory);
+            Assert.assertSame(factory, clusterer.getSpatialIndexFactory());
+            final List<Cluster<DoublePoint>> clusters = clusterer.cluster(points);
+            Assert.assertEquals(reference.size(), clusters.size());
+            for (int i = 0; i < reference.size(); ++i) {
+                Assert.assertEquals(new HashSet<DoublePoint>(reference.get(i).getPoints()),
+                                    new HashSet<DoublePoint>(clusters.get(i).getPoints()));
+            }
+        }
+    }
+
+    @Test
+    public void testPointsAtEps() {
+        // grid points are exactly eps apart from their neighbors
+        final List<DoublePoint> points = new ArrayList<DoublePoint>();
+        for (int i = 0; i < 6; ++i) {
+            for (int j = 0; j < 6; ++j) {
+                points.add(new DoublePoint(new double[] { 0.5 * i, 0.5 * j }));
+            }
+        }
+        for (final SpatialIndexFactory factory : new SpatialIndexFactory[] {
+            BruteForceIndex.FACTORY, KDTree.FACTORY, BallTree.FACTORY, new DefaultSpatialIndexFactory()
+        }) {
+            final List<Cluster<DoublePoint>> clusters =
+                    new DBSCANClusterer<DoublePoint>(0.5, 3, new EuclideanDistance(), factory).cluster(points);
+            Assert.assertEquals(1, clusters.size());
+            Assert.assertEquals(new HashSet<DoublePoint>(points),
+                                new HashSet<DoublePoint>(clusters.get(0).getPoints()));
+            Assert.assertTrue(new DBSCANClusterer<DoublePoint>(0.49, 3, new EuclideanDistance(), factory).cluster(points).isEmpty());
+        }
+    }
+
+    @Test(expected = NullArgumentException.class)
+    public void testNullSpatialIndexFactory() {
+        new DBSCANClusterer<DoublePoint>(2.0, 5, new EuclideanDistance(), null);
+    }
+
 }
@@ -0,0 +1,134 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.math4.ml.clustering;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.commons.math4.exception.NumberIsTooSmallException;
+import org.apache.commons.math4.ml.distance.DistanceMeasure;
+import org.apache.commons.math4.ml.distance.EuclideanDistance;
+import org.apache.commons.math4.ml.distance.ManhattanDistance;
+import org.apache.commons.math4.random.JDKRandomGenerator;
+import org.apache.commons.math4.random.RandomGenerator;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ElkanKMeansClustererTest {
+
+    @Test
+    public void testSameClustersAsLloydEuclidean() {
+        checkSameClustersAsLloyd(new EuclideanDistance(), 20, 5000, 4,
+                                 KMeansPlusPlusClusterer.EmptyClusterStrategy.LARGEST_VARIANCE);
+    }
+
+    @Test
+    public void testSameClustersAsLloydManhattan() {
+        checkSameClustersAsLloyd(new ManhattanDistance(), 12, 3000, 3,
+                                 KMeansPlusPlusClusterer.EmptyClusterStrategy.FARTHEST_POINT);
+    }
+
+    @Test
+    public void testSameClustersAsLloydIntegerCoordinates() {
+        // many ties between distances
+        final RandomGenerator generator = new JDKRandomGenerator();
+        generator.setSeed(0x1f3d5b7991e2c4a6l);
+        final List<DoublePoint> points = new ArrayList<DoublePoint>();
+        for (int i = 0; i < 500; ++i) {
+            points.add(new DoublePoint(new int[] { generator.nextInt(10), generator.nextInt(10) }));
+        }
+        for (KMeansPlusPlusClusterer.EmptyClusterStrategy strategy :
+             new KMeansPlusPlusClusterer.EmptyClusterStrategy[] {
+                 KMeansPlusPlusClusterer.EmptyClusterStrategy.LARGEST_VARIANCE,
+                 KMeansPlusPlusClusterer.EmptyClusterStrategy.LARGEST_POINTS_NUMBER,
+                 KMeansPlusPlusClusterer.EmptyClusterStrategy.FARTHEST_POINT
+             }) {
+            compare(points, new ManhattanDistance(), 15, strategy);
+        }
+    }
+
+    @Test(expected=NumberIsTooSmallException.class)
+    public void testTooManyClusters() {
+        new ElkanKMeansClusterer<DoublePoint>(3).
+            cluster(Arrays.asList(new DoublePoint(new double[] { 1 }), new DoublePoint(new double[] { 2 })));
+    }
+
+    private void checkSameClustersAsLloyd(final DistanceMeasure measure, final int k,
+                                          final int n, final int dimension,
+                                          final KMeansPlusPlusClusterer.EmptyClusterStrategy strategy) {
+        final RandomGenerator generator = new JDKRandomGenerator();
+        generator.setSeed(0x5a4e3b2c1d0f9687l);
+        final List<DoublePoint> points = new ArrayList<DoublePoint>();
+        for (int i = 0; i < n; ++i) {
+            final double[] p = new double[dimension];
+            final int blob = generator.nextInt(k);
+            for (int j = 0; j < dimension; ++j) {
+                p[j] = 5 * ((blob >> j) & 0x3) + generator.nextGaussian();
+            }
+            points.add(new DoublePoint(p));
+        }
+        compare(points, measure, k, strategy);
+    }
+
+    private void compare(final List<DoublePoint> points, final DistanceMeasure measure, final int k,
+                         final KMeansPlusPlusClusterer.EmptyClusterStrategy strategy) {
+
+        final CountingDistance lloydMeasure = new CountingDistance(measure);
+        final RandomGenerator r1 = new JDKRandomGenerator();
+        r1.setSeed(0x7c2e4f6a8b1d3e5fl);
+        final List<CentroidCluster<DoublePoint>> lloyd =
+            new KMeansPlusPlusClusterer<DoublePoint>(k, 1000, lloydMeasure, r1, strategy).cluster(points);
+
+        final CountingDistance elkanMeasure = new CountingDistance(measure);
+        final RandomGenerator r2 = new JDKRandomGenerator();
+        r2.setSeed(0x7c2e4f6a8b1d3e5fl);
+        final List<CentroidCluster<DoublePoint>> elkan =
+            new ElkanKMeansClusterer<DoublePoint>(k, 1000, elkanMeasure, r2, strategy).cluster(points);
+
+        Assert.assertEquals(lloyd.size(), elkan.size());
+        for (int i = 0; i < lloyd.size(); ++i) {
+            Assert.assertArrayEquals(lloyd.get(i).getCenter().getPoint(),
+                                     elkan.get(i).getCenter().getPoint(),
+                                     0.0);
+            Assert.assertEquals(lloyd.get(i).getPoints(), elkan.get(i).getPoints());
+        }
+        Assert.assertTrue(elkanMeasure.count < lloydMeasure.count);
+
+    }
+
+    private static class CountingDistance implements DistanceMeasure {
+
+        private static final long serialVersionUID = 20161018L;
+
+        private final DistanceMeasure measure;
+
+        private long count;
+
+        CountingDistance(final DistanceMeasure measure) {
+            this.measure = measure;
+        }
+
+        @Override
+        public double compute(double[] a, double[] b) {
+            ++count;
+            return measure.compute(a, b);
+        }
+
+    }
+
+}
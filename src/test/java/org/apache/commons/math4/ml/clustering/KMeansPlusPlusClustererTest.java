@@ -21,6 +21,7 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
 
 import org.apache.commons.math4.exception.NumberIsTooSmallException;
 import org.apache.commons.math4.ml.clustering.CentroidCluster;
@@ -192,4 +193,42 @@ public class KMeansPlusPlusClustererTest {
 
     }
 
+    @Test
+    public void testParallelAssignment() {
+        final RandomGenerator generator = new JDKRandomGenerator();
+        generator.setSeed(0x6e2a3c8f5b7d4a1fl);
+        final List<DoublePoint> points = new ArrayList<DoublePoint>();
+        for (int i = 0; i < 20000; ++i) {
+            final int blob = i % 5;
+            points.add(new DoublePoint(new double[] {
+                10 * blob + generator.nextGaussian(),
+                -7 * blob + generator.nextGaussian(),
+                generator.nextGaussian()
+            }));
+        }
+
+        final ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            final RandomGenerator r1 = new JDKRandomGenerator();
+            r1.setSeed(0x2f1b9d3e7c5a8b46l);
+            final List<CentroidCluster<DoublePoint>> sequential =
+                new KMeansPlusPlusClusterer<DoublePoint>(5, 100, new EuclideanDistance(), r1).cluster(points);
+            final RandomGenerator r2 = new JDKRandomGenerator();
+            r2.setSeed(0x2f1b9d3e7c5a8b46l);
+            final List<CentroidCluster<DoublePoint>> parallel =
+                new KMeansPlusPlusClusterer<DoublePoint>(5, 100, new EuclideanDistance(), r2,
+                                                         KMeansPlusPlusClusterer.EmptyClusterStrategy.LARGEST_VARIANCE,
+                                                         pool).cluster(points);
+            Assert.assertEquals(sequential.size(), parallel.size());
+            for (int i = 0; i < sequential.size(); ++i) {
+                Assert.assertEquals(sequential.get(i).getPoints(), parallel.get(i).getPoints());
+                Assert.assertArrayEquals(sequential.get(i).getCenter().getPoint(),
+                                         parallel.get(i).getCenter().getPoint(),
+                                         1.0e-12);
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
 }
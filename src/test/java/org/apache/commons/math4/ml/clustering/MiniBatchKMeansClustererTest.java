@@ -0,0 +1,134 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.math4.ml.clustering;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import org.apache.commons.math4.exception.NotStrictlyPositiveException;
+import org.apache.commons.math4.exception.NullArgumentException;
+import org.apache.commons.math4.exception.NumberIsTooSmallException;
+import org.apache.commons.math4.ml.distance.EuclideanDistance;
+import org.apache.commons.math4.random.JDKRandomGenerator;
+import org.apache.commons.math4.random.RandomGenerator;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class MiniBatchKMeansClustererTest {
+
+    private RandomGenerator random;
+
+    @Before
+    public void setUp() {
+        random = new JDKRandomGenerator();
+        random.setSeed(0x3c5e7a9b1d2f4863l);
+    }
+
+    @Test
+    public void testSeparatedBlobs() {
+        final double[][] expected = {
+            { 0, 0 }, { 20, 0 }, { 0, 20 }, { 20, 20 }
+        };
+        final List<DoublePoint> points = createBlobs(expected, 2500);
+        for (ForkJoinPool pool : new ForkJoinPool[] { null, new ForkJoinPool(3) }) {
+            final MiniBatchKMeansClusterer<DoublePoint> clusterer =
+                new MiniBatchKMeansClusterer<DoublePoint>(expected.length, 200, 100,
+                                                          MiniBatchKMeansClusterer.DEFAULT_MAX_NO_IMPROVEMENT,
+                                                          new EuclideanDistance(), random, pool);
+            final List<CentroidCluster<DoublePoint>> clusters = clusterer.cluster(points);
+            Assert.assertEquals(expected.length, clusters.size());
+            int total = 0;
+            for (final double[] center : expected) {
+                boolean found = false;
+                for (final CentroidCluster<DoublePoint> cluster : clusters) {
+                    final double[] c = cluster.getCenter().getPoint();
+                    if (new EuclideanDistance().compute(center, c) < 0.5) {
+                        Assert.assertFalse(found);
+                        found = true;
+                        Assert.assertEquals(2500, cluster.getPoints().size());
+                        total += cluster.getPoints().size();
+                    }
+                }
+                Assert.assertTrue(found);
+            }
+            Assert.assertEquals(points.size(), total);
+            if (pool != null) {
+                pool.shutdown();
+            }
+        }
+    }
+
+    @Test
+    public void testAllPointsAssigned() {
+        final List<DoublePoint> points = createBlobs(new double[][] { { 0, 0 }, { 3, 1 }, { 1, 3 } }, 300);
+        final MiniBatchKMeansClusterer<DoublePoint> clusterer =
+            new MiniBatchKMeansClusterer<DoublePoint>(5, -1, 32, 5, new EuclideanDistance(), random, null);
+        final List<CentroidCluster<DoublePoint>> clusters = clusterer.cluster(points);
+        Assert.assertEquals(5, clusters.size());
+        final EuclideanDistance distance = new EuclideanDistance();
+        int total = 0;
+        for (final CentroidCluster<DoublePoint> cluster : clusters) {
+            total += cluster.getPoints().size();
+            for (final DoublePoint p : cluster.getPoints()) {
+                final double d = distance.compute(p.getPoint(), cluster.getCenter().getPoint());
+                for (final CentroidCluster<DoublePoint> other : clusters) {
+                    Assert.assertTrue(d <= distance.compute(p.getPoint(), other.getCenter().getPoint()));
+                }
+            }
+        }
+        Assert.assertEquals(points.size(), total);
+    }
+
+    @Test(expected=NumberIsTooSmallException.class)
+    public void testTooManyClusters() {
+        new MiniBatchKMeansClusterer<DoublePoint>(3, 10, 10).
+            cluster(Arrays.asList(new DoublePoint(new double[] { 1 }), new DoublePoint(new double[] { 2 })));
+    }
+
+    @Test(expected=NullArgumentException.class)
+    public void testNullPoints() {
+        new MiniBatchKMeansClusterer<DoublePoint>(3, 10, 10).cluster(null);
+    }
+
+    @Test(expected=NotStrictlyPositiveException.class)
+    public void testInvalidBatchSize() {
+        new MiniBatchKMeansClusterer<DoublePoint>(3, 10, 0);
+    }
+
+    @Test(expected=NotStrictlyPositiveException.class)
+    public void testInvalidMaxNoImprovement() {
+        new MiniBatchKMeansClusterer<DoublePoint>(3, 10, 10, 0, new EuclideanDistance(), random, null);
+    }
+
+    private List<DoublePoint> createBlobs(final double[][] centers, final int pointsPerBlob) {
+        final List<DoublePoint> points = new ArrayList<DoublePoint>();
+        for (int i = 0; i < pointsPerBlob; ++i) {
+            for (final double[] center : centers) {
+                final double[] p = new double[center.length];
+                for (int j = 0; j < p.length; ++j) {
+                    p[j] = center[j] + random.nextGaussian();
+                }
+                points.add(new DoublePoint(p));
+            }
+        }
+        return points;
+    }
+
+}
@@ -0,0 +1,156 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.math4.ml.clustering.neighbors;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+
+import org.apache.commons.math4.exception.NotStrictlyPositiveException;
+import org.apache.commons.math4.ml.clustering.DoublePoint;
+import org.apache.commons.math4.ml.distance.ChebyshevDistance;
+import org.apache.commons.math4.ml.distance.DistanceMeasure;
+import org.apache.commons.math4.ml.distance.EuclideanDistance;
+import org.apache.commons.math4.ml.distance.ManhattanDistance;
+import org.apache.commons.math4.random.RandomGenerator;
+import org.apache.commons.math4.random.Well19937c;
+import org.apache.commons.math4.util.FastMath;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class KDTreeTest {
+
+    @Test
+    public void testEuclidean() {
+        checkAgainstBruteForce(new EuclideanDistance(), 2, 2000, 0x81c4e2a5f7b09d36l);
+        checkAgainstBruteForce(new EuclideanDistance(), 5, 2000, 0x2f6d9e3b1a8c7045l);
+    }
+
+    @Test
+    public void testManhattan() {
+        checkAgainstBruteForce(new ManhattanDistance(), 3, 1000, 0x9d3b70e5c1f24a68l);
+    }
+
+    @Test
+    public void testChebyshev() {
+        checkAgainstBruteForce(new ChebyshevDistance(), 3, 1000, 0x4e8a1c6f2b95d073l);
+    }
+
+    @Test
+    public void testManhattanAtRadius() {
+        checkPointsAtRadius(new ManhattanDistance(), 3, 1000, 0x58c2e0f93a7b164dl);
+    }
+
+    @Test
+    public void testChebyshevAtRadius() {
+        checkPointsAtRadius(new ChebyshevDistance(), 3, 1000, 0xa6f1304d8e2c95b7l);
+    }
+
+    @Test
+    public void testGridAtRadius() {
+        final List<DoublePoint> points = new ArrayList<DoublePoint>();
+        for (int i = 0; i < 10; ++i) {
+            for (int j = 0; j < 10; ++j) {
+                points.add(new DoublePoint(new double[] { i, j }));
+            }
+        }
+        final KDTree<DoublePoint> tree = new KDTree<DoublePoint>(points, new EuclideanDistance(), 4);
+        // neighbors exactly at the search radius are included
+        Assert.assertEquals(5, tree.getNeighbors(new DoublePoint(new double[] { 4.0, 4.0 }), 1.0).size());
+        Assert.assertEquals(3, tree.getNeighbors(new DoublePoint(new double[] { 0.0, 0.0 }), 1.0).size());
+        Assert.assertEquals(1, tree.getNeighbors(new DoublePoint(new double[] { 4.0, 4.0 }), 0.999).size());
+    }
+
+    @Test
+    public void testDuplicates() {
+        final List<DoublePoint> points = new ArrayList<DoublePoint>();
+        for (int i = 0; i < 100; ++i) {
+            points.add(new DoublePoint(new double[] { 1.0, 2.0 }));
+        }
+        points.add(new DoublePoint(new double[] { 5.0, 2.0 }));
+        final KDTree<DoublePoint> tree = new KDTree<DoublePoint>(points, new EuclideanDistance(), 4);
+        Assert.assertEquals(101, tree.size());
+        Assert.assertEquals(100, tree.getNeighbors(points.get(0), 1.0).size());
+        Assert.assertEquals(101, tree.getNeighbors(points.get(0), 4.0).size());
+        Assert.assertEquals(1, tree.getNeighbors(points.get(100), 3.99).size());
+    }
+
+    @Test
+    public void testEmpty() {
+        final KDTree<DoublePoint> tree =
+            new KDTree<DoublePoint>(Collections.<DoublePoint>emptyList(), new EuclideanDistance());
+        Assert.assertEquals(0, tree.size());
+        Assert.assertTrue(tree.getNeighbors(new DoublePoint(new double[] { 0.0 }), 1.0).isEmpty());
+    }
+
+    @Test(expected=NotStrictlyPositiveException.class)
+    public void testWrongLeafSize() {
+        new KDTree<DoublePoint>(Collections.<DoublePoint>emptyList(), new EuclideanDistance(), 0);
+    }
+
+    private void checkAgainstBruteForce(final DistanceMeasure measure, final int dimension,
+                                        final int n, final long seed) {
+        final RandomGenerator random = new Well19937c(seed);
+        final List<DoublePoint> points = new ArrayList<DoublePoint>();
+        for (int i = 0; i < n; ++i) {
+            final double[] x = new double[dimension];
+            for (int j = 0; j < dimension; ++j) {
+                // coarse grid to get many ties
+                x[j] = FastMath.rint(100 * random.nextDouble()) / 10.0;
+            }
+            points.add(new DoublePoint(x));
+        }
+        final KDTree<DoublePoint> tree = new KDTree<DoublePoint>(points, measure, 8);
+        final BruteForceIndex<DoublePoint> bruteForce = new BruteForceIndex<DoublePoint>(points, measure);
+        for (int i = 0; i < 200; ++i) {
+            final DoublePoint query = points.get(random.nextInt(n));
+            final double radius = 2.0 * random.nextDouble();
+            final List<DoublePoint> expected = bruteForce.getNeighbors(query, radius);
+            final List<DoublePoint> actual   = tree.getNeighbors(query, radius);
+            Assert.assertEquals(expected.size(), actual.size());
+            Assert.assertEquals(new HashSet<DoublePoint>(expected), new HashSet<DoublePoint>(actual));
+        }
+    }
+
+    private void checkPointsAtRadius(final DistanceMeasure measure, final int dimension,
+                                     final int n, final long seed) {
+        final RandomGenerator random = new Well19937c(seed);
+        final List<DoublePoint> points = new ArrayList<DoublePoint>();
+        for (int i = 0; i < n; ++i) {
+            final double[] x = new double[dimension];
+            for (int j = 0; j < dimension; ++j) {
+                x[j] = 10 * random.nextDouble() - 3;
+            }
+            points.add(new DoublePoint(x));
+        }
+        final KDTree<DoublePoint> tree = new KDTree<DoublePoint>(points, measure, 4);
+        final BruteForceIndex<DoublePoint> bruteForce = new BruteForceIndex<DoublePoint>(points, measure);
+        for (int i = 0; i < 2000; ++i) {
+            // the search radius is exactly the distance to another point,
+            // computed with the same argument order as the index
+            final DoublePoint query = points.get(random.nextInt(n));
+            final DoublePoint other = points.get(random.nextInt(n));
+            final double radius = measure.compute(other.getPoint(), query.getPoint());
+            final List<DoublePoint> expected = bruteForce.getNeighbors(query, radius);
+            final List<DoublePoint> actual   = tree.getNeighbors(query, radius);
+            Assert.assertTrue(actual.contains(other));
+            Assert.assertEquals(new HashSet<DoublePoint>(expected), new HashSet<DoublePoint>(actual));
+        }
+    }
+
+}
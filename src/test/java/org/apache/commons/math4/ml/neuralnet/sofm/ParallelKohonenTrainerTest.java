@@ -0,0 +1,198 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.math4.ml.neuralnet.sofm;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.math4.exception.DimensionMismatchException;
+import org.apache.commons.math4.exception.NotStrictlyPositiveException;
+import org.apache.commons.math4.ml.distance.DistanceMeasure;
+import org.apache.commons.math4.ml.distance.EuclideanDistance;
+import org.apache.commons.math4.ml.distance.ManhattanDistance;
+import org.apache.commons.math4.ml.neuralnet.FeatureInitializer;
+import org.apache.commons.math4.ml.neuralnet.FeatureInitializerFactory;
+import org.apache.commons.math4.ml.neuralnet.MapUtils;
+import org.apache.commons.math4.ml.neuralnet.Network;
+import org.apache.commons.math4.ml.neuralnet.Neuron;
+import org.apache.commons.math4.ml.neuralnet.SquareNeighbourhood;
+import org.apache.commons.math4.ml.neuralnet.twod.NeuronSquareMesh2D;
+import org.apache.commons.math4.random.RandomGenerator;
+import org.apache.commons.math4.random.Well19937c;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Tests for {@link ParallelKohonenTrainer}.
+ */
+public class ParallelKohonenTrainerTest {
+    @Test
+    public void testFeatureMatrixFindBest() {
+        final RandomGenerator rng = new Well19937c(0x4b5d7f9a1c3e2f68L);
+        final Network net = createMap(rng, 8).getNetwork();
+        final NeuronFeatureMatrix matrix = new NeuronFeatureMatrix(net);
+        for (DistanceMeasure distance : new DistanceMeasure[] { new EuclideanDistance(),
+                                                                new ManhattanDistance() }) {
+            for (int i = 0; i < 100; i++) {
+                final double[] sample = { rng.nextDouble(), rng.nextDouble() };
+                Assert.assertSame(MapUtils.findBest(sample, net, distance),
+                                  matrix.findBest(sample, distance));
+            }
+        }
+    }
+
+    @Test
+    public void testFeatureMatrixUpdate() {
+        final RandomGenerator rng = new Well19937c(0x1a2b3c4d5e6f7081L);
+        final Network net = createMap(rng, 4).getNetwork();
+        final NeuronFeatureMatrix matrix = new NeuronFeatureMatrix(net);
+        final Neuron n = net.getNeuron(5);
+        final double[] target = { 12.5, -3.25 };
+        Assert.assertTrue(n.compareAndSetFeatures(n.getFeatures(), target));
+        matrix.refresh(n);
+        Assert.assertSame(n, matrix.findBest(target, new EuclideanDistance()));
+    }
+
+    @Test
+    public void testFeatureMatrixLastUpdateWins() {
+        final RandomGenerator rng = new Well19937c(0x0f1e2d3c4b5a6978L);
+        final Network net = createMap(rng, 4).getNetwork();
+        final NeuronFeatureMatrix matrix = new NeuronFeatureMatrix(net);
+        final Neuron n = net.getNeuron(5);
+        final double[] first = { 12.5, -3.25 };
+        final double[] second = { -7.5, 8.0 };
+        // Two successful updates, whose cache refreshes complete in reverse order.
+        Assert.assertTrue(n.compareAndSetFeatures(n.getFeatures(), first));
+        Assert.assertTrue(n.compareAndSetFeatures(first, second));
+        matrix.refresh(n);
+        matrix.refresh(n);
+        Assert.assertSame(n, matrix.findBest(second, new EuclideanDistance()));
+        Assert.assertNotSame(n, matrix.findBest(first, new EuclideanDistance()));
+    }
+
+    @Test
+    public void testTraining() {
+        final RandomGenerator rng = new Well19937c(0x7e6d5c4b3a291807L);
+        final NeuronSquareMesh2D map = createMap(rng, 10);
+        final Network net = map.getNetwork();
+        final List<double[]> data = createSamples(rng, 2000);
+        final DistanceMeasure distance = new EuclideanDistance();
+        final double initialError = MapUtils.computeQuantizationError(data, net, distance);
+
+        final int numSamples = 20000;
+        final KohonenUpdateAction action
+            = new KohonenUpdateAction(distance,
+                                      LearningFactorFunctionFactory.exponentialDecay(0.5, 0.05, numSamples),
+                                      NeighbourhoodSizeFunctionFactory.exponentialDecay(5, 2, numSamples));
+        final ParallelKohonenTrainer trainer = new ParallelKohonenTrainer(net, action, 64);
+
+        final ExecutorService executor = Executors.newFixedThreadPool(3);
+        try {
+            final ParallelKohonenTrainer.TrainingStatistics stats =
+                trainer.train(createIterator(rng, numSamples), executor, 3);
+            Assert.assertEquals(numSamples, stats.getNumberOfSamples());
+            Assert.assertEquals(numSamples, action.getNumberOfCalls());
+            Assert.assertTrue(stats.getThroughput() > 0);
+            Assert.assertTrue(stats.getNumberOfRetries() >= 0);
+            Assert.assertEquals(action.getNumberOfRetries(), stats.getNumberOfRetries());
+        } finally {
+            executor.shutdown();
+        }
+
+        final double finalError = MapUtils.computeQuantizationError(data, net, distance);
+        Assert.assertTrue(finalError < 0.5 * initialError);
+        Assert.assertTrue(finalError < 0.1);
+    }
+
+    @Test
+    public void testFailedTaskCancelsOthers() throws InterruptedException {
+        final RandomGenerator rng = new Well19937c(0x5f3e1d7c9b2a4860L);
+        final Network net = createMap(rng, 4).getNetwork();
+        final KohonenUpdateAction action
+            = new KohonenUpdateAction(new EuclideanDistance(),
+                                      LearningFactorFunctionFactory.exponentialDecay(0.5, 0.05, 1000),
+                                      NeighbourhoodSizeFunctionFactory.exponentialDecay(2, 1, 1000));
+        final ParallelKohonenTrainer trainer = new ParallelKohonenTrainer(net, action, 8);
+
+        // Endless data, with one invalid sample: the tasks that do not read
+        // it can only stop if they are cancelled.
+        final Iterator<double[]> iterator = new Iterator<double[]>() {
+            private int count;
+            public boolean hasNext() {
+                return true;
+            }
+            public double[] next() {
+                return ++count == 100 ? new double[3] : new double[] { 0.5, 0.5 };
+            }
+            public void remove() {
+                throw new UnsupportedOperationException();
+            }
+        };
+
+        final ExecutorService executor = Executors.newFixedThreadPool(3);
+        try {
+            trainer.train(iterator, executor, 3);
+            Assert.fail("an exception should have been thrown");
+        } catch (DimensionMismatchException e) {
+            // expected
+        } finally {
+            executor.shutdown();
+        }
+        Assert.assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+    }
+
+    @Test(expected=NotStrictlyPositiveException.class)
+    public void testInvalidChunkSize() {
+        final RandomGenerator rng = new Well19937c(0x2c4e6a8b0d1f3957L);
+        new ParallelKohonenTrainer(createMap(rng, 2).getNetwork(), null, 0);
+    }
+
+    @Test(expected=NotStrictlyPositiveException.class)
+    public void testInvalidNumberOfTasks() {
+        final RandomGenerator rng = new Well19937c(0x6b8d0f1e3c5a7492L);
+        final ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            new ParallelKohonenTrainer(createMap(rng, 2).getNetwork(), null).
+                train(createIterator(rng, 1), executor, 0);
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private NeuronSquareMesh2D createMap(RandomGenerator rng, int size) {
+        final FeatureInitializer init = FeatureInitializerFactory.uniform(rng, 0.45, 0.55);
+        return new NeuronSquareMesh2D(size, false, size, false,
+                                      SquareNeighbourhood.VON_NEUMANN,
+                                      new FeatureInitializer[] { init, init });
+    }
+
+    private List<double[]> createSamples(RandomGenerator rng, int numSamples) {
+        final List<double[]> samples = new ArrayList<double[]>(numSamples);
+        for (int i = 0; i < numSamples; i++) {
+            samples.add(new double[] { rng.nextDouble(), rng.nextDouble() });
+        }
+        return samples;
+    }
+
+    private Iterator<double[]> createIterator(RandomGenerator rng, int numSamples) {
+        return createSamples(rng, numSamples).iterator();
+    }
+}
@@ -0,0 +1,224 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.math4.ode;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Random;
+
+import org.apache.commons.math4.TestUtils;
+import org.apache.commons.math4.exception.MathIllegalStateException;
+import org.apache.commons.math4.exception.NumberIsTooSmallException;
+import org.apache.commons.math4.ode.nonstiff.DormandPrince54Integrator;
+import org.apache.commons.math4.ode.nonstiff.DormandPrince853Integrator;
+import org.apache.commons.math4.util.FastMath;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class CompactContinuousOutputModelTest {
+
+    @Test(expected=NumberIsTooSmallException.class)
+    public void testWrongDegree() {
+        new CompactContinuousOutputModel(0);
+    }
+
+    @Test(expected=MathIllegalStateException.class)
+    public void testEmpty() {
+        final CompactContinuousOutputModel cm = new CompactContinuousOutputModel();
+        Assert.assertTrue(Double.isNaN(cm.getInitialTime()));
+        Assert.assertTrue(Double.isNaN(cm.getFinalTime()));
+        cm.setInterpolatedTime(0.0);
+    }
+
+    @Test
+    public void testSameAsContinuousOutputModel() {
+        // with degree 7, the Dormand-Prince 8(5,3) dense output is reproduced exactly
+        final TestProblem3 pb = new TestProblem3(0.9);
+        final FirstOrderIntegrator integ = new DormandPrince853Integrator(0, 1.0, 1.0e-10, 1.0e-10);
+        final ContinuousOutputModel reference = new ContinuousOutputModel();
+        final CompactContinuousOutputModel cm = new CompactContinuousOutputModel();
+        integ.addStepHandler(reference);
+        integ.addStepHandler(cm);
+        integ.integrate(pb,
+                        pb.getInitialTime(), pb.getInitialState(),
+                        pb.getFinalTime(), new double[pb.getDimension()]);
+        Assert.assertTrue(cm.getNumberOfSteps() > 10);
+        Assert.assertEquals(reference.getInitialTime(), cm.getInitialTime(), 0);
+        Assert.assertEquals(reference.getFinalTime(),   cm.getFinalTime(),   0);
+        checkSame(reference, cm, pb.getInitialTime(), pb.getFinalTime(), 2.0e-13, 1.0e-9);
+    }
+
+    @Test
+    public void testRandomAccess() {
+        final TestProblem3 pb = new TestProblem3(0.9);
+        final FirstOrderIntegrator integ = new DormandPrince54Integrator(0, 1.0, 1.0e-8, 1.0e-8);
+        final CompactContinuousOutputModel cm = new CompactContinuousOutputModel(5);
+        integ.addStepHandler(cm);
+        integ.integrate(pb,
+                        pb.getInitialTime(), pb.getInitialState(),
+                        pb.getFinalTime(), new double[pb.getDimension()]);
+
+        final Random random = new Random(0x6f3a58c1d24e7b90l);
+        double maxError    = 0.0;
+        double maxErrorDot = 0.0;
+        for (int i = 0; i < 1000; ++i) {
+            final double r = random.nextDouble();
+            final double time = r * pb.getInitialTime() + (1.0 - r) * pb.getFinalTime();
+            cm.setInterpolatedTime(time);
+            Assert.assertEquals(time, cm.getInterpolatedTime(), 0);
+            final double[] interpolatedY    = cm.getInterpolatedState();
+            final double[] interpolatedYDot = cm.getInterpolatedDerivatives();
+            final double[] theoreticalY     = pb.computeTheoreticalState(time);
+            final double[] theoreticalYDot  = new double[pb.getDimension()];
+            pb.doComputeDerivatives(time, theoreticalY, theoreticalYDot);
+            final double dx = interpolatedY[0] - theoreticalY[0];
+            final double dy = interpolatedY[1] - theoreticalY[1];
+            maxError = FastMath.max(maxError, dx * dx + dy * dy);
+            final double dxDot = interpolatedYDot[0] - theoreticalYDot[0];
+            final double dyDot = interpolatedYDot[1] - theoreticalYDot[1];
+            maxErrorDot = FastMath.max(maxErrorDot, dxDot * dxDot + dyDot * dyDot);
+        }
+
+        Assert.assertEquals(0.0, maxError,    1.0e-9);
+        Assert.assertEquals(0.0, maxErrorDot, 4.0e-7);
+
+    }
+
+    @Test
+    public void testBackward() {
+        // theoretical solution: y[0] = cos(t), y[1] = sin(t)
+        final FirstOrderDifferentialEquations problem =
+            new FirstOrderDifferentialEquations() {
+                @Override
+                public void computeDerivatives(double t, double[] y, double[] dot) {
+                    dot[0] = -y[1];
+                    dot[1] =  y[0];
+                }
+                @Override
+                public int getDimension() {
+                    return 2;
+                }
+            };
+
+        final CompactContinuousOutputModel cm = new CompactContinuousOutputModel();
+        final FirstOrderIntegrator integ = new DormandPrince853Integrator(0, 0.1, 1.0e-12, 1.0e-12);
+        integ.addStepHandler(cm);
+        integ.integrate(problem, 2.0 * FastMath.PI, new double[] { 1.0, 0.0 }, 0, new double[2]);
+
+        Assert.assertEquals(2.0 * FastMath.PI, cm.getInitialTime(), 1.0e-12);
+        Assert.assertEquals(0, cm.getFinalTime(), 1.0e-12);
+        for (double t = 0; t < 2.0 * FastMath.PI; t += 0.1) {
+            cm.setInterpolatedTime(t);
+            final double[] y    = cm.getInterpolatedState();
+            final double[] yDot = cm.getInterpolatedDerivatives();
+            Assert.assertEquals( FastMath.cos(t), y[0],    1.0e-10);
+            Assert.assertEquals( FastMath.sin(t), y[1],    1.0e-10);
+            Assert.assertEquals(-FastMath.sin(t), yDot[0], 1.0e-9);
+            Assert.assertEquals( FastMath.cos(t), yDot[1], 1.0e-9);
+        }
+
+    }
+
+    @Test
+    public void testMemoryMappedAndSerialization() throws IOException {
+        final TestProblem3 pb = new TestProblem3(0.9);
+        // small steps, to fill several storage chunks
+        final FirstOrderIntegrator integ = new DormandPrince853Integrator(0, 0.005, 1.0e-10, 1.0e-10);
+        final CompactContinuousOutputModel heap = new CompactContinuousOutputModel();
+        final File file = File.createTempFile("compact-output", ".bin");
+        file.deleteOnExit();
+        final CompactContinuousOutputModel mapped = new CompactContinuousOutputModel(CompactContinuousOutputModel.DEFAULT_DEGREE, file);
+        try {
+            integ.addStepHandler(heap);
+            integ.addStepHandler(mapped);
+            integ.integrate(pb,
+                            pb.getInitialTime(), pb.getInitialState(),
+                            pb.getFinalTime(), new double[pb.getDimension()]);
+            Assert.assertTrue(mapped.getNumberOfSteps() > 2048);
+            Assert.assertTrue(file.length() > 0);
+            checkSame(heap, mapped, pb.getInitialTime(), pb.getFinalTime(), 0, 0);
+
+            final CompactContinuousOutputModel recovered =
+                (CompactContinuousOutputModel) TestUtils.serializeAndRecover(mapped);
+            Assert.assertEquals(mapped.getNumberOfSteps(), recovered.getNumberOfSteps());
+            checkSame(heap, recovered, pb.getInitialTime(), pb.getFinalTime(), 0, 0);
+        } finally {
+            mapped.close();
+        }
+    }
+
+    @Test
+    public void testMemoryMappedFileTruncated() throws IOException {
+        final TestProblem3 pb = new TestProblem3(0.9);
+        final File file = File.createTempFile("compact-output", ".bin");
+        file.deleteOnExit();
+        final FileOutputStream out = new FileOutputStream(file);
+        try {
+            out.write(new byte[1 << 20]);
+        } finally {
+            out.close();
+        }
+
+        final CompactContinuousOutputModel mapped = new CompactContinuousOutputModel(CompactContinuousOutputModel.DEFAULT_DEGREE, file);
+        try {
+            Assert.assertEquals(0, file.length());
+
+            // one chunk of steps
+            final long chunkBytes = 8l * 1024 * (CompactContinuousOutputModel.DEFAULT_DEGREE + 1) * pb.getDimension();
+            final FirstOrderIntegrator integ = new DormandPrince853Integrator(0, 1.0, 1.0e-8, 1.0e-8);
+            integ.addStepHandler(mapped);
+            integ.integrate(pb,
+                            pb.getInitialTime(), pb.getInitialState(),
+                            pb.getFinalTime(), new double[pb.getDimension()]);
+            Assert.assertTrue(mapped.getNumberOfSteps() < 1024);
+            Assert.assertEquals(chunkBytes, file.length());
+
+            // a new integration starts from an empty file
+            mapped.init(pb.getInitialTime(), pb.getInitialState(), pb.getFinalTime());
+            Assert.assertEquals(0, mapped.getNumberOfSteps());
+            Assert.assertEquals(0, file.length());
+        } finally {
+            mapped.close();
+        }
+    }
+
+    private void checkSame(final ContinuousOutputModel reference, final CompactContinuousOutputModel cm,
+                           final double t0, final double t1, final double tolY, final double tolYDot) {
+        final Random random = new Random(0x1d7c2e95b3a4f068l);
+        for (int i = 0; i < 1000; ++i) {
+            final double time = t0 + random.nextDouble() * (t1 - t0);
+            reference.setInterpolatedTime(time);
+            cm.setInterpolatedTime(time);
+            Assert.assertArrayEquals(reference.getInterpolatedState(), cm.getInterpolatedState(), tolY);
+            Assert.assertArrayEquals(reference.getInterpolatedDerivatives(), cm.getInterpolatedDerivatives(), tolYDot);
+        }
+    }
+
+    private void checkSame(final CompactContinuousOutputModel reference, final CompactContinuousOutputModel cm,
+                           final double t0, final double t1, final double tolY, final double tolYDot) {
+        final Random random = new Random(0x1d7c2e95b3a4f068l);
+        for (int i = 0; i < 1000; ++i) {
+            final double time = t0 + random.nextDouble() * (t1 - t0);
+            reference.setInterpolatedTime(time);
+            cm.setInterpolatedTime(time);
+            Assert.assertArrayEquals(reference.getInterpolatedState(), cm.getInterpolatedState(), tolY);
+            Assert.assertArrayEquals(reference.getInterpolatedDerivatives(), cm.getInterpolatedDerivatives(), tolYDot);
+        }
+    }
+
+}
@@ -0,0 +1,234 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.math4.ode;
+
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.apache.commons.math4.exception.DimensionMismatchException;
+import org.apache.commons.math4.exception.MathUnsupportedOperationException;
+import org.apache.commons.math4.exception.MaxCountExceededException;
+import org.apache.commons.math4.exception.NotStrictlyPositiveException;
+import org.apache.commons.math4.ode.nonstiff.DormandPrince853Integrator;
+import org.apache.commons.math4.ode.sampling.StepHandler;
+import org.apache.commons.math4.ode.sampling.StepInterpolator;
+import org.apache.commons.math4.util.FastMath;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class EnsembleIntegratorTest {
+
+    private ExecutorService executor;
+
+    @Before
+    public void setUp() {
+        executor = Executors.newFixedThreadPool(4);
+    }
+
+    @After
+    public void tearDown() {
+        executor.shutdown();
+        executor = null;
+    }
+
+    @Test(expected=NotStrictlyPositiveException.class)
+    public void testWrongChunkSize() {
+        new EnsembleIntegrator(factory(1.0e-10, Integer.MAX_VALUE), executor, 0);
+    }
+
+    @Test
+    public void testSameAsSequential() {
+        final double[][] y0 = randomStates(200, 0x4e2a9d7c13b85f60l);
+        final TestProblem3 pb = new TestProblem3(0.9);
+        final double[][] y0Kepler = new double[y0.length][];
+        for (int i = 0; i < y0.length; ++i) {
+            // perturbed Kepler initial states
+            y0Kepler[i] = pb.getInitialState().clone();
+            y0Kepler[i][3] += 0.01 * y0[i][0];
+        }
+        final EnsembleIntegrator ensemble = new EnsembleIntegrator(factory(1.0e-10, Integer.MAX_VALUE), executor, 16);
+        final double[][] y = ensemble.integrate(pb, pb.getInitialTime(), y0Kepler, pb.getFinalTime());
+
+        final FirstOrderIntegrator integrator = factory(1.0e-10, Integer.MAX_VALUE).createIntegrator();
+        for (int i = 0; i < y0Kepler.length; ++i) {
+            final double[] expected = new double[4];
+            integrator.integrate(pb, pb.getInitialTime(), y0Kepler[i], pb.getFinalTime(), expected);
+            Assert.assertArrayEquals(expected, y[i], 0);
+        }
+    }
+
+    @Test
+    public void testStepHandlers() {
+        final double[][] y0 = randomStates(50, 0x79c3e1085d2a4fb6l);
+        final int[] steps   = new int[y0.length];
+        final double[] last = new double[y0.length];
+        final EnsembleIntegrator ensemble = new EnsembleIntegrator(factory(1.0e-10, Integer.MAX_VALUE), executor, 7);
+        final double[][] y = ensemble.integrate(new Oscillator(), 0, y0, 10, new EnsembleIntegrator.StepHandlerFactory() {
+            /** {@inheritDoc} */
+            @Override
+            public StepHandler createStepHandler(final int member) {
+                if (member % 5 == 0) {
+                    // no handler for some members
+                    return null;
+                }
+                return new StepHandler() {
+                    /** {@inheritDoc} */
+                    @Override
+                    public void init(double t0, double[] initialState, double t) {
+                        Assert.assertArrayEquals(y0[member], initialState, 0);
+                    }
+                    /** {@inheritDoc} */
+                    @Override
+                    public void handleStep(StepInterpolator interpolator, boolean isLast) {
+                        ++steps[member];
+                        if (isLast) {
+                            last[member] = interpolator.getInterpolatedState()[0];
+                        }
+                    }
+                };
+            }
+        });
+        for (int i = 0; i < y0.length; ++i) {
+            if (i % 5 == 0) {
+                Assert.assertEquals(0, steps[i]);
+            } else {
+                Assert.assertTrue(steps[i] > 0);
+                Assert.assertEquals(y[i][0], last[i], 0);
+            }
+        }
+    }
+
+    @Test
+    public void testLockstep() {
+        final double[][] y0 = randomStates(100, 0x0b5d7e3f29c614a8l);
+        final int[] calls = new int[1];
+        final EnsembleIntegrator ensemble = new EnsembleIntegrator(factory(1.0e-10, Integer.MAX_VALUE), executor, 25);
+        final double[][] y = ensemble.integrateLockstep(new BatchFirstOrderDifferentialEquations() {
+            /** {@inheritDoc} */
+            @Override
+            public int getDimension() {
+                return 2;
+            }
+            /** {@inheritDoc} */
+            @Override
+            public void computeDerivatives(double t, double[][] states, double[][] derivatives) {
+                synchronized (calls) {
+                    ++calls[0];
+                }
+                Assert.assertEquals(25, states.length);
+                for (int i = 0; i < states.length; ++i) {
+                    derivatives[i][0] =  states[i][1];
+                    derivatives[i][1] = -states[i][0];
+                }
+            }
+        }, 0, y0, 10);
+        Assert.assertTrue(calls[0] > 0);
+        for (int i = 0; i < y0.length; ++i) {
+            // harmonic oscillator: rotation by angle -t
+            final double c = FastMath.cos(10);
+            final double s = FastMath.sin(10);
+            Assert.assertEquals( c * y0[i][0] + s * y0[i][1], y[i][0], 1.0e-8);
+            Assert.assertEquals(-s * y0[i][0] + c * y0[i][1], y[i][1], 1.0e-8);
+        }
+    }
+
+    @Test(expected=DimensionMismatchException.class)
+    public void testLockstepDimensionMismatch() {
+        final EnsembleIntegrator ensemble = new EnsembleIntegrator(factory(1.0e-10, Integer.MAX_VALUE), executor);
+        ensemble.integrateLockstep(new BatchFirstOrderDifferentialEquations() {
+            /** {@inheritDoc} */
+            @Override
+            public int getDimension() {
+                return 2;
+            }
+            /** {@inheritDoc} */
+            @Override
+            public void computeDerivatives(double t, double[][] states, double[][] derivatives) {
+            }
+        }, 0, new double[][] { { 1, 2 }, { 1, 2, 3 } }, 10);
+    }
+
+    @Test(expected=MathUnsupportedOperationException.class)
+    public void testLockstepVectorialTolerances() {
+        final EnsembleIntegrator ensemble = new EnsembleIntegrator(new EnsembleIntegrator.IntegratorFactory() {
+            /** {@inheritDoc} */
+            @Override
+            public FirstOrderIntegrator createIntegrator() {
+                final double[] tolerance = { 1.0e-10, 1.0e-10 };
+                return new DormandPrince853Integrator(1.0e-6, 10.0, tolerance, tolerance);
+            }
+        }, executor, 2);
+        ensemble.integrateLockstep(new BatchFirstOrderDifferentialEquations() {
+            /** {@inheritDoc} */
+            @Override
+            public int getDimension() {
+                return 2;
+            }
+            /** {@inheritDoc} */
+            @Override
+            public void computeDerivatives(double t, double[][] states, double[][] derivatives) {
+            }
+        }, 0, randomStates(4, 0x3e9al), 10);
+    }
+
+    @Test(expected=MaxCountExceededException.class)
+    public void testErrorPropagation() {
+        final EnsembleIntegrator ensemble = new EnsembleIntegrator(factory(1.0e-10, 20), executor);
+        ensemble.integrate(new Oscillator(), 0, randomStates(10, 0x5a3cl), 100);
+    }
+
+    private EnsembleIntegrator.IntegratorFactory factory(final double tolerance, final int maxEvaluations) {
+        return new EnsembleIntegrator.IntegratorFactory() {
+            /** {@inheritDoc} */
+            @Override
+            public FirstOrderIntegrator createIntegrator() {
+                final FirstOrderIntegrator integrator =
+                    new DormandPrince853Integrator(1.0e-6, 10.0, tolerance, tolerance);
+                integrator.setMaxEvaluations(maxEvaluations);
+                return integrator;
+            }
+        };
+    }
+
+    private double[][] randomStates(final int n, final long seed) {
+        final Random random = new Random(seed);
+        final double[][] states = new double[n][2];
+        for (int i = 0; i < n; ++i) {
+            states[i][0] = 2 * random.nextDouble() - 1;
+            states[i][1] = 2 * random.nextDouble() - 1;
+        }
+        return states;
+    }
+
+    private static class Oscillator implements FirstOrderDifferentialEquations {
+        /** {@inheritDoc} */
+        @Override
+        public int getDimension() {
+            return 2;
+        }
+        /** {@inheritDoc} */
+        @Override
+        public void computeDerivatives(double t, double[] y, double[] yDot) {
+            yDot[0] =  y[1];
+            yDot[1] = -y[0];
+        }
+    }
+
+}
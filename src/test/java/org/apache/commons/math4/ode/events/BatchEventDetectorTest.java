@@ -0,0 +1,215 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.commons.math4.ode.events;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.apache.commons.math4.analysis.solvers.BracketingNthOrderBrentSolver;
+import org.apache.commons.math4.ode.FirstOrderDifferentialEquations;
+import org.apache.commons.math4.ode.nonstiff.DormandPrince853Integrator;
+import org.apache.commons.math4.ode.sampling.StepHandler;
+import org.apache.commons.math4.ode.sampling.StepInterpolator;
+import org.apache.commons.math4.util.FastMath;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class BatchEventDetectorTest {
+
+    @Test
+    public void testSameEventsAsOneAtATime() {
+        final Run reference = run(null, false, false);
+        Assert.assertTrue(reference.events() > 100);
+        checkEvents(reference);
+        checkSameEvents(reference, run(new BatchEventDetector(), false, false));
+    }
+
+    @Test
+    public void testParallelLocation() throws InterruptedException {
+        final ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            final BatchEventDetector detector = new BatchEventDetector(executor);
+            Assert.assertSame(executor, detector.getExecutor());
+            checkSameEvents(run(null, false, false), run(detector, false, false));
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testSharedSolver() throws InterruptedException {
+        final ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            checkSameEvents(run(null, false, true), run(new BatchEventDetector(executor), false, true));
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testStepEndValueCached() {
+        final Run oneAtATime = run(null, false, false);
+        final Run batch      = run(new BatchEventDetector(), false, false);
+        checkSameEvents(oneAtATime, batch);
+        // the values at step end are not computed twice
+        Assert.assertTrue(batch.gCalls() < 0.95 * oneAtATime.gCalls());
+    }
+
+    @Test
+    public void testRateBound() {
+        final Run unbounded = run(new BatchEventDetector(), false, false);
+        final Run bounded   = run(new BatchEventDetector(), true, false);
+        checkEvents(bounded);
+        Assert.assertEquals(unbounded.events(), bounded.events());
+        Assert.assertTrue(bounded.gCalls() < 0.95 * unbounded.gCalls());
+
+        // the rate bound is also used when handlers are evaluated one at a time
+        final Run boundedOneAtATime = run(null, true, false);
+        checkSameEvents(boundedOneAtATime, bounded);
+        Assert.assertTrue(boundedOneAtATime.gCalls() < 0.95 * run(null, false, false).gCalls());
+    }
+
+    private void checkEvents(final Run run) {
+        for (final Station station : run.stations) {
+            for (final double t : station.times) {
+                Assert.assertEquals(station.threshold,
+                                    FastMath.sin(t + station.phase), 1.0e-9);
+            }
+        }
+    }
+
+    private void checkSameEvents(final Run expected, final Run actual) {
+        Assert.assertEquals(expected.steps, actual.steps);
+        Assert.assertEquals(expected.evaluations, actual.evaluations);
+        Assert.assertEquals(expected.y[0], actual.y[0], 0.0);
+        Assert.assertEquals(expected.y[1], actual.y[1], 0.0);
+        for (int i = 0; i < expected.stations.size(); ++i) {
+            final List<Double> expectedTimes = expected.stations.get(i).times;
+            final List<Double> actualTimes   = actual.stations.get(i).times;
+            Assert.assertEquals(expectedTimes.size(), actualTimes.size());
+            for (int j = 0; j < expectedTimes.size(); ++j) {
+                Assert.assertEquals(expectedTimes.get(j), actualTimes.get(j), 1.0e-12);
+            }
+        }
+    }
+
+    private Run run(final BatchEventDetector detector, final boolean rateBounded,
+                    final boolean sharedSolver) {
+        final DormandPrince853Integrator integrator =
+                new DormandPrince853Integrator(1.0e-6, 10.0, 1.0e-10, 1.0e-10);
+        integrator.setBatchEventDetector(detector);
+        Assert.assertSame(detector, integrator.getBatchEventDetector());
+        final Run run = new Run();
+        final BracketingNthOrderBrentSolver solver = new BracketingNthOrderBrentSolver(1.0e-12, 5);
+        for (int k = 0; k < 40; ++k) {
+            final Station station = rateBounded ?
+                                    new RateBoundedStation(0.13 * k, 0.5 + 0.01 * k) :
+                                    new Station(0.13 * k, 0.5 + 0.01 * k);
+            run.stations.add(station);
+            if (sharedSolver) {
+                integrator.addEventHandler(station, 0.25, 1.0e-12, 100, solver);
+            } else {
+                integrator.addEventHandler(station, 0.25, 1.0e-12, 100);
+            }
+        }
+        integrator.addStepHandler(new StepHandler() {
+            public void init(double t0, double[] y0, double t) {
+            }
+            public void handleStep(StepInterpolator interpolator, boolean isLast) {
+                ++run.steps;
+            }
+        });
+        integrator.integrate(new Oscillator(), 0.0, new double[] { 0.0, 1.0 }, 10.0, run.y);
+        run.evaluations = integrator.getEvaluations();
+        return run;
+    }
+
+    private static class Run {
+        private final List<Station> stations = new ArrayList<Station>();
+        private final double[] y = new double[2];
+        private int steps;
+        private int evaluations;
+        int events() {
+            int n = 0;
+            for (final Station station : stations) {
+                n += station.times.size();
+            }
+            return n;
+        }
+        long gCalls() {
+            long n = 0;
+            for (final Station station : stations) {
+                n += station.gCalls;
+            }
+            return n;
+        }
+    }
+
+    /** Harmonic oscillator: y = (sin t, cos t). */
+    private static class Oscillator implements FirstOrderDifferentialEquations {
+        public int getDimension() {
+            return 2;
+        }
+        public void computeDerivatives(double t, double[] y, double[] yDot) {
+            yDot[0] =  y[1];
+            yDot[1] = -y[0];
+        }
+    }
+
+    /** Event handler triggered when sin(t + phase) crosses a threshold. */
+    private static class Station implements EventHandler {
+        private final double cosPhase;
+        private final double sinPhase;
+        private final double phase;
+        private final double threshold;
+        private final List<Double> times;
+        private long gCalls;
+        Station(final double phase, final double threshold) {
+            this.phase     = phase;
+            this.cosPhase  = FastMath.cos(phase);
+            this.sinPhase  = FastMath.sin(phase);
+            this.threshold = threshold;
+            this.times     = new ArrayList<Double>();
+        }
+        public void init(double t0, double[] y0, double t) {
+        }
+        public double g(double t, double[] y) {
+            ++gCalls;
+            return y[0] * cosPhase + y[1] * sinPhase - threshold;
+        }
+        public Action eventOccurred(double t, double[] y, boolean increasing) {
+            times.add(t);
+            return Action.CONTINUE;
+        }
+        public void resetState(double t, double[] y) {
+        }
+    }
+
+    /** Event handler with a known bound of its rate. */
+    private static class RateBoundedStation extends Station implements RateBoundedEventHandler {
+        RateBoundedStation(final double phase, final double threshold) {
+            super(phase, threshold);
+        }
+        public double getMaximalRate() {
+            return 1.0;
+        }
+    }
+
+}
@@ -17,6 +17,9 @@
 
 package org.apache.commons.math4.ode.nonstiff;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import org.apache.commons.math4.exception.DimensionMismatchException;
 import org.apache.commons.math4.exception.MaxCountExceededException;
 import org.apache.commons.math4.exception.NoBracketingException;
@@ -322,6 +325,60 @@ public class DormandPrince853IntegratorTest {
     Assert.assertEquals("Dormand-Prince 8 (5, 3)", integ.getName());
   }
 
+  @Test
+  public void testReuseWorkArrays()
+      throws DimensionMismatchException, NumberIsTooSmallException,
+             MaxCountExceededException, NoBracketingException {
+
+    final TestProblem3 pb  = new TestProblem3(0.9);
+    double minStep = 0;
+    double maxStep = pb.getFinalTime() - pb.getInitialTime();
+    double scalAbsoluteTolerance = 1.0e-8;
+    double scalRelativeTolerance = scalAbsoluteTolerance;
+
+    DormandPrince853Integrator reference = new DormandPrince853Integrator(minStep, maxStep,
+                                                                          scalAbsoluteTolerance,
+                                                                          scalRelativeTolerance);
+    double[] yRef = new double[pb.getDimension()];
+    reference.integrate(pb, pb.getInitialTime(), pb.getInitialState(), pb.getFinalTime(), yRef);
+
+    DormandPrince853Integrator integ = new DormandPrince853Integrator(minStep, maxStep,
+                                                                      scalAbsoluteTolerance,
+                                                                      scalRelativeTolerance);
+    Assert.assertFalse(integ.getReuseWorkArrays());
+    integ.setReuseWorkArrays(true);
+    Assert.assertTrue(integ.getReuseWorkArrays());
+    final List<StepInterpolator> seen = new ArrayList<StepInterpolator>();
+    integ.addStepHandler(new StepHandler() {
+      public void init(double t0, double[] y0, double t) {
+      }
+      public void handleStep(StepInterpolator interpolator, boolean isLast) {
+        if (seen.isEmpty() || seen.get(seen.size() - 1) != interpolator) {
+          seen.add(interpolator);
+        }
+      }
+    });
+
+    for (int i = 0; i < 3; ++i) {
+      double[] y = new double[pb.getDimension()];
+      integ.integrate(pb, pb.getInitialTime(), pb.getInitialState(), pb.getFinalTime(), y);
+      Assert.assertEquals(reference.getEvaluations(), integ.getEvaluations());
+      for (int j = 0; j < y.length; ++j) {
+        Assert.assertEquals(yRef[j], y[j], 0.0);
+      }
+    }
+
+    // the same interpolator instance has been used for all steps of all integrations
+    Assert.assertEquals(1, seen.size());
+
+    // back to default mode, each integration uses its own interpolator
+    integ.setReuseWorkArrays(false);
+    integ.integrate(pb, pb.getInitialTime(), pb.getInitialState(), pb.getFinalTime(),
+                    new double[pb.getDimension()]);
+    Assert.assertEquals(2, seen.size());
+
+  }
+
   @Test
   public void testUnstableDerivative()
       throws DimensionMismatchException, NumberIsTooSmallException,
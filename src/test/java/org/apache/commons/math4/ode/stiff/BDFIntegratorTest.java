@@ -0,0 +1,239 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.commons.math4.ode.stiff;
+
+import org.apache.commons.math4.exception.OutOfRangeException;
+import org.apache.commons.math4.ode.FirstOrderDifferentialEquations;
+import org.apache.commons.math4.ode.FirstOrderIntegrator;
+import org.apache.commons.math4.ode.TestProblem1;
+import org.apache.commons.math4.ode.TestProblem3;
+import org.apache.commons.math4.ode.TestProblem4;
+import org.apache.commons.math4.ode.TestProblem5;
+import org.apache.commons.math4.ode.TestProblemHandler;
+import org.apache.commons.math4.ode.events.EventHandler;
+import org.apache.commons.math4.util.FastMath;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class BDFIntegratorTest {
+
+    @Test(expected=OutOfRangeException.class)
+    public void testOrderTooHigh() {
+        new BDFIntegrator(6, 0.0, 1.0, 1.0e-10, 1.0e-10);
+    }
+
+    @Test(expected=OutOfRangeException.class)
+    public void testOrderTooLow() {
+        new BDFIntegrator(0, 0.0, 1.0, 1.0e-10, 1.0e-10);
+    }
+
+    @Test
+    public void testIncreasingTolerance() {
+
+        for (int i = -10; i < -4; ++i) {
+            TestProblem1 pb = new TestProblem1();
+            double minStep = 0;
+            double maxStep = pb.getFinalTime() - pb.getInitialTime();
+            double scalAbsoluteTolerance = FastMath.pow(10.0, i);
+            double scalRelativeTolerance = 0.01 * scalAbsoluteTolerance;
+
+            FirstOrderIntegrator integ = new BDFIntegrator(5, minStep, maxStep,
+                                                           scalAbsoluteTolerance,
+                                                           scalRelativeTolerance);
+            TestProblemHandler handler = new TestProblemHandler(pb, integ);
+            integ.addStepHandler(handler);
+            integ.integrate(pb,
+                            pb.getInitialTime(), pb.getInitialState(),
+                            pb.getFinalTime(), new double[pb.getDimension()]);
+
+            Assert.assertTrue(handler.getMaximalValueError() < (50 * scalAbsoluteTolerance));
+            Assert.assertEquals(0, handler.getMaximalTimeError(), 1.0e-12);
+            Assert.assertEquals(integ.getEvaluations(), pb.getCalls());
+        }
+
+    }
+
+    @Test
+    public void testHigherOrdersNeedFewerSteps() {
+        int previousSteps = Integer.MAX_VALUE;
+        for (int order = 1; order <= 5; ++order) {
+            TestProblem3 pb = new TestProblem3(0.1);
+            BDFIntegrator integ = new BDFIntegrator(order, 0, 1.0, 1.0e-8, 1.0e-8);
+            RosenbrockIntegratorTest.StepCounter counter = new RosenbrockIntegratorTest.StepCounter();
+            integ.addStepHandler(counter);
+            double[] y = new double[pb.getDimension()];
+            integ.integrate(pb, pb.getInitialTime(), pb.getInitialState(), pb.getFinalTime(), y);
+            if (order > 1) {
+                // the first order formula is too dissipative for this oscillating problem
+                double[] ref = pb.computeTheoreticalState(pb.getFinalTime());
+                for (int i = 0; i < y.length; ++i) {
+                    Assert.assertEquals(ref[i], y[i], 1.0e-3);
+                }
+            }
+            Assert.assertTrue(counter.steps < previousSteps);
+            previousSteps = counter.steps;
+        }
+    }
+
+    @Test
+    public void testBackward() {
+
+        TestProblem5 pb = new TestProblem5();
+        double minStep = 0;
+        double maxStep = pb.getFinalTime() - pb.getInitialTime();
+        double scalAbsoluteTolerance = 1.0e-8;
+        double scalRelativeTolerance = 0.01 * scalAbsoluteTolerance;
+
+        FirstOrderIntegrator integ = new BDFIntegrator(5, minStep, maxStep,
+                                                       scalAbsoluteTolerance,
+                                                       scalRelativeTolerance);
+        TestProblemHandler handler = new TestProblemHandler(pb, integ);
+        integ.addStepHandler(handler);
+        integ.integrate(pb, pb.getInitialTime(), pb.getInitialState(),
+                        pb.getFinalTime(), new double[pb.getDimension()]);
+
+        Assert.assertTrue(handler.getLastError() < 2.0e-5);
+        Assert.assertTrue(handler.getMaximalValueError() < 2.0e-5);
+        Assert.assertEquals(0, handler.getMaximalTimeError(), 1.0e-12);
+        Assert.assertEquals("BDF", integ.getName());
+
+    }
+
+    @Test
+    public void testEvents() {
+
+        TestProblem4 pb = new TestProblem4();
+        double minStep = 0;
+        double maxStep = pb.getFinalTime() - pb.getInitialTime();
+        double scalAbsoluteTolerance = 1.0e-8;
+        double scalRelativeTolerance = 0.01 * scalAbsoluteTolerance;
+
+        FirstOrderIntegrator integ = new BDFIntegrator(5, minStep, maxStep,
+                                                       scalAbsoluteTolerance,
+                                                       scalRelativeTolerance);
+        TestProblemHandler handler = new TestProblemHandler(pb, integ);
+        integ.addStepHandler(handler);
+        EventHandler[] functions = pb.getEventsHandlers();
+        double convergence = 1.0e-8 * maxStep;
+        for (int l = 0; l < functions.length; ++l) {
+            integ.addEventHandler(functions[l], Double.POSITIVE_INFINITY, convergence, 1000);
+        }
+        integ.integrate(pb,
+                        pb.getInitialTime(), pb.getInitialState(),
+                        pb.getFinalTime(), new double[pb.getDimension()]);
+
+        Assert.assertTrue(handler.getMaximalValueError() < 5.0e-5);
+        Assert.assertEquals(0, handler.getMaximalTimeError(), convergence);
+        Assert.assertEquals(12.0, handler.getLastTime(), convergence);
+
+    }
+
+    @Test
+    public void testRobertson() {
+
+        RobertsonProblem pb = new RobertsonProblem();
+        BDFIntegrator integ = new BDFIntegrator(5, 0, RobertsonProblem.FINAL_TIME,
+                                                new double[] { 1.0e-10, 1.0e-14, 1.0e-10 },
+                                                new double[] { 1.0e-8, 1.0e-8, 1.0e-8 });
+        RosenbrockIntegratorTest.StepCounter counter = new RosenbrockIntegratorTest.StepCounter();
+        integ.addStepHandler(counter);
+        double[] y = new double[3];
+        integ.integrate(pb, 0.0, pb.getInitialState(), RobertsonProblem.FINAL_TIME, y);
+        RosenbrockIntegratorTest.checkRobertson(y);
+
+        // a stiff problem is integrated with a moderate number of steps
+        Assert.assertTrue(counter.steps < 1000);
+
+        // jacobians and decompositions are reused across steps
+        Assert.assertEquals(pb.getJacobianCalls(), integ.getJacobianEvaluations());
+        Assert.assertTrue(integ.getJacobianEvaluations() < counter.steps / 4);
+        Assert.assertTrue(integ.getDecompositions() < counter.steps / 2);
+
+        // the same problem with finite differences jacobians
+        double[] yFD = new double[3];
+        integ.integrate(pb.withoutJacobian(), 0.0, pb.getInitialState(), RobertsonProblem.FINAL_TIME, yFD);
+        RosenbrockIntegratorTest.checkRobertson(yFD);
+
+    }
+
+    @Test
+    public void testRobertsonFiniteDifferencesLooseTolerances() {
+
+        // tolerances of the hb1ode reference driver, the Newton iterations
+        // stop with a residual that must not leak into the jacobian
+        final double[] absTol = new double[] { 1.0e-6, 1.0e-10, 1.0e-6 };
+        final double[] relTol = new double[] { 1.0e-4, 1.0e-4, 1.0e-4 };
+        RobertsonProblem pb = new RobertsonProblem();
+        for (final double tEnd : new double[] { RobertsonProblem.FINAL_TIME, 4.0e5 }) {
+            BDFIntegrator integ = new BDFIntegrator(5, 0, tEnd, absTol, relTol);
+            double[] yFD = new double[3];
+            integ.integrate(pb.withoutJacobian(), 0.0, pb.getInitialState(), tEnd, yFD);
+            double[] y = new double[3];
+            integ.integrate(pb, 0.0, pb.getInitialState(), tEnd, y);
+            Assert.assertEquals(1.0, yFD[0] + yFD[1] + yFD[2], 1.0e-12);
+            for (int i = 0; i < 3; ++i) {
+                Assert.assertEquals(y[i], yFD[i], 1.0e-6 * FastMath.abs(y[i]));
+            }
+            if (tEnd == RobertsonProblem.FINAL_TIME) {
+                for (int i = 0; i < 3; ++i) {
+                    Assert.assertEquals(RobertsonProblem.REFERENCE[i], yFD[i],
+                                        1.0e-3 * RobertsonProblem.REFERENCE[i]);
+                }
+            }
+        }
+
+        // a lower order and other tolerances
+        BDFIntegrator integ = new BDFIntegrator(2, 0, RobertsonProblem.FINAL_TIME, 1.0e-8, 1.0e-6);
+        double[] yFD = new double[3];
+        integ.integrate(pb.withoutJacobian(), 0.0, pb.getInitialState(), RobertsonProblem.FINAL_TIME, yFD);
+        Assert.assertEquals(1.0, yFD[0] + yFD[1] + yFD[2], 1.0e-12);
+        for (int i = 0; i < 3; ++i) {
+            Assert.assertEquals(RobertsonProblem.REFERENCE[i], yFD[i],
+                                1.0e-4 * RobertsonProblem.REFERENCE[i]);
+        }
+
+    }
+
+    @Test
+    public void testSingularIterationMatrix() {
+        // a singular iteration matrix is reported as a missing solver, not as an exception
+        BDFIntegrator integ = new BDFIntegrator(5, 0, 1.0, 1.0e-8, 1.0e-8);
+        Assert.assertNull(integ.decompose(new double[][] { { 2.0, 0.0 }, { 0.0, 1.0 } }, 2.0, 1.0));
+        Assert.assertNotNull(integ.decompose(new double[][] { { 2.0, 0.0 }, { 0.0, 1.0 } }, 3.0, 1.0));
+    }
+
+    @Test
+    public void testStiffLinear() {
+        // y' = -1000 (y - cos(t)) - sin(t), smooth solution y = cos(t) and fast transient
+        final FirstOrderDifferentialEquations equations = new FirstOrderDifferentialEquations() {
+            public int getDimension() {
+                return 1;
+            }
+            public void computeDerivatives(double t, double[] y, double[] yDot) {
+                yDot[0] = -1000 * (y[0] - FastMath.cos(t)) - FastMath.sin(t);
+            }
+        };
+        BDFIntegrator integ = new BDFIntegrator(5, 0, 10.0, 1.0e-8, 1.0e-8);
+        double[] y = new double[1];
+        integ.integrate(equations, 0.0, new double[] { 2.0 }, 10.0, y);
+        Assert.assertEquals(FastMath.cos(10.0), y[0], 1.0e-6);
+        // an explicit method would need at least 10000 * 1000 / 3.3 evaluations
+        Assert.assertTrue(integ.getEvaluations() < 2000);
+    }
+
+}
@@ -0,0 +1,120 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.commons.math4.ode.stiff;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.Random;
+
+import org.apache.commons.math4.ode.ContinuousOutputModel;
+import org.apache.commons.math4.ode.TestProblem3;
+import org.apache.commons.math4.ode.sampling.StepHandler;
+import org.apache.commons.math4.ode.sampling.StepInterpolator;
+import org.apache.commons.math4.ode.sampling.StepInterpolatorTestUtils;
+import org.apache.commons.math4.util.FastMath;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class HermiteStepInterpolatorTest {
+
+  @Test
+  public void derivativesConsistency() {
+    TestProblem3 pb = new TestProblem3(0.1);
+    double minStep = 0;
+    double maxStep = pb.getFinalTime() - pb.getInitialTime();
+    RosenbrockIntegrator integ = new RosenbrockIntegrator(minStep, maxStep, 1.0e-8, 1.0e-8);
+    StepInterpolatorTestUtils.checkDerivativesConsistency(integ, pb, 0.01, 1.0e-9);
+  }
+
+  @Test
+  public void serialization()
+    throws IOException, ClassNotFoundException {
+
+    TestProblem3 pb = new TestProblem3(0.9);
+    double minStep = 0;
+    double maxStep = pb.getFinalTime() - pb.getInitialTime();
+    BDFIntegrator integ = new BDFIntegrator(5, minStep, maxStep, 1.0e-10, 1.0e-10);
+    integ.addStepHandler(new ContinuousOutputModel());
+    integ.integrate(pb,
+                    pb.getInitialTime(), pb.getInitialState(),
+                    pb.getFinalTime(), new double[pb.getDimension()]);
+
+    ByteArrayOutputStream bos = new ByteArrayOutputStream();
+    ObjectOutputStream    oos = new ObjectOutputStream(bos);
+    for (StepHandler handler : integ.getStepHandlers()) {
+        oos.writeObject(handler);
+    }
+
+    ByteArrayInputStream  bis = new ByteArrayInputStream(bos.toByteArray());
+    ObjectInputStream     ois = new ObjectInputStream(bis);
+    ContinuousOutputModel cm  = (ContinuousOutputModel) ois.readObject();
+
+    Random random = new Random(0x5b3fa2d7c91e4608l);
+    double maxError = 0.0;
+    for (int i = 0; i < 1000; ++i) {
+      double r = random.nextDouble();
+      double time = r * pb.getInitialTime() + (1.0 - r) * pb.getFinalTime();
+      cm.setInterpolatedTime(time);
+      double[] interpolatedY = cm.getInterpolatedState();
+      double[] theoreticalY  = pb.computeTheoreticalState(time);
+      double dx = interpolatedY[0] - theoreticalY[0];
+      double dy = interpolatedY[1] - theoreticalY[1];
+      maxError = FastMath.max(maxError, dx * dx + dy * dy);
+    }
+
+    Assert.assertTrue(maxError < 1.0e-6);
+
+  }
+
+  @Test
+  public void checkClone() {
+      TestProblem3 pb = new TestProblem3(0.9);
+      double minStep = 0;
+      double maxStep = pb.getFinalTime() - pb.getInitialTime();
+      RosenbrockIntegrator integ = new RosenbrockIntegrator(minStep, maxStep, 1.0e-8, 1.0e-8);
+      integ.addStepHandler(new StepHandler() {
+          public void handleStep(StepInterpolator interpolator, boolean isLast) {
+              StepInterpolator cloned = interpolator.copy();
+              double tA = cloned.getPreviousTime();
+              double tB = cloned.getCurrentTime();
+              Assert.assertEquals(interpolator.getPreviousTime(), tA, 1.0e-12);
+              Assert.assertEquals(interpolator.getCurrentTime(), tB, 1.0e-12);
+              for (int i = 0; i < 10; ++i) {
+                  double t = (i * tB + (9 - i) * tA) / 9;
+                  interpolator.setInterpolatedTime(t);
+                  cloned.setInterpolatedTime(t);
+                  double[] referenceState = interpolator.getInterpolatedState();
+                  double[] cloneState     = cloned.getInterpolatedState();
+                  for (int j = 0; j < referenceState.length; ++j) {
+                      Assert.assertEquals(referenceState[j], cloneState[j], 1.0e-12);
+                  }
+              }
+          }
+          public void init(double t0, double[] y0, double t) {
+          }
+      });
+      integ.integrate(pb,
+              pb.getInitialTime(), pb.getInitialState(),
+              pb.getFinalTime(), new double[pb.getDimension()]);
+
+  }
+
+}
@@ -0,0 +1,83 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.commons.math4.ode.stiff;
+
+import org.apache.commons.math4.ode.FirstOrderDifferentialEquations;
+import org.apache.commons.math4.ode.MainStateJacobianProvider;
+
+/**
+ * Robertson chemical kinetics problem, a classical stiff test case,
+ * used in the junit tests for the stiff ODE integrators.
+ */
+class RobertsonProblem implements MainStateJacobianProvider {
+
+    /** Final time for the reference solution. */
+    public static final double FINAL_TIME = 40.0;
+
+    /** Reference solution at {@link #FINAL_TIME}. */
+    public static final double[] REFERENCE = { 0.7158270687, 0.9185534764e-5, 0.2841637457 };
+
+    /** Number of jacobian evaluations. */
+    private int jacobianCalls;
+
+    public int getDimension() {
+        return 3;
+    }
+
+    public double[] getInitialState() {
+        return new double[] { 1.0, 0.0, 0.0 };
+    }
+
+    public int getJacobianCalls() {
+        return jacobianCalls;
+    }
+
+    public void computeDerivatives(double t, double[] y, double[] yDot) {
+        yDot[0] = -0.04 * y[0] + 1.0e4 * y[1] * y[2];
+        yDot[2] = 3.0e7 * y[1] * y[1];
+        yDot[1] = -yDot[0] - yDot[2];
+    }
+
+    public void computeMainStateJacobian(double t, double[] y, double[] yDot, double[][] dFdY) {
+        ++jacobianCalls;
+        dFdY[0][0] = -0.04;
+        dFdY[0][1] = 1.0e4 * y[2];
+        dFdY[0][2] = 1.0e4 * y[1];
+        dFdY[2][0] = 0;
+        dFdY[2][1] = 6.0e7 * y[1];
+        dFdY[2][2] = 0;
+        for (int j = 0; j < 3; ++j) {
+            dFdY[1][j] = -dFdY[0][j] - dFdY[2][j];
+        }
+    }
+
+    /** Get a view of the problem hiding the exact jacobian.
+     * @return equations without jacobian
+     */
+    public FirstOrderDifferentialEquations withoutJacobian() {
+        return new FirstOrderDifferentialEquations() {
+            public int getDimension() {
+                return RobertsonProblem.this.getDimension();
+            }
+            public void computeDerivatives(double t, double[] y, double[] yDot) {
+                RobertsonProblem.this.computeDerivatives(t, y, yDot);
+            }
+        };
+    }
+
+}
@@ -0,0 +1,231 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.commons.math4.ode.stiff;
+
+import org.apache.commons.math4.exception.DimensionMismatchException;
+import org.apache.commons.math4.ode.FirstOrderDifferentialEquations;
+import org.apache.commons.math4.ode.FirstOrderIntegrator;
+import org.apache.commons.math4.ode.TestProblem1;
+import org.apache.commons.math4.ode.TestProblem4;
+import org.apache.commons.math4.ode.TestProblem5;
+import org.apache.commons.math4.ode.TestProblemAbstract;
+import org.apache.commons.math4.ode.TestProblemHandler;
+import org.apache.commons.math4.ode.events.EventHandler;
+import org.apache.commons.math4.ode.sampling.StepHandler;
+import org.apache.commons.math4.ode.sampling.StepInterpolator;
+import org.apache.commons.math4.util.FastMath;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class RosenbrockIntegratorTest {
+
+    @Test(expected=DimensionMismatchException.class)
+    public void testDimensionCheck() {
+        TestProblem1 pb = new TestProblem1();
+        RosenbrockIntegrator integrator = new RosenbrockIntegrator(0.0, 1.0, 1.0e-10, 1.0e-10);
+        integrator.integrate(pb,
+                             0.0, new double[pb.getDimension() + 10],
+                             1.0, new double[pb.getDimension() + 10]);
+    }
+
+    @Test
+    public void testConvergenceOrder() {
+        // y' = -2 y + cos(t), non-autonomous to exercise the time derivatives
+        final FirstOrderDifferentialEquations equations = new FirstOrderDifferentialEquations() {
+            public int getDimension() {
+                return 1;
+            }
+            public void computeDerivatives(double t, double[] y, double[] yDot) {
+                yDot[0] = -2 * y[0] + FastMath.cos(t);
+            }
+        };
+        final double tEnd  = 2.0;
+        final double exact = (2 * FastMath.cos(tEnd) + FastMath.sin(tEnd)) / 5 +
+                             (1.0 - 0.4) * FastMath.exp(-2 * tEnd);
+
+        double previousError = Double.NaN;
+        for (double h = 0.2; h > 0.02; h *= 0.5) {
+            // huge tolerance to enforce fixed steps
+            RosenbrockIntegrator integrator = new RosenbrockIntegrator(h, h, 1.0e3, 1.0e3);
+            double[] y = new double[1];
+            integrator.integrate(equations, 0.0, new double[] { 1.0 }, tEnd, y);
+            final double error = FastMath.abs(y[0] - exact);
+            if (!Double.isNaN(previousError)) {
+                final double order = FastMath.log(previousError / error) / FastMath.log(2.0);
+                Assert.assertEquals(integrator.getOrder(), order, 0.3);
+            }
+            previousError = error;
+        }
+    }
+
+    @Test
+    public void testIncreasingTolerance() {
+
+        int previousCalls = Integer.MAX_VALUE;
+        for (int i = -12; i < -2; ++i) {
+            TestProblem1 pb = new TestProblem1();
+            double minStep = 0;
+            double maxStep = pb.getFinalTime() - pb.getInitialTime();
+            double scalAbsoluteTolerance = FastMath.pow(10.0, i);
+            double scalRelativeTolerance = 0.01 * scalAbsoluteTolerance;
+
+            FirstOrderIntegrator integ = new RosenbrockIntegrator(minStep, maxStep,
+                                                                  scalAbsoluteTolerance,
+                                                                  scalRelativeTolerance);
+            TestProblemHandler handler = new TestProblemHandler(pb, integ);
+            integ.addStepHandler(handler);
+            integ.integrate(pb,
+                            pb.getInitialTime(), pb.getInitialState(),
+                            pb.getFinalTime(), new double[pb.getDimension()]);
+
+            Assert.assertTrue(handler.getMaximalValueError() < (20 * scalAbsoluteTolerance));
+            Assert.assertEquals(0, handler.getMaximalTimeError(), 1.0e-12);
+
+            int calls = pb.getCalls();
+            Assert.assertEquals(integ.getEvaluations(), calls);
+            Assert.assertTrue(calls <= previousCalls);
+            previousCalls = calls;
+        }
+
+    }
+
+    @Test
+    public void testBackward() {
+
+        TestProblem5 pb = new TestProblem5();
+        double minStep = 0;
+        double maxStep = pb.getFinalTime() - pb.getInitialTime();
+        double scalAbsoluteTolerance = 1.0e-8;
+        double scalRelativeTolerance = 0.01 * scalAbsoluteTolerance;
+
+        FirstOrderIntegrator integ = new RosenbrockIntegrator(minStep, maxStep,
+                                                              scalAbsoluteTolerance,
+                                                              scalRelativeTolerance);
+        TestProblemHandler handler = new TestProblemHandler(pb, integ);
+        integ.addStepHandler(handler);
+        integ.integrate(pb, pb.getInitialTime(), pb.getInitialState(),
+                        pb.getFinalTime(), new double[pb.getDimension()]);
+
+        Assert.assertTrue(handler.getLastError() < 2.0e-7);
+        Assert.assertTrue(handler.getMaximalValueError() < 2.0e-7);
+        Assert.assertEquals(0, handler.getMaximalTimeError(), 1.0e-12);
+        Assert.assertEquals("Rosenbrock", integ.getName());
+
+    }
+
+    @Test
+    public void testEvents() {
+
+        TestProblem4 pb = new TestProblem4();
+        double minStep = 0;
+        double maxStep = pb.getFinalTime() - pb.getInitialTime();
+        double scalAbsoluteTolerance = 1.0e-8;
+        double scalRelativeTolerance = 0.01 * scalAbsoluteTolerance;
+
+        FirstOrderIntegrator integ = new RosenbrockIntegrator(minStep, maxStep,
+                                                              scalAbsoluteTolerance,
+                                                              scalRelativeTolerance);
+        TestProblemHandler handler = new TestProblemHandler(pb, integ);
+        integ.addStepHandler(handler);
+        EventHandler[] functions = pb.getEventsHandlers();
+        double convergence = 1.0e-8 * maxStep;
+        for (int l = 0; l < functions.length; ++l) {
+            integ.addEventHandler(functions[l], Double.POSITIVE_INFINITY, convergence, 1000);
+        }
+        integ.integrate(pb,
+                        pb.getInitialTime(), pb.getInitialState(),
+                        pb.getFinalTime(), new double[pb.getDimension()]);
+
+        Assert.assertTrue(handler.getMaximalValueError() < 5.0e-6);
+        Assert.assertEquals(0, handler.getMaximalTimeError(), convergence);
+        Assert.assertEquals(12.0, handler.getLastTime(), convergence);
+
+    }
+
+    @Test
+    public void testRobertson() {
+
+        RobertsonProblem pb = new RobertsonProblem();
+        RosenbrockIntegrator integ = new RosenbrockIntegrator(0, RobertsonProblem.FINAL_TIME,
+                                                              new double[] { 1.0e-8, 1.0e-12, 1.0e-8 },
+                                                              new double[] { 1.0e-6, 1.0e-6, 1.0e-6 });
+        StepCounter counter = new StepCounter();
+        integ.addStepHandler(counter);
+        double[] y = new double[3];
+        integ.integrate(pb, 0.0, pb.getInitialState(), RobertsonProblem.FINAL_TIME, y);
+        checkRobertson(y);
+
+        // a stiff problem is integrated with a moderate number of steps
+        Assert.assertTrue(counter.steps < 500);
+
+        // the exact jacobian was used, once per step
+        Assert.assertEquals(counter.steps, pb.getJacobianCalls());
+        Assert.assertEquals(pb.getJacobianCalls(), integ.getJacobianEvaluations());
+        Assert.assertTrue(integ.getDecompositions() >= integ.getJacobianEvaluations());
+
+        // the same problem with finite differences jacobians needs more evaluations
+        final int exactEvaluations = integ.getEvaluations();
+        double[] yFD = new double[3];
+        integ.integrate(pb.withoutJacobian(), 0.0, pb.getInitialState(), RobertsonProblem.FINAL_TIME, yFD);
+        checkRobertson(yFD);
+        Assert.assertTrue(integ.getEvaluations() > exactEvaluations);
+
+    }
+
+    static void checkRobertson(final double[] y) {
+        Assert.assertEquals(RobertsonProblem.REFERENCE[0], y[0], 1.0e-5);
+        Assert.assertEquals(RobertsonProblem.REFERENCE[1], y[1], 1.0e-3 * RobertsonProblem.REFERENCE[1]);
+        Assert.assertEquals(RobertsonProblem.REFERENCE[2], y[2], 1.0e-5);
+    }
+
+    static class StepCounter implements StepHandler {
+        int steps;
+        public void init(double t0, double[] y0, double t) {
+            steps = 0;
+        }
+        public void handleStep(StepInterpolator interpolator, boolean isLast) {
+            ++steps;
+        }
+    }
+
+    @Test
+    public void testDenseOutput() {
+        final TestProblemAbstract pb = new TestProblem1();
+        final FirstOrderIntegrator integ = new RosenbrockIntegrator(0, 1.0, 1.0e-10, 1.0e-10);
+        integ.addStepHandler(new StepHandler() {
+            public void init(double t0, double[] y0, double t) {
+            }
+            public void handleStep(StepInterpolator interpolator, boolean isLast) {
+                final double t0 = interpolator.getPreviousTime();
+                final double t1 = interpolator.getCurrentTime();
+                for (int k = 0; k <= 10; ++k) {
+                    final double t = t0 + k * (t1 - t0) / 10;
+                    interpolator.setInterpolatedTime(t);
+                    final double[] y    = interpolator.getInterpolatedState();
+                    final double[] yDot = interpolator.getInterpolatedDerivatives();
+                    final double[] ref  = pb.computeTheoreticalState(t);
+                    Assert.assertEquals(ref[0], y[0], 1.0e-6);
+                    Assert.assertEquals(-ref[0], yDot[0], 1.0e-4);
+                }
+            }
+        });
+        integ.integrate(pb, pb.getInitialTime(), pb.getInitialState(),
+                        pb.getFinalTime(), new double[pb.getDimension()]);
+    }
+
+}
@@ -18,11 +18,22 @@ package org.apache.commons.math4.random;
 
 import java.io.BufferedReader;
 import java.io.File;
+import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
 import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
 
 import org.apache.commons.math4.TestUtils;
 import org.apache.commons.math4.analysis.UnivariateFunction;
@@ -33,9 +44,11 @@ import org.apache.commons.math4.distribution.NormalDistribution;
 import org.apache.commons.math4.distribution.RealDistribution;
 import org.apache.commons.math4.distribution.RealDistributionAbstractTest;
 import org.apache.commons.math4.distribution.UniformRealDistribution;
+import org.apache.commons.math4.exception.MathIllegalArgumentException;
 import org.apache.commons.math4.exception.MathIllegalStateException;
 import org.apache.commons.math4.exception.NullArgumentException;
 import org.apache.commons.math4.exception.NotStrictlyPositiveException;
+import org.apache.commons.math4.exception.ZeroException;
 import org.apache.commons.math4.random.EmpiricalDistribution;
 import org.apache.commons.math4.random.RandomGenerator;
 import org.apache.commons.math4.stat.descriptive.SummaryStatistics;
@@ -541,6 +554,220 @@ public final class EmpiricalDistributionTest extends RealDistributionAbstractTes
     }
 
 
+    @Test
+    public void testLoadMappedText() throws Exception {
+        empiricalDistribution2.load(dataArray);
+        final File text = new File(url.toURI());
+        for (final int chunkSize : new int[] { 37, 1000, 1 << 20 }) {
+            final EmpiricalDistribution dist = new EmpiricalDistribution(100);
+            dist.setChunkSize(chunkSize);
+            dist.load(text, EmpiricalDistribution.FileFormat.TEXT, null);
+            checkSameDistribution(empiricalDistribution2, dist);
+        }
+    }
+
+    @Test
+    public void testLoadMappedTextCRLF() throws Exception {
+        empiricalDistribution2.load(dataArray);
+        final File text = File.createTempFile("empirical", ".txt");
+        text.deleteOnExit();
+        final Writer writer = new OutputStreamWriter(new FileOutputStream(text), "US-ASCII");
+        try {
+            for (final double x : dataArray) {
+                writer.write(Double.toString(x) + "\r\n");
+            }
+        } finally {
+            writer.close();
+        }
+        final EmpiricalDistribution dist = new EmpiricalDistribution(100);
+        dist.setChunkSize(101);
+        dist.load(text, EmpiricalDistribution.FileFormat.TEXT, null);
+        checkSameDistribution(empiricalDistribution2, dist);
+    }
+
+    @Test
+    public void testLoadMappedBinary() throws Exception {
+        empiricalDistribution2.load(dataArray);
+        final ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            for (final ByteOrder order : new ByteOrder[] { ByteOrder.BIG_ENDIAN, ByteOrder.LITTLE_ENDIAN }) {
+                final File binary = writeBinary(dataArray, order);
+                final EmpiricalDistribution dist = new EmpiricalDistribution(100);
+                dist.setChunkSize(1001);
+                dist.load(binary,
+                          order == ByteOrder.BIG_ENDIAN ?
+                          EmpiricalDistribution.FileFormat.BINARY_BIG_ENDIAN :
+                          EmpiricalDistribution.FileFormat.BINARY_LITTLE_ENDIAN,
+                          executor);
+                checkSameDistribution(empiricalDistribution2, dist);
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testLoadMappedKnownRange() throws Exception {
+        empiricalDistribution2.load(dataArray);
+        final ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            final EmpiricalDistribution dist = new EmpiricalDistribution(100);
+            dist.setChunkSize(200);
+            dist.load(new File(url.toURI()), EmpiricalDistribution.FileFormat.TEXT,
+                      empiricalDistribution2.getSampleStats().getMin(),
+                      empiricalDistribution2.getSampleStats().getMax(),
+                      executor);
+            checkSameDistribution(empiricalDistribution2, dist);
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testLoadMappedFailedSecondPass() throws Exception {
+        final File text = new File(url.toURI());
+        final EmpiricalDistribution dist = new EmpiricalDistribution(100);
+        dist.setChunkSize(200);
+        final CountingExecutor counter = new CountingExecutor(Integer.MAX_VALUE);
+        dist.load(text, EmpiricalDistribution.FileFormat.TEXT, counter);
+        Assert.assertTrue(dist.isLoaded());
+
+        // reject a task of the second pass
+        try {
+            dist.load(text, EmpiricalDistribution.FileFormat.TEXT,
+                      new CountingExecutor(counter.count / 2 + 1));
+            Assert.fail("an exception should have been thrown");
+        } catch (RejectedExecutionException ree) {
+            // expected
+        }
+        Assert.assertFalse(dist.isLoaded());
+        try {
+            dist.getNextValue();
+            Assert.fail("an exception should have been thrown");
+        } catch (MathIllegalStateException ise) {
+            // expected
+        }
+    }
+
+    @Test
+    public void testAppend() throws Exception {
+        empiricalDistribution2.load(dataArray);
+        final int half = dataArray.length / 2;
+        final File binary = writeBinary(Arrays.copyOfRange(dataArray, half, dataArray.length),
+                                        ByteOrder.BIG_ENDIAN);
+        final EmpiricalDistribution dist = new EmpiricalDistribution(100);
+        dist.setChunkSize(512);
+        dist.load(binary, EmpiricalDistribution.FileFormat.BINARY_BIG_ENDIAN,
+                  empiricalDistribution2.getSampleStats().getMin(),
+                  empiricalDistribution2.getSampleStats().getMax(),
+                  null);
+        Assert.assertEquals(dataArray.length - half, dist.getSampleStats().getN());
+        dist.append(Arrays.copyOf(dataArray, half / 2));
+        dist.append(writeBinary(Arrays.copyOfRange(dataArray, half / 2, half), ByteOrder.BIG_ENDIAN),
+                    EmpiricalDistribution.FileFormat.BINARY_BIG_ENDIAN, null);
+        checkSameDistribution(empiricalDistribution2, dist);
+    }
+
+    @Test(expected=MathIllegalStateException.class)
+    public void testAppendNotLoaded() {
+        new EmpiricalDistribution(100).append(dataArray);
+    }
+
+    @Test(expected=MathIllegalArgumentException.class)
+    public void testLoadMappedWrongBinarySize() throws Exception {
+        final File binary = File.createTempFile("empirical", ".bin");
+        binary.deleteOnExit();
+        final FileOutputStream out = new FileOutputStream(binary);
+        try {
+            out.write(new byte[12]);
+        } finally {
+            out.close();
+        }
+        new EmpiricalDistribution(100).load(binary, EmpiricalDistribution.FileFormat.BINARY_BIG_ENDIAN, null);
+    }
+
+    @Test(expected=ZeroException.class)
+    public void testLoadMappedEmpty() throws Exception {
+        final File empty = File.createTempFile("empirical", ".bin");
+        empty.deleteOnExit();
+        new EmpiricalDistribution(100).load(empty, EmpiricalDistribution.FileFormat.BINARY_LITTLE_ENDIAN, null);
+    }
+
+    private File writeBinary(final double[] data, final ByteOrder order) throws IOException {
+        final File binary = File.createTempFile("empirical", ".bin");
+        binary.deleteOnExit();
+        final ByteBuffer buffer = ByteBuffer.allocate(8 * data.length).order(order);
+        for (final double x : data) {
+            buffer.putDouble(x);
+        }
+        final FileOutputStream out = new FileOutputStream(binary);
+        try {
+            out.write(buffer.array());
+        } finally {
+            out.close();
+        }
+        return binary;
+    }
+
+    private void checkSameDistribution(final EmpiricalDistribution expected,
+                                       final EmpiricalDistribution actual) {
+        Assert.assertEquals(expected.getSampleStats().getN(), actual.getSampleStats().getN());
+        Assert.assertEquals(expected.getSampleStats().getMin(), actual.getSampleStats().getMin(), 0);
+        Assert.assertEquals(expected.getSampleStats().getMax(), actual.getSampleStats().getMax(), 0);
+        Assert.assertEquals(expected.getSampleStats().getMean(), actual.getSampleStats().getMean(), 1.0e-12);
+        Assert.assertEquals(expected.getSampleStats().getVariance(), actual.getSampleStats().getVariance(), 1.0e-12);
+        for (int i = 0; i < expected.getBinCount(); i++) {
+            Assert.assertEquals(expected.getBinStats().get(i).getN(), actual.getBinStats().get(i).getN());
+            Assert.assertEquals(expected.getUpperBounds()[i], actual.getUpperBounds()[i], 1.0e-15);
+        }
+        Assert.assertEquals(expected.cumulativeProbability(5.0), actual.cumulativeProbability(5.0), 1.0e-12);
+    }
+
+    /**
+     * Executor running the tasks in the calling thread, and rejecting them
+     * after a number of tasks.
+     */
+    private static class CountingExecutor extends AbstractExecutorService {
+        private final int limit;
+        private int count;
+
+        CountingExecutor(final int limit) {
+            this.limit = limit;
+        }
+
+        @Override
+        public void execute(final Runnable command) {
+            if (++count > limit) {
+                throw new RejectedExecutionException();
+            }
+            command.run();
+        }
+
+        @Override
+        public void shutdown() {
+        }
+
+        @Override
+        public List<Runnable> shutdownNow() {
+            return new ArrayList<Runnable>();
+        }
+
+        @Override
+        public boolean isShutdown() {
+            return false;
+        }
+
+        @Override
+        public boolean isTerminated() {
+            return false;
+        }
+
+        @Override
+        public boolean awaitTermination(final long timeout, final TimeUnit unit) {
+            return false;
+        }
+    }
+
     /**
      * Empirical distribution using a constant smoothing kernel.
      */
@@ -0,0 +1,183 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.math4.stat.descriptive;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.apache.commons.math4.TestUtils;
+import org.apache.commons.math4.exception.NotStrictlyPositiveException;
+import org.apache.commons.math4.random.RandomGenerator;
+import org.apache.commons.math4.random.Well19937c;
+import org.apache.commons.math4.util.FastMath;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Test cases for the {@link ConcurrentSummaryStatistics} class.
+ */
+public class ConcurrentSummaryStatisticsTest {
+
+    @Test
+    public void testEmpty() {
+        final ConcurrentSummaryStatistics stats = new ConcurrentSummaryStatistics();
+        Assert.assertEquals(0, stats.getN());
+        Assert.assertEquals(0, stats.getSum(), 0);
+        Assert.assertTrue(Double.isNaN(stats.getMean()));
+        Assert.assertTrue(Double.isNaN(stats.getVariance()));
+        Assert.assertTrue(Double.isNaN(stats.getStandardDeviation()));
+        Assert.assertTrue(Double.isNaN(stats.getMin()));
+        Assert.assertTrue(Double.isNaN(stats.getMax()));
+    }
+
+    @Test
+    public void testSingleValue() {
+        final ConcurrentSummaryStatistics stats = new ConcurrentSummaryStatistics();
+        stats.addValue(2.5);
+        Assert.assertEquals(1, stats.getN());
+        Assert.assertEquals(2.5, stats.getMean(), 0);
+        Assert.assertEquals(0, stats.getVariance(), 0);
+        Assert.assertEquals(2.5, stats.getMin(), 0);
+        Assert.assertEquals(2.5, stats.getMax(), 0);
+    }
+
+    @Test(expected=NotStrictlyPositiveException.class)
+    public void testWrongConcurrency() {
+        new ConcurrentSummaryStatistics(0);
+    }
+
+    @Test
+    public void testSequential() {
+        final RandomGenerator rng = new Well19937c(0x4a6c2b3e58d1f7c9l);
+        final ConcurrentSummaryStatistics stats = new ConcurrentSummaryStatistics(4);
+        final SummaryStatistics reference = new SummaryStatistics();
+        for (int i = 0; i < 1000; ++i) {
+            final double x = 100 * rng.nextDouble() - 20;
+            stats.addValue(x);
+            reference.addValue(x);
+        }
+        checkSummary(reference.getSummary(), stats.getSummary(), 1e-10);
+
+        stats.clear();
+        Assert.assertEquals(0, stats.getN());
+        Assert.assertTrue(Double.isNaN(stats.getMean()));
+    }
+
+    @Test
+    public void testConcurrent() throws Exception {
+        final int nThreads = 8;
+        final int nPerThread = 20000;
+        final ConcurrentSummaryStatistics stats = new ConcurrentSummaryStatistics();
+        final ExecutorService executor = Executors.newFixedThreadPool(nThreads);
+        try {
+            final List<Future<SummaryStatistics>> futures = new ArrayList<Future<SummaryStatistics>>();
+            for (int t = 0; t < nThreads; ++t) {
+                final long seed = 0x2f1c7d3a9b6e5408l + t;
+                futures.add(executor.submit(new Callable<SummaryStatistics>() {
+                    /** {@inheritDoc} */
+                    @Override
+                    public SummaryStatistics call() {
+                        final RandomGenerator rng = new Well19937c(seed);
+                        final SummaryStatistics local = new SummaryStatistics();
+                        for (int i = 0; i < nPerThread; ++i) {
+                            final double x = rng.nextDouble();
+                            stats.addValue(x);
+                            local.addValue(x);
+                            if (i % 1000 == 0) {
+                                // reads interleaved with writes must be consistent
+                                final StatisticalSummary s = stats.getSummary();
+                                Assert.assertEquals(s.getSum() / s.getN(), s.getMean(), 1e-10);
+                            }
+                        }
+                        return local;
+                    }
+                }));
+            }
+            final SummaryStatistics reference = new SummaryStatistics();
+            for (final Future<SummaryStatistics> f : futures) {
+                reference.combine(f.get());
+            }
+            Assert.assertEquals(nThreads * nPerThread, stats.getN());
+            checkSummary(reference.getSummary(), stats.getSummary(), 1e-10);
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testAtomicSnapshot() throws Exception {
+        final int n = 200000;
+        final ConcurrentSummaryStatistics stats = new ConcurrentSummaryStatistics(4);
+        final ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            final Future<?> writer = executor.submit(new Runnable() {
+                /** {@inheritDoc} */
+                @Override
+                public void run() {
+                    for (int i = 1; i <= n; ++i) {
+                        stats.addValue(i);
+                    }
+                }
+            });
+            // any snapshot must contain exactly the values 1, 2, ..., k
+            while (!writer.isDone()) {
+                final StatisticalSummary s = stats.getSummary();
+                final long k = s.getN();
+                Assert.assertEquals(0.5 * k * (k + 1), s.getSum(), 0);
+                if (k > 0) {
+                    Assert.assertEquals(1, s.getMin(), 0);
+                    Assert.assertEquals(k, s.getMax(), 0);
+                }
+            }
+            writer.get();
+            Assert.assertEquals(n, stats.getN());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testSerialization() {
+        final RandomGenerator rng = new Well19937c(0x7e3a1c5b9d2f4860l);
+        final ConcurrentSummaryStatistics stats = new ConcurrentSummaryStatistics(4);
+        for (int i = 0; i < 100; ++i) {
+            stats.addValue(rng.nextGaussian());
+        }
+        final ConcurrentSummaryStatistics recovered =
+            (ConcurrentSummaryStatistics) TestUtils.serializeAndRecover(stats);
+        checkSummary(stats.getSummary(), recovered.getSummary(), 0);
+
+        // the recovered instance can still be updated
+        stats.addValue(3);
+        recovered.addValue(3);
+        checkSummary(stats.getSummary(), recovered.getSummary(), 0);
+    }
+
+    private void checkSummary(StatisticalSummary expected, StatisticalSummary actual, double tol) {
+        Assert.assertEquals(expected.getN(), actual.getN());
+        Assert.assertEquals(expected.getMin(), actual.getMin(), 0);
+        Assert.assertEquals(expected.getMax(), actual.getMax(), 0);
+        Assert.assertEquals(expected.getSum(), actual.getSum(), tol * FastMath.abs(expected.getSum()));
+        Assert.assertEquals(expected.getMean(), actual.getMean(), tol * FastMath.abs(expected.getMean()));
+        Assert.assertEquals(expected.getVariance(), actual.getVariance(), tol * expected.getVariance());
+    }
+
+}
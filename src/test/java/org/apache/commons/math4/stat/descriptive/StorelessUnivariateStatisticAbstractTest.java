@@ -211,6 +211,33 @@ public abstract class StorelessUnivariateStatisticAbstractTest
         Assert.assertTrue(master.equals(replica));
     }
 
+    /**
+     * Verifies that aggregating statistics computed on two parts of the data
+     * gives the same result as computing the statistic on all the data.
+     */
+    @SuppressWarnings("unchecked")
+    @Test
+    public void testAggregate() {
+        StorelessUnivariateStatistic all = (StorelessUnivariateStatistic) getUnivariateStatistic();
+        if (!(all instanceof AggregatableStatistic)) {
+            return;
+        }
+        all.incrementAll(testArray);
+
+        for (int split = 0; split <= testArray.length; split++) {
+            StorelessUnivariateStatistic first = (StorelessUnivariateStatistic) getUnivariateStatistic();
+            StorelessUnivariateStatistic second = (StorelessUnivariateStatistic) getUnivariateStatistic();
+            first.incrementAll(testArray, 0, split);
+            second.incrementAll(testArray, split, testArray.length - split);
+            final double secondResult = second.getResult();
+            ((AggregatableStatistic<StorelessUnivariateStatistic>) first).aggregate(second);
+            Assert.assertEquals(all.getN(), first.getN());
+            Assert.assertEquals(all.getResult(), first.getResult(),
+                                1.0e-10 * FastMath.max(1, FastMath.abs(all.getResult())));
+            TestUtils.assertEquals(secondResult, second.getResult(), 0);
+        }
+    }
+
     @Test
     public void testSerial() {
         StorelessUnivariateStatistic s =
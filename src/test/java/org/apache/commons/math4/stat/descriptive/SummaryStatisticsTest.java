@@ -19,12 +19,15 @@ package org.apache.commons.math4.stat.descriptive;
 
 import org.apache.commons.math4.TestUtils;
 import org.apache.commons.math4.exception.MathIllegalStateException;
+import org.apache.commons.math4.exception.MathUnsupportedOperationException;
 import org.apache.commons.math4.stat.descriptive.StatisticalSummary;
 import org.apache.commons.math4.stat.descriptive.SummaryStatistics;
 import org.apache.commons.math4.stat.descriptive.moment.GeometricMean;
 import org.apache.commons.math4.stat.descriptive.moment.Mean;
 import org.apache.commons.math4.stat.descriptive.moment.Variance;
 import org.apache.commons.math4.stat.descriptive.summary.Sum;
+import org.apache.commons.math4.random.RandomGenerator;
+import org.apache.commons.math4.random.Well19937c;
 import org.apache.commons.math4.util.FastMath;
 import org.junit.Assert;
 import org.junit.Test;
@@ -371,4 +374,69 @@ public class SummaryStatisticsTest {
             Assert.assertTrue(toString.indexOf(labels[i] + ": " + String.valueOf(values[i])) > 0);
         }
     }
+    @Test
+    public void testCombine() {
+        final RandomGenerator random = new Well19937c(0x6c1b7e2d9a3f4058l);
+        final double[] values = new double[1000];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = 100 + 10 * random.nextGaussian();
+        }
+        final SummaryStatistics all = createSummaryStatistics();
+        for (double v : values) {
+            all.addValue(v);
+        }
+
+        for (int split : new int[] { 0, 1, 17, 500, 999, 1000 }) {
+            final SummaryStatistics first  = createSummaryStatistics();
+            final SummaryStatistics second = createSummaryStatistics();
+            for (int i = 0; i < values.length; i++) {
+                (i < split ? first : second).addValue(values[i]);
+            }
+            final SummaryStatistics secondCopy = second.copy();
+            Assert.assertSame(first, first.combine(second));
+            Assert.assertEquals(secondCopy, second);
+            Assert.assertEquals(all.getN(), first.getN());
+            Assert.assertEquals(all.getMean(), first.getMean(), 1.0e-12);
+            Assert.assertEquals(all.getVariance(), first.getVariance(), 1.0e-10);
+            Assert.assertEquals(all.getSum(), first.getSum(), 1.0e-9);
+            Assert.assertEquals(all.getSumsq(), first.getSumsq(), 1.0e-6);
+            Assert.assertEquals(all.getSumOfLogs(), first.getSumOfLogs(), 1.0e-10);
+            Assert.assertEquals(all.getGeometricMean(), first.getGeometricMean(), 1.0e-12);
+            Assert.assertEquals(all.getMin(), first.getMin(), 0);
+            Assert.assertEquals(all.getMax(), first.getMax(), 0);
+            Assert.assertEquals(all.getSecondMoment(), first.getSecondMoment(), 1.0e-8);
+        }
+    }
+
+    @Test
+    public void testCombineEmpty() {
+        final SummaryStatistics u = createSummaryStatistics();
+        u.combine(createSummaryStatistics());
+        Assert.assertEquals(0, u.getN());
+        Assert.assertTrue(Double.isNaN(u.getMean()));
+        Assert.assertTrue(Double.isNaN(u.getMin()));
+    }
+
+    @Test
+    public void testCombineCustomImpl() {
+        final SummaryStatistics u = createSummaryStatistics();
+        u.setSumImpl(new Sum());
+        u.setMeanImpl(new Mean());
+        final SummaryStatistics v = createSummaryStatistics();
+        v.setSumImpl(new Sum());
+        v.setMeanImpl(new Mean());
+        u.addValue(1);
+        v.addValue(3);
+        try {
+            // Mean is not aggregatable
+            u.combine(v);
+            Assert.fail("an exception should have been thrown");
+        } catch (MathUnsupportedOperationException e) {
+            // expected
+        }
+        // state not modified
+        Assert.assertEquals(1, u.getN());
+        Assert.assertEquals(1, u.getSum(), 0);
+    }
+
 }
@@ -16,9 +16,11 @@
  */
 package org.apache.commons.math4.stat.descriptive.moment;
 
+import org.apache.commons.math4.exception.MathUnsupportedOperationException;
 import org.apache.commons.math4.stat.descriptive.StorelessUnivariateStatisticAbstractTest;
 import org.apache.commons.math4.stat.descriptive.UnivariateStatistic;
 import org.apache.commons.math4.stat.descriptive.moment.FourthMoment;
+import org.junit.Test;
 
 /**
  * Test cases for the {@link FourthMoment} class.
@@ -44,4 +46,22 @@ public class FourthMomentTest extends StorelessUnivariateStatisticAbstractTest{
        return this.fourthMoment;
     }
 
+    @Test(expected=MathUnsupportedOperationException.class)
+    public void testAggregateSecondMoment() {
+        final FourthMoment stat = new FourthMoment();
+        stat.increment(1.0);
+        final SecondMoment other = new SecondMoment();
+        other.increment(2.0);
+        stat.aggregate(other);
+    }
+
+    @Test(expected=MathUnsupportedOperationException.class)
+    public void testAggregateThirdMoment() {
+        final FourthMoment stat = new FourthMoment();
+        stat.increment(1.0);
+        final ThirdMoment other = new ThirdMoment();
+        other.increment(2.0);
+        stat.aggregate(other);
+    }
+
 }
@@ -16,9 +16,11 @@
  */
 package org.apache.commons.math4.stat.descriptive.moment;
 
+import org.apache.commons.math4.exception.MathUnsupportedOperationException;
 import org.apache.commons.math4.stat.descriptive.StorelessUnivariateStatisticAbstractTest;
 import org.apache.commons.math4.stat.descriptive.UnivariateStatistic;
 import org.apache.commons.math4.stat.descriptive.moment.ThirdMoment;
+import org.junit.Test;
 
 /**
  * Test cases for the {@link ThirdMoment} class.
@@ -44,4 +46,13 @@ public class ThirdMomentTest extends StorelessUnivariateStatisticAbstractTest{
       return this.thirdMoment;
     }
 
+    @Test(expected=MathUnsupportedOperationException.class)
+    public void testAggregateSecondMoment() {
+        final ThirdMoment stat = new ThirdMoment();
+        stat.increment(1.0);
+        final SecondMoment other = new SecondMoment();
+        other.increment(2.0);
+        stat.aggregate(other);
+    }
+
 }
@@ -0,0 +1,227 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.math4.stat.descriptive.rank;
+
+import java.util.Arrays;
+
+import org.apache.commons.math4.TestUtils;
+import org.apache.commons.math4.distribution.LogNormalDistribution;
+import org.apache.commons.math4.distribution.NormalDistribution;
+import org.apache.commons.math4.distribution.RealDistribution;
+import org.apache.commons.math4.distribution.UniformRealDistribution;
+import org.apache.commons.math4.exception.NullArgumentException;
+import org.apache.commons.math4.exception.NumberIsTooSmallException;
+import org.apache.commons.math4.exception.OutOfRangeException;
+import org.apache.commons.math4.random.Well19937c;
+import org.apache.commons.math4.stat.descriptive.StorelessUnivariateStatisticAbstractTest;
+import org.apache.commons.math4.stat.descriptive.UnivariateStatistic;
+import org.apache.commons.math4.util.FastMath;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Test cases for the {@link TDigestPercentile} class.
+ */
+public class TDigestPercentileTest extends StorelessUnivariateStatisticAbstractTest {
+
+    @Override
+    public UnivariateStatistic getUnivariateStatistic() {
+        return new TDigestPercentile(50);
+    }
+
+    @Override
+    public double expectedValue() {
+        return median;
+    }
+
+    @Override
+    public double getTolerance() {
+        return 1.0e-2;
+    }
+
+    @Test
+    public void testSmallSamplesAreExact() {
+        // with few observations, all centroids are single observations
+        final TDigestPercentile digest = new TDigestPercentile(50);
+        digest.incrementAll(testArray);
+        Assert.assertEquals(testArray.length, digest.getCentroidCount());
+        final double[] sorted = testArray.clone();
+        Arrays.sort(sorted);
+        Assert.assertEquals(sorted[0], digest.getPercentile(0), 0);
+        Assert.assertEquals(sorted[sorted.length - 1], digest.getPercentile(100), 0);
+        for (int p = 0; p <= 100; ++p) {
+            final double estimate = digest.getPercentile(p);
+            Assert.assertTrue(estimate >= sorted[0]);
+            Assert.assertTrue(estimate <= sorted[sorted.length - 1]);
+        }
+    }
+
+    @Test
+    public void testUniform() {
+        checkAccuracy(new UniformRealDistribution(new Well19937c(0x3a9d8e7f6c5b4a21l), 0, 1), 200000);
+    }
+
+    @Test
+    public void testNormal() {
+        checkAccuracy(new NormalDistribution(new Well19937c(0x5e4f3a2b1c0d9e87l), 10, 3,
+                                             NormalDistribution.DEFAULT_INVERSE_ABSOLUTE_ACCURACY),
+                      200000);
+    }
+
+    @Test
+    public void testLogNormal() {
+        checkAccuracy(new LogNormalDistribution(new Well19937c(0x7b6a5d4c3f2e1a09l), 0, 2,
+                                                LogNormalDistribution.DEFAULT_INVERSE_ABSOLUTE_ACCURACY),
+                      200000);
+    }
+
+    @Test
+    public void testBoundedMemory() {
+        final TDigestPercentile digest = new TDigestPercentile(99);
+        final Well19937c random = new Well19937c(0x1d2c3b4a59687f0el);
+        for (int i = 0; i < 1000000; ++i) {
+            digest.increment(random.nextGaussian());
+        }
+        Assert.assertEquals(1000000, digest.getN());
+        Assert.assertTrue(digest.getCentroidCount() <= 2 * digest.getCompression());
+    }
+
+    @Test
+    public void testMerge() {
+        final RealDistribution distribution =
+            new LogNormalDistribution(new Well19937c(0x2e1d0c9b8a7f6e5dl), 1, 1,
+                                      LogNormalDistribution.DEFAULT_INVERSE_ABSOLUTE_ACCURACY);
+        final double[] data = distribution.sample(100000);
+
+        // one sketch per part, merged
+        final TDigestPercentile merged = new TDigestPercentile(99);
+        for (int part = 0; part < 8; ++part) {
+            final TDigestPercentile partial = new TDigestPercentile(99);
+            final int begin = part * data.length / 8;
+            partial.incrementAll(data, begin, (part + 1) * data.length / 8 - begin);
+            final long n = partial.getN();
+            final double result = partial.getResult();
+            merged.merge(partial);
+            Assert.assertEquals(n, partial.getN());
+            Assert.assertEquals(result, partial.getResult(), 0);
+        }
+        Assert.assertEquals(data.length, merged.getN());
+        checkRanks(data, merged);
+
+        // merging into an empty sketch
+        final TDigestPercentile empty = new TDigestPercentile(99);
+        empty.merge(merged);
+        Assert.assertEquals(merged.getResult(), empty.getResult(), 0);
+
+        // merging an empty sketch
+        merged.merge(new TDigestPercentile(50));
+        Assert.assertEquals(data.length, merged.getN());
+    }
+
+    @Test
+    public void testQueriesDoNotModify() {
+        final Well19937c random = new Well19937c(0x6c5b4a3928170f1el);
+        final TDigestPercentile queried = new TDigestPercentile(90);
+        final TDigestPercentile reference = new TDigestPercentile(90);
+        for (int i = 0; i < 20000; ++i) {
+            final double x = random.nextGaussian();
+            queried.increment(x);
+            reference.increment(x);
+            if (i % 97 == 0) {
+                // queries with pending observations
+                queried.getResult();
+                queried.getPercentile(10);
+                queried.getCentroidCount();
+                Assert.assertEquals(reference, queried);
+                Assert.assertEquals(reference.hashCode(), queried.hashCode());
+            }
+        }
+        Assert.assertEquals(reference.getResult(), queried.getResult(), 0);
+        Assert.assertEquals(reference.getCentroidCount(), queried.getCentroidCount());
+        Assert.assertEquals(reference, queried);
+        Assert.assertEquals(reference, TestUtils.serializeAndRecover(queried));
+
+        queried.increment(100);
+        Assert.assertFalse(reference.equals(queried));
+        Assert.assertFalse(reference.equals(new TDigestPercentile(50)));
+    }
+
+    @Test
+    public void testNaNIgnored() {
+        final TDigestPercentile digest = new TDigestPercentile(50);
+        digest.increment(Double.NaN);
+        Assert.assertEquals(0, digest.getN());
+        Assert.assertTrue(Double.isNaN(digest.getResult()));
+        digest.increment(3);
+        digest.increment(Double.NaN);
+        Assert.assertEquals(1, digest.getN());
+        Assert.assertEquals(3, digest.getResult(), 0);
+    }
+
+    @Test(expected=OutOfRangeException.class)
+    public void testInvalidPercentile() {
+        new TDigestPercentile(100.5);
+    }
+
+    @Test(expected=OutOfRangeException.class)
+    public void testInvalidRequestedPercentile() {
+        new TDigestPercentile(50).getPercentile(-1);
+    }
+
+    @Test(expected=NumberIsTooSmallException.class)
+    public void testInvalidCompression() {
+        new TDigestPercentile(50, 5);
+    }
+
+    @Test(expected=NullArgumentException.class)
+    public void testMergeNull() {
+        new TDigestPercentile(50).merge(null);
+    }
+
+    private void checkAccuracy(final RealDistribution distribution, final int n) {
+        final double[] data = distribution.sample(n);
+        final TDigestPercentile digest = new TDigestPercentile(50);
+        digest.incrementAll(data);
+        checkRanks(data, digest);
+    }
+
+    /**
+     * Checks the rank errors of the estimated percentiles.
+     */
+    private void checkRanks(final double[] data, final TDigestPercentile digest) {
+        final double[] sorted = data.clone();
+        Arrays.sort(sorted);
+        final double[] percentiles = { 0.1, 1, 10, 25, 50, 75, 90, 99, 99.9 };
+        for (final double p : percentiles) {
+            final double q = p / 100;
+            final double estimate = digest.getPercentile(p);
+            // rank of the estimate in the sorted data
+            int rank = Arrays.binarySearch(sorted, estimate);
+            if (rank < 0) {
+                rank = -rank - 1;
+            }
+            final double rankError = FastMath.abs((double) rank / sorted.length - q);
+            // centroids near quantile q have a relative size of 2 pi sqrt(q (1 - q)) / compression
+            final double bound = 0.5 * FastMath.PI * FastMath.sqrt(q * (1 - q)) / digest.getCompression();
+            Assert.assertTrue("p = " + p + ", rank error = " + rankError,
+                              rankError <= bound + 2.0 / sorted.length);
+        }
+        Assert.assertEquals(sorted[0], digest.getPercentile(0), 0);
+        Assert.assertEquals(sorted[sorted.length - 1], digest.getPercentile(100), 0);
+    }
+
+}
@@ -0,0 +1,239 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.math4.transform;
+
+import java.util.Random;
+
+import org.apache.commons.math4.exception.DimensionMismatchException;
+import org.apache.commons.math4.exception.NotPositiveException;
+import org.apache.commons.math4.exception.NotStrictlyPositiveException;
+import org.apache.commons.math4.exception.NumberIsTooLargeException;
+import org.apache.commons.math4.util.FastMath;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Test case for {@link FastFourierTransformPlan}.
+ */
+public final class FastFourierTransformPlanTest {
+
+    /** The common seed of all random number generators used in this test. */
+    private final static long SEED = 0x3b5e9a71c24d08f6l;
+
+    @Test(expected=NotStrictlyPositiveException.class)
+    public void testZeroLength() {
+        new FastFourierTransformPlan(0, DftNormalization.STANDARD);
+    }
+
+    @Test(expected=DimensionMismatchException.class)
+    public void testWrongLength() {
+        final FastFourierTransformPlan plan = new FastFourierTransformPlan(16, DftNormalization.STANDARD);
+        plan.transform(new double[16], new double[8], TransformType.FORWARD);
+    }
+
+    @Test(expected=NumberIsTooLargeException.class)
+    public void testBatchTooLarge() {
+        final FastFourierTransformPlan plan = new FastFourierTransformPlan(16, DftNormalization.STANDARD);
+        plan.transform(new double[64], new double[64], 1, 4, TransformType.FORWARD);
+    }
+
+    @Test(expected=NotPositiveException.class)
+    public void testNegativeOffset() {
+        final FastFourierTransformPlan plan = new FastFourierTransformPlan(16, DftNormalization.STANDARD);
+        plan.transform(new double[64], new double[64], -1, 2, TransformType.FORWARD);
+    }
+
+    @Test
+    public void testCreatePlan() {
+        final FastFourierTransformPlan plan =
+            new FastFourierTransformer(DftNormalization.UNITARY).createPlan(64);
+        Assert.assertEquals(64, plan.getLength());
+        Assert.assertEquals(DftNormalization.UNITARY, plan.getNormalization());
+    }
+
+    @Test
+    public void testSameAsTransformer() {
+        final Random random = new Random(SEED);
+        for (final DftNormalization normalization : DftNormalization.values()) {
+            for (final TransformType type : TransformType.values()) {
+                for (int n = 1; n <= 4096; n *= 2) {
+                    final FastFourierTransformPlan plan = new FastFourierTransformPlan(n, normalization);
+                    final double[][] expected = new double[2][n];
+                    final double[] re = new double[n];
+                    final double[] im = new double[n];
+                    for (int i = 0; i < n; ++i) {
+                        re[i] = expected[0][i] = 2 * random.nextDouble() - 1;
+                        im[i] = expected[1][i] = 2 * random.nextDouble() - 1;
+                    }
+                    FastFourierTransformer.transformInPlace(expected, normalization, type);
+                    plan.transform(re, im, type);
+                    final double tol = 1.0e-14 * n;
+                    for (int i = 0; i < n; ++i) {
+                        Assert.assertEquals(expected[0][i], re[i], tol);
+                        Assert.assertEquals(expected[1][i], im[i], tol);
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testBatch() {
+        final Random random = new Random(SEED);
+        final int n      = 256;
+        final int count  = 5;
+        final int offset = 3;
+        final FastFourierTransformPlan plan = new FastFourierTransformPlan(n, DftNormalization.STANDARD);
+        final double[] re = new double[offset + count * n + 7];
+        final double[] im = new double[re.length];
+        for (int i = 0; i < re.length; ++i) {
+            re[i] = random.nextGaussian();
+            im[i] = random.nextGaussian();
+        }
+        final double[] reOriginal = re.clone();
+        final double[] imOriginal = im.clone();
+        final double[][] rowsR = new double[count][n];
+        final double[][] rowsI = new double[count][n];
+        for (int s = 0; s < count; ++s) {
+            System.arraycopy(re, offset + s * n, rowsR[s], 0, n);
+            System.arraycopy(im, offset + s * n, rowsI[s], 0, n);
+        }
+
+        plan.transform(re, im, offset, count, TransformType.FORWARD);
+        plan.transform(rowsR, rowsI, TransformType.FORWARD);
+        for (int i = 0; i < re.length; ++i) {
+            if (i < offset || i >= offset + count * n) {
+                // elements outside of the batch are untouched
+                Assert.assertEquals(reOriginal[i], re[i], 0);
+                Assert.assertEquals(imOriginal[i], im[i], 0);
+            } else {
+                final int s = (i - offset) / n;
+                final int k = (i - offset) % n;
+                Assert.assertEquals(rowsR[s][k], re[i], 0);
+                Assert.assertEquals(rowsI[s][k], im[i], 0);
+            }
+        }
+
+        // round trip
+        plan.transform(re, im, offset, count, TransformType.INVERSE);
+        for (int i = 0; i < re.length; ++i) {
+            Assert.assertEquals(reOriginal[i], re[i], 1.0e-13);
+            Assert.assertEquals(imOriginal[i], im[i], 1.0e-13);
+        }
+    }
+
+    @Test
+    public void testSinusoid() {
+        // a pure complex exponential transforms into a single spike
+        final int n = 4096;
+        final int f = 37;
+        final FastFourierTransformPlan plan = new FastFourierTransformPlan(n, DftNormalization.STANDARD);
+        final double[] re = new double[n];
+        final double[] im = new double[n];
+        for (int i = 0; i < n; ++i) {
+            re[i] = FastMath.cos(2 * FastMath.PI * f * i / n);
+            im[i] = FastMath.sin(2 * FastMath.PI * f * i / n);
+        }
+        plan.transform(re, im, TransformType.FORWARD);
+        for (int k = 0; k < n; ++k) {
+            Assert.assertEquals(k == f ? n : 0.0, re[k], 1.0e-10);
+            Assert.assertEquals(0.0, im[k], 1.0e-10);
+        }
+    }
+
+    @Test
+    public void testNotAPowerOfTwo() {
+        final Random random = new Random(SEED);
+        for (final DftNormalization normalization : DftNormalization.values()) {
+            for (final TransformType type : TransformType.values()) {
+                for (final int n : new int[] { 3, 5, 6, 7, 12, 100, 127, 1000 }) {
+                    final FastFourierTransformPlan plan = new FastFourierTransformPlan(n, normalization);
+                    final double[] re = new double[n];
+                    final double[] im = new double[n];
+                    for (int i = 0; i < n; ++i) {
+                        re[i] = 2 * random.nextDouble() - 1;
+                        im[i] = 2 * random.nextDouble() - 1;
+                    }
+                    final double[][] expected = dft(re, im, normalization, type);
+                    plan.transform(re, im, type);
+                    final double tol = 1.0e-13 * n;
+                    for (int i = 0; i < n; ++i) {
+                        Assert.assertEquals(expected[0][i], re[i], tol);
+                        Assert.assertEquals(expected[1][i], im[i], tol);
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testNotAPowerOfTwoRoundTrip() {
+        final Random random = new Random(SEED);
+        final int n = 10000;
+        final FastFourierTransformPlan plan = new FastFourierTransformPlan(n, DftNormalization.UNITARY);
+        final double[] re = new double[n];
+        final double[] im = new double[n];
+        for (int i = 0; i < n; ++i) {
+            re[i] = random.nextGaussian();
+            im[i] = random.nextGaussian();
+        }
+        final double[] reOriginal = re.clone();
+        final double[] imOriginal = im.clone();
+        plan.transform(re, im, TransformType.FORWARD);
+        plan.transform(re, im, TransformType.INVERSE);
+        for (int i = 0; i < n; ++i) {
+            Assert.assertEquals(reOriginal[i], re[i], 1.0e-12);
+            Assert.assertEquals(imOriginal[i], im[i], 1.0e-12);
+        }
+    }
+
+    /**
+     * Naive discrete Fourier transform.
+     * @param re real parts of the signal
+     * @param im imaginary parts of the signal
+     * @param normalization normalization to apply
+     * @param type type of transform
+     * @return real and imaginary parts of the transform
+     */
+    static double[][] dft(final double[] re, final double[] im,
+                          final DftNormalization normalization, final TransformType type) {
+        final int n = re.length;
+        final double sign = type == TransformType.FORWARD ? -1 : 1;
+        final double[][] y = new double[2][n];
+        for (int k = 0; k < n; ++k) {
+            for (int j = 0; j < n; ++j) {
+                final double theta = sign * 2 * FastMath.PI * ((((long) j) * k) % n) / n;
+                final double c = FastMath.cos(theta);
+                final double s = FastMath.sin(theta);
+                y[0][k] += re[j] * c - im[j] * s;
+                y[1][k] += re[j] * s + im[j] * c;
+            }
+        }
+        final double scale;
+        if (normalization == DftNormalization.UNITARY) {
+            scale = 1.0 / FastMath.sqrt(n);
+        } else {
+            scale = type == TransformType.INVERSE ? 1.0 / n : 1.0;
+        }
+        for (int k = 0; k < n; ++k) {
+            y[0][k] *= scale;
+            y[1][k] *= scale;
+        }
+        return y;
+    }
+
+}
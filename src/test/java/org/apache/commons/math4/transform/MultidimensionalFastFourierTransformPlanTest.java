@@ -0,0 +1,194 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.math4.transform;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import org.apache.commons.math4.complex.Complex;
+import org.apache.commons.math4.exception.DimensionMismatchException;
+import org.apache.commons.math4.exception.NoDataException;
+import org.apache.commons.math4.exception.NotStrictlyPositiveException;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Test case for {@link MultidimensionalFastFourierTransformPlan}.
+ */
+public final class MultidimensionalFastFourierTransformPlanTest {
+
+    /** The common seed of all random number generators used in this test. */
+    private final static long SEED = 0x5c0e8b21f7a3d946l;
+
+    @Test(expected=NoDataException.class)
+    public void testNoDimensions() {
+        new MultidimensionalFastFourierTransformPlan(new int[0], DftNormalization.STANDARD);
+    }
+
+    @Test(expected=NotStrictlyPositiveException.class)
+    public void testZeroDimension() {
+        new MultidimensionalFastFourierTransformPlan(new int[] { 4, 0 }, DftNormalization.STANDARD);
+    }
+
+    @Test(expected=DimensionMismatchException.class)
+    public void testWrongLength() {
+        final MultidimensionalFastFourierTransformPlan plan =
+            new MultidimensionalFastFourierTransformPlan(new int[] { 4, 8 }, DftNormalization.STANDARD);
+        plan.transform(new double[31], new double[31], TransformType.FORWARD);
+    }
+
+    @Test
+    @SuppressWarnings("deprecation")
+    public void testSameAsMdfft2D() {
+        final Random random = new Random(SEED);
+        final int rows = 16;
+        final int columns = 32;
+        for (final DftNormalization normalization : DftNormalization.values()) {
+            for (final TransformType type : TransformType.values()) {
+                final Complex[][] x = new Complex[rows][columns];
+                final double[] re = new double[rows * columns];
+                final double[] im = new double[rows * columns];
+                for (int r = 0; r < rows; ++r) {
+                    for (int c = 0; c < columns; ++c) {
+                        re[r * columns + c] = random.nextGaussian();
+                        im[r * columns + c] = random.nextGaussian();
+                        x[r][c] = new Complex(re[r * columns + c], im[r * columns + c]);
+                    }
+                }
+                final Complex[][] expected =
+                    (Complex[][]) new FastFourierTransformer(normalization).mdfft(x, type);
+                new MultidimensionalFastFourierTransformPlan(new int[] { rows, columns }, normalization).
+                    transform(re, im, type);
+                for (int r = 0; r < rows; ++r) {
+                    for (int c = 0; c < columns; ++c) {
+                        Assert.assertEquals(expected[r][c].getReal(),      re[r * columns + c], 1.0e-12);
+                        Assert.assertEquals(expected[r][c].getImaginary(), im[r * columns + c], 1.0e-12);
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testSeparable3D() {
+        // the transform of a separable signal is the product of the 1D transforms
+        final Random random = new Random(SEED);
+        final int[] dims = { 6, 5, 8 };
+        final double[][] factorsR = new double[dims.length][];
+        final double[][] factorsI = new double[dims.length][];
+        final double[][][] transformed = new double[dims.length][][];
+        for (int d = 0; d < dims.length; ++d) {
+            factorsR[d] = new double[dims[d]];
+            factorsI[d] = new double[dims[d]];
+            for (int i = 0; i < dims[d]; ++i) {
+                factorsR[d][i] = random.nextGaussian();
+                factorsI[d][i] = random.nextGaussian();
+            }
+            transformed[d] = FastFourierTransformPlanTest.dft(factorsR[d], factorsI[d],
+                                                              DftNormalization.UNITARY,
+                                                              TransformType.FORWARD);
+        }
+
+        final int size = dims[0] * dims[1] * dims[2];
+        final double[] re = new double[size];
+        final double[] im = new double[size];
+        for (int i = 0; i < dims[0]; ++i) {
+            for (int j = 0; j < dims[1]; ++j) {
+                for (int k = 0; k < dims[2]; ++k) {
+                    final Complex c = new Complex(factorsR[0][i], factorsI[0][i]).
+                                      multiply(new Complex(factorsR[1][j], factorsI[1][j])).
+                                      multiply(new Complex(factorsR[2][k], factorsI[2][k]));
+                    re[(i * dims[1] + j) * dims[2] + k] = c.getReal();
+                    im[(i * dims[1] + j) * dims[2] + k] = c.getImaginary();
+                }
+            }
+        }
+
+        new MultidimensionalFastFourierTransformPlan(dims, DftNormalization.UNITARY).
+            transform(re, im, TransformType.FORWARD);
+
+        for (int i = 0; i < dims[0]; ++i) {
+            for (int j = 0; j < dims[1]; ++j) {
+                for (int k = 0; k < dims[2]; ++k) {
+                    final Complex expected = new Complex(transformed[0][0][i], transformed[0][1][i]).
+                                             multiply(new Complex(transformed[1][0][j], transformed[1][1][j])).
+                                             multiply(new Complex(transformed[2][0][k], transformed[2][1][k]));
+                    Assert.assertEquals(expected.getReal(),      re[(i * dims[1] + j) * dims[2] + k], 1.0e-12);
+                    Assert.assertEquals(expected.getImaginary(), im[(i * dims[1] + j) * dims[2] + k], 1.0e-12);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testReusedPlan() {
+        // work buffers are shared by dimensions of different sizes and strides
+        final Random random = new Random(SEED);
+        final int[] dims = { 3, 40, 7 };
+        final MultidimensionalFastFourierTransformPlan plan =
+            new MultidimensionalFastFourierTransformPlan(dims, DftNormalization.UNITARY);
+        for (int k = 0; k < 3; ++k) {
+            final double[] re = new double[dims[0] * dims[1] * dims[2]];
+            final double[] im = new double[re.length];
+            for (int i = 0; i < re.length; ++i) {
+                re[i] = random.nextGaussian();
+                im[i] = random.nextGaussian();
+            }
+            final double[] reFresh = re.clone();
+            final double[] imFresh = im.clone();
+            new MultidimensionalFastFourierTransformPlan(dims, DftNormalization.UNITARY).
+                transform(reFresh, imFresh, TransformType.FORWARD);
+            plan.transform(re, im, TransformType.FORWARD);
+            Assert.assertArrayEquals(reFresh, re, 0);
+            Assert.assertArrayEquals(imFresh, im, 0);
+        }
+    }
+
+    @Test
+    public void testParallel() {
+        final Random random = new Random(SEED);
+        final int[] dims = { 256, 128 };
+        final double[] re = new double[dims[0] * dims[1]];
+        final double[] im = new double[re.length];
+        for (int i = 0; i < re.length; ++i) {
+            re[i] = random.nextGaussian();
+            im[i] = random.nextGaussian();
+        }
+        final double[] reOriginal = re.clone();
+        final double[] imOriginal = im.clone();
+        final double[] reSequential = re.clone();
+        final double[] imSequential = im.clone();
+
+        final ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            final MultidimensionalFastFourierTransformPlan parallel =
+                new MultidimensionalFastFourierTransformPlan(dims, DftNormalization.STANDARD, pool);
+            new MultidimensionalFastFourierTransformPlan(dims, DftNormalization.STANDARD).
+                transform(reSequential, imSequential, TransformType.FORWARD);
+            parallel.transform(re, im, TransformType.FORWARD);
+            Assert.assertArrayEquals(reSequential, re, 0);
+            Assert.assertArrayEquals(imSequential, im, 0);
+
+            parallel.transform(re, im, TransformType.INVERSE);
+            Assert.assertArrayEquals(reOriginal, re, 1.0e-12);
+            Assert.assertArrayEquals(imOriginal, im, 1.0e-12);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+}
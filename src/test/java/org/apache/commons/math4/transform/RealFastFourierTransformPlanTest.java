@@ -0,0 +1,82 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.math4.transform;
+
+import java.util.Random;
+
+import org.apache.commons.math4.exception.DimensionMismatchException;
+import org.apache.commons.math4.exception.NotStrictlyPositiveException;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Test case for {@link RealFastFourierTransformPlan}.
+ */
+public final class RealFastFourierTransformPlanTest {
+
+    /** The common seed of all random number generators used in this test. */
+    private final static long SEED = 0x71d4c08e3a95b26fl;
+
+    @Test(expected=NotStrictlyPositiveException.class)
+    public void testZeroLength() {
+        new RealFastFourierTransformPlan(0, DftNormalization.STANDARD);
+    }
+
+    @Test(expected=DimensionMismatchException.class)
+    public void testWrongOutputLength() {
+        final RealFastFourierTransformPlan plan = new RealFastFourierTransformPlan(16, DftNormalization.STANDARD);
+        plan.transform(new double[16], new double[16], new double[16], TransformType.FORWARD);
+    }
+
+    @Test
+    public void testCreatePlan() {
+        final RealFastFourierTransformPlan plan =
+            new FastFourierTransformer(DftNormalization.UNITARY).createRealPlan(100);
+        Assert.assertEquals(100, plan.getLength());
+        Assert.assertEquals(51, plan.getTransformedLength());
+        Assert.assertEquals(DftNormalization.UNITARY, plan.getNormalization());
+    }
+
+    @Test
+    public void testSameAsComplex() {
+        final Random random = new Random(SEED);
+        for (final DftNormalization normalization : DftNormalization.values()) {
+            for (final TransformType type : TransformType.values()) {
+                for (final int n : new int[] { 1, 2, 3, 4, 6, 8, 15, 64, 100, 1024, 1000 }) {
+                    final RealFastFourierTransformPlan plan = new RealFastFourierTransformPlan(n, normalization);
+                    final double[] data = new double[n];
+                    for (int i = 0; i < n; ++i) {
+                        data[i] = 2 * random.nextDouble() - 1;
+                    }
+                    final double[][] expected =
+                        FastFourierTransformPlanTest.dft(data, new double[n], normalization, type);
+                    final double[] re = new double[plan.getTransformedLength()];
+                    final double[] im = new double[plan.getTransformedLength()];
+                    final double[] copy = data.clone();
+                    plan.transform(data, re, im, type);
+                    Assert.assertArrayEquals(copy, data, 0);
+                    final double tol = 1.0e-13 * n;
+                    for (int k = 0; k < re.length; ++k) {
+                        Assert.assertEquals(expected[0][k], re[k], tol);
+                        Assert.assertEquals(expected[1][k], im[k], tol);
+                    }
+                }
+            }
+        }
+    }
+
+}